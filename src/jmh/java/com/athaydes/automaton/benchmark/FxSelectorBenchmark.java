@@ -0,0 +1,92 @@
+package com.athaydes.automaton.benchmark;
+
+import com.athaydes.automaton.FXUtil;
+import com.athaydes.automaton.FXer;
+import com.athaydes.automaton.selector.ComplexSelector;
+import groovy.lang.Closure;
+import javafx.scene.Node;
+import javafx.scene.layout.Pane;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import static com.athaydes.automaton.selector.StringSelectors.matchingAll;
+
+/**
+ * Measures FXer lookups in scene graphs of different sizes.
+ * <p/>
+ * The scene graphs are not shown, so the JavaFX toolkit does not need to be started.
+ * The Nodes looked up are the last ones found by a breadth-first search, so each lookup walks the whole tree.
+ */
+@State( Scope.Benchmark )
+@BenchmarkMode( Mode.AverageTime )
+@OutputTimeUnit( TimeUnit.MICROSECONDS )
+@Fork( value = 1, jvmArgsAppend = "-Djava.awt.headless=true" )
+@Warmup( iterations = 5, time = 1 )
+@Measurement( iterations = 5, time = 1 )
+public class FxSelectorBenchmark {
+
+    @Param( { "100", "1000", "10000", "100000" } )
+    public int size;
+
+    private Pane root;
+    private FXer fxer;
+    private String lastId;
+    private ComplexSelector allSelector;
+
+    @Setup
+    public void setup() {
+        root = GuiTrees.fxTree( size );
+        fxer = FXer.getUserWith( root );
+        lastId = GuiTrees.name( size - 1 );
+        allSelector = matchingAll( ".item", "#" + lastId );
+    }
+
+    @Benchmark
+    public Node byId() {
+        return fxer.getAt( "#" + lastId );
+    }
+
+    @Benchmark
+    public List<Node> allByStyleClass() {
+        return fxer.getAll( ".item" );
+    }
+
+    @Benchmark
+    public List<Node> allByType() {
+        return fxer.getAll( "type:Rectangle" );
+    }
+
+    @Benchmark
+    public List<Node> missingText() {
+        return fxer.getAll( "text:missing" );
+    }
+
+    @Benchmark
+    public Node complexMatchingAll() {
+        return fxer.getAt( allSelector );
+    }
+
+    @Benchmark
+    public boolean navigateBreadthFirst( final Blackhole blackhole ) {
+        return FXUtil.navigateBreadthFirst( root, new Closure<Boolean>( this ) {
+            public Boolean doCall( Object node ) {
+                blackhole.consume( node );
+                return false;
+            }
+        }, false );
+    }
+
+}
@@ -0,0 +1,148 @@
+package com.athaydes.automaton.benchmark;
+
+import javafx.scene.Node;
+import javafx.scene.layout.Pane;
+import javafx.scene.shape.Rectangle;
+
+import javax.swing.JComponent;
+import javax.swing.JLabel;
+import javax.swing.JPanel;
+import javax.swing.JTable;
+import javax.swing.JTree;
+import javax.swing.table.DefaultTableModel;
+import javax.swing.tree.DefaultMutableTreeNode;
+import javax.swing.tree.DefaultTreeModel;
+import java.util.ArrayDeque;
+import java.util.Deque;
+
+/**
+ * Builds synthetic GUI trees for the benchmarks.
+ * <p/>
+ * All trees are built breadth-first, with each container having up to {@link #FANOUT} children,
+ * so the item called <code>item-(size - 1)</code> is the last one to be found by a breadth-first search.
+ * None of the trees need a screen to be built.
+ */
+public final class GuiTrees {
+
+    public static final int FANOUT = 10;
+
+    private GuiTrees() {
+        // utility class
+    }
+
+    public static String name( int index ) {
+        return "item-" + index;
+    }
+
+    public static String text( int index ) {
+        return "Label " + index;
+    }
+
+    /**
+     * @param size total number of Components in the tree, including the root
+     * @return the root of a tree of JPanels (even indexes) and JLabels (odd indexes), each with a name, and each
+     * JLabel with a text
+     */
+    public static JPanel swingTree( int size ) {
+        JPanel root = new JPanel();
+        root.setName( name( 0 ) );
+        Deque<JComponent> containers = new ArrayDeque<JComponent>();
+        containers.add( root );
+        int index = 1;
+        while ( index < size ) {
+            JComponent parent = containers.remove();
+            for ( int i = 0; i < FANOUT && index < size; i++, index++ ) {
+                JComponent child;
+                if ( index % 2 == 0 ) {
+                    child = new JPanel();
+                    containers.add( child );
+                } else {
+                    child = new JLabel( text( index ) );
+                }
+                child.setName( name( index ) );
+                parent.add( child );
+            }
+        }
+        return root;
+    }
+
+    /**
+     * @param size total number of Nodes in the tree, including the root
+     * @return the root of a tree of Panes (even indexes) and Rectangles (odd indexes), each with an ID and the style
+     * class <code>item</code>
+     */
+    public static Pane fxTree( int size ) {
+        Pane root = new Pane();
+        root.setId( name( 0 ) );
+        root.getStyleClass().add( "item" );
+        Deque<Pane> containers = new ArrayDeque<Pane>();
+        containers.add( root );
+        int index = 1;
+        while ( index < size ) {
+            Pane parent = containers.remove();
+            for ( int i = 0; i < FANOUT && index < size; i++, index++ ) {
+                Node child;
+                if ( index % 2 == 0 ) {
+                    Pane pane = new Pane();
+                    containers.add( pane );
+                    child = pane;
+                } else {
+                    child = new Rectangle( 10, 10 );
+                }
+                child.setId( name( index ) );
+                child.getStyleClass().add( "item" );
+                parent.getChildren().add( child );
+            }
+        }
+        return root;
+    }
+
+    /**
+     * @return a JTable whose cell at (row, column) has the value <code>"row:column"</code>
+     */
+    public static JTable table( int rows, int columns ) {
+        Object[][] data = new Object[ rows ][ columns ];
+        Object[] headers = new Object[ columns ];
+        for ( int column = 0; column < columns; column++ ) {
+            headers[ column ] = "column-" + column;
+            for ( int row = 0; row < rows; row++ ) {
+                data[ row ][ column ] = row + ":" + column;
+            }
+        }
+        return new JTable( new DefaultTableModel( data, headers ) );
+    }
+
+    /**
+     * @param size total number of nodes in the tree, including the root
+     * @return a JTree whose nodes are called <code>item-n</code>
+     */
+    public static JTree tree( int size ) {
+        DefaultMutableTreeNode root = new DefaultMutableTreeNode( name( 0 ) );
+        Deque<DefaultMutableTreeNode> parents = new ArrayDeque<DefaultMutableTreeNode>();
+        parents.add( root );
+        int index = 1;
+        while ( index < size ) {
+            DefaultMutableTreeNode parent = parents.remove();
+            for ( int i = 0; i < FANOUT && index < size; i++, index++ ) {
+                DefaultMutableTreeNode child = new DefaultMutableTreeNode( name( index ) );
+                parent.add( child );
+                parents.add( child );
+            }
+        }
+        return new JTree( new DefaultTreeModel( root ) );
+    }
+
+    /**
+     * @return the names of the nodes from the root (exclusive) to the given node of a tree built by
+     * {@link #tree(int)}
+     */
+    public static String[] treePath( int index ) {
+        Deque<String> path = new ArrayDeque<String>();
+        while ( index > 0 ) {
+            path.addFirst( name( index ) );
+            index = ( index - 1 ) / FANOUT;
+        }
+        return path.toArray( new String[ path.size() ] );
+    }
+
+}
@@ -0,0 +1,37 @@
+package com.athaydes.automaton.benchmark;
+
+import com.athaydes.internal.RobotTypingUtil;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures the translation of text into key codes, which happens for every character typed.
+ */
+@State( Scope.Benchmark )
+@BenchmarkMode( Mode.AverageTime )
+@OutputTimeUnit( TimeUnit.NANOSECONDS )
+@Fork( value = 1, jvmArgsAppend = "-Djava.awt.headless=true" )
+@Warmup( iterations = 5, time = 1 )
+@Measurement( iterations = 5, time = 1 )
+public class RobotTypingBenchmark {
+
+    static final String TEXT = "The quick brown fox jumps over the lazy dog! 0123456789 (user@example.com)";
+
+    @Benchmark
+    public void robotCode( Blackhole blackhole ) {
+        for ( int i = 0; i < TEXT.length(); i++ ) {
+            blackhole.consume( RobotTypingUtil.robotCode( String.valueOf( TEXT.charAt( i ) ) ) );
+        }
+    }
+
+}
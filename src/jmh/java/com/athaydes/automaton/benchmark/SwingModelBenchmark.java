@@ -0,0 +1,84 @@
+package com.athaydes.automaton.benchmark;
+
+import com.athaydes.automaton.FakeComponent;
+import com.athaydes.automaton.SwingUtil;
+import com.athaydes.automaton.Swinger;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import javax.swing.JPanel;
+import javax.swing.JTable;
+import javax.swing.JTree;
+import javax.swing.tree.TreeNode;
+import java.awt.Component;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures lookups of items shown by large JTable and JTree models, and the creation of the FakeComponents
+ * which represent them.
+ */
+@State( Scope.Benchmark )
+@BenchmarkMode( Mode.AverageTime )
+@OutputTimeUnit( TimeUnit.MICROSECONDS )
+@Fork( value = 1, jvmArgsAppend = "-Djava.awt.headless=true" )
+@Warmup( iterations = 5, time = 1 )
+@Measurement( iterations = 5, time = 1 )
+public class SwingModelBenchmark {
+
+    static final int COLUMNS = 5;
+
+    @Param( { "100", "1000", "10000", "100000" } )
+    public int size;
+
+    private JTable table;
+    private JTree tree;
+    private Swinger tableSwinger;
+    private String lastCell;
+    private String[] lastNodePath;
+    private TreeNode lastNode;
+
+    @Setup
+    public void setup() {
+        table = GuiTrees.table( size / COLUMNS, COLUMNS );
+        JPanel tablePanel = new JPanel();
+        tablePanel.add( table );
+        tableSwinger = Swinger.getUserWith( tablePanel );
+        lastCell = ( size / COLUMNS - 1 ) + ":" + ( COLUMNS - 1 );
+
+        tree = GuiTrees.tree( size );
+        lastNodePath = GuiTrees.treePath( size - 1 );
+        List<Component> path = SwingUtil.collectNodes( tree, lastNodePath );
+        lastNode = ( TreeNode ) ( ( FakeComponent ) path.get( path.size() - 1 ) ).getRealObject();
+    }
+
+    @Benchmark
+    public Component tableCellByText() {
+        return tableSwinger.getAt( "text:" + lastCell );
+    }
+
+    @Benchmark
+    public List<Component> collectTreeNodes() {
+        return SwingUtil.collectNodes( tree, lastNodePath );
+    }
+
+    @Benchmark
+    public Component tableCellFakeComponent() {
+        return SwingUtil.tableCell2FakeComponent( table, null, size / COLUMNS - 1, COLUMNS - 1 );
+    }
+
+    @Benchmark
+    public Component treeNodeFakeComponent() {
+        return SwingUtil.treeNode2FakeComponent( tree, lastNode );
+    }
+
+}
@@ -0,0 +1,98 @@
+package com.athaydes.automaton.benchmark;
+
+import com.athaydes.automaton.SwingUtil;
+import com.athaydes.automaton.Swinger;
+import com.athaydes.automaton.selector.ComplexSelector;
+import groovy.lang.Closure;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import javax.swing.JPanel;
+import java.awt.Component;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import static com.athaydes.automaton.selector.StringSelectors.matchingAll;
+import static com.athaydes.automaton.selector.StringSelectors.matchingAny;
+
+/**
+ * Measures Swinger lookups in Component trees of different sizes.
+ * <p/>
+ * The Components looked up are the last ones found by a breadth-first search, so each lookup walks the whole tree.
+ */
+@State( Scope.Benchmark )
+@BenchmarkMode( Mode.AverageTime )
+@OutputTimeUnit( TimeUnit.MICROSECONDS )
+@Fork( value = 1, jvmArgsAppend = "-Djava.awt.headless=true" )
+@Warmup( iterations = 5, time = 1 )
+@Measurement( iterations = 5, time = 1 )
+public class SwingSelectorBenchmark {
+
+    @Param( { "100", "1000", "10000", "100000" } )
+    public int size;
+
+    private JPanel root;
+    private Swinger swinger;
+    private String lastName;
+    private String lastText;
+    private ComplexSelector allSelector;
+    private ComplexSelector anySelector;
+
+    @Setup
+    public void setup() {
+        root = GuiTrees.swingTree( size );
+        swinger = Swinger.getUserWith( root );
+        lastName = GuiTrees.name( size - 1 );
+        // only Components with odd indexes are JLabels
+        int lastLabel = ( size - 1 ) % 2 == 1 ? size - 1 : size - 2;
+        lastText = GuiTrees.text( lastLabel );
+        allSelector = matchingAll( "type:JLabel", "name:" + GuiTrees.name( lastLabel ) );
+        anySelector = matchingAny( "name:missing", "text:" + lastText );
+    }
+
+    @Benchmark
+    public Component byName() {
+        return swinger.getAt( lastName );
+    }
+
+    @Benchmark
+    public Component byText() {
+        return swinger.getAt( "text:" + lastText );
+    }
+
+    @Benchmark
+    public List<Component> allByType() {
+        return swinger.getAll( "type:JLabel" );
+    }
+
+    @Benchmark
+    public Component complexMatchingAll() {
+        return swinger.getAt( allSelector );
+    }
+
+    @Benchmark
+    public Component complexMatchingAny() {
+        return swinger.getAt( anySelector );
+    }
+
+    @Benchmark
+    public boolean navigateBreadthFirst( final Blackhole blackhole ) {
+        return SwingUtil.navigateBreadthFirst( root, new Closure<Boolean>( this ) {
+            public Boolean doCall( Object component ) {
+                blackhole.consume( component );
+                return false;
+            }
+        } );
+    }
+
+}
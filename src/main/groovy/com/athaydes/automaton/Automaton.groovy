@@ -1,11 +1,18 @@
 package com.athaydes.automaton
 
 import com.athaydes.automaton.cli.AutomatonDemo
+import com.athaydes.automaton.cli.AutomatonJavaAgent
 import com.athaydes.automaton.cli.AutomatonScriptRunner
+import com.athaydes.automaton.cli.ParallelScriptRunner
+import com.athaydes.automaton.cli.ScriptDaemon
+import com.athaydes.automaton.metrics.ActionMetrics
+import com.athaydes.internal.BulkTyper
 import com.athaydes.internal.Config
 import com.athaydes.internal.Interaction
 import com.athaydes.internal.Mouse
-import com.athaydes.internal.TimeLimiter
+import com.athaydes.internal.Quiescence
+import com.athaydes.internal.Deadline
+import com.athaydes.internal.input.RobotBackend
 
 import java.awt.*
 import java.awt.event.KeyEvent
@@ -19,64 +26,148 @@ import static com.athaydes.internal.RobotTypingUtil.robotCode
  */
 class Automaton<T extends Automaton> {
 
-    def robot = new Robot()
-
     static Speed DEFAULT = Config.instance.speed
-    private static Automaton instance
-    private abortAfter = new TimeLimiter().&abortAfter
-    final Interaction interaction
+    static MouseMotion DEFAULT_MOTION = Config.instance.mouseMotion
+    static InputMode DEFAULT_INPUT = Config.instance.inputMode
+    private static final String MOVE_OPERATION = 'Move mouse'
+    private static final long MOVE_TIMEOUT_MINUTES = 1
+    private InputBackend backend
+    final AutomatonSession session
 	/**
-	 * Get the singleton instance of Automaton, which is lazily created.
+	 * Get the Automaton of the default session, which is lazily created.
 	 * @return Automaton singleton instance
 	 */
-	static synchronized Automaton<Automaton> getUser() {
-		if ( !instance ) instance = new Automaton<Automaton>()
-		instance
+	static Automaton<Automaton> getUser() {
+		AutomatonSession.default.automaton
 	}
 
     static isMac() {
         System.getProperty( "os.name" )?.toLowerCase()?.contains( "mac" )
     }
 
-	protected Automaton() {
-		this.interaction = Interaction.instance
+	protected Automaton( AutomatonSession session = AutomatonSession.default ) {
+		this.session = session
+	}
+
+	Interaction getInteraction() {
+		session.interaction
+	}
+
+	/**
+	 * @return the speed used when no speed is given, which is the speed of this driver's session
+	 */
+	Speed getDefaultSpeed() {
+		session.speed
 	}
 
-	T moveTo( Number x, Number y, Speed speed = DEFAULT ) {
-		moveTo( new Point( x.intValue(), y.intValue() ), speed )
+	/**
+	 * @return the mouse motion used when no motion is given, which is the motion of this driver's session
+	 */
+	MouseMotion getDefaultMotion() {
+		session.mouseMotion
 	}
 
-	T moveTo( Point target, Speed speed = DEFAULT ) {
-		def currPos = MouseInfo.pointerInfo.location
-		move( currPos, target, speed )
+	/**
+	 * @return the backend used to send mouse and keyboard input. Unless another backend has been set,
+	 * this is the backend of this driver's session.
+	 */
+	synchronized InputBackend getInput() {
+		backend ?: session.input
 	}
 
-	T moveTo( Closure<Point> getTarget, Speed speed = DEFAULT ) {
+	/**
+	 * Makes this driver send input using a new backend for the given mode.
+	 * @param mode input mode to use
+	 * @return this
+	 */
+	T withInput( InputMode mode ) {
+		withInput( mode.createBackend() )
+	}
+
+	/**
+	 * Makes this driver send input using the given backend.
+	 * @param backend to use
+	 * @return this
+	 */
+	synchronized T withInput( InputBackend backend ) {
+		this.backend = backend
+		this as T
+	}
+
+	/**
+	 * @return the Robot used by this driver
+	 * @deprecated use {@link #getInput()}, which may not be using a Robot
+	 */
+	@Deprecated
+	Robot getRobot() {
+		def input = getInput()
+		input instanceof RobotBackend ? ( input as RobotBackend ).robot : null
+	}
+
+	T moveTo( Number x, Number y, Speed speed = defaultSpeed, MouseMotion motion = defaultMotion ) {
+		moveTo( new Point( x.intValue(), y.intValue() ), speed, motion )
+	}
+
+	T moveTo( Point target, Speed speed = defaultSpeed, MouseMotion motion = defaultMotion ) {
+		def currPos = input.mouseLocation
+		move( currPos, target, speed, motion )
+	}
+
+	/**
+	 * Moves the mouse to the target given by the Closure until the target no longer changes.
+	 * All moves must complete within the same time limit as a single move.
+	 */
+	T moveTo( Closure<Point> getTarget, Speed speed = defaultSpeed, MouseMotion motion = defaultMotion ) {
+		def deadline = Deadline.after( MOVE_TIMEOUT_MINUTES, TimeUnit.MINUTES, MOVE_OPERATION )
 		def target = null
 		while ( !target || getTarget() != target ) {
 			target = getTarget()
-			moveTo( target, speed )
+			move( input.mouseLocation, target, speed, motion, deadline )
 		}
 		this as T
 	}
 
-	T moveBy( Number x, Number y, Speed speed = DEFAULT ) {
-		def currPos = MouseInfo.pointerInfo.location
+	T moveBy( Number x, Number y, Speed speed = defaultSpeed, MouseMotion motion = defaultMotion ) {
+		def currPos = input.mouseLocation
 		def target = new Point( ( currPos.x + x ).intValue(),
 				( currPos.y + y ).intValue() )
-		move( currPos, target, speed )
+		move( currPos, target, speed, motion )
 	}
 
-	protected T move( currPos, target, Speed speed ) {
-		interaction.await "Move mouse to $target"
-		abortAfter( {
-			while ( currPos.x != target.x || currPos.y != target.y ) {
-				robot.mouseMove delta( currPos.x, target.x ), delta( currPos.y, target.y )
-				robot.delay speed.delay
-				currPos = MouseInfo.pointerInfo.location
-			}
-			this as T
-		}, 1, TimeUnit.MINUTES )
+	protected T move( currPos, target, Speed speed, MouseMotion motion = defaultMotion,
+	                  Deadline deadline = Deadline.after( MOVE_TIMEOUT_MINUTES, TimeUnit.MINUTES, MOVE_OPERATION ) ) {
+		def record = ActionMetrics.begin( 'Automaton.move' )
+		try {
+			doMove( currPos, target, speed, motion, deadline )
+		} finally {
+			ActionMetrics.end( record )
+		}
+		this as T
+	}
+
+	private void doMove( currPos, target, Speed speed, MouseMotion motion, Deadline deadline ) {
+		if ( interaction.interactive ) interaction.await "Move mouse to $target"
+		ActionMetrics.located( target as Point )
+		switch ( motion ) {
+			case MouseMotion.INSTANT:
+				input.mouseMove target.x as int, target.y as int
+				break
+			case MouseMotion.CURVE:
+				for ( point in MouseMotion.curvePath( currPos as Point, target as Point ) ) {
+					deadline.check()
+					input.mouseMove point.x as int, point.y as int
+					input.delay speed.delay
+				}
+				break
+		}
+		// the HUMAN motion, and the others if the mouse did not get to the target for any reason
+		currPos = input.mouseLocation
+		while ( currPos.x != target.x || currPos.y != target.y ) {
+			deadline.check()
+			input.mouseMove delta( currPos.x, target.x ), delta( currPos.y, target.y )
+			input.delay speed.delay
+			currPos = input.mouseLocation
+		}
 	}
 
 	protected static int delta( curr, target ) {
@@ -84,10 +175,15 @@ class Automaton<T extends Automaton> {
 		curr + ( comp > 0 ? -1 : comp == 0 ? 0 : 1 ) as int
 	}
 
-	T dragBy( Number x, Number y, Speed speed = DEFAULT ) {
-		robot.mousePress Mouse.LEFT
-		moveBy x, y, speed
-		robot.mouseRelease Mouse.LEFT
+	T dragBy( Number x, Number y, Speed speed = defaultSpeed, MouseMotion motion = defaultMotion ) {
+		def record = ActionMetrics.begin( 'Automaton.dragBy' )
+		try {
+			input.mousePress Mouse.LEFT
+			moveBy x, y, speed, motion
+			input.mouseRelease Mouse.LEFT
+		} finally {
+			ActionMetrics.end( record )
+		}
 		this as T
 	}
 
@@ -96,47 +192,95 @@ class Automaton<T extends Automaton> {
 	}
 
 	T click() {
-		interaction.await "Click"
-		doClick Mouse.LEFT
+		def record = ActionMetrics.begin( 'Automaton.click' )
+		try {
+			interaction.await "Click"
+			doClick Mouse.LEFT
+		} finally {
+			ActionMetrics.end( record )
+		}
 	}
 
 	T rightClick() {
-		interaction.await "Right-click"
-		doClick Mouse.RIGHT
+		def record = ActionMetrics.begin( 'Automaton.rightClick' )
+		try {
+			interaction.await "Right-click"
+			doClick Mouse.RIGHT
+		} finally {
+			ActionMetrics.end( record )
+		}
 	}
 
 	T doubleClick() {
-		interaction.await "Double-click"
-		doClick( Mouse.LEFT ).pause( 50 ).doClick( Mouse.LEFT )
+		def record = ActionMetrics.begin( 'Automaton.doubleClick' )
+		try {
+			interaction.await "Double-click"
+			doClick( Mouse.LEFT ).waitForIdle( 50 ).doClick( Mouse.LEFT )
+		} finally {
+			ActionMetrics.end( record )
+		}
 	}
 
 	protected T doClick( button ) {
-		robot.mousePress button
-		robot.mouseRelease button
+		if ( ActionMetrics.current() != null ) ActionMetrics.located( input.mouseLocation )
+		input.mousePress button
+		input.mouseRelease button
 		this as T
 	}
 
 	T pause( long millis ) {
-		sleep millis
+		def record = ActionMetrics.begin( 'Automaton.pause' )
+		long start = System.nanoTime()
+		try {
+			sleep millis
+		} finally {
+			ActionMetrics.waited( System.nanoTime() - start )
+			ActionMetrics.end( record )
+		}
+		this as T
+	}
+
+	/**
+	 * Waits until the Swing and JavaFX event queues have been drained and the focus has settled.
+	 * @param maxMillis maximum time to wait
+	 * @return this
+	 */
+	T waitForIdle( long maxMillis = 1000 ) {
+		def record = ActionMetrics.begin( 'Automaton.waitForIdle' )
+		try {
+			Quiescence.awaitIdle( maxMillis )
+		} finally {
+			ActionMetrics.end( record )
+		}
 		this as T
 	}
 
 	T type( int keyCode ) {
-		typeCode( false, keyCode )
+		def record = ActionMetrics.begin( 'Automaton.typeKey' )
+		try {
+			typeCode( false, keyCode )
+		} finally {
+			ActionMetrics.end( record )
+		}
 		this as T
 	}
 
 	T pressSimultaneously( int ... keyCodes ) {
-		def keysText = keyCodes.collect { KeyEvent.getKeyText( it ) }
-		interaction.await "Press simultaneously $keysText"
+		def record = ActionMetrics.begin( 'Automaton.pressSimultaneously' )
 		try {
-			keyCodes.each { robot.keyPress it }
-		} finally {
-			robot.delay 50
+			def keysText = keyCodes.collect { KeyEvent.getKeyText( it ) }
+			interaction.await "Press simultaneously $keysText"
 			try {
-				keyCodes.each { robot.keyRelease it }
-			} catch ( ignored ) {
+				keyCodes.each { input.keyPress it }
+			} finally {
+				input.delay 50
+				try {
+					keyCodes.each { input.keyRelease it }
+				} catch ( ignored ) {
+				}
 			}
+		} finally {
+			ActionMetrics.end( record )
 		}
 		this as T
 	}
@@ -153,30 +297,67 @@ class Automaton<T extends Automaton> {
      * @param speed how fast to type
      * @return this
      */
-    T type( String text, Speed speed = DEFAULT ) {
-		interaction.await "Type $text"
-        def lastAttemptedChar = ''
-        try {
-            text.each { c ->
-                lastAttemptedChar = c
-                def rc = robotCode( c )
-                typeCode rc.shift, rc.code, speed
-            }
-        } catch (IllegalArgumentException e) {
-            throw new RuntimeException( "Unable to type character '$lastAttemptedChar' in: $text" +
-                    "\nPrefer to set the text in a field directly as explained in the Automaton documentation." )
-        }
+    T type( String text, Speed speed = defaultSpeed ) {
+		def record = ActionMetrics.begin( 'Automaton.type' )
+		try {
+			interaction.await "Type $text"
+			def lastAttemptedChar = ''
+			try {
+				text.each { c ->
+					lastAttemptedChar = c
+					def rc = robotCode( c )
+					typeCode rc.shift, rc.code, speed
+				}
+			} catch (IllegalArgumentException e) {
+				throw new RuntimeException( "Unable to type character '$lastAttemptedChar' in: $text" +
+						"\nPrefer to set the text in a field directly as explained in the Automaton documentation." )
+			}
+		} finally {
+			ActionMetrics.end( record )
+		}
+		this as T
+	}
+
+	/**
+	 * Types the given text as fast as possible.
+	 * <p/>
+	 * The keystrokes for the whole text are computed before typing starts. If a Component of this JVM has the
+	 * keyboard focus, keystrokes are sent without any delay between them, otherwise each key is held for
+	 * the given speed's delay. This method returns once the UI has processed all keystrokes.
+	 * <p/>
+	 * The same restrictions as for {@link #type(String, Speed)} apply regarding which characters can be typed.
+	 * To enter arbitrary text into a Swing Component, use <code>Swinger.postText</code>.
+	 *
+	 * @param text to type
+	 * @param speed how fast to type if no Component of this JVM has the keyboard focus
+	 * @return this
+	 */
+	T typeBulk( String text, Speed speed = defaultSpeed ) {
+		def record = ActionMetrics.begin( 'Automaton.typeBulk' )
+		try {
+			interaction.await "Type $text"
+			def focused = KeyboardFocusManager.currentKeyboardFocusManager.focusOwner != null
+			try {
+				BulkTyper.type( input, text, focused ? 0 : speed.delay )
+			} catch ( IllegalArgumentException e ) {
+				throw new RuntimeException( "Unable to type text: $text" +
+						"\nPrefer to set the text in a field directly as explained in the Automaton documentation.", e )
+			}
+			Quiescence.awaitIdle( 1000 )
+		} finally {
+			ActionMetrics.end( record )
+		}
 		this as T
 	}
 
-	void typeCode( boolean shift, int code, Speed speed = DEFAULT ) {
-		if ( shift ) robot.keyPress KeyEvent.VK_SHIFT
+	void typeCode( boolean shift, int code, Speed speed = defaultSpeed ) {
+		if ( shift ) input.keyPress KeyEvent.VK_SHIFT
 		try {
-			robot.keyPress code
-			robot.delay speed.delay * 10
-			robot.keyRelease code
+			input.keyPress code
+			input.delay speed.delay * 10
+			input.keyRelease code
 		} finally {
-			if ( shift ) robot.keyRelease KeyEvent.VK_SHIFT
+			if ( shift ) input.keyRelease KeyEvent.VK_SHIFT
 		}
 	}
 
@@ -184,7 +365,11 @@ class Automaton<T extends Automaton> {
 		println '''Automaton usage:
 		| - You must provide one of the following options to run Automaton:
 		|    -demo - Shows a demo of Automaton with a built-in UI and a simple Automaton script
-		|    -script <file> - runs your Automaton script'''.stripMargin()
+		|    -script <file> - runs your Automaton script
+		|    -send <file> [port] - sends your Automaton script to the AScript daemon running in your application
+		|    -attach <pid> <agent arguments> - attaches the Automaton agent to your running application
+		|    -parallel [options] <dir> -- <command> - runs the scripts in <dir> in parallel, each in a new
+		|                                             application JVM started by <command>'''.stripMargin()
 	}
 
 	static void main( String[] args ) {
@@ -196,6 +381,12 @@ class Automaton<T extends Automaton> {
 				break
 			case '-script': if ( args.size() > 1 ) runScript( args[ 1 ] ) else usage()
 				break
+			case '-send': if ( args.size() > 1 ) sendScript( args[ 1 ], args.size() > 2 ? args[ 2 ] : null ) else usage()
+				break
+			case '-attach': if ( args.size() > 2 ) AutomatonJavaAgent.attach( args[ 1 ], args[ 2 ] ) else usage()
+				break
+			case '-parallel': ParallelScriptRunner.main( args.drop( 1 ) )
+				break
 			default: usage()
 		}
 	}
@@ -204,6 +395,11 @@ class Automaton<T extends Automaton> {
 		AutomatonScriptRunner.instance.runScript( fileName )
 	}
 
+	static void sendScript( String fileName, String port ) {
+		def text = new File( fileName ).text
+		System.exit( ScriptDaemon.send( text, port ? port.toInteger() : null ) )
+	}
+
 	static void demo( String option ) {
 		AutomatonDemo.instance.runDemo( option )
 	}
@@ -221,9 +417,9 @@ class DragOn<T extends Automaton> {
 		this.fromY = fromY
 	}
 
-	T onto( Number x, Number y, Speed speed = Automaton.DEFAULT ) {
-		automaton.moveTo( fromX as int, fromY as int, speed )
-		automaton.dragBy( x - fromX as int, y - fromY as int, speed )
+	T onto( Number x, Number y, Speed speed = automaton.defaultSpeed, MouseMotion motion = automaton.defaultMotion ) {
+		automaton.moveTo( fromX as int, fromY as int, speed, motion )
+		automaton.dragBy( x - fromX as int, y - fromY as int, speed, motion )
 	}
 }
 
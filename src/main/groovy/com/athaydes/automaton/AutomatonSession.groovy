@@ -0,0 +1,172 @@
+package com.athaydes.automaton
+
+import com.athaydes.internal.Interaction
+import groovy.transform.PackageScope
+import javafx.scene.Node
+import javafx.stage.Window
+
+import java.awt.Component
+import java.awt.Point
+
+/**
+ * Independent context in which drivers run.
+ * <p/>
+ * A session owns the input backend, the default speed and mouse motion, the interaction policy and the
+ * cached coordinates used by its drivers, so the settings of drivers created by different sessions do not
+ * affect each other. This allows the mouse of several independent modules to be driven in parallel in the same
+ * JVM, each with its own session (normally using the {@link InputMode#SYNTHETIC} input mode, as there is only
+ * one real mouse).
+ * <p/>
+ * Keyboard input is not isolated per session: in every input mode, keys are sent to the focus owner of the JVM,
+ * which is shared by all sessions, and clicking in one session moves the focus away from the Component another
+ * session may be typing into. Sessions which run in parallel should not type at the same time. To enter text
+ * without using the keyboard focus, use <code>Swinger.postText(Component, String)</code>.
+ * <p/>
+ * The static entry points, such as <code>SwingAutomaton.user</code> and <code>Swinger.getUserWith()</code>,
+ * use the {@link #getDefault() default session}, which follows the global configuration.
+ */
+class AutomatonSession {
+
+	private static AutomatonSession defaultSession
+
+	private InputBackend input
+	private Speed speed
+	private MouseMotion mouseMotion
+	private Interaction interaction
+
+	private Automaton<Automaton> automaton
+	private SwingAutomaton swingAutomaton
+	private FXAutomaton fxAutomaton
+
+	/**
+	 * Position of the Scene of each JavaFX Window within the Window, see
+	 * {@link FXAutomaton#getScenePosition(javafx.scene.Node)}. Access must be synchronized on the Map.
+	 */
+	@PackageScope
+	final Map<Window, Point> fxSceneOffsets = new WeakHashMap<Window, Point>()
+
+	/**
+	 * @return the session used by the static entry points. Unless changed in this session, its settings
+	 * are the global defaults, which may be changed at any time.
+	 */
+	static synchronized AutomatonSession getDefault() {
+		if ( !defaultSession ) defaultSession = new AutomatonSession()
+		defaultSession
+	}
+
+	/**
+	 * Creates a new session, which has its own input backend.
+	 * @param mode input mode of the session. Unless given, the default input mode is used.
+	 * @return a new session
+	 */
+	static AutomatonSession newSession( InputMode mode = Automaton.DEFAULT_INPUT ) {
+		new AutomatonSession().withInput( mode )
+	}
+
+	private AutomatonSession() {}
+
+	/**
+	 * @return the input backend used by the drivers of this session
+	 */
+	synchronized InputBackend getInput() {
+		input ?: Automaton.DEFAULT_INPUT.sharedBackend
+	}
+
+	/**
+	 * @return the speed used by the drivers of this session when no speed is given
+	 */
+	synchronized Speed getSpeed() {
+		speed ?: Automaton.DEFAULT
+	}
+
+	/**
+	 * @return the way the drivers of this session move the mouse
+	 */
+	synchronized MouseMotion getMouseMotion() {
+		mouseMotion ?: Automaton.DEFAULT_MOTION
+	}
+
+	/**
+	 * @return the interaction policy of this session
+	 */
+	synchronized Interaction getInteraction() {
+		interaction ?: Interaction.instance
+	}
+
+	AutomatonSession withInput( InputMode mode ) {
+		withInput( mode.createBackend() )
+	}
+
+	synchronized AutomatonSession withInput( InputBackend backend ) {
+		this.input = backend
+		this
+	}
+
+	synchronized AutomatonSession withSpeed( Speed speed ) {
+		this.speed = speed
+		this
+	}
+
+	synchronized AutomatonSession withMouseMotion( MouseMotion mouseMotion ) {
+		this.mouseMotion = mouseMotion
+		this
+	}
+
+	/**
+	 * @param interactive true to require the user to press a key before each action, false otherwise
+	 * @return this
+	 */
+	synchronized AutomatonSession withInteractiveMode( boolean interactive ) {
+		this.interaction = new Interaction( interactive )
+		this
+	}
+
+	/**
+	 * @return the Automaton of this session, which is lazily created
+	 */
+	synchronized Automaton<Automaton> getAutomaton() {
+		if ( !automaton ) automaton = new Automaton<Automaton>( this )
+		automaton
+	}
+
+	/**
+	 * @return the SwingAutomaton of this session, which is lazily created
+	 */
+	synchronized SwingAutomaton getSwingAutomaton() {
+		if ( !swingAutomaton ) swingAutomaton = new SwingAutomaton( this )
+		swingAutomaton
+	}
+
+	/**
+	 * @return the FXAutomaton of this session, which is lazily created
+	 */
+	synchronized FXAutomaton getFxAutomaton() {
+		if ( !fxAutomaton ) fxAutomaton = new FXAutomaton( this )
+		fxAutomaton
+	}
+
+	/**
+	 * @return a new Swinger running in this session
+	 * @see Swinger#getUserWith(java.awt.Component)
+	 */
+	Swinger swinger( Component component = null ) {
+		Swinger.create( this, component )
+	}
+
+	/**
+	 * @return a new FXer running in this session
+	 * @see FXer#getUserWith(javafx.scene.Node)
+	 */
+	FXer fxer( Node node = null ) {
+		FXer.create( this, node )
+	}
+
+	/**
+	 * @return a new SwingerFxer running in this session
+	 * @see SwingerFxer#getUserWith(java.awt.Component, javafx.scene.Node)
+	 */
+	SwingerFxer swingerFxer( Component component = null, Node node = null ) {
+		new SwingerFxer( this, component, node )
+	}
+
+}
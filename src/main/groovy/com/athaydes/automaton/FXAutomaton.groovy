@@ -1,15 +1,21 @@
 package com.athaydes.automaton
 
+import com.athaydes.automaton.metrics.ActionMetrics
 import com.athaydes.automaton.selector.AutomatonSelector
 import com.athaydes.automaton.selector.ComplexSelector
 import com.athaydes.automaton.selector.CompositeFxSelector
 import com.athaydes.automaton.selector.FxSelectors
 import com.athaydes.automaton.selector.IntersectFxSelector
 import com.athaydes.automaton.selector.MatchType
+import com.athaydes.automaton.selector.SimpleFxSelector
 import com.athaydes.automaton.selector.UnionFxSelector
 import com.athaydes.internal.Config
+import com.athaydes.internal.Quiescence
+import com.athaydes.internal.index.FxNodeIndex
+import com.athaydes.internal.traversal.MatchingIterator
 import com.athaydes.internal.interceptor.ToFrontInterceptor
 import com.sun.javafx.robot.impl.FXRobotHelper
+import groovy.transform.PackageScope
 import groovy.util.logging.Slf4j
 import javafx.application.Application
 import javafx.application.Platform
@@ -22,6 +28,9 @@ import org.codehaus.groovy.runtime.InvokerHelper
 
 import java.awt.Point
 import java.util.concurrent.ArrayBlockingQueue
+import java.util.concurrent.Callable
+import java.util.concurrent.ExecutionException
+import java.util.concurrent.FutureTask
 import java.util.concurrent.TimeUnit
 
 import static com.athaydes.automaton.selector.StringSelectors.matchingAny
@@ -32,18 +41,23 @@ import static com.athaydes.automaton.selector.StringSelectors.matchingAny
  */
 class FXAutomaton extends Automaton<FXAutomaton> {
 
-    private static instance
+    /**
+     * The Node the mouse was last moved to, which is expected to get the focus when clicked.
+     */
+    @PackageScope
+    volatile Node lastTarget
 
     /**
-     * Get the singleton instance of FXAutomaton, which is lazily created.
+     * Get the FXAutomaton of the default session, which is lazily created.
      * @return FXAutomaton singleton instance
      */
-    static synchronized FXAutomaton getUser() {
-        if ( !instance ) instance = new FXAutomaton()
-        instance
+    static FXAutomaton getUser() {
+        AutomatonSession.default.fxAutomaton
     }
 
-    protected FXAutomaton() {}
+    protected FXAutomaton( AutomatonSession session = AutomatonSession.default ) {
+        super( session )
+    }
 
     /**
      * Block until all events in the JavaFX Thread have been processed.
@@ -53,42 +67,95 @@ class FXAutomaton extends Automaton<FXAutomaton> {
         this
     }
 
-    FXAutomaton clickOn( Node node, Speed speed = DEFAULT ) {
+    FXAutomaton clickOn( Node node, Speed speed = defaultSpeed ) {
         moveTo( node, speed ).click()
     }
 
-    FXAutomaton clickOnNodes( Collection<Node> nodes, long pauseBetween = 100, Speed speed = DEFAULT ) {
-        nodes.each { node -> clickOn( node, speed ).pause( pauseBetween ) }
-        this
+    /**
+     * Clicks on each of the given Nodes. See {@link #onEachNode(Collection, long, Speed, Closure)} for how the
+     * Nodes are located.
+     */
+    FXAutomaton clickOnNodes( Collection<Node> nodes, long pauseBetween = 100, Speed speed = defaultSpeed ) {
+        onEachNode( nodes, pauseBetween, speed ) { click() }
     }
 
-    FXAutomaton doubleClickOn( Node node, Speed speed = DEFAULT ) {
+    FXAutomaton doubleClickOn( Node node, Speed speed = defaultSpeed ) {
         moveTo( node, speed ).doubleClick()
     }
 
-    FXAutomaton doubleClickOnNodes( Collection<Node> nodes, long pauseBetween = 100, Speed speed = DEFAULT ) {
-        nodes.each { node -> doubleClickOn( node, speed ).pause( pauseBetween ) }
-        this
+    /**
+     * Double-clicks on each of the given Nodes. See {@link #onEachNode(Collection, long, Speed, Closure)} for how
+     * the Nodes are located.
+     */
+    FXAutomaton doubleClickOnNodes( Collection<Node> nodes, long pauseBetween = 100, Speed speed = defaultSpeed ) {
+        onEachNode( nodes, pauseBetween, speed ) { doubleClick() }
+    }
+
+    FXAutomaton moveTo( Node node, Speed speed = defaultSpeed, MouseMotion motion = defaultMotion ) {
+        lastTarget = node
+        moveTo( { centerOf( node, session ) }, speed, motion )
     }
 
-    FXAutomaton moveTo( Node node, Speed speed = DEFAULT ) {
-        moveTo( { centerOf( node ) }, speed )
+    /**
+     * Moves to each of the given Nodes. See {@link #onEachNode(Collection, long, Speed, Closure)} for how the
+     * Nodes are located.
+     */
+    FXAutomaton moveToNodes( Collection<Node> nodes, long pauseBetween = 100, Speed speed = defaultSpeed ) {
+        onEachNode( nodes, pauseBetween, speed ) {}
     }
 
-    FXAutomaton moveToNodes( Collection<Node> nodes, long pauseBetween = 100, Speed speed = DEFAULT ) {
-        nodes.each { node -> moveTo( node, speed ).pause( pauseBetween ) }
+    /**
+     * Moves to each of the given Nodes in turn, running the action once the mouse is on the Node.
+     * <p/>
+     * The locations of all Nodes are resolved at once, before the first move. Once the mouse gets to a Node, its
+     * location is checked again, as the Node may have moved since, for example because of the previous action.
+     * If it has moved, the mouse follows the Node until it stops moving, as in {@link #moveTo(Node, Speed)}.
+     */
+    private FXAutomaton onEachNode( Collection<Node> nodes, long pauseBetween, Speed speed, Closure action ) {
+        def centers = centersOf( nodes, session )
+        nodes.eachWithIndex { Node node, int index ->
+            lastTarget = node
+            moveTo( centers[ index ], speed )
+            if ( centerOf( node, session ) != centers[ index ] ) moveTo( node, speed )
+            action()
+            pause( pauseBetween )
+        }
         this
     }
 
     FXDragOn<FXAutomaton> drag( Node node ) {
-        def target = centerOf node
+        def target = centerOf( node, session )
         new FXDragOn( this, target.x, target.y )
     }
 
-    static Point centerOf( Node node ) {
+    /**
+     * @param node to find the center of
+     * @param session whose cached coordinates should be used
+     * @return the center of the Node on screen
+     */
+    static Point centerOf( Node node, AutomatonSession session = AutomatonSession.default ) {
         assert node != null, "Node could not be found"
+        centersOf( [ node ], session ).first()
+    }
+
+    /**
+     * Finds the center on screen of all the given Nodes at once, in the JavaFX Thread, so that all locations
+     * are taken from the same layout.
+     * @param nodes to find the center of
+     * @param session whose cached coordinates should be used
+     * @return the center of each Node on screen, in the same order as the Nodes
+     * @throws GuiItemNotFound if any of the Nodes is not showing in a Window
+     */
+    static List<Point> centersOf( Collection<? extends Node> nodes, AutomatonSession session = AutomatonSession.default ) {
+        inFXThread {
+            nodes.collect { Node node -> centerInFXThread( node, session ) }
+        }
+    }
+
+    private static Point centerInFXThread( Node node, AutomatonSession session ) {
+        if ( node?.scene?.window == null ) throw new GuiItemNotFound( "Node not showing in a Window: $node" )
         def windowPos = getWindowPosition( node )
-        def scenePos = getScenePosition( node )
+        def scenePos = getScenePosition( node, session )
 
         def boundsInScene = node.localToScene node.boundsInLocal
         def absX = windowPos.x + scenePos.x + boundsInScene.minX
@@ -97,22 +164,55 @@ class FXAutomaton extends Automaton<FXAutomaton> {
           ( absY + boundsInScene.height / 2 ).intValue() ] as Point
     }
 
+    /**
+     * Runs the given action in the JavaFX Thread, waiting for its result. If the JavaFX toolkit is not running,
+     * the action is run in the current Thread.
+     */
+    private static <T> T inFXThread( Closure<T> action, int timeoutInSeconds = 5 ) {
+        def task = new FutureTask<T>( action as Callable<T> )
+        if ( Platform.isFxApplicationThread() ) {
+            task.run()
+        } else {
+            try {
+                Platform.runLater task
+            } catch ( IllegalStateException ignore ) {
+                // toolkit not initialized
+                task.run()
+            }
+        }
+        long start = System.nanoTime()
+        try {
+            return task.get( timeoutInSeconds, TimeUnit.SECONDS )
+        } catch ( ExecutionException e ) {
+            throw e.cause ?: e
+        } finally {
+            ActionMetrics.waited( System.nanoTime() - start )
+        }
+    }
+
     static Point getWindowPosition( Node node ) {
         new Point( node.scene.window.x.intValue(), node.scene.window.y.intValue() )
     }
 
-	// required because of JavaFX bug: RT-34307
-	protected static Point getScenePosition( Node node ) {
-		if ( FXApp.@stage?.scene == node.scene ) { // is top-level Scene
-			scenePos.x = Math.max( node.scene.x.intValue(), scenePos.x )
-			scenePos.y = Math.max( node.scene.y.intValue(), scenePos.y )
-			return scenePos
-		} else {
-			return [ node.scene.x.intValue(), node.scene.y.intValue() ] as Point
-		}
-	}
-
-    private static scenePos = new Point()
+    /**
+     * @return the position of the Node's Scene within its Window. Because of the JavaFX bug RT-34307, the Scene
+     * position may be reported as 0 until some time after the Window is shown, so the largest position seen for
+     * each Window is kept.
+     */
+    protected static Point getScenePosition( Node node, AutomatonSession session = AutomatonSession.default ) {
+        def scene = node.scene
+        def offsets = session.fxSceneOffsets
+        synchronized ( offsets ) {
+            def offset = offsets[ scene.window ]
+            if ( offset == null ) {
+                offset = new Point()
+                offsets[ scene.window ] = offset
+            }
+            offset.x = Math.max( scene.x.intValue(), offset.x )
+            offset.y = Math.max( scene.y.intValue(), offset.y )
+            return new Point( offset )
+        }
+    }
 
 }
 
@@ -144,7 +244,6 @@ class FXApp extends Application {
             log.debug 'Initializing FXApp'
             if ( Automaton.isMac() ) System.setProperty( "javafx.macosx.embedded", "true" )
             Thread.start { Application.launch FXApp, args }
-            sleep 500
             stage = stageFuture.poll 10, TimeUnit.SECONDS
             assert stage
             stageFuture = null
@@ -209,7 +308,10 @@ class FXApp extends Application {
         else {
             def blockUntilDone = new ArrayBlockingQueue( 1 )
             Platform.runLater { toRun.run(); blockUntilDone << true }
-            assert blockUntilDone.poll( timeoutInSeconds, TimeUnit.SECONDS )
+            long start = System.nanoTime()
+            def done = blockUntilDone.poll( timeoutInSeconds, TimeUnit.SECONDS )
+            ActionMetrics.waited( System.nanoTime() - start )
+            assert done
         }
     }
 
@@ -250,7 +352,8 @@ class FXApp extends Application {
 class FXer extends HasSelectors<Node, FXer> {
 
     Node root
-    def delegate = FXAutomaton.user
+    def delegate
+    protected FxNodeIndex nodeIndex
 
     static final Map<String, AutomatonSelector<Node>> DEFAULT_SELECTORS =
             [
@@ -272,13 +375,58 @@ class FXer extends HasSelectors<Node, FXer> {
      * current JVM instance.
      */
     static FXer getUserWith( Node node = null ) {
+        AutomatonSession.default.fxer( node )
+    }
+
+    protected static FXer create( AutomatonSession session, Node node ) {
         if ( !node && FXApp.initialized ) node = FXApp.scene.root
         if ( !node ) throw new IllegalArgumentException( "Unable to create driver as no JavaFX Node has been given" +
                 " and no Scene can be found running in the current JVM instance" )
-        new FXer( root: node, selectors: DEFAULT_SELECTORS )
+        def fxer = new FXer( session )
+        fxer.root = node
+        fxer.selectors = DEFAULT_SELECTORS
+        if ( Config.instance.useJavaFxNodeIndex ) fxer.withNodeIndex()
+        fxer
+    }
+
+    protected FXer( AutomatonSession session = AutomatonSession.default ) {
+        super( session )
+        delegate = session.fxAutomaton
     }
 
-    protected FXer() {}
+    @Override
+    InputBackend getInput() {
+        delegate.input
+    }
+
+    /**
+     * Makes this FXer send input using the given backend. Other drivers are not affected.
+     * @param backend to use
+     * @return this
+     */
+    @Override
+    FXer withInput( InputBackend backend ) {
+        delegate = new FXAutomaton( session ).withInput( backend )
+        this
+    }
+
+    /**
+     * Enables or disables the node index.
+     * <br/>
+     * When enabled, the default <code>#</code>, <code>.</code> and <code>type:</code> selectors are answered
+     * from an index of the Nodes under the root and under every other JavaFX Window, which is built once and kept
+     * up-to-date as the scene graph changes, instead of walking every Window on every lookup.
+     * <br/>
+     * The index can also be enabled for all drivers by setting the config property
+     * <code>automaton.javafx.nodeIndex</code> to true.
+     * @param enable whether to use the index
+     * @return this
+     */
+    FXer withNodeIndex( boolean enable = true ) {
+        nodeIndex?.clear()
+        nodeIndex = enable ? new FxNodeIndex( root ) : null
+        this
+    }
 
     /**
      * Block until all events in the JavaFX Thread have been processed.
@@ -289,84 +437,109 @@ class FXer extends HasSelectors<Node, FXer> {
     }
 
     Node getAt( ComplexSelector selector ) {
+        def record = ActionMetrics.beginLookup( this, 'getAt', selector )
+        try {
+            return ActionMetrics.found( record, findFirst( selector ) )
+        } catch ( Throwable e ) {
+            throw ActionMetrics.failed( record, e )
+        }
+    }
+
+    private Node findFirst( ComplexSelector selector ) {
         def res = doGetAt( selector, 1 )
         if ( res ) res.first()
         else throw new GuiItemNotFound( "Could not locate ${selector}" )
     }
 
     List<Node> getAll( ComplexSelector selector, int limit = Integer.MAX_VALUE ) {
-        doGetAt( selector, limit )
+        def record = ActionMetrics.beginLookup( this, 'getAll', selector )
+        try {
+            return ActionMetrics.found( record, doGetAt( selector, limit ) )
+        } catch ( Throwable e ) {
+            throw ActionMetrics.failed( record, e )
+        }
+    }
+
+    /**
+     * Returns an Iterator over the Nodes matching the given selector, which only searches for the next
+     * Node as it is requested.
+     * @param selector complex selector
+     * @param limit maximum number of Nodes to return
+     * @return Iterator over the matching Nodes
+     */
+    Iterator<Node> iterate( ComplexSelector selector, int limit = Integer.MAX_VALUE ) {
+        compile( selector ).iterate( null, root, limit )
     }
 
-    FXer clickOn( Node node, Speed speed = DEFAULT ) {
+    FXer clickOn( Node node, Speed speed = defaultSpeed ) {
         delegate.clickOn( node, speed )
         this
     }
 
-    FXer clickOnNodes( Collection<Node> nodes, long pauseBetween = 100, Speed speed = DEFAULT ) {
+    FXer clickOnNodes( Collection<Node> nodes, long pauseBetween = 100, Speed speed = defaultSpeed ) {
         delegate.clickOnNodes( nodes, pauseBetween, speed )
         this
     }
 
-    FXer clickOn( String selector, Speed speed = DEFAULT ) {
+    FXer clickOn( String selector, Speed speed = defaultSpeed ) {
         delegate.clickOn( this[ selector ], speed )
         this
     }
 
-    FXer clickOn( Class<? extends Node> cls, Speed speed = DEFAULT ) {
+    FXer clickOn( Class<? extends Node> cls, Speed speed = defaultSpeed ) {
         delegate.clickOn( this[ cls ], speed )
         this
     }
 
-    FXer clickOn( ComplexSelector selector, Speed speed = DEFAULT ) {
+    FXer clickOn( ComplexSelector selector, Speed speed = defaultSpeed ) {
         delegate.clickOn( this[ selector ], speed )
         this
     }
 
-    FXer doubleClickOn( Node node, Speed speed = DEFAULT ) {
+    FXer doubleClickOn( Node node, Speed speed = defaultSpeed ) {
         moveTo( node, speed ).doubleClick()
     }
 
-    FXer doubleClickOnNodes( Collection<Node> nodes, long pauseBetween = 100, Speed speed = DEFAULT ) {
+    FXer doubleClickOnNodes( Collection<Node> nodes, long pauseBetween = 100, Speed speed = defaultSpeed ) {
         delegate.doubleClickOnNodes( nodes, pauseBetween, speed )
         this
     }
 
-    FXer doubleClickOn( String selector, Speed speed = DEFAULT ) {
+    FXer doubleClickOn( String selector, Speed speed = defaultSpeed ) {
         moveTo( this[ selector ], speed ).doubleClick()
     }
 
-    FXer doubleClickOn( Class<? extends Node> cls, Speed speed = DEFAULT ) {
+    FXer doubleClickOn( Class<? extends Node> cls, Speed speed = defaultSpeed ) {
         delegate.doubleClickOn( this[ cls ], speed )
         this
     }
 
-    FXer doubleClickOn( ComplexSelector selector, Speed speed = DEFAULT ) {
+    FXer doubleClickOn( ComplexSelector selector, Speed speed = defaultSpeed ) {
         delegate.doubleClickOn( this[ selector ], speed )
         this
     }
 
-    FXer moveTo( Node node, Speed speed = DEFAULT ) {
-        delegate.moveTo( node, speed )
+    FXer moveTo( Node node, Speed speed = defaultSpeed, MouseMotion motion = defaultMotion ) {
+        delegate.moveTo( node, speed, motion )
         this
     }
 
-    FXer moveToNodes( Collection<Node> nodes, long pauseBetween = 100, Speed speed = DEFAULT ) {
+    FXer moveToNodes( Collection<Node> nodes, long pauseBetween = 100, Speed speed = defaultSpeed ) {
         delegate.moveToNodes( nodes, pauseBetween, speed )
         this
     }
 
-    FXer moveTo( String selector, Speed speed = DEFAULT ) {
-        delegate.moveTo( this[ selector ], speed )
+    FXer moveTo( String selector, Speed speed = defaultSpeed, MouseMotion motion = defaultMotion ) {
+        delegate.moveTo( this[ selector ], speed, motion )
         this
     }
 
-    FXer moveTo( Class<? extends Node> cls, Speed speed = DEFAULT ) {
+    FXer moveTo( Class<? extends Node> cls, Speed speed = defaultSpeed ) {
         delegate.moveTo( this[ cls ], speed )
         this
     }
 
-    FXer moveTo( ComplexSelector selector, Speed speed = DEFAULT ) {
+    FXer moveTo( ComplexSelector selector, Speed speed = defaultSpeed ) {
         delegate.moveTo( this[ selector ], speed )
         this
     }
@@ -377,8 +550,9 @@ class FXer extends HasSelectors<Node, FXer> {
      * @return this
      */
     FXer enterText( String text ) {
-        waitForFxEvents()
-        sleep 350
+        // wait for the Node clicked last to get the focus
+        Quiescence.awaitFxFocus( delegate.lastTarget as Node, 350 )
+        delegate.lastTarget = null
         Platform.runLater {
             def focusOwner = getFocusedTextInputControl()
             if ( focusOwner ) {
@@ -414,14 +588,39 @@ class FXer extends HasSelectors<Node, FXer> {
         new FXerDragOn( this, target.x, target.y )
     }
 
+    /**
+     * Gets all Nodes matching the given selector, except Skins.
+     */
     @Override
-    List<Node> getAll( String selector ) {
-        super.getAll( selector ).grep { !it.class.simpleName.endsWith( "Skin" ) }
-                .toList() as List<Node>
+    List<Node> getAll( String selector, int limit = Integer.MAX_VALUE ) {
+        def record = ActionMetrics.beginLookup( this, 'getAll', selector )
+        try {
+            return ActionMetrics.found( record, iterate( selector, limit ).toList() )
+        } catch ( Throwable e ) {
+            throw ActionMetrics.failed( record, e )
+        }
+    }
+
+    /**
+     * Returns an Iterator over the Nodes matching the given selector, except Skins, which only searches for
+     * the next Node as it is requested.
+     */
+    @Override
+    Iterator<Node> iterate( String selector, int limit = Integer.MAX_VALUE ) {
+        new MatchingIterator<Node>( super.iterate( selector, Integer.MAX_VALUE ), limit ) {
+            @Override
+            protected Node accept( candidate ) {
+                candidate.class.simpleName.endsWith( 'Skin' ) ? null : candidate as Node
+            }
+        }
     }
 
     Point centerOf( Node node ) {
-        delegate.centerOf( node )
+        FXAutomaton.centerOf( node, session )
+    }
+
+    List<Point> centersOf( Collection<? extends Node> nodes ) {
+        FXAutomaton.centersOf( nodes, session )
     }
 
     /**
@@ -435,16 +634,47 @@ class FXer extends HasSelectors<Node, FXer> {
         null
     }
 
-    protected List<Node> doGetAt( ComplexSelector selector, int limit = Integer.MAX_VALUE ) {
-        def prefixes_queries = selector.queries.collect { ensurePrefixed( it ) }
-        def toMapEntries = { String prefix, String query ->
-            new MapEntry( selectors[ prefix ], query )
+    @Override
+    protected List<Node> findAllPrefixed( String prefix, String query, int limit = Integer.MAX_VALUE ) {
+        def indexed = findIndexed( prefix, query, limit )
+        indexed != null ? indexed : super.findAllPrefixed( prefix, query, limit )
+    }
+
+    @Override
+    protected Iterator<Node> iteratePrefixed( String prefix, String query, int limit = Integer.MAX_VALUE ) {
+        def indexed = findIndexed( prefix, query, limit )
+        indexed != null ? indexed.iterator() : super.iteratePrefixed( prefix, query, limit )
+    }
+
+    private List<Node> findIndexed( String prefix, String query, int limit ) {
+        if ( !nodeIndex || !selectors[ prefix ].is( DEFAULT_SELECTORS[ prefix ] ) ) return null
+        if ( !nodeIndex.root.is( root ) ) withNodeIndex()
+        switch ( prefix ) {
+            case '#': return nodeIndex.findById( query, limit )
+            case '.': return nodeIndex.findByStyleClass( query, limit )
+            case 'type:': return nodeIndex.findByType( query, limit )
+            default: return null
         }
+    }
+
+    protected List<Node> doGetAt( ComplexSelector selector, int limit = Integer.MAX_VALUE ) {
+        compile( selector ).apply( null, null, root, limit )
+    }
+
+    private SimpleFxSelector compile( ComplexSelector selector ) {
+        def fxSelector = selectorCache.getCompiled( selector )
+        if ( fxSelector == null ) {
+            def prefixes_queries = selector.queries.collect { ensurePrefixed( it ) }
+            def toMapEntries = { String prefix, String query ->
+                new MapEntry( selectors[ prefix ], query )
+            }
 
-        def selectors_queries = prefixes_queries.collect( toMapEntries )
+            def selectors_queries = prefixes_queries.collect( toMapEntries )
 
-        def fxSelector = entries2FxSelector( selector.matchType, selectors_queries )
-        fxSelector.apply( null, null, root, limit )
+            fxSelector = selectorCache.putCompiled( selector,
+                    entries2FxSelector( selector.matchType, selectors_queries ) )
+        }
+        fxSelector as SimpleFxSelector
     }
 
     private CompositeFxSelector entries2FxSelector( MatchType type, List<MapEntry> selectors_queries ) {
@@ -466,9 +696,9 @@ class FXDragOn<T extends Automaton<? extends Automaton>> extends DragOn<T> {
         super( automaton, fromX, fromY )
     }
 
-    T onto( Node node, Speed speed = Automaton.DEFAULT ) {
-        def center = FXAutomaton.centerOf( node )
-        onto( center.x, center.y, speed )
+    T onto( Node node, Speed speed = automaton.defaultSpeed, MouseMotion motion = automaton.defaultMotion ) {
+        def center = FXAutomaton.centerOf( node, automaton.session )
+        onto( center.x, center.y, speed, motion )
     }
 
 }
@@ -479,15 +709,15 @@ class FXerDragOn extends FXDragOn<FXer> {
         super( fxer, fromX, fromY )
     }
 
-    FXer onto( String selector, Speed speed = Automaton.DEFAULT ) {
-        onto( automaton[ selector ], speed )
+    FXer onto( String selector, Speed speed = automaton.defaultSpeed, MouseMotion motion = automaton.defaultMotion ) {
+        onto( automaton[ selector ], speed, motion )
     }
 
-    FXer onto( Class<? extends Node> selector, Speed speed = Automaton.DEFAULT ) {
+    FXer onto( Class<? extends Node> selector, Speed speed = automaton.defaultSpeed ) {
         onto( automaton[ selector ], speed )
     }
 
-    FXer onto( ComplexSelector selector, Speed speed = Automaton.DEFAULT ) {
+    FXer onto( ComplexSelector selector, Speed speed = automaton.defaultSpeed ) {
         onto( automaton[ selector ], speed )
     }
 
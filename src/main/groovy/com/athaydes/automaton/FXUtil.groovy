@@ -1,8 +1,8 @@
 package com.athaydes.automaton
 
+import com.athaydes.internal.traversal.FxNodeCursor
 import groovy.transform.CompileStatic
 import javafx.scene.Node
-import javafx.scene.Parent
 import javafx.stage.Window
 
 /**
@@ -19,35 +19,19 @@ class FXUtil {
 	 * @return true if action returned true for any Node
 	 */
 	static boolean navigateBreadthFirst( Node node, Closure visitor, followPopups = true ) {
-		List<Node> nextLevel = [ node ]
-		while ( nextLevel ) {
-			List<Node> grandChildren = [ ]
-			for ( Node child in nextLevel ) {
-				if ( visitor( child ) ) return true
-				grandChildren += subItemsOf( child )
-			}
-			nextLevel = grandChildren
-		}
-		if ( followPopups ) {
-			for ( popup in ( getAllPopups() - node.scene?.window ) ) {
-				def abort = navigateBreadthFirst( popup.scene.root, visitor, false )
-				if ( abort ) return true
-			}
+		def cursor = new FxNodeCursor( node, followPopups as boolean )
+		while ( cursor.hasNext() ) {
+			if ( visitor( cursor.next() ) ) return true
 		}
 		return false
 	}
 
-	private static List<Window> getAllPopups() {
+	/**
+	 * @return all JavaFX Windows currently showing
+	 */
+	static List<Window> getAllWindows() {
 		def windows = Window.impl_getWindows()
 		windows.toList()
 	}
 
-	private static List<Node> subItemsOf( Node node ) {
-		if ( node instanceof Parent ) {
-			node.childrenUnmodifiable
-		} else {
-			Collections.emptyList()
-		}
-	}
-
 }
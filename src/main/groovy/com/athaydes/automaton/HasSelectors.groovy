@@ -1,6 +1,9 @@
 package com.athaydes.automaton
 
+import com.athaydes.automaton.metrics.ActionMetrics
 import com.athaydes.automaton.selector.AutomatonSelector
+import com.athaydes.automaton.selector.MatchingSelector
+import com.athaydes.internal.SelectorCache
 
 /**
  * @author Renato
@@ -9,12 +12,26 @@ abstract class HasSelectors<K, A extends Automaton> extends Automaton<A> {
 
 	Map<String, AutomatonSelector<K>> selectors
 
+	private SelectorCache<K> selectorCache
+
+	protected HasSelectors( AutomatonSession session ) {
+		super( session )
+	}
+
 	abstract K getRoot()
 
+	/**
+	 * @return cache of parsed and compiled selectors, which is discarded when the selectors change
+	 */
+	protected SelectorCache<K> getSelectorCache() {
+		if ( selectorCache == null || !selectorCache.isValidFor( selectors ) ) {
+			selectorCache = new SelectorCache<K>( selectors )
+		}
+		selectorCache
+	}
+
 	protected List ensurePrefixed( String selector ) {
-		def prefixes = selectors.keySet()
-		def prefix = prefixes.find { selector.startsWith it }
-		[ prefix ?: prefixes[ 0 ], prefix ? selector - prefix : selector ]
+		getSelectorCache().prefixed( selector )
 	}
 
 	protected K findOnePrefixed( String prefix, String query ) {
@@ -28,21 +45,79 @@ abstract class HasSelectors<K, A extends Automaton> extends Automaton<A> {
 		automatonSelector.apply( prefix, query, root, limit )
 	}
 
+	/**
+	 * Lazily finds the items matching the given query. The GUI tree is only walked as the returned Iterator
+	 * is advanced, so callers which stop iterating early avoid walking the rest of the tree.
+	 * <p/>
+	 * Selectors which do not implement {@link MatchingSelector} cannot be run lazily, so all their
+	 * results are found before the Iterator is returned.
+	 */
+	protected Iterator<K> iteratePrefixed( String prefix, String query, int limit = Integer.MAX_VALUE ) {
+		def automatonSelector = selectors[ prefix ]
+		if ( automatonSelector instanceof MatchingSelector ) {
+			return automatonSelector.iterate( query, root, limit )
+		}
+		findAllPrefixed( prefix, query, limit ).iterator()
+	}
+
 	K getAt( String selector ) {
-		findOnePrefixed( ensurePrefixed( selector ) )
+		def record = ActionMetrics.beginLookup( this, 'getAt', selector )
+		try {
+			return ActionMetrics.found( record, findOnePrefixed( ensurePrefixed( selector ) ) )
+		} catch ( Throwable e ) {
+			throw ActionMetrics.failed( record, e )
+		}
 	}
 
 	def <T> T getAt( Class<T> type ) {
-		findOnePrefixed( 'type:', type.simpleName ) as T
+		def record = ActionMetrics.beginLookup( this, 'getAt', type.simpleName )
+		try {
+			return ActionMetrics.found( record, findOnePrefixed( 'type:', type.simpleName ) ) as T
+		} catch ( Throwable e ) {
+			throw ActionMetrics.failed( record, e )
+		}
 	}
 
 	List<K> getAll( String selector, int limit = Integer.MAX_VALUE ) {
-		def (prefix, query) = ensurePrefixed( selector )
-		findAllPrefixed( prefix, query, limit )
+		def record = ActionMetrics.beginLookup( this, 'getAll', selector )
+		try {
+			def (prefix, query) = ensurePrefixed( selector )
+			return ActionMetrics.found( record, findAllPrefixed( prefix, query, limit ) )
+		} catch ( Throwable e ) {
+			throw ActionMetrics.failed( record, e )
+		}
 	}
 
 	def <T> List<? extends T> getAll( Class<T> cls, int limit = Integer.MAX_VALUE ) {
-		findAllPrefixed( 'type:', cls.simpleName, limit ) as List<T>
+		def record = ActionMetrics.beginLookup( this, 'getAll', cls.simpleName )
+		try {
+			return ActionMetrics.found( record, findAllPrefixed( 'type:', cls.simpleName, limit ) ) as List<T>
+		} catch ( Throwable e ) {
+			throw ActionMetrics.failed( record, e )
+		}
+	}
+
+	/**
+	 * Returns an Iterator over the items matching the given selector, which only searches for the next
+	 * item as it is requested.
+	 * @param selector query
+	 * @param limit maximum number of items to return
+	 * @return Iterator over the matching items
+	 */
+	Iterator<K> iterate( String selector, int limit = Integer.MAX_VALUE ) {
+		def (prefix, query) = ensurePrefixed( selector )
+		iteratePrefixed( prefix, query, limit )
+	}
+
+	/**
+	 * Returns an Iterator over the items of the given type, which only searches for the next
+	 * item as it is requested.
+	 * @param cls type of the items
+	 * @param limit maximum number of items to return
+	 * @return Iterator over the items of the given type
+	 */
+	def <T> Iterator<? extends T> iterate( Class<T> cls, int limit = Integer.MAX_VALUE ) {
+		iteratePrefixed( 'type:', cls.simpleName, limit ) as Iterator<T>
 	}
 
 }
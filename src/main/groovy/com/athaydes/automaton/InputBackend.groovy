@@ -0,0 +1,46 @@
+package com.athaydes.automaton
+
+import java.awt.Point
+
+/**
+ * Sends mouse and keyboard input to the GUI on behalf of an {@link Automaton}.
+ * <p/>
+ * The methods have the same meaning as the methods with the same names in <code>java.awt.Robot</code>.
+ * Backends can be obtained from an {@link InputMode}.
+ */
+interface InputBackend {
+
+	/**
+	 * @return the current location of the mouse on screen
+	 */
+	Point getMouseLocation()
+
+	void mouseMove( int x, int y )
+
+	/**
+	 * @param buttons mask of the buttons to press, eg. {@link java.awt.event.InputEvent#BUTTON1_DOWN_MASK}
+	 */
+	void mousePress( int buttons )
+
+	/**
+	 * @param buttons mask of the buttons to release, eg. {@link java.awt.event.InputEvent#BUTTON1_DOWN_MASK}
+	 */
+	void mouseRelease( int buttons )
+
+	/**
+	 * @param keyCode code of the key, eg. {@link java.awt.event.KeyEvent#VK_A}
+	 */
+	void keyPress( int keyCode )
+
+	/**
+	 * @param keyCode code of the key, eg. {@link java.awt.event.KeyEvent#VK_A}
+	 */
+	void keyRelease( int keyCode )
+
+	/**
+	 * Waits for the given time between two actions.
+	 * @param millis time to wait
+	 */
+	void delay( int millis )
+
+}
@@ -0,0 +1,55 @@
+package com.athaydes.automaton
+
+import com.athaydes.internal.input.RobotBackend
+import com.athaydes.internal.input.SyntheticBackend
+
+/**
+ * The ways an {@link Automaton} can send mouse and keyboard input to the GUI.
+ * <p/>
+ * The default mode can be set with the <code>automaton.input.mode</code> config property,
+ * or by setting {@link Automaton#DEFAULT_INPUT}. Each driver can also use its own mode,
+ * see {@link Automaton#withInput(InputMode)}.
+ */
+enum InputMode {
+
+	/**
+	 * Uses a <code>java.awt.Robot</code>, which moves the real mouse cursor and sends native events
+	 * through the Operating System, exactly as a user would.
+	 */
+	ROBOT{
+		@Override
+		InputBackend createBackend() {
+			new RobotBackend()
+		}
+	},
+
+	/**
+	 * Posts events directly to the Swing <code>EventQueue</code>, or fires them on the JavaFX Nodes, under a virtual
+	 * mouse cursor. The real mouse cursor and keyboard are not used, so several tests may run in the same display,
+	 * and no time is spent waiting for the native pointer.
+	 * <p/>
+	 * Only windows of this JVM can receive input in this mode.
+	 */
+	SYNTHETIC{
+		@Override
+		InputBackend createBackend() {
+			new SyntheticBackend()
+		}
+	}
+
+	private InputBackend sharedBackend
+
+	/**
+	 * @return a new backend for this mode
+	 */
+	abstract InputBackend createBackend()
+
+	/**
+	 * @return the backend shared by all drivers using this mode which have not been given their own backend
+	 */
+	synchronized InputBackend getSharedBackend() {
+		if ( sharedBackend == null ) sharedBackend = createBackend()
+		sharedBackend
+	}
+
+}
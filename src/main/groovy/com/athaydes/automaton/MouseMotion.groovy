@@ -0,0 +1,60 @@
+package com.athaydes.automaton
+
+import java.awt.Point
+
+/**
+ * The ways the mouse can be moved by the {@link Automaton}.
+ * <p/>
+ * The default motion can be set with the <code>automaton.mouse.motion</code> config property,
+ * or by setting {@link Automaton#DEFAULT_MOTION}. A motion can also be passed to each <code>moveTo</code>,
+ * <code>moveBy</code>, <code>dragBy</code> and <code>onto</code> call, e.g.
+ * <code>moveTo( 100, 200, Speed.FAST, MouseMotion.INSTANT )</code>.
+ */
+enum MouseMotion {
+
+	/**
+	 * Moves the mouse one pixel at a time in each axis, waiting for the {@link Speed} delay after each step,
+	 * so the time it takes to reach the target grows with the distance. Useful for drag-sensitive widgets.
+	 */
+	HUMAN,
+
+	/**
+	 * Moves the mouse along a slightly curved path with a fixed number of steps, waiting for the {@link Speed}
+	 * delay after each step, so the time it takes to reach the target does not depend on the distance.
+	 */
+	CURVE,
+
+	/**
+	 * Moves the mouse straight to the target.
+	 */
+	INSTANT
+
+	/**
+	 * Number of steps taken by the CURVE motion.
+	 */
+	static final int CURVE_STEPS = 25
+
+	/**
+	 * @param from start point
+	 * @param to end point
+	 * @param steps number of steps
+	 * @return the points the mouse goes through in a CURVE motion, the last point being the end point
+	 */
+	static List<Point> curvePath( Point from, Point to, int steps = CURVE_STEPS ) {
+		// the control point of the quadratic curve is away from the middle point, perpendicularly to the
+		// straight line between the points, by one tenth of the distance between them
+		double controlX = ( from.x + to.x ) / 2 - ( to.y - from.y ) / 10
+		double controlY = ( from.y + to.y ) / 2 + ( to.x - from.x ) / 10
+		List<Point> path = [ ]
+		for ( int step = 1; step <= steps; step++ ) {
+			double linear = step / ( double ) steps
+			double t = linear * linear * ( 3 - 2 * linear ) // ease-in and ease-out
+			double u = 1 - t
+			path << new Point(
+					Math.round( u * u * from.x + 2 * u * t * controlX + t * t * to.x ) as int,
+					Math.round( u * u * from.y + 2 * u * t * controlY + t * t * to.y ) as int )
+		}
+		path
+	}
+
+}
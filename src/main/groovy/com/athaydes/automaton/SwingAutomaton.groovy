@@ -1,13 +1,24 @@
 package com.athaydes.automaton
 
+import com.athaydes.automaton.metrics.ActionMetrics
 import com.athaydes.automaton.selector.AutomatonSelector
 import com.athaydes.automaton.selector.ComplexSelector
 import com.athaydes.automaton.selector.CompositeSwingerSelector
 import com.athaydes.automaton.selector.IntersectSwingerSelector
 import com.athaydes.automaton.selector.MatchType
+import com.athaydes.automaton.selector.SimpleSwingerSelector
 import com.athaydes.automaton.selector.SwingerSelectors
 import com.athaydes.automaton.selector.UnionSwingerSelector
 import com.athaydes.automaton.swing.selectors.SwingNavigator
+import com.athaydes.internal.BulkTyper
+import com.athaydes.internal.Config
+import com.athaydes.internal.MethodAccessor
+import com.athaydes.internal.Quiescence
+import com.athaydes.internal.index.SwingComponentIndex
+import com.athaydes.internal.model.ModelTextFilter
+import com.athaydes.internal.traversal.MatchingIterator
+import com.athaydes.internal.traversal.SwingItemCursor
+import groovy.transform.PackageScope
 
 import javax.swing.JComponent
 import javax.swing.JFrame
@@ -23,42 +34,61 @@ import java.awt.Window
  */
 class SwingAutomaton extends Automaton<SwingAutomaton> {
 
-	private static instance
+	/**
+	 * The Component the mouse was last moved to, which is expected to get the focus when clicked.
+	 */
+	@PackageScope
+	volatile Component lastTarget
 
 	/**
-	 * Get the singleton instance of SwingAutomaton, which is lazily created.
+	 * Get the SwingAutomaton of the default session, which is lazily created.
 	 * @return SwingAutomaton singleton instance
 	 */
-	static synchronized SwingAutomaton getUser() {
-		if ( !instance ) instance = new SwingAutomaton()
-		instance
+	static SwingAutomaton getUser() {
+		AutomatonSession.default.swingAutomaton
 	}
 
-	protected SwingAutomaton() {}
+	protected SwingAutomaton( AutomatonSession session = AutomatonSession.default ) {
+		super( session )
+	}
 
-	SwingAutomaton clickOn( Component component, Speed speed = DEFAULT ) {
+	SwingAutomaton clickOn( Component component, Speed speed = defaultSpeed ) {
 		moveTo( component, speed ).click()
 	}
 
-	SwingAutomaton clickOn( Collection<? extends Component> components, long pauseBetween = 100, Speed speed = DEFAULT ) {
+	SwingAutomaton clickOn( SwingItem item, Speed speed = defaultSpeed ) {
+		moveTo( item, speed ).click()
+	}
+
+	SwingAutomaton clickOn( Collection<? extends Component> components, long pauseBetween = 100, Speed speed = defaultSpeed ) {
 		components.each { c -> clickOn( c, speed ).pause( pauseBetween ) }
 		this
 	}
 
-	SwingAutomaton doubleClickOn( Component component, Speed speed = DEFAULT ) {
+	SwingAutomaton doubleClickOn( Component component, Speed speed = defaultSpeed ) {
 		moveTo( component, speed ).doubleClick()
 	}
 
-	SwingAutomaton doubleClickOn( Collection<? extends Component> components, long pauseBetween = 100, Speed speed = DEFAULT ) {
+	SwingAutomaton doubleClickOn( SwingItem item, Speed speed = defaultSpeed ) {
+		moveTo( item, speed ).doubleClick()
+	}
+
+	SwingAutomaton doubleClickOn( Collection<? extends Component> components, long pauseBetween = 100, Speed speed = defaultSpeed ) {
 		components.each { c -> doubleClickOn( c, speed ).pause( pauseBetween ) }
 		this
 	}
 
-	SwingAutomaton moveTo( Component component, Speed speed = DEFAULT ) {
-		moveTo( { centerOf( component ) }, speed )
+	SwingAutomaton moveTo( Component component, Speed speed = defaultSpeed, MouseMotion motion = defaultMotion ) {
+		lastTarget = component
+		moveTo( { centerOf( component ) }, speed, motion )
 	}
 
-	SwingAutomaton moveTo( Collection<? extends Component> components, long pauseBetween = 100, Speed speed = DEFAULT ) {
+	SwingAutomaton moveTo( SwingItem item, Speed speed = defaultSpeed, MouseMotion motion = defaultMotion ) {
+		lastTarget = item.owner
+		moveTo( { centerOf( item ) }, speed, motion )
+	}
+
+	SwingAutomaton moveTo( Collection<? extends Component> components, long pauseBetween = 100, Speed speed = defaultSpeed ) {
 		components.each { c -> moveTo( c, speed ).pause( pauseBetween ) }
 		this
 	}
@@ -68,6 +98,11 @@ class SwingAutomaton extends Automaton<SwingAutomaton> {
 		new SwingDragOn( this, center.x, center.y )
 	}
 
+	SwingDragOn<SwingAutomaton> drag( SwingItem item ) {
+		def center = centerOf( item )
+		new SwingDragOn( this, center.x, center.y )
+	}
+
 	static Point centerOf( Component component ) {
 		assert component != null, 'Component could not be found'
 		try {
@@ -80,6 +115,16 @@ class SwingAutomaton extends Automaton<SwingAutomaton> {
 		}
 	}
 
+	static Point centerOf( SwingItem item ) {
+		assert item != null, 'Item could not be found'
+		def bounds = item.boundsOnScreen
+		if ( bounds == null ) throw new GuiItemNotFound( "Item not showing on screen: " + item )
+		def center = bounds.location
+		center.x += bounds.width / 2
+		center.y += bounds.height / 2
+		return center
+	}
+
 }
 
 class Swinger extends HasSelectors<Component, Swinger> {
@@ -92,7 +137,10 @@ class Swinger extends HasSelectors<Component, Swinger> {
 			].asImmutable()
 
 	Component root
-	protected automaton = SwingAutomaton.user
+	protected automaton
+	protected SwingComponentIndex componentIndex
+	protected boolean modelSearch
+	protected boolean columnValueIndex
 
 	/**
 	 * Gets a new instance of <code>Swinger</code> using the given
@@ -106,10 +154,21 @@ class Swinger extends HasSelectors<Component, Swinger> {
 	 * current JVM instance.
 	 */
 	static Swinger getUserWith( Component component = null ) {
+		AutomatonSession.default.swinger( component )
+	}
+
+	protected static Swinger create( AutomatonSession session, Component component ) {
 		if ( !component ) component = Window.windows.length > 0 ? Window.windows.first() : null
 		if ( !component ) throw new IllegalArgumentException( "Unable to create driver as no Swing Component has " +
 				"been given and no Window can be found running in the current JVM instance" )
-		new Swinger( selectors: DEFAULT_SELECTORS, root: component )
+		def swinger = new Swinger( session )
+		swinger.selectors = DEFAULT_SELECTORS
+		swinger.root = component
+		if ( Config.instance.useSwingComponentIndex ) swinger.withComponentIndex()
+		if ( Config.instance.useSwingModelSearch ) {
+			swinger.withModelSearch( true, Config.instance.useSwingColumnValueIndex )
+		}
+		swinger
 	}
 
 	/**
@@ -120,64 +179,165 @@ class Swinger extends HasSelectors<Component, Swinger> {
 		getUserWith()
 	}
 
-	protected Swinger() {}
+	protected Swinger( AutomatonSession session = AutomatonSession.default ) {
+		super( session )
+		automaton = session.swingAutomaton
+	}
+
+	@Override
+	InputBackend getInput() {
+		automaton.input
+	}
+
+	/**
+	 * Makes this Swinger send input using the given backend. Other drivers are not affected.
+	 * @param backend to use
+	 * @return this
+	 */
+	@Override
+	Swinger withInput( InputBackend backend ) {
+		automaton = new SwingAutomaton( session ).withInput( backend )
+		this
+	}
+
+	/**
+	 * Enables or disables the component index.
+	 * <br/>
+	 * When enabled, the default <code>name:</code>, <code>type:</code> and <code>text:</code> selectors are
+	 * answered from an index of the Components under the root, which is built once and kept up-to-date
+	 * as the UI changes, instead of walking the whole tree on every lookup. Queries the index cannot answer,
+	 * such as text in table cells, still walk the tree.
+	 * <br/>
+	 * The index can also be enabled for all drivers by setting the config property
+	 * <code>automaton.swing.componentIndex</code> to true.
+	 * @param enable whether to use the index
+	 * @return this
+	 */
+	Swinger withComponentIndex( boolean enable = true ) {
+		componentIndex?.clear()
+		componentIndex = enable ? new SwingComponentIndex( root ) : null
+		this
+	}
+
+	/**
+	 * Enables or disables model search.
+	 * <br/>
+	 * When enabled, the default <code>text:</code> selector looks at the model values of JTables, JLists and
+	 * JComboBoxes to find out which items may show the text being searched, and only renders those items.
+	 * Items shown by custom renderers are still always rendered.
+	 * <br/>
+	 * Table cells and list items found this way scroll themselves into view before being clicked on.
+	 * <br/>
+	 * Model search can also be enabled for all drivers by setting the config property
+	 * <code>automaton.swing.modelSearch</code> to true.
+	 * @param enable whether to use model search
+	 * @param indexColumns whether to keep an index of the values of each JTable column searched, which is
+	 * discarded whenever the TableModel changes. Can also be enabled with the config property
+	 * <code>automaton.swing.modelSearch.columnIndex</code>.
+	 * @return this
+	 */
+	Swinger withModelSearch( boolean enable = true, boolean indexColumns = false ) {
+		modelSearch = enable
+		columnValueIndex = enable && indexColumns
+		this
+	}
 
 	Component getAt( ComplexSelector selector ) {
+		def record = ActionMetrics.beginLookup( this, 'getAt', selector )
+		try {
+			return ActionMetrics.found( record, findFirst( selector ) )
+		} catch ( Throwable e ) {
+			throw ActionMetrics.failed( record, e )
+		}
+	}
+
+	private Component findFirst( ComplexSelector selector ) {
 		def res = doGetAt( selector, 1 )
 		if ( res ) res.first()
 		else throw new GuiItemNotFound( "Could not locate ${selector}" )
 	}
 
 	List<Component> getAll( ComplexSelector selector, int limit = Integer.MAX_VALUE ) {
-		doGetAt( selector, limit )
+		def record = ActionMetrics.beginLookup( this, 'getAll', selector )
+		try {
+			return ActionMetrics.found( record, doGetAt( selector, limit ) )
+		} catch ( Throwable e ) {
+			throw ActionMetrics.failed( record, e )
+		}
+	}
+
+	/**
+	 * Returns an Iterator over the Components matching the given selector, which only searches for the next
+	 * Component as it is requested.
+	 * @param selector complex selector
+	 * @param limit maximum number of Components to return
+	 * @return Iterator over the matching Components
+	 */
+	Iterator<Component> iterate( ComplexSelector selector, int limit = Integer.MAX_VALUE ) {
+		compile( selector ).iterate( null, root, limit )
 	}
 
-	Swinger clickOn( Component component, Speed speed = DEFAULT ) {
+	Swinger clickOn( Component component, Speed speed = defaultSpeed ) {
 		automaton.clickOn( component, speed )
 		this
 	}
 
-	Swinger clickOn( Collection<? extends Component> components, long pauseBetween = 100, Speed speed = DEFAULT ) {
+	Swinger clickOn( SwingItem item, Speed speed = defaultSpeed ) {
+		automaton.clickOn( item, speed )
+		this
+	}
+
+	Swinger clickOn( Collection<? extends Component> components, long pauseBetween = 100, Speed speed = defaultSpeed ) {
 		automaton.clickOn( components, pauseBetween, speed )
 		this
 	}
 
-	Swinger clickOn( String selector, Speed speed = DEFAULT ) {
+	Swinger clickOn( String selector, Speed speed = defaultSpeed ) {
 		automaton.clickOn( this[ selector ], speed )
 		this
 	}
 
-	Swinger clickOn( ComplexSelector selector, Speed speed = DEFAULT ) {
+	Swinger clickOn( ComplexSelector selector, Speed speed = defaultSpeed ) {
 		clickOn( this[ selector ], speed )
 	}
 
-	Swinger doubleClickOn( Component component, Speed speed = DEFAULT ) {
+	Swinger doubleClickOn( Component component, Speed speed = defaultSpeed ) {
 		automaton.doubleClickOn( component, speed )
 		this
 	}
 
-	Swinger doubleClickOn( Collection<? extends Component> components, long pauseBetween = 100, Speed speed = DEFAULT ) {
+	Swinger doubleClickOn( SwingItem item, Speed speed = defaultSpeed ) {
+		automaton.doubleClickOn( item, speed )
+		this
+	}
+
+	Swinger doubleClickOn( Collection<? extends Component> components, long pauseBetween = 100, Speed speed = defaultSpeed ) {
 		automaton.doubleClickOn( components, pauseBetween, speed )
 		this
 	}
 
-	Swinger doubleClickOn( String selector, Speed speed = DEFAULT ) {
+	Swinger doubleClickOn( String selector, Speed speed = defaultSpeed ) {
 		automaton.doubleClickOn( this[ selector ], speed )
 		this
 	}
 
-	Swinger moveTo( Component component, Speed speed = DEFAULT ) {
-		automaton.moveTo( component, speed )
+	Swinger moveTo( Component component, Speed speed = defaultSpeed, MouseMotion motion = defaultMotion ) {
+		automaton.moveTo( component, speed, motion )
+		this
+	}
+
+	Swinger moveTo( SwingItem item, Speed speed = defaultSpeed, MouseMotion motion = defaultMotion ) {
+		automaton.moveTo( item, speed, motion )
 		this
 	}
 
-	Swinger moveTo( Collection<? extends Component> components, long pauseBetween = 100, Speed speed = DEFAULT ) {
+	Swinger moveTo( Collection<? extends Component> components, long pauseBetween = 100, Speed speed = defaultSpeed ) {
 		automaton.moveTo( components, pauseBetween, speed )
 		this
 	}
 
-	Swinger moveTo( String selector, Speed speed = DEFAULT ) {
-		automaton.moveTo( this[ selector ], speed )
+	Swinger moveTo( String selector, Speed speed = defaultSpeed, MouseMotion motion = defaultMotion ) {
+		automaton.moveTo( this[ selector ], speed, motion )
 		this
 	}
 
@@ -187,7 +347,9 @@ class Swinger extends HasSelectors<Component, Swinger> {
 	 * @return this
 	 */
 	Swinger enterText( String text ) {
-		sleep 350 // Swing needs time to change focus!
+		// Swing needs time to change focus to the Component clicked last!
+		Quiescence.awaitSwingFocus( automaton.lastTarget, 350 )
+		automaton.lastTarget = null
 		SwingUtilities.invokeAndWait {
 			def focusOwner = getFocusedComponent()
 			if ( focusOwner ) {
@@ -204,11 +366,45 @@ class Swinger extends HasSelectors<Component, Swinger> {
 		this
 	}
 
+	/**
+	 * Posts the given text directly to the currently focused component, without using the keyboard.
+	 * <p/>
+	 * Unlike {@link #type(String)}, any Unicode text can be entered regardless of the local keyboard layout.
+	 * Swing text components receive the text as if committed by an input method, so the text is inserted
+	 * at the caret position rather than replacing the current text as {@link #enterText(String)} does.
+	 * @param text to post
+	 * @return this
+	 */
+	Swinger postText( String text ) {
+		Quiescence.awaitSwingIdle( 350 ) // Swing needs time to change focus!
+		def focusOwner = getFocusedComponent()
+		if ( !focusOwner ) throw new GuiItemNotFound( 'Could not find the currently focused Component' )
+		postText( focusOwner, text )
+	}
+
+	/**
+	 * Posts the given text directly to the given component, without using the keyboard.
+	 * @param component to receive the text
+	 * @param text to post
+	 * @return this
+	 * @see #postText(String)
+	 */
+	Swinger postText( Component component, String text ) {
+		BulkTyper.post( component, text )
+		Quiescence.awaitSwingIdle( 1000 )
+		this
+	}
+
 	SwingerDragOn drag( Component component ) {
 		def center = SwingAutomaton.centerOf( component )
 		new SwingerDragOn( this, center.x, center.y )
 	}
 
+	SwingerDragOn drag( SwingItem item ) {
+		def center = SwingAutomaton.centerOf( item )
+		new SwingerDragOn( this, center.x, center.y )
+	}
+
 	SwingerDragOn drag( String selector ) {
 		drag( this[ selector ] )
 	}
@@ -227,7 +423,7 @@ class Swinger extends HasSelectors<Component, Swinger> {
 		}
 		def owner = null
 		SwingNavigator.navigateBreadthFirst( root ) { JComponent c ->
-			if ( ReflectionHelper.callMethodIfExists( c, 'isFocusOwner' ) ) {
+			if ( MethodAccessor.IS_FOCUS_OWNER.call( c ) ) {
 				owner = c
 				return true
 			}
@@ -235,16 +431,73 @@ class Swinger extends HasSelectors<Component, Swinger> {
 		owner
 	}
 
-	protected List<Component> doGetAt( ComplexSelector selector, int limit = Integer.MAX_VALUE ) {
-		def prefixes_queries = selector.queries.collect { ensurePrefixed( it ) }
-		def toMapEntries = { String prefix, String query ->
-			new MapEntry( selectors[ prefix ], query )
+	@Override
+	protected List<Component> findAllPrefixed( String prefix, String query, int limit = Integer.MAX_VALUE ) {
+		def indexed = findIndexed( prefix, query, limit )
+		if ( indexed != null ) return indexed
+		if ( usesModelSearch( prefix ) ) {
+			return iterateTextInModels( query, limit ).toList()
 		}
+		super.findAllPrefixed( prefix, query, limit )
+	}
 
-		def selectors_queries = prefixes_queries.collect( toMapEntries )
+	@Override
+	protected Iterator<Component> iteratePrefixed( String prefix, String query, int limit = Integer.MAX_VALUE ) {
+		def indexed = findIndexed( prefix, query, limit )
+		if ( indexed != null ) return indexed.iterator()
+		if ( usesModelSearch( prefix ) ) {
+			return iterateTextInModels( query, limit )
+		}
+		super.iteratePrefixed( prefix, query, limit )
+	}
+
+	private boolean usesModelSearch( String prefix ) {
+		modelSearch && prefix == 'text:' && selectors[ prefix ].is( DEFAULT_SELECTORS[ prefix ] )
+	}
 
-		def swingerSelector = entries2SwingerSelector( selector.matchType, selectors_queries )
-		swingerSelector.apply( null, null, root, limit )
+	private Iterator<Component> iterateTextInModels( String text, int limit ) {
+		def textSelector = selectors[ 'text:' ] as SimpleSwingerSelector
+		def cursor = new SwingItemCursor( root, new ModelTextFilter( text, columnValueIndex ) )
+		new MatchingIterator<Component>( cursor, limit ) {
+			@Override
+			protected Component accept( candidate ) {
+				if ( candidate instanceof SwingItem ) {
+					return textSelector.matchesItem( text, candidate ) ? candidate.toComponent() : null
+				}
+				textSelector.matches( text, candidate ) ? candidate : null
+			}
+		}
+	}
+
+	private List<Component> findIndexed( String prefix, String query, int limit ) {
+		if ( !componentIndex || !selectors[ prefix ].is( DEFAULT_SELECTORS[ prefix ] ) ) return null
+		if ( !componentIndex.root.is( root ) ) withComponentIndex()
+		switch ( prefix ) {
+			case 'name:': return componentIndex.findByName( query, limit )
+			case 'type:': return componentIndex.findByType( query, limit )
+			case 'text:': return componentIndex.findByText( query, limit )
+			default: return null
+		}
+	}
+
+	protected List<Component> doGetAt( ComplexSelector selector, int limit = Integer.MAX_VALUE ) {
+		compile( selector ).apply( null, null, root, limit )
+	}
+
+	private SimpleSwingerSelector compile( ComplexSelector selector ) {
+		def swingerSelector = selectorCache.getCompiled( selector )
+		if ( swingerSelector == null ) {
+			def prefixes_queries = selector.queries.collect { ensurePrefixed( it ) }
+			def toMapEntries = { String prefix, String query ->
+				new MapEntry( selectors[ prefix ], query )
+			}
+
+			def selectors_queries = prefixes_queries.collect( toMapEntries )
+
+			swingerSelector = selectorCache.putCompiled( selector,
+					entries2SwingerSelector( selector.matchType, selectors_queries ) )
+		}
+		swingerSelector as SimpleSwingerSelector
 	}
 
 	private CompositeSwingerSelector entries2SwingerSelector( MatchType type, List<MapEntry> selectors_queries ) {
@@ -266,9 +519,14 @@ class SwingDragOn<T extends Automaton<? extends Automaton>> extends DragOn<T> {
 		super( automaton, fromX, fromY )
 	}
 
-	T onto( Component component, Speed speed = Automaton.DEFAULT ) {
+	T onto( Component component, Speed speed = automaton.defaultSpeed, MouseMotion motion = automaton.defaultMotion ) {
 		def center = SwingAutomaton.centerOf( component )
-		onto( center.x, center.y, speed )
+		onto( center.x, center.y, speed, motion )
+	}
+
+	T onto( SwingItem item, Speed speed = automaton.defaultSpeed, MouseMotion motion = automaton.defaultMotion ) {
+		def center = SwingAutomaton.centerOf( item )
+		onto( center.x, center.y, speed, motion )
 	}
 
 }
@@ -279,15 +537,15 @@ class SwingerDragOn extends SwingDragOn<Swinger> {
 		super( swinger, fromX, fromY )
 	}
 
-	Swinger onto( String selector, Speed speed = Automaton.DEFAULT ) {
-		onto( automaton[ selector ], speed )
+	Swinger onto( String selector, Speed speed = automaton.defaultSpeed, MouseMotion motion = automaton.defaultMotion ) {
+		onto( automaton[ selector ], speed, motion )
 	}
 
-	Swinger onto( Class<? extends Component> selector, Speed speed = Automaton.DEFAULT ) {
+	Swinger onto( Class<? extends Component> selector, Speed speed = automaton.defaultSpeed ) {
 		onto( automaton[ selector ], speed )
 	}
 
-	Swinger onto( ComplexSelector selector, Speed speed = Automaton.DEFAULT ) {
+	Swinger onto( ComplexSelector selector, Speed speed = automaton.defaultSpeed ) {
 		onto( automaton[ selector ], speed )
 	}
 
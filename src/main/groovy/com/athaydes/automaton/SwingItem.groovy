@@ -0,0 +1,353 @@
+package com.athaydes.automaton
+
+import com.athaydes.internal.GeometryTracker
+import com.athaydes.internal.MethodAccessor
+import groovy.transform.CompileStatic
+
+import javax.swing.JComboBox
+import javax.swing.JComponent
+import javax.swing.JList
+import javax.swing.JTabbedPane
+import javax.swing.JTable
+import javax.swing.JTree
+import javax.swing.SwingUtilities
+import javax.swing.plaf.basic.ComboPopup
+import javax.swing.tree.TreePath
+import javax.swing.tree.TreeNode
+import java.awt.Component
+import java.awt.Dimension
+import java.awt.Point
+import java.awt.Rectangle
+
+/**
+ * Lightweight handle to an item shown by a Swing Component which is not itself a Component, such as a
+ * JTable cell or a JTree node.
+ * <p/>
+ * A handle only keeps the Component showing the item (the owner), the item's position within the owner and,
+ * where it is already known, the item's data value. Everything else, including rendering the item and its
+ * location on screen, is only resolved when requested.
+ * <p/>
+ * The bounds of table cells and headers, tree nodes, list items and tabs within the Component showing them are
+ * cached by each handle until that Component, its model or any of its ancestors change (see
+ * {@link GeometryTracker}). The location on screen of the Component is always read again.
+ * <p/>
+ * Handles can be given to {@link SwingAutomaton} and {@link Swinger} anywhere a Component is accepted.
+ * A {@link FakeComponent} can be obtained, if necessary, with {@link #toComponent()}.
+ */
+@CompileStatic
+class SwingItem {
+
+	enum Kind {
+		TABLE_HEADER, TABLE_CELL, TREE_NODE, LIST_ITEM, COMBO_ITEM, TAB, CUSTOM
+	}
+
+	final Component owner
+	final Kind kind
+	final int row
+	final int column
+
+	private final Object node
+	private final boolean scrollIntoView
+	private final Closure<Point> customLocation
+	private final Closure<Rectangle> customBounds
+
+	private boolean resolved
+	private Object realObject
+	private Object dataValue
+	private FakeComponent component
+	private volatile CachedBounds cachedBounds
+
+	private SwingItem( Component owner, Kind kind, int row, int column, Object node, boolean scrollIntoView ) {
+		this( owner, kind, row, column, node, scrollIntoView, null, null )
+	}
+
+	private SwingItem( Component owner, Kind kind, int row, int column, Object node, boolean scrollIntoView,
+	                   Closure<Point> customLocation, Closure<Rectangle> customBounds ) {
+		this.owner = owner
+		this.kind = kind
+		this.row = row
+		this.column = column
+		this.node = node
+		this.scrollIntoView = scrollIntoView
+		this.customLocation = customLocation
+		this.customBounds = customBounds
+	}
+
+	/**
+	 * @param scrollIntoView whether to scroll the cell into view before computing its location on screen
+	 */
+	static SwingItem tableCell( JTable table, int row, int col, boolean scrollIntoView = false ) {
+		new SwingItem( table, Kind.TABLE_CELL, row, col, null, scrollIntoView )
+	}
+
+	static SwingItem tableHeader( JTable table, int col ) {
+		new SwingItem( table, Kind.TABLE_HEADER, -1, col, null, false )
+	}
+
+	static SwingItem treeNode( JTree tree, TreeNode node ) {
+		new SwingItem( tree, Kind.TREE_NODE, -1, -1, node, false )
+	}
+
+	/**
+	 * @param path of the node from the root of the tree's model, which is required if the model's nodes are
+	 * not TreeNodes
+	 */
+	static SwingItem treeNode( JTree tree, TreePath path ) {
+		new SwingItem( tree, Kind.TREE_NODE, -1, -1, path, false )
+	}
+
+	/**
+	 * @param scrollIntoView whether to scroll the item into view before computing its location on screen
+	 */
+	static SwingItem listItem( JList list, int index, boolean scrollIntoView = false ) {
+		new SwingItem( list, Kind.LIST_ITEM, index, -1, null, scrollIntoView )
+	}
+
+	static SwingItem comboBoxItem( JComboBox combo, int index ) {
+		new SwingItem( combo, Kind.COMBO_ITEM, index, -1, null, false )
+	}
+
+	static SwingItem tab( JTabbedPane tabbedPane, int index ) {
+		new SwingItem( tabbedPane, Kind.TAB, index, -1, null, false )
+	}
+
+	/**
+	 * Creates a handle for an item whose real object, location and bounds are already known to the caller.
+	 * @param realObject object represented by the item
+	 * @param parentLocationOnScreen returns the location on screen of the Component showing the item
+	 * @param itemBounds returns the bounds of the item relative to the Component showing it
+	 * @param dataValue value shown by the item, if known
+	 */
+	static SwingItem custom( realObject, Closure<Point> parentLocationOnScreen,
+	                         Closure<Rectangle> itemBounds, dataValue = null ) {
+		def item = new SwingItem( null, Kind.CUSTOM, -1, -1, null, false, parentLocationOnScreen, itemBounds )
+		item.@realObject = realObject
+		item.@dataValue = dataValue
+		item.@resolved = true
+		item
+	}
+
+	/**
+	 * Sets the rendered value of a table header or cell, if it is already known, so that it does not need to be
+	 * rendered again.
+	 * @param realObject rendered value of this item, or null if not known
+	 * @return this item
+	 */
+	synchronized SwingItem withRealObject( realObject ) {
+		if ( realObject != null ) {
+			this.realObject = realObject
+			this.resolved = true
+		}
+		this
+	}
+
+	/**
+	 * @return the object represented by this item: the renderer Component for table cells and list items,
+	 * the TreeNode for tree nodes, or the owner for combo-box items and tabs
+	 */
+	Object getRealObject() {
+		resolve()
+		realObject
+	}
+
+	/**
+	 * @return the value shown by this item, or null if it is the same as the real object's text
+	 */
+	Object getDataValue() {
+		resolve()
+		dataValue
+	}
+
+	/**
+	 * @return the text shown by this item
+	 */
+	String getText() {
+		resolve()
+		if ( dataValue ) return dataValue as String
+		def text = MethodAccessor.GET_TEXT.call( realObject )
+		text ? text as String : realObject as String
+	}
+
+	/**
+	 * @return the location on screen of the Component showing this item
+	 */
+	Point getParentLocationOnScreen() {
+		switch ( kind ) {
+			case Kind.CUSTOM: return customLocation.call()
+			case Kind.TABLE_HEADER: return ( owner as JTable ).tableHeader.locationOnScreen
+			case Kind.TABLE_CELL:
+				if ( scrollIntoView ) scrollIntoView( owner as JComponent, boundsInParent )
+				return owner.locationOnScreen
+			case Kind.LIST_ITEM:
+				if ( scrollIntoView ) scrollIntoView( owner as JComponent, ( owner as JList ).getCellBounds( row, row ) )
+				return owner.locationOnScreen
+			case Kind.COMBO_ITEM: return comboList().locationOnScreen
+			default: return owner.locationOnScreen
+		}
+	}
+
+	/**
+	 * @return the bounds of this item relative to the Component showing it
+	 */
+	Rectangle getBoundsInParent() {
+		switch ( kind ) {
+			case Kind.CUSTOM: return customBounds.call()
+			case Kind.TABLE_HEADER: return ( owner as JTable ).tableHeader.getHeaderRect( column )
+			case Kind.TABLE_CELL: return ( owner as JTable ).getCellRect( row, column, true )
+			case Kind.TREE_NODE:
+				def path = node instanceof TreePath ? node as TreePath : new TreePath( pathOf( node as TreeNode ) )
+				return ( owner as JTree ).getPathBounds( path )
+			case Kind.LIST_ITEM:
+				def list = owner as JList
+				return list.UI.getCellBounds( list, row, row )
+			case Kind.COMBO_ITEM:
+				def list = comboList()
+				int itemHeight = ( list.height / ( owner as JComboBox ).itemCount ).intValue()
+				return new Rectangle( list.indexToLocation( row ), new Dimension( list.width, itemHeight ) )
+			case Kind.TAB: return ( owner as JTabbedPane ).getBoundsAt( row )
+		}
+		null
+	}
+
+	/**
+	 * @return the bounds of this item on screen, or null if the item has no bounds
+	 * @throws GuiItemNotFound if the item is not showing on screen
+	 */
+	Rectangle getBoundsOnScreen() {
+		try {
+			def bounds = cachedBoundsInParent()
+			if ( bounds == null ) return null
+			// not cached, as Windows moved by the user or the window manager do not notify their descendants
+			def location = parentLocationOnScreen
+			return new Rectangle( location.x + bounds.x as int, location.y + bounds.y as int,
+					bounds.width as int, bounds.height as int )
+		} catch ( e ) {
+			throw new GuiItemNotFound( "Component likely not visible on screen: $this", e )
+		}
+	}
+
+	/**
+	 * @return the location on screen of this item
+	 * @throws GuiItemNotFound if the item is not showing on screen
+	 */
+	Point getLocationOnScreen() {
+		def bounds = boundsOnScreen
+		if ( bounds == null ) throw new GuiItemNotFound( "Component likely not visible on screen: $this" )
+		bounds.location
+	}
+
+	int getWidth() {
+		def bounds = boundsOnScreen
+		if ( bounds == null ) throw new GuiItemNotFound( "Component likely not visible on screen: $this" )
+		bounds.width as int
+	}
+
+	int getHeight() {
+		def bounds = boundsOnScreen
+		if ( bounds == null ) throw new GuiItemNotFound( "Component likely not visible on screen: $this" )
+		bounds.height as int
+	}
+
+	private Rectangle cachedBoundsInParent() {
+		GeometryTracker tracker = trackable() ? GeometryTracker.of( owner as JComponent ) : null
+		if ( tracker == null ) return boundsInParent
+		// the version is read first, so that bounds computed while the geometry changes are not used again
+		int version = tracker.version
+		CachedBounds cached = cachedBounds
+		if ( cached != null && cached.version == version ) return new Rectangle( cached.bounds )
+		def bounds = boundsInParent
+		if ( bounds != null ) cachedBounds = new CachedBounds( version, new Rectangle( bounds ) )
+		bounds
+	}
+
+	/**
+	 * @return whether the geometry of this item can be cached. Combo-box items are shown by a popup which is
+	 * not tracked, and the geometry of custom items is only known to their creator.
+	 */
+	private boolean trackable() {
+		kind != Kind.CUSTOM && kind != Kind.COMBO_ITEM && owner instanceof JComponent
+	}
+
+	/**
+	 * @return a FakeComponent backed by this item. The same instance is returned on every call.
+	 */
+	synchronized FakeComponent toComponent() {
+		if ( component == null ) component = new FakeComponent( this )
+		component
+	}
+
+	@Override
+	String toString() {
+		"SwingItem($kind,row:$row,column:$column,owner:${owner?.getClass()?.simpleName})"
+	}
+
+	private synchronized void resolve() {
+		if ( resolved ) return
+		switch ( kind ) {
+			case Kind.TABLE_HEADER:
+				def table = owner as JTable
+				realObject = SwingUtil.getRenderedTableHeaderValue( table, table.columnModel.getColumn( column ), column )
+				break
+			case Kind.TABLE_CELL:
+				realObject = SwingUtil.getRenderedTableCellValue( owner as JTable, row, column )
+				break
+			case Kind.TREE_NODE:
+				realObject = node instanceof TreePath ? ( node as TreePath ).lastPathComponent : node
+				break
+			case Kind.LIST_ITEM:
+				def list = owner as JList
+				def value = list.model.getElementAt( row )
+				realObject = list.cellRenderer.getListCellRendererComponent( list, value, row, false, false )
+				// if the renderer component has a getText method (the default renderer returns a JLabel) use that,
+				// otherwise use the value's toString
+				dataValue = MethodAccessor.GET_TEXT.call( realObject ) ?: value?.toString()
+				break
+			case Kind.COMBO_ITEM:
+				realObject = owner
+				dataValue = ( owner as JComboBox ).getItemAt( row )
+				break
+			case Kind.TAB:
+				realObject = owner
+				dataValue = ( owner as JTabbedPane ).getTitleAt( row )
+				break
+		}
+		resolved = true
+	}
+
+	private JList comboList() {
+		( ( owner as JComboBox ).UI.getAccessibleChild( owner as JComboBox, 0 ) as ComboPopup ).list
+	}
+
+	private static void scrollIntoView( JComponent component, Rectangle rectangle ) {
+		if ( rectangle == null ) return
+		if ( SwingUtilities.isEventDispatchThread() ) {
+			component.scrollRectToVisible( rectangle )
+		} else {
+			SwingUtilities.invokeAndWait( new Runnable() {
+				@Override
+				void run() { component.scrollRectToVisible( rectangle ) }
+			} )
+		}
+	}
+
+	private static class CachedBounds {
+		final int version
+		final Rectangle bounds
+
+		CachedBounds( int version, Rectangle bounds ) {
+			this.version = version
+			this.bounds = bounds
+		}
+	}
+
+	private static Object[] pathOf( TreeNode node ) {
+		List<Object> path = [ ]
+		def parent = node
+		while ( parent != null ) {
+			path.add( 0, parent )
+			parent = parent.parent
+		}
+		path.toArray()
+	}
+
+}
@@ -1,6 +1,9 @@
 package com.athaydes.automaton
 
 import com.athaydes.automaton.swing.selectors.SwingNavigator
+import com.athaydes.internal.Config
+import com.athaydes.internal.MethodAccessor
+import com.athaydes.internal.model.TreeChildIndex
 
 import javax.swing.JComboBox
 import javax.swing.JList
@@ -12,7 +15,6 @@ import javax.swing.tree.TreeModel
 import javax.swing.tree.TreeNode
 import javax.swing.tree.TreePath
 import java.awt.Component
-import java.awt.Dimension
 import java.awt.GraphicsEnvironment
 import java.awt.Point
 import java.awt.Rectangle
@@ -22,56 +24,43 @@ import java.awt.Rectangle
  */
 class SwingUtil {
 
-    static FakeComponent tableCell2FakeComponent( JTable table, data, int row, int col ) {
-        new FakeComponent( data, {
-            row < 0 ?
-                    table.tableHeader.locationOnScreen :
-                    table.locationOnScreen
-        }, {
-            row < 0 ?
-                    table.tableHeader.getHeaderRect( col ) :
-                    table.getCellRect( row, col, true )
-        } )
+    /**
+     * @param data rendered value of the cell, or null to render it only when needed
+     * @param scroll whether to scroll the cell into view before computing its location on screen
+     */
+    static FakeComponent tableCell2FakeComponent( JTable table, data, int row, int col,
+                                                  boolean scroll = false ) {
+        def item = row < 0 ?
+                SwingItem.tableHeader( table, col ) :
+                SwingItem.tableCell( table, row, col, scroll )
+        item.withRealObject( data ).toComponent()
     }
 
     static Component comboBoxItem2FakeComponent( JComboBox combo, int index ) {
-        def item = combo.getItemAt( index )
-        def getList = { combo.ui.getAccessibleChild( combo, 0 ).list as JList }
-        new FakeComponent( combo,
-                { getList().locationOnScreen },
-                {
-                    new Rectangle( getList().indexToLocation( index ),
-                            [ getList().width, ( getList().height / combo.itemCount ).intValue() ] as Dimension )
-                }, item )
+        SwingItem.comboBoxItem( combo, index ).toComponent()
     }
 
     static Component treeNode2FakeComponent( JTree tree, TreeNode node ) {
-        new FakeComponent( node,
-                { tree.locationOnScreen },
-                { tree.getPathBounds( new TreePath( pathOf( node ) ) ) } )
+        SwingItem.treeNode( tree, node ).toComponent()
     }
 
-    static Component tabbedPane2FakeComponent( JTabbedPane tabbedPane, int index ) {
-        def title = tabbedPane.getTitleAt( index )
-        new FakeComponent(
-                tabbedPane,
-                { tabbedPane.locationOnScreen },
-                { tabbedPane.getBoundsAt( index ) },
-                title )
+    /**
+     * @param path of the node from the root of the tree's model, which is required if the model's nodes are
+     * not TreeNodes
+     */
+    static Component treeNode2FakeComponent( JTree tree, TreePath path ) {
+        SwingItem.treeNode( tree, path ).toComponent()
     }
 
-    static Component listItem2FakeComponent( JList list, int index ) {
-        def item = list.model.getElementAt( index )
-        def listComp = list.cellRenderer.getListCellRendererComponent( list, item, index, false, false )
-
-        // if the renderer component has a getText method - the default renderer returns a JLabel component) - get text
-        // from that or attempt to get the text from the item's toString
-        def listItemText = ReflectionHelper.callMethodIfExists( listComp, 'getText' ) ?: item.toString()
+    static Component tabbedPane2FakeComponent( JTabbedPane tabbedPane, int index ) {
+        SwingItem.tab( tabbedPane, index ).toComponent()
+    }
 
-        new FakeComponent( listComp,
-                { list.locationOnScreen },
-                { list.ui.getCellBounds( list, index, index ) },
-                listItemText )
+    /**
+     * @param scroll whether to scroll the item into view before computing its location on screen
+     */
+    static Component listItem2FakeComponent( JList list, int index, boolean scroll = false ) {
+        SwingItem.listItem( list, index, scroll ).toComponent()
     }
 
     /**
@@ -137,10 +126,10 @@ class SwingUtil {
      * @return The rendered value or the model value if the renderer doesn't have a getText() method
      */
     static getRenderedTableCellValue( JTable table, int row, int col ) {
-        def value = table.model.getValueAt( row, col )
+        def value = table.getValueAt( row, col )
         def rendererComp = table.getCellRenderer( row, col )
                 .getTableCellRendererComponent( table, value, false, false, row, col )
-        def text = ReflectionHelper.callMethodIfExists( rendererComp, 'getText' )
+        def text = MethodAccessor.GET_TEXT.call( rendererComp )
         return text ?: value
     }
 
@@ -156,7 +145,7 @@ class SwingUtil {
         def value = column.headerValue
         if ( column.headerRenderer ) { // default renderer for headers is null!
             def rendererComp = column.headerRenderer.getTableCellRendererComponent( table, value, false, false, -1, col )
-            def text = ReflectionHelper.callMethodIfExists( rendererComp, 'getText' )
+            def text = MethodAccessor.GET_TEXT.call( rendererComp )
             return text ?: value
         } else {
             return value
@@ -164,43 +153,32 @@ class SwingUtil {
     }
 
     /**
+     * Finds the nodes of the given path by asking the tree's model for the children of each node in the path,
+     * so no other nodes are visited and no node is expanded.
+     * <p/>
+     * If the <code>automaton.swing.treeIndex</code> property is set to true, the children of expanded nodes
+     * are looked up in a {@link TreeChildIndex} instead.
      * @param tree to navigate, collecting each Node as a fake Component
      * (see <code>{@link FakeComponent}</code>)
      * @param path to search
      * @return all nodes corresponding to the given path, or an empty List if the full-path does not exist
      */
     static List<Component> collectNodes( JTree tree, String... path ) {
+        if ( !path ) return [ ]
+        def model = tree.model
+        def index = Config.instance.useSwingTreeIndex ? TreeChildIndex.of( tree ) : null
         def result = [ ]
-        def runningPath = path.toList()
-        def parent = tree.model.root as TreeNode
-        def foundNode = null
-
-        while ( runningPath ) {
-
-            def target = runningPath.remove( 0 )
-            foundNode = null
-            navigateBreadthFirst( parent, tree.model ) { TreeNode node ->
-                if ( node == parent ) return false
-                def onSameLevel = node.parent == parent
-                if ( onSameLevel && node as String == target ) foundNode = node
-                !onSameLevel || foundNode
-            }
-            if ( !foundNode ) break
-            result << treeNode2FakeComponent( tree, foundNode )
-            parent = foundNode
+        def parentPath = new TreePath( model.root )
+
+        for ( target in path ) {
+            def foundNode = index ?
+                    index.childWithLabel( parentPath, target ) :
+                    TreeChildIndex.findChild( model, parentPath.lastPathComponent, target )
+            if ( foundNode == null ) return [ ]
+            parentPath = parentPath.pathByAddingChild( foundNode )
+            result << treeNode2FakeComponent( tree, parentPath )
         }
-        if ( foundNode ) result
-        else [ ]
-    }
-
-    private static Object[] pathOf( TreeNode node ) {
-        def path = [ ]
-        def parent = node
-        while ( parent ) {
-            path << parent
-            parent = parent.parent
-        }
-        path.reverse()
+        result
     }
 
     /**
@@ -216,54 +194,41 @@ class SwingUtil {
 /**
  * A fake Component which can be located by any SwingAutomaton.
  * The TreeNode wrapped by this component can be accessed via the <code>getRealObject</code>.
+ * <p/>
+ * FakeComponents are backed by a {@link SwingItem}, which can be accessed via <code>getItem</code>.
  */
 class FakeComponent extends Component {
 
-    final realObject
-    final Closure<Point> parentLocationOnScreen
-    final Closure<Rectangle> getItemBounds
-    final dataValue
+    final SwingItem item
 
     protected FakeComponent( realObject,
                              Closure<Point> parentLocationOnScreen,
                              Closure<Rectangle> getItemBounds,
                              dataValue = null ) {
-        this.realObject = realObject
-        this.parentLocationOnScreen = parentLocationOnScreen
-        this.getItemBounds = getItemBounds
-        this.dataValue = dataValue
+        this( SwingItem.custom( realObject, parentLocationOnScreen, getItemBounds, dataValue ) )
     }
 
-    def getRealObject() { realObject }
-
-    Point getLocationOnScreen() {
-        def parentLocation = parentLocationOnScreen()
-        def bounds = getItemBounds()
-        try {
-            new Point(
-                    ( bounds.location.x + parentLocation.x ) as int,
-                    ( bounds.location.y + parentLocation.y ) as int )
-        } catch ( e ) {
-            throw new GuiItemNotFound( "Component likely not visible on screen: $realObject", e )
-        }
+    protected FakeComponent( SwingItem item ) {
+        this.item = item
     }
 
-    int getWidth() { getItemBounds().width.intValue() }
+    def getRealObject() { item.realObject }
 
-    int getHeight() { getItemBounds().height.intValue() }
+    def getDataValue() { item.dataValue }
 
-    String getText() {
-        if ( dataValue ) {
-            return dataValue as String
-        }
-        def text = ReflectionHelper.callMethodIfExists( realObject, 'getText' )
-        if ( text ) {
-            return text
-        }
-        realObject as String
-    }
+    Closure<Point> getParentLocationOnScreen() { { -> item.parentLocationOnScreen } }
+
+    Closure<Rectangle> getGetItemBounds() { { -> item.boundsInParent } }
+
+    Point getLocationOnScreen() { item.locationOnScreen }
+
+    int getWidth() { item.width }
+
+    int getHeight() { item.height }
+
+    String getText() { item.text }
 
     def methodMissing( String name, Object... args ) {
         realObject."$name"( *args )
     }
-}
\ No newline at end of file
+}
@@ -1,11 +1,18 @@
 package com.athaydes.automaton
 
+import com.athaydes.automaton.metrics.ActionMetrics
 import com.athaydes.automaton.selector.AutomatonSelector
 import com.athaydes.automaton.selector.ComplexSelector
+import com.athaydes.internal.Config
+import com.athaydes.internal.PrioritySearch
+import com.athaydes.internal.traversal.ChainedIterator
+import javafx.application.Platform
 import javafx.scene.Node
 
+import javax.swing.SwingUtilities
 import java.awt.Component
 import java.awt.Point
+import java.util.concurrent.Executor
 
 /**
  * A Driver for mixed Swing and JavaFX Applications.
@@ -15,6 +22,12 @@ class SwingerFxer extends Automaton<SwingerFxer> {
 	final FXer fxer
 	final Swinger swinger
 
+	private static final PrioritySearch fxThenSwingSearch = new PrioritySearch( [
+			{ Runnable task -> Platform.runLater( task ) } as Executor,
+			{ Runnable task -> SwingUtilities.invokeLater( task ) } as Executor ] )
+
+	protected boolean concurrentSearch
+
 	/**
 	 * Gets a new instance of <code>SwingerFxer</code> using the given
 	 * top-level component and node.
@@ -30,12 +43,42 @@ class SwingerFxer extends Automaton<SwingerFxer> {
 	 * current JVM instance.
 	 */
 	static SwingerFxer getUserWith( Component component = null, Node node = null ) {
-		new SwingerFxer( component, node )
+		AutomatonSession.default.swingerFxer( component, node )
 	}
 
-	protected SwingerFxer( Component component, Node node ) {
-		swinger = Swinger.getUserWith( component )
-		fxer = FXer.getUserWith( node )
+	protected SwingerFxer( AutomatonSession session, Component component, Node node ) {
+		super( session )
+		swinger = session.swinger( component )
+		fxer = session.fxer( node )
+		concurrentSearch = Config.instance.useConcurrentSearch
+	}
+
+	/**
+	 * Makes this driver, and the Swinger and FXer it uses, send input using the given backend.
+	 * Other drivers are not affected.
+	 * @param backend to use
+	 * @return this
+	 */
+	@Override
+	SwingerFxer withInput( InputBackend backend ) {
+		swinger.withInput( backend )
+		fxer.withInput( backend )
+		super.withInput( backend )
+	}
+
+	/**
+	 * Enables or disables concurrent searches.
+	 * <p/>
+	 * When enabled, <code>getAt</code> searches the JavaFX tree on the JavaFX Thread and the Swing tree on the
+	 * Event Dispatch Thread at the same time. A JavaFX Node is still returned if both trees contain a match,
+	 * but when only the Swing tree does, the cost of searching both trees is no longer added up.
+	 * The search which is no longer needed is cancelled.
+	 * @param enable true to enable, false to disable concurrent searches
+	 * @return this
+	 */
+	SwingerFxer withConcurrentSearch( boolean enable = true ) {
+		concurrentSearch = enable
+		this
 	}
 
 	/**
@@ -55,9 +98,12 @@ class SwingerFxer extends Automaton<SwingerFxer> {
 	}
 
 	def getAt( String selector ) {
-		def nodes = fxer.getAll( selector, 1 )
-		if ( nodes ) return nodes[ 0 ]
-		swinger[ selector ]
+		def record = ActionMetrics.beginLookup( this, 'getAt', selector )
+		try {
+			return ActionMetrics.found( record, findFirst( selector ) )
+		} catch ( Throwable e ) {
+			throw ActionMetrics.failed( record, e )
+		}
 	}
 
 	def <K> K getAt( Class<K> type ) {
@@ -66,131 +112,197 @@ class SwingerFxer extends Automaton<SwingerFxer> {
 	}
 
 	def getAt( ComplexSelector selector ) {
-		def nodes = fxer.getAll( selector, 1 )
-		if ( nodes ) return nodes[ 0 ]
+		def record = ActionMetrics.beginLookup( this, 'getAt', selector )
+		try {
+			return ActionMetrics.found( record, findFirst( selector ) )
+		} catch ( Throwable e ) {
+			throw ActionMetrics.failed( record, e )
+		}
+	}
+
+	private findFirst( selector ) {
+		if ( canSearchConcurrently() ) {
+			return findConcurrently( selector, { fxer.iterate( selector, 1 ) }, { swinger.iterate( selector, 1 ) } )
+		}
+		def nodes = fxer.iterate( selector, 1 )
+		if ( nodes.hasNext() ) return nodes.next()
 		swinger[ selector ]
 	}
 
-	Collection getAll( String selector ) {
-		def nodes = fxer.getAll( selector )
-		def components = swinger.getAll( selector )
-		nodes + components
+	private boolean canSearchConcurrently() {
+		// searching from one of the UI Threads would block the search running on it
+		concurrentSearch && !Platform.isFxApplicationThread() && !SwingUtilities.isEventDispatchThread()
 	}
 
-	Collection getAll( Class type ) {
+	private static findConcurrently( selector, Closure<Iterator> fxSearch, Closure<Iterator> swingSearch ) {
+		// the searches run on the UI Threads, but the GUI items they visit are part of the caller's lookup
+		def record = ActionMetrics.current()
+		def firstOf = { Closure<Iterator> search ->
+			{ ->
+				ActionMetrics.runAs( record ) {
+					def iterator = search()
+					iterator.hasNext() ? iterator.next() : null
+				}
+			}
+		}
+		def result = fxThenSwingSearch.firstMatch( [ firstOf( fxSearch ), firstOf( swingSearch ) ] )
+		if ( result == null ) throw new GuiItemNotFound( "Could not locate ${selector}" )
+		result
+	}
+
+	Collection getAll( String selector, int limit = Integer.MAX_VALUE ) {
+		def record = ActionMetrics.beginLookup( this, 'getAll', selector )
+		try {
+			return ActionMetrics.found( record, iterate( selector, limit ).toList() )
+		} catch ( Throwable e ) {
+			throw ActionMetrics.failed( record, e )
+		}
+	}
+
+	Collection getAll( Class type, int limit = Integer.MAX_VALUE ) {
+		def record = ActionMetrics.beginLookup( this, 'getAll', type.simpleName )
+		try {
+			return ActionMetrics.found( record, iterate( type, limit ).toList() )
+		} catch ( Throwable e ) {
+			throw ActionMetrics.failed( record, e )
+		}
+	}
+
+	Collection getAll( ComplexSelector selector, int limit = Integer.MAX_VALUE ) {
+		def record = ActionMetrics.beginLookup( this, 'getAll', selector )
+		try {
+			return ActionMetrics.found( record, iterate( selector, limit ).toList() )
+		} catch ( Throwable e ) {
+			throw ActionMetrics.failed( record, e )
+		}
+	}
+
+	/**
+	 * Returns an Iterator over the JavaFX Nodes, then the Swing Components, matching the given selector.
+	 * <p/>
+	 * The JavaFX and Swing trees are only walked as the Iterator is advanced, so the Swing tree is not
+	 * searched at all if the caller stops iterating, or the limit is reached, before the JavaFX matches
+	 * are exhausted.
+	 * @param selector query
+	 * @param limit maximum number of items to return
+	 * @return Iterator over the matching Nodes and Components
+	 */
+	Iterator iterate( String selector, int limit = Integer.MAX_VALUE ) {
+		new ChainedIterator( [ { fxer.iterate( selector, limit ) }, { swinger.iterate( selector, limit ) } ], limit )
+	}
+
+	Iterator iterate( Class type, int limit = Integer.MAX_VALUE ) {
 		if ( Node.isAssignableFrom( type ) )
-			fxer.getAll( type )
+			fxer.iterate( type, limit )
 		else
-			swinger.getAll( type )
+			swinger.iterate( type, limit )
 	}
 
-	Collection getAll( ComplexSelector selector ) {
-		def nodes = fxer.getAll( selector )
-		def components = swinger.getAll( selector )
-		nodes + components
+	Iterator iterate( ComplexSelector selector, int limit = Integer.MAX_VALUE ) {
+		new ChainedIterator( [ { fxer.iterate( selector, limit ) }, { swinger.iterate( selector, limit ) } ], limit )
 	}
 
-	SwingerFxer clickOn( Node node, Speed speed = DEFAULT ) {
+	SwingerFxer clickOn( Node node, Speed speed = defaultSpeed ) {
 		fxer.clickOn( node, speed )
 		this
 	}
 
-	SwingerFxer clickOnNodes( Collection<? extends Node> nodes, long pauseBetween = 100, Speed speed = DEFAULT ) {
+	SwingerFxer clickOnNodes( Collection<? extends Node> nodes, long pauseBetween = 100, Speed speed = defaultSpeed ) {
 		fxer.clickOnNodes( nodes, pauseBetween, speed )
 		this
 	}
 
-	SwingerFxer clickOn( Component component, Speed speed = DEFAULT ) {
+	SwingerFxer clickOn( Component component, Speed speed = defaultSpeed ) {
 		swinger.clickOn( component, speed )
 		this
 	}
 
-	SwingerFxer clickOn( Collection<? extends Component> components, long pauseBetween = 100, Speed speed = DEFAULT ) {
+	SwingerFxer clickOn( Collection<? extends Component> components, long pauseBetween = 100, Speed speed = defaultSpeed ) {
 		swinger.clickOn( components, pauseBetween, speed )
 		this
 	}
 
-	SwingerFxer clickOn( String selector, Speed speed = DEFAULT ) {
+	SwingerFxer clickOn( String selector, Speed speed = defaultSpeed ) {
 		clickOn( this[ selector ], speed )
 		this
 	}
 
-	SwingerFxer clickOn( Class cls, Speed speed = DEFAULT ) {
+	SwingerFxer clickOn( Class cls, Speed speed = defaultSpeed ) {
 		clickOn( this[ cls ], speed )
 		this
 	}
 
-	SwingerFxer clickOn( ComplexSelector selector, Speed speed = DEFAULT ) {
+	SwingerFxer clickOn( ComplexSelector selector, Speed speed = defaultSpeed ) {
 		clickOn( this[ selector ], speed )
 		this
 	}
 
-	SwingerFxer doubleClickOn( Node node, Speed speed = DEFAULT ) {
+	SwingerFxer doubleClickOn( Node node, Speed speed = defaultSpeed ) {
 		fxer.doubleClickOn( node, speed )
 		this
 	}
 
-	SwingerFxer doubleClickOnNodes( Collection<? extends Node> nodes, long pauseBetween = 100, Speed speed = DEFAULT ) {
+	SwingerFxer doubleClickOnNodes( Collection<? extends Node> nodes, long pauseBetween = 100, Speed speed = defaultSpeed ) {
 		fxer.doubleClickOnNodes( nodes, pauseBetween, speed )
 		this
 	}
 
-	SwingerFxer doubleClickOn( Component component, Speed speed = DEFAULT ) {
+	SwingerFxer doubleClickOn( Component component, Speed speed = defaultSpeed ) {
 		swinger.doubleClickOn( component, speed )
 		this
 	}
 
-	SwingerFxer doubleClickOn( Collection<? extends Component> components, long pauseBetween = 100, Speed speed = DEFAULT ) {
+	SwingerFxer doubleClickOn( Collection<? extends Component> components, long pauseBetween = 100, Speed speed = defaultSpeed ) {
 		swinger.doubleClickOn( components, pauseBetween, speed )
 		this
 	}
 
-	SwingerFxer doubleClickOn( String selector, Speed speed = DEFAULT ) {
+	SwingerFxer doubleClickOn( String selector, Speed speed = defaultSpeed ) {
 		doubleClickOn( this[ selector ], speed )
 		this
 	}
 
-	SwingerFxer doubleClickOn( Class cls, Speed speed = DEFAULT ) {
+	SwingerFxer doubleClickOn( Class cls, Speed speed = defaultSpeed ) {
 		doubleClickOn( this[ cls ], speed )
 		this
 	}
 
-	SwingerFxer doubleClickOn( ComplexSelector selector, Speed speed = DEFAULT ) {
+	SwingerFxer doubleClickOn( ComplexSelector selector, Speed speed = defaultSpeed ) {
 		doubleClickOn( this[ selector ], speed )
 		this
 	}
 
-	SwingerFxer moveTo( Node node, Speed speed = DEFAULT ) {
-		fxer.moveTo( node, speed )
+	SwingerFxer moveTo( Node node, Speed speed = defaultSpeed, MouseMotion motion = defaultMotion ) {
+		fxer.moveTo( node, speed, motion )
 		this
 	}
 
-	SwingerFxer moveToNodes( Collection<? extends Node> nodes, long pauseBetween = 100, Speed speed = DEFAULT ) {
+	SwingerFxer moveToNodes( Collection<? extends Node> nodes, long pauseBetween = 100, Speed speed = defaultSpeed ) {
 		fxer.moveToNodes( nodes, pauseBetween, speed )
 		this
 	}
 
-	SwingerFxer moveTo( Component component, Speed speed = DEFAULT ) {
-		swinger.moveTo( component, speed )
+	SwingerFxer moveTo( Component component, Speed speed = defaultSpeed, MouseMotion motion = defaultMotion ) {
+		swinger.moveTo( component, speed, motion )
 		this
 	}
 
-	SwingerFxer moveTo( Collection<? extends Component> components, long pauseBetween = 100, Speed speed = DEFAULT ) {
+	SwingerFxer moveTo( Collection<? extends Component> components, long pauseBetween = 100, Speed speed = defaultSpeed ) {
 		swinger.moveTo( components, pauseBetween, speed )
 		this
 	}
 
-	SwingerFxer moveTo( String selector, Speed speed = DEFAULT ) {
-		moveTo( this[ selector ], speed )
+	SwingerFxer moveTo( String selector, Speed speed = defaultSpeed, MouseMotion motion = defaultMotion ) {
+		moveTo( this[ selector ], speed, motion )
 		this
 	}
 
-	SwingerFxer moveTo( Class cls, Speed speed = DEFAULT ) {
+	SwingerFxer moveTo( Class cls, Speed speed = defaultSpeed ) {
 		moveTo( this[ cls ], speed )
 		this
 	}
 
-	SwingerFxer moveTo( ComplexSelector selector, Speed speed = DEFAULT ) {
+	SwingerFxer moveTo( ComplexSelector selector, Speed speed = defaultSpeed ) {
 		moveTo( this[ selector ], speed )
 		this
 	}
@@ -257,27 +369,27 @@ class SwingerFXerDragOn extends DragOn<SwingerFxer> {
 		super( automaton, fromX, fromY )
 	}
 
-	SwingerFxer onto( Node node, Speed speed = Automaton.DEFAULT ) {
+	SwingerFxer onto( Node node, Speed speed = automaton.defaultSpeed ) {
 		new FXerDragOn( automaton.fxer, fromX, fromY )
 				.onto( node, speed )
 		automaton
 	}
 
-	SwingerFxer onto( Component component, Speed speed = Automaton.DEFAULT ) {
+	SwingerFxer onto( Component component, Speed speed = automaton.defaultSpeed ) {
 		new SwingerDragOn( automaton.swinger, fromX, fromY )
 				.onto( component, speed )
 		automaton
 	}
 
-	SwingerFxer onto( String selector, Speed speed = Automaton.DEFAULT ) {
+	SwingerFxer onto( String selector, Speed speed = automaton.defaultSpeed ) {
 		onto( automaton[ selector ], speed )
 	}
 
-	SwingerFxer onto( Class cls, Speed speed = Automaton.DEFAULT ) {
+	SwingerFxer onto( Class cls, Speed speed = automaton.defaultSpeed ) {
 		onto( automaton[ cls ], speed )
 	}
 
-	SwingerFxer onto( ComplexSelector selector, Speed speed = Automaton.DEFAULT ) {
+	SwingerFxer onto( ComplexSelector selector, Speed speed = automaton.defaultSpeed ) {
 		onto( automaton[ selector ], speed )
 	}
 
@@ -1,12 +1,30 @@
 package com.athaydes.automaton.cli
 
-import com.athaydes.automaton.FXApp
+import com.athaydes.internal.Deadline
+import groovy.transform.CompileDynamic
 import groovy.transform.CompileStatic
+import groovy.transform.PackageScope
 
-import java.awt.*
 import java.lang.instrument.Instrumentation
+import java.util.concurrent.TimeUnit
 
 /**
+ * Java agent which runs AScripts in the JVM of the application being tested.
+ * <p/>
+ * The agent arguments are the script file (or directory) to run, optionally followed by options separated by commas:
+ * <ul>
+ *     <li><code>timeout=&lt;seconds&gt;</code> - how long to wait for the application to be ready (default: 30).</li>
+ *     <li><code>ready=&lt;selector&gt;</code> - the application is only ready once a GUI item matching the selector
+ *     is found. This option must be the last one, as the selector may contain commas.</li>
+ * </ul>
+ * The argument <code>daemon[:port]</code> starts a {@link ScriptDaemon} instead, listening on any free port
+ * unless one is given.
+ * <p/>
+ * The agent may be started with the application (and then exits the JVM when the script finishes) or
+ * attached to a running application (see {@link #attach(java.lang.String, java.lang.String)}). When started
+ * with the application, the agent also exits the JVM with code 5 if the script does not exist or the application
+ * is not ready in time, so that the process running the application does not have to be killed.
+ *
  * @author Renato
  */
 
@@ -14,37 +32,129 @@ import java.lang.instrument.Instrumentation
 @CompileStatic
 class AutomatonJavaAgent {
 
+	static final long DEFAULT_TIMEOUT_SECONDS = 30
+
+	/**
+	 * Exit code used when the script cannot be run, which is the same as for a script error.
+	 */
+	static final int ERROR_EXIT_CODE = 5
+
 	static void premain( String agentArgs, Instrumentation instrumentation ) {
-		if ( agentArgs ) {
-			def toRun = new File( agentArgs )
+		start( agentArgs, true )
+	}
+
+	static void agentmain( String agentArgs, Instrumentation instrumentation ) {
+		// never exit a JVM the agent was attached to
+		start( agentArgs, false )
+	}
+
+	private static void start( String agentArgs, boolean exitOnScriptEnd ) {
+		if ( agentArgs == 'daemon' || agentArgs?.startsWith( 'daemon:' ) ) {
+			// the drivers are only looked up when the first script is received, so there is no need to wait
+			def port = agentArgs.contains( ':' ) ? agentArgs.substring( 'daemon:'.size() ).toInteger() : ScriptDaemon.DEFAULT_PORT
+			new ScriptDaemon( port ).start()
+		} else if ( agentArgs ) {
+			def options = parseOptions( agentArgs )
+			def toRun = new File( options.script )
 			if ( toRun.exists() ) {
-				waitForWindows {
-					if ( Window.windows || FXApp.initialized ) {
-						sleep 2_000
-						AutomatonScriptRunner.instance.run( toRun.absolutePath, null, true )
+				Thread.start( 'automaton-agent' ) {
+					if ( waitUntilReady( options ) ) {
+						AutomatonScriptRunner.instance.run( toRun.absolutePath, null, exitOnScriptEnd )
 					} else {
-						println "AutomatonJavaAgent: no Swing or JavaFX window detected"
+						println "AutomatonJavaAgent: application not ready after ${options.timeoutSeconds} seconds"
+						if ( exitOnScriptEnd ) System.exit( ERROR_EXIT_CODE )
 					}
 				}
 			} else {
 				println "AutomatonJavaAgent: will not start because file '$toRun' does not exist"
+				if ( exitOnScriptEnd ) System.exit( ERROR_EXIT_CODE )
 			}
 		}
 	}
 
-	static void waitForWindows( Closure then ) {
-		final CYCLE = 1_000 // ms
-		final MAX_CYCLES = 30 // cycles
+	/**
+	 * Waits until a Window is showing and the GUI is idle, then until the ready selector, if any, finds
+	 * a GUI item.
+	 * @return true if the application is ready, false if the timeout elapsed first
+	 */
+	static boolean waitUntilReady( AgentOptions options ) {
+		def deadline = Deadline.after( options.timeoutSeconds, TimeUnit.SECONDS, 'Wait for the application' )
+		if ( !WindowWatcher.awaitWindow( deadline.getRemaining( TimeUnit.MILLISECONDS ) ) ) return false
+		if ( !options.readySelector ) return true
+		// the driver is only created again if it could not be created before
+		final Object[] driver = new Object[ 1 ]
+		WindowWatcher.awaitCondition( {
+			if ( driver[ 0 ] == null ) driver[ 0 ] = createDriver()
+			isShowing( driver[ 0 ], options.readySelector )
+		}, deadline )
+	}
 
-		def cycles = 0
+	@CompileDynamic
+	private static Object createDriver() {
+		def binding = BindingProviderBridge.instance.provideBinding()
+		binding[ 'sfxer' ] ?: ( binding[ 'swinger' ] ?: binding[ 'fxer' ] )
+	}
 
-		Thread.start {
-			while ( (!Window.windows && !FXApp.initialized) && cycles < MAX_CYCLES ) {
-				sleep CYCLE
-				cycles++
-			}
-			then.run()
+	@CompileDynamic
+	private static boolean isShowing( driver, String selector ) {
+		driver != null && driver[ selector ] != null
+	}
+
+	@PackageScope
+	static AgentOptions parseOptions( String agentArgs ) {
+		def options = new AgentOptions()
+		def parts = agentArgs.split( /,(?=(timeout|ready)=)/ )
+		options.script = parts[ 0 ]
+		for ( String part in parts.drop( 1 ) ) {
+			def value = part.substring( part.indexOf( '=' ) + 1 )
+			if ( part.startsWith( 'timeout=' ) ) options.timeoutSeconds = value.toLong()
+			else options.readySelector = value
 		}
+		options
+	}
+
+	/**
+	 * Loads this agent into a running JVM, using the Attach API.
+	 * @param pid ID of the JVM process
+	 * @param agentArgs arguments of the agent, as when starting it with the JVM
+	 */
+	static void attach( String pid, String agentArgs ) {
+		def options = parseOptions( agentArgs )
+		if ( options.script != 'daemon' && !options.script.startsWith( 'daemon:' ) ) {
+			// the JVM being attached to may be running in another directory
+			agentArgs = new File( options.script ).absolutePath + agentArgs.substring( options.script.size() )
+		}
+		Class vmClass
+		try {
+			vmClass = Class.forName( 'com.sun.tools.attach.VirtualMachine' )
+		} catch ( ClassNotFoundException ignore ) {
+			throw new IllegalStateException( 'The Attach API is not available. If using Java 8, add the JDK ' +
+					'tools.jar to the class-path.' )
+		}
+		def vm = vmClass.getMethod( 'attach', String ).invoke( null, pid )
+		try {
+			vmClass.getMethod( 'loadAgent', String, String ).invoke( vm, automatonJar().absolutePath, agentArgs )
+		} finally {
+			vmClass.getMethod( 'detach' ).invoke( vm )
+		}
+	}
+
+	/**
+	 * @return the Automaton jar, which contains the agent, or null if Automaton was not loaded from a jar
+	 */
+	static File automatonJar() {
+		try {
+			new File( AutomatonJavaAgent.protectionDomain.codeSource.location.toURI() )
+		} catch ( e ) {
+			null
+		}
+	}
+
+	@PackageScope
+	static class AgentOptions {
+		String script
+		long timeoutSeconds = DEFAULT_TIMEOUT_SECONDS
+		String readySelector
 	}
 
 }
@@ -2,19 +2,15 @@ package com.athaydes.automaton.cli
 
 import com.athaydes.automaton.FXer
 import com.athaydes.automaton.GuiItemNotFound
-import com.athaydes.automaton.Speed
-import com.athaydes.automaton.SwingUtil
 import com.athaydes.automaton.Swinger
 import com.athaydes.automaton.SwingerFxer
-import com.athaydes.automaton.assertion.AutomatonMatcher
+import com.athaydes.automaton.metrics.ActionMetrics
+import com.athaydes.internal.Config
 import groovy.transform.CompileStatic
 import groovy.ui.SystemOutputInterceptor
 import groovy.util.logging.Slf4j
 import javafx.embed.swing.JFXPanel
-import org.codehaus.groovy.control.CompilerConfiguration
-import org.codehaus.groovy.control.customizers.ImportCustomizer
-import org.hamcrest.CoreMatchers
-import org.junit.Assert
+import org.codehaus.groovy.runtime.InvokerHelper
 
 import java.util.concurrent.atomic.AtomicReference
 
@@ -24,10 +20,13 @@ import java.util.concurrent.atomic.AtomicReference
 @Singleton
 class AutomatonScriptRunner {
 
+	final ScriptCache scriptCache = new ScriptCache( Config.instance.scriptCacheDir )
+
 	@CompileStatic
 	void run( String fileName, def writer = null, boolean exitOnScriptEnd = false ) {
 		final error = new AtomicReference<Throwable>()
 		def file = new File( fileName )
+		long traceMark = ActionMetrics.trace?.mark() ?: 0L
 
 		try {
 			if ( file.isFile() ) {
@@ -39,63 +38,91 @@ class AutomatonScriptRunner {
 					println "Looking for groovy scripts under $file.absolutePath"
 					def groovyFiles = file.listFiles()?.findAll { File f ->
 						f.name.endsWith( '.groovy' )
-					}?.sort { it.name }?.each { File groovyFile ->
+					}?.sort { it.name }
+					// compile the scripts in the background while the first ones run
+					groovyFiles?.each { File groovyFile -> scriptCache.prefetch( groovyFile.text ) }
+					groovyFiles?.each { File groovyFile ->
 						run( groovyFile.absolutePath, writer, false )
 					}
 					if ( !groovyFiles ) println "No groovy scripts found"
-				} else println "Cannot find file $fileName"
+				} else {
+					println "Cannot find file $fileName"
+					error.set( new FileNotFoundException( fileName ) )
+				}
 			}
 		} catch ( Throwable e ) {
-			println "AScript failed due to $e"
-			def element = e.stackTrace.find { it.className =~ /Script\d+/ }
-			if ( element ) {
-				println "    at Script line ${element.lineNumber}"
-			}
+			println failureMessage( e )
+			print traceMessage( traceMark )
 			error.set( e )
 		}
 
 		if ( exitOnScriptEnd ) {
 			Thread.start {
 				sleep 500
-				if ( error.get() != null ) {
-					System.exit( ( error.get() instanceof AssertionError ) ? 10 : 5 )
-				} else {
-					System.exit( 0 )
-				}
+				System.exit( exitCodeOf( error.get() ) )
 			}
 		}
 	}
 
+	/**
+	 * @param error thrown by a script
+	 * @return message describing the error, including the line of the script where it happened, if known
+	 */
 	@CompileStatic
-	void runScript( String text, def writer = null ) {
-		def config = new CompilerConfiguration()
-		config.scriptBaseClass = AutomatonScriptBase.name
+	static String failureMessage( Throwable error ) {
+		def message = "AScript failed due to $error"
+		def element = error.stackTrace.find { StackTraceElement it -> it.className.startsWith( 'AScript_' ) }
+		element ? "$message\n    at Script line ${element.lineNumber}" : message
+	}
 
-		def imports = new ImportCustomizer().addStaticStars(
-				Assert.getName(), // CompileStatic bug
-				AutomatonMatcher.getName(),
-				CoreMatchers.getName(),
-				SwingUtil.getName(),
-				Speed.getName() )
+	/**
+	 * @param since mark of the action trace taken when the script started
+	 * @return the driver actions run by the script, as JSON lines (oldest first) following a header line,
+	 * or an empty String if the action trace is off
+	 */
+	@CompileStatic
+	static String traceMessage( long since ) {
+		def trace = ActionMetrics.trace
+		if ( trace == null ) return ''
+		def lines = new StringBuilder()
+		int count = trace.dump( lines, since )
+		count ? "Latest driver actions ($count, oldest first):\n$lines" : ''
+	}
 
-		config.addCompilationCustomizers( imports )
+	/**
+	 * @param error thrown by a script, or null if the script ran without errors
+	 * @return 0 if there was no error, 10 if an assertion failed, 5 otherwise
+	 */
+	@CompileStatic
+	static int exitCodeOf( Throwable error ) {
+		error == null ? 0 : error instanceof AssertionError ? 10 : 5
+	}
 
+	/**
+	 * Runs the given script.
+	 * @param text of the script
+	 * @param writer to send the script output to, if any
+	 * @param binding of the script. Unless given, a new binding containing the drivers is provided.
+	 */
+	@CompileStatic
+	void runScript( String text, def writer = null, Binding binding = null ) {
 		SystemOutputInterceptor sysoutInterceptor = null
 		SystemOutputInterceptor syserrInterceptor = null
 
 		if ( writer ) {
-			sysoutInterceptor = new SystemOutputInterceptor( { s -> writeSafely( writer, s ) }, false )
-			syserrInterceptor = new SystemOutputInterceptor( { s -> writeSafely( writer, s ) }, true )
+			// newer Groovy versions also pass the console ID before the text
+			sysoutInterceptor = new SystemOutputInterceptor( { Object[] args -> writeSafely( writer, args.last() ) }, false )
+			syserrInterceptor = new SystemOutputInterceptor( { Object[] args -> writeSafely( writer, args.last() ) }, true )
 			sysoutInterceptor.start()
 			syserrInterceptor.start()
 		}
 
-		def shell = new GroovyShell( this.class.classLoader, BindingProviderBridge.instance.provideBinding(), config )
-
 		try {
-			shell.evaluate( text )
+			def script = InvokerHelper.createScript( scriptCache.scriptClass( text ),
+					binding ?: BindingProviderBridge.instance.provideBinding() )
+			script.run()
 		} catch ( Exception | AssertionError e ) {
-			if ( writer ) writeSafely( writer, e )
+			if ( writer ) writeSafely( writer, failureMessage( e ) + '\n' )
 			throw e
 		} finally {
 			sysoutInterceptor?.stop()
@@ -0,0 +1,317 @@
+package com.athaydes.automaton.cli
+
+import groovy.transform.CompileStatic
+import groovy.transform.PackageScope
+import groovy.util.logging.Slf4j
+
+import java.util.concurrent.ConcurrentLinkedQueue
+import java.util.concurrent.atomic.AtomicInteger
+
+/**
+ * Runs the AScripts of a directory in parallel, each script in a new application JVM started with the
+ * Automaton agent.
+ * <p/>
+ * Each worker owns a virtual X display (started with Xvfb, by default), so the applications started by
+ * different workers do not share the mouse and keyboard. Scripts are given to the workers longest first,
+ * according to the durations recorded in previous runs, so that all workers finish at about the same time.
+ * <p/>
+ * The exit code of each application JVM is the one used by the Automaton agent: 0 if the script ran without
+ * errors, 10 if an assertion failed, 5 if any other error occurred, including the application not becoming ready
+ * in time, so only applications which hang have to be killed. The exit code of the whole run is 5 if any
+ * script could not be run or ended with an error, 10 if any assertion failed, 0 otherwise.
+ */
+@CompileStatic
+@Slf4j
+class ParallelScriptRunner {
+
+	/**
+	 * Name of the file, in the scripts directory, where the duration of each script is recorded.
+	 */
+	static final String DURATIONS_FILE = '.automaton-durations.properties'
+
+	final File scriptsDir
+	final List<String> command
+
+	int workers = Runtime.runtime.availableProcessors()
+	int firstDisplay = 99
+	String xvfb = 'Xvfb'
+	String screen = '1280x1024x24'
+	long timeout = 600_000
+	File agentJar = AutomatonJavaAgent.automatonJar()
+
+	/**
+	 * @param scriptsDir directory containing the AScripts
+	 * @param command command which starts the application JVM, starting with the java executable
+	 */
+	ParallelScriptRunner( File scriptsDir, List<String> command ) {
+		this.scriptsDir = scriptsDir
+		this.command = command
+	}
+
+	/**
+	 * Runs all scripts, returning when all of them have finished.
+	 * @return the combined exit code of all scripts
+	 */
+	int run() {
+		def scripts = scriptsDir.listFiles()?.findAll { File f -> f.name.endsWith( '.groovy' ) } as List<File>
+		if ( !scripts ) {
+			println "No groovy scripts found under $scriptsDir.absolutePath"
+			return 0
+		}
+		def durations = loadDurations()
+		def queue = new ConcurrentLinkedQueue<File>( schedule( scripts, durations ) )
+		def results = Collections.synchronizedList( [ ] as List<ScriptResult> )
+		def displays = new AtomicInteger( firstDisplay )
+		def workerCount = Math.max( 1, Math.min( workers, scripts.size() ) )
+		long startTime = System.currentTimeMillis()
+
+		println "Running ${scripts.size()} scripts under $scriptsDir.absolutePath using $workerCount worker(s)"
+
+		def threads = ( 1..workerCount ).collect { int index ->
+			Thread.start( "automaton-parallel-runner-$index" ) {
+				runScripts( queue, results, displays )
+			}
+		}
+		for ( Thread thread in threads ) thread.join()
+
+		// scripts left in the queue could not be run because no display could be started
+		for ( File script in queue ) results << new ScriptResult( script, 5, 0L )
+
+		for ( ScriptResult result in results ) {
+			if ( result.duration > 0 ) durations[ result.script.name ] = result.duration
+		}
+		saveDurations( durations )
+
+		printSummary( results, System.currentTimeMillis() - startTime )
+		combinedExitCode( results.collect { ScriptResult r -> r.exitCode } )
+	}
+
+	private void runScripts( Queue<File> queue, List<ScriptResult> results, AtomicInteger displays ) {
+		Process display = null
+		String displayName = null
+		try {
+			if ( xvfb ) {
+				def number = nextFreeDisplay( displays )
+				display = startDisplay( number )
+				displayName = ":$number"
+			}
+		} catch ( e ) {
+			println "Unable to start a virtual display: $e"
+			return
+		}
+		try {
+			File script
+			while ( ( script = queue.poll() ) != null ) {
+				results << runScript( script, displayName )
+			}
+		} finally {
+			display?.destroy()
+		}
+	}
+
+	private ScriptResult runScript( File script, String displayName ) {
+		def builder = new ProcessBuilder( forkCommand( command, agentJar, script ) ).redirectErrorStream( true )
+		if ( displayName ) builder.environment().put( 'DISPLAY', displayName )
+		def output = new ByteArrayOutputStream()
+		long startTime = System.currentTimeMillis()
+		int exitCode
+		try {
+			def process = builder.start()
+			def outputConsumer = process.consumeProcessOutputStream( output )
+			process.waitForOrKill( timeout )
+			outputConsumer.join()
+			boolean timedOut = System.currentTimeMillis() - startTime >= timeout
+			exitCode = timedOut ? 5 : process.exitValue()
+			if ( timedOut ) output.write( "Script timed out after ${timeout} ms\n".getBytes() )
+		} catch ( IOException e ) {
+			output.write( "Unable to start the application: $e\n".getBytes() )
+			exitCode = 5
+		}
+		def result = new ScriptResult( script, exitCode, System.currentTimeMillis() - startTime )
+		synchronized ( this ) {
+			println "----- ${script.name} (display ${displayName ?: 'default'}) -----"
+			print output.toString()
+			println "----- ${script.name} ${result.status} in ${result.duration} ms -----"
+		}
+		result
+	}
+
+	private int nextFreeDisplay( AtomicInteger displays ) {
+		int number = displays.getAndIncrement()
+		// an existing lock file means the display is being used by another X server
+		while ( new File( "/tmp/.X${number}-lock" ).exists() ) number = displays.getAndIncrement()
+		number
+	}
+
+	private Process startDisplay( int number ) {
+		def process = new ProcessBuilder( xvfb, ":$number", '-screen', '0', screen, '-nolisten', 'tcp' )
+				.redirectErrorStream( true ).start()
+		process.consumeProcessOutput()
+		def socket = new File( "/tmp/.X11-unix/X$number" )
+		for ( int i = 0; i < 100 && !socket.exists(); i++ ) {
+			if ( !isAlive( process ) ) break
+			Thread.sleep( 100 )
+		}
+		if ( !socket.exists() || !isAlive( process ) ) {
+			process.destroy()
+			throw new IllegalStateException( "$xvfb did not start on display :$number" )
+		}
+		process
+	}
+
+	private static boolean isAlive( Process process ) {
+		try {
+			process.exitValue()
+			false
+		} catch ( IllegalThreadStateException ignore ) {
+			true
+		}
+	}
+
+	private Map<String, Long> loadDurations() {
+		Map<String, Long> durations = [ : ]
+		def file = new File( scriptsDir, DURATIONS_FILE )
+		if ( file.file ) {
+			def properties = new Properties()
+			try {
+				file.withInputStream { InputStream input -> properties.load( input ) }
+				for ( String name in properties.stringPropertyNames() ) {
+					def duration = properties.getProperty( name )
+					if ( duration.isLong() ) durations[ name ] = duration.toLong()
+				}
+			} catch ( IOException e ) {
+				log.warn( "Unable to read script durations from $file", e )
+			}
+		}
+		durations
+	}
+
+	private void saveDurations( Map<String, Long> durations ) {
+		def properties = new Properties()
+		durations.each { String name, Long duration -> properties.setProperty( name, duration.toString() ) }
+		def file = new File( scriptsDir, DURATIONS_FILE )
+		try {
+			file.withOutputStream { OutputStream output ->
+				properties.store( output, 'Duration of each AScript, in ms, used to balance parallel runs' )
+			}
+		} catch ( IOException e ) {
+			log.warn( "Unable to write script durations to $file", e )
+		}
+	}
+
+	private static void printSummary( List<ScriptResult> results, long duration ) {
+		def failed = results.findAll { ScriptResult r -> r.exitCode != 0 }
+		println "Ran ${results.size()} scripts in $duration ms: ${results.size() - failed.size()} passed, " +
+				"${failed.count { ScriptResult r -> r.exitCode == 10 }} failed, " +
+				"${failed.count { ScriptResult r -> r.exitCode != 10 }} errors"
+		for ( ScriptResult result in failed.sort { ScriptResult r -> r.script.name } ) {
+			println "    ${result.script.name}: ${result.status}"
+		}
+	}
+
+	/**
+	 * @param scripts to run
+	 * @param durations recorded duration of each script, by script name
+	 * @return the scripts in the order they should be run, longest first. Scripts with no recorded
+	 * duration are assumed to be the longest ones.
+	 */
+	@PackageScope
+	static List<File> schedule( List<File> scripts, Map<String, Long> durations ) {
+		scripts.sort( false ) { File a, File b ->
+			def durationA = durations[ a.name ] ?: Long.MAX_VALUE
+			def durationB = durations[ b.name ] ?: Long.MAX_VALUE
+			durationB <=> durationA ?: a.name <=> b.name
+		}
+	}
+
+	/**
+	 * @return the command which runs the given script in a new application JVM
+	 */
+	@PackageScope
+	static List<String> forkCommand( List<String> command, File agentJar, File script ) {
+		[ command[ 0 ], "-javaagent:${agentJar.absolutePath}=${script.absolutePath}".toString() ] +
+				command.subList( 1, command.size() )
+	}
+
+	/**
+	 * @param exitCodes exit codes of all scripts
+	 * @return 5 if any script ended with an error, 10 if any assertion failed, 0 otherwise
+	 */
+	@PackageScope
+	static int combinedExitCode( Collection<Integer> exitCodes ) {
+		if ( exitCodes.any { Integer code -> code != 0 && code != 10 } ) return 5
+		exitCodes.contains( 10 ) ? 10 : 0
+	}
+
+	private static void usage() {
+		println '''ParallelScriptRunner usage:
+		|  [options] <scripts-dir> -- <command to start the application, starting with the java executable>
+		|  Options:
+		|    -workers <n> - number of application JVMs to run at the same time (default: number of CPUs)
+		|    -timeout <seconds> - maximum time each script may run for (default: 600)
+		|    -display <n> - number of the first virtual display to use (default: 99)
+		|    -xvfb <command|none> - X server used to start the virtual displays, or none to use the current display
+		|    -agent <jar> - Automaton jar to use as the Java agent (default: the jar this class is loaded from)
+		|  Example:
+		|    -workers 4 mydir -- java -jar my-app.jar'''.stripMargin()
+	}
+
+	static void main( String[] args ) {
+		def separator = args.toList().indexOf( '--' )
+		if ( separator < 1 || separator == args.size() - 1 ) {
+			usage()
+			System.exit( 5 )
+		}
+		def options = args.toList().subList( 0, separator - 1 )
+		def runner = new ParallelScriptRunner( new File( args[ separator - 1 ] ),
+				args.toList().subList( separator + 1, args.size() ) )
+
+		try {
+			for ( int i = 0; i < options.size(); i += 2 ) {
+				if ( i + 1 >= options.size() ) throw new IllegalArgumentException( "Missing value of ${options[ i ]}" )
+				def value = options[ i + 1 ]
+				switch ( options[ i ] ) {
+					case '-workers': runner.workers = value.toInteger(); break
+					case '-timeout': runner.timeout = value.toLong() * 1000; break
+					case '-display': runner.firstDisplay = value.toInteger(); break
+					case '-xvfb': runner.xvfb = value == 'none' ? null : value; break
+					case '-agent': runner.agentJar = new File( value ); break
+					default: throw new IllegalArgumentException( "Unknown option: ${options[ i ]}" )
+				}
+			}
+		} catch ( IllegalArgumentException e ) {
+			println e.message
+			usage()
+			System.exit( 5 )
+		}
+
+		if ( !runner.scriptsDir.directory ) {
+			println "Cannot find directory $runner.scriptsDir"
+			System.exit( 5 )
+		}
+		if ( !runner.agentJar?.file ) {
+			println "Cannot find the Automaton jar, please use the -agent option"
+			System.exit( 5 )
+		}
+
+		System.exit( runner.run() )
+	}
+
+	@PackageScope
+	static class ScriptResult {
+		final File script
+		final int exitCode
+		final long duration
+
+		ScriptResult( File script, int exitCode, long duration ) {
+			this.script = script
+			this.exitCode = exitCode
+			this.duration = duration
+		}
+
+		String getStatus() {
+			exitCode == 0 ? 'passed' : exitCode == 10 ? 'failed' : "error (exit code $exitCode)"
+		}
+	}
+
+}
@@ -0,0 +1,278 @@
+package com.athaydes.automaton.cli
+
+import com.athaydes.automaton.Speed
+import com.athaydes.automaton.SwingUtil
+import com.athaydes.automaton.assertion.AutomatonMatcher
+import groovy.transform.CompileStatic
+import groovy.util.logging.Slf4j
+import org.codehaus.groovy.control.CompilationUnit
+import org.codehaus.groovy.control.CompilerConfiguration
+import org.codehaus.groovy.control.Phases
+import org.codehaus.groovy.control.customizers.ImportCustomizer
+import org.codehaus.groovy.tools.GroovyClass
+import org.hamcrest.CoreMatchers
+import org.junit.Assert
+
+import java.security.MessageDigest
+import java.util.concurrent.Callable
+import java.util.concurrent.ExecutionException
+import java.util.concurrent.ExecutorService
+import java.util.concurrent.Executors
+import java.util.concurrent.Future
+import java.util.concurrent.FutureTask
+import java.util.concurrent.ThreadFactory
+
+/**
+ * Compiles AScripts, caching the compiled classes so that each script is compiled only once.
+ * <p/>
+ * Scripts are identified by a hash of their text, the Automaton version and a fingerprint of the Automaton build,
+ * so a script is compiled again if it changes or if Automaton is upgraded or rebuilt. The most recently used
+ * compiled classes are kept in memory and, if a directory is given, all are also stored on disk so that they can
+ * be reused by other JVMs.
+ * <p/>
+ * Scripts can also be compiled ahead of time in the background with {@link #prefetch(java.lang.String)}.
+ */
+@CompileStatic
+@Slf4j
+class ScriptCache {
+
+	static final String AUTOMATON_VERSION = ScriptCache.package?.implementationVersion ?: 'dev'
+
+	/**
+	 * Size and modification time of the jar or class file Automaton was loaded from, which tells apart builds
+	 * with the same version.
+	 */
+	static final String BUILD_FINGERPRINT = buildFingerprint()
+
+	/**
+	 * Maximum number of compiled scripts kept in memory by default.
+	 */
+	static final int DEFAULT_MAX_SCRIPTS = 256
+
+	/**
+	 * The compiler configuration used for all AScripts.
+	 */
+	static final CompilerConfiguration COMPILER_CONFIG = compilerConfiguration()
+
+	private final Map<String, Future<Class<? extends Script>>> compiled
+	private final File cacheDir
+	private final ClassLoader parentLoader
+	private final ExecutorService background = Executors.newSingleThreadExecutor( new ThreadFactory() {
+		@Override
+		Thread newThread( Runnable runnable ) {
+			def thread = new Thread( runnable, 'automaton-script-compiler' )
+			thread.daemon = true
+			thread
+		}
+	} )
+
+	/**
+	 * @param cacheDir directory to store compiled scripts in, or null to only keep them in memory
+	 * @param parentLoader ClassLoader of the classes the scripts use
+	 * @param maxScripts maximum number of compiled scripts to keep in memory, the least recently used
+	 * being discarded first
+	 */
+	ScriptCache( File cacheDir = null, ClassLoader parentLoader = ScriptCache.classLoader,
+	             int maxScripts = DEFAULT_MAX_SCRIPTS ) {
+		this.cacheDir = cacheDir
+		this.parentLoader = parentLoader
+		this.compiled = new LruMap<String, Future<Class<? extends Script>>>( maxScripts )
+	}
+
+	/**
+	 * @param text of the script
+	 * @return the compiled script class, compiling the script now unless it has already been compiled
+	 */
+	Class<? extends Script> scriptClass( String text ) {
+		def key = keyOf( text )
+		def task = newCompileTask( key, text )
+		def existing = putIfAbsent( key, task )
+		if ( existing == null ) {
+			task.run()
+			existing = task
+		}
+		try {
+			return existing.get()
+		} catch ( ExecutionException e ) {
+			// allow the script to be fixed and compiled again
+			synchronized ( compiled ) {
+				if ( compiled[ key ].is( existing ) ) compiled.remove( key )
+			}
+			throw e.cause ?: e
+		}
+	}
+
+	/**
+	 * Compiles the given script in the background, unless it has already been compiled.
+	 * @param text of the script
+	 */
+	void prefetch( String text ) {
+		def key = keyOf( text )
+		def task = newCompileTask( key, text )
+		if ( putIfAbsent( key, task ) == null ) background.execute( task )
+	}
+
+	/**
+	 * @return number of scripts currently cached in memory
+	 */
+	int size() {
+		synchronized ( compiled ) {
+			compiled.size()
+		}
+	}
+
+	private Future<Class<? extends Script>> putIfAbsent( String key, Future<Class<? extends Script>> task ) {
+		synchronized ( compiled ) {
+			def existing = compiled[ key ]
+			if ( existing == null ) compiled[ key ] = task
+			existing
+		}
+	}
+
+	/**
+	 * @param text of the script
+	 * @return the key identifying the script, which is the hash of the text, the Automaton version
+	 * and the build fingerprint
+	 */
+	static String keyOf( String text ) {
+		def digest = MessageDigest.getInstance( 'SHA-256' )
+		digest.update( AUTOMATON_VERSION.getBytes( 'UTF-8' ) )
+		digest.update( ( byte ) 0 )
+		digest.update( BUILD_FINGERPRINT.getBytes( 'UTF-8' ) )
+		digest.update( ( byte ) 0 )
+		digest.update( text.getBytes( 'UTF-8' ) )
+		digest.digest().encodeHex().toString()
+	}
+
+	/**
+	 * @param key of the script
+	 * @return the name of the script class, which must match the pattern used to find the script
+	 * line in stack traces
+	 */
+	static String scriptClassName( String key ) {
+		"AScript_${key.substring( 0, 16 )}"
+	}
+
+	private FutureTask<Class<? extends Script>> newCompileTask( final String key, final String text ) {
+		new FutureTask<Class<? extends Script>>( new Callable<Class<? extends Script>>() {
+			@Override
+			Class<? extends Script> call() throws Exception {
+				loadScript( key, text )
+			}
+		} )
+	}
+
+	private Class<? extends Script> loadScript( String key, String text ) {
+		def className = scriptClassName( key )
+		def classes = readFromDisk( key )
+		if ( classes == null ) {
+			classes = compile( className, text )
+			writeToDisk( key, classes )
+		}
+		new CompiledScriptLoader( parentLoader, classes ).loadClass( className ) as Class<? extends Script>
+	}
+
+	private Map<String, byte[]> compile( String className, String text ) {
+		def unit = new CompilationUnit( COMPILER_CONFIG, null, new GroovyClassLoader( parentLoader, COMPILER_CONFIG ) )
+		unit.addSource( className + '.groovy', text )
+		unit.compile( Phases.CLASS_GENERATION )
+		Map<String, byte[]> classes = [ : ]
+		for ( Object item in unit.classes ) {
+			def groovyClass = item as GroovyClass
+			classes[ groovyClass.name ] = groovyClass.bytes
+		}
+		classes
+	}
+
+	private Map<String, byte[]> readFromDisk( String key ) {
+		if ( !cacheDir ) return null
+		def dir = new File( cacheDir, key )
+		if ( !dir.directory ) return null
+		try {
+			Map<String, byte[]> classes = [ : ]
+			for ( File file in dir.listFiles() ) {
+				if ( file.name.endsWith( '.class' ) ) classes[ file.name - '.class' ] = file.bytes
+			}
+			return classes ?: null
+		} catch ( IOException e ) {
+			log.warn( "Unable to read compiled script from $dir", e )
+			return null
+		}
+	}
+
+	private void writeToDisk( String key, Map<String, byte[]> classes ) {
+		if ( !cacheDir ) return
+		// write to a temporary directory first so that other JVMs never see a partially written script
+		def tempDir = new File( cacheDir, "${key}.${UUID.randomUUID()}.tmp" )
+		try {
+			if ( !tempDir.mkdirs() ) throw new IOException( "Cannot create directory $tempDir" )
+			classes.each { String name, byte[] bytes -> new File( tempDir, name + '.class' ).bytes = bytes }
+			if ( !tempDir.renameTo( new File( cacheDir, key ) ) ) tempDir.deleteDir() // already cached by another JVM
+		} catch ( IOException e ) {
+			log.warn( "Unable to store compiled script in $cacheDir", e )
+			tempDir.deleteDir()
+		}
+	}
+
+	private static String buildFingerprint() {
+		try {
+			def location = ScriptCache.protectionDomain?.codeSource?.location
+			if ( location == null || location.protocol != 'file' ) return ''
+			def source = new File( location.toURI() )
+			// when not running from a jar, use the class file of the script base class
+			if ( source.directory ) source = new File( source, AutomatonScriptBase.name.replace( '.', '/' ) + '.class' )
+			return source.file ? "${source.length()}-${source.lastModified()}".toString() : ''
+		} catch ( Exception e ) {
+			log.warn( "Unable to find the Automaton build fingerprint", e )
+			return ''
+		}
+	}
+
+	private static CompilerConfiguration compilerConfiguration() {
+		def config = new CompilerConfiguration()
+		config.scriptBaseClass = AutomatonScriptBase.name
+
+		def imports = new ImportCustomizer().addStaticStars(
+				Assert.getName(), // CompileStatic bug
+				AutomatonMatcher.getName(),
+				CoreMatchers.getName(),
+				SwingUtil.getName(),
+				Speed.getName() )
+
+		config.addCompilationCustomizers( imports )
+		config
+	}
+
+	private static class LruMap<A, B> extends LinkedHashMap<A, B> {
+		private final int maxEntries
+
+		LruMap( int maxEntries ) {
+			super( 16, 0.75f, true )
+			this.maxEntries = maxEntries
+		}
+
+		@Override
+		protected boolean removeEldestEntry( Map.Entry<A, B> eldest ) {
+			size() > maxEntries
+		}
+	}
+
+	private static class CompiledScriptLoader extends ClassLoader {
+
+		private final Map<String, byte[]> classes
+
+		CompiledScriptLoader( ClassLoader parent, Map<String, byte[]> classes ) {
+			super( parent )
+			this.classes = classes
+		}
+
+		@Override
+		protected Class<?> findClass( String name ) throws ClassNotFoundException {
+			def bytes = classes[ name ]
+			if ( bytes == null ) throw new ClassNotFoundException( name )
+			defineClass( name, bytes, 0, bytes.length )
+		}
+
+	}
+
+}
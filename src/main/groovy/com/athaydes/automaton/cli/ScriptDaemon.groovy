@@ -0,0 +1,296 @@
+package com.athaydes.automaton.cli
+
+import com.athaydes.automaton.metrics.ActionMetrics
+import groovy.transform.CompileStatic
+import groovy.util.logging.Slf4j
+
+import java.nio.file.Files
+import java.nio.file.attribute.PosixFilePermissions
+import java.security.MessageDigest
+import java.security.SecureRandom
+import java.util.concurrent.Callable
+
+/**
+ * Long-lived server which runs AScripts sent to it over a local socket, in the JVM of the application
+ * being tested.
+ * <p/>
+ * When started, the daemon creates a secret token and writes it, with the port it listens on, to the daemon file,
+ * which only the current user can read. A client sends a first line with the token, then the text of a script,
+ * and then closes its side of the connection. Connections which do not start with the token are closed without
+ * reading the script. The daemon runs the script, streaming everything written to stdout and stderr while the
+ * script runs back to the client, and then sends a last line with the {@link #EXIT_CODE_PREFIX} followed by the
+ * exit code of the script, as used by the Automaton agent (see
+ * {@link AutomatonScriptRunner#exitCodeOf(java.lang.Throwable)}).
+ * <p/>
+ * The drivers given to the scripts are looked up only once, and scripts are run one at a time.
+ */
+@CompileStatic
+@Slf4j
+class ScriptDaemon {
+
+	/**
+	 * By default, the daemon listens on any free port, which is written to the daemon file.
+	 */
+	static final int DEFAULT_PORT = 0
+	static final String EXIT_CODE_PREFIX = 'AUTOMATON-EXIT-CODE: '
+
+	/**
+	 * File the port and token of the last daemon started by the current user are written to.
+	 */
+	static final File DEFAULT_DAEMON_FILE = new File( System.getProperty( 'user.home' ), '.automaton/daemon.properties' )
+
+	/**
+	 * Maximum time to wait for a client to send its token and script.
+	 */
+	static final int READ_TIMEOUT_MILLIS = 10_000
+
+	private static final int MAX_TOKEN_LENGTH = 128
+
+	final String token = newToken()
+	private final int port
+	private final Callable<Binding> bindingProvider
+	private final File daemonFile
+	private ServerSocket serverSocket
+	private Binding binding
+
+	/**
+	 * @param port to listen on, or 0 to use any free port
+	 * @param bindingProvider provides the variables, such as the drivers, given to all scripts
+	 * @param daemonFile file to write the port and token to, or null to not write them anywhere
+	 */
+	ScriptDaemon( int port = DEFAULT_PORT, Callable<Binding> bindingProvider = driversProvider(),
+	              File daemonFile = DEFAULT_DAEMON_FILE ) {
+		this.port = port
+		this.bindingProvider = bindingProvider
+		this.daemonFile = daemonFile
+	}
+
+	private static String newToken() {
+		def bytes = new byte[ 32 ]
+		new SecureRandom().nextBytes( bytes )
+		bytes.encodeHex().toString()
+	}
+
+	private static Callable<Binding> driversProvider() {
+		new Callable<Binding>() {
+			@Override
+			Binding call() throws Exception {
+				BindingProviderBridge.instance.provideBinding()
+			}
+		}
+	}
+
+	/**
+	 * Starts listening for scripts on a daemon Thread. Only connections from the local host are accepted.
+	 * @return this
+	 */
+	synchronized ScriptDaemon start() {
+		if ( serverSocket ) throw new IllegalStateException( 'ScriptDaemon already started' )
+		serverSocket = new ServerSocket( port, 0, InetAddress.getByName( null ) )
+		def thread = new Thread( new Runnable() {
+			@Override
+			void run() {
+				serve( serverSocket )
+			}
+		}, 'automaton-script-daemon' )
+		thread.daemon = true
+		thread.start()
+		if ( daemonFile ) writeOwnerOnly( daemonFile, "port=$localPort\ntoken=$token\n".toString() )
+		println "AutomatonScriptDaemon: listening for AScripts on port $localPort" +
+				( daemonFile ? ", token written to $daemonFile" : '' )
+		this
+	}
+
+	private static void writeOwnerOnly( File file, String text ) {
+		file.parentFile?.mkdirs()
+		file.delete()
+		try {
+			Files.createFile( file.toPath(),
+					PosixFilePermissions.asFileAttribute( PosixFilePermissions.fromString( 'rw-------' ) ) )
+		} catch ( UnsupportedOperationException ignore ) {
+			// not a POSIX file system
+			Files.createFile( file.toPath() )
+			file.setReadable( false, false )
+			file.setReadable( true, true )
+		}
+		file.setText( text, 'UTF-8' )
+	}
+
+	/**
+	 * @return the port the daemon is listening on
+	 */
+	synchronized int getLocalPort() {
+		serverSocket ? serverSocket.localPort : port
+	}
+
+	synchronized void stop() {
+		serverSocket?.close()
+		if ( daemonFile && readDaemonFile( daemonFile )?.getProperty( 'token' ) == token ) daemonFile.delete()
+	}
+
+	private void serve( ServerSocket server ) {
+		while ( !server.closed ) {
+			try {
+				def socket = server.accept()
+				try {
+					socket.soTimeout = READ_TIMEOUT_MILLIS
+					runScript( socket )
+				} finally {
+					socket.close()
+				}
+			} catch ( IOException e ) {
+				if ( !server.closed ) log.warn( 'Problem communicating with AScript client', e )
+			}
+		}
+	}
+
+	private void runScript( Socket socket ) {
+		ClientWriter writer = new ClientWriter( socket.outputStream )
+		if ( !validToken( readLine( socket.inputStream ) ) ) {
+			writer.write( 'AutomatonScriptDaemon: invalid token, the script was not run\n' )
+			writer.writeExitCode( AutomatonJavaAgent.ERROR_EXIT_CODE )
+			return
+		}
+		def text = readScript( socket.inputStream )
+		Throwable error = null
+		Binding scriptBinding = null
+		long traceMark = ActionMetrics.trace?.mark() ?: 0L
+		try {
+			scriptBinding = newBinding()
+			AutomatonScriptRunner.instance.runScript( text, writer, scriptBinding )
+		} catch ( Throwable e ) {
+			// failures of the script itself have already been written by the runner
+			if ( scriptBinding == null ) writer.write( AutomatonScriptRunner.failureMessage( e ) + '\n' )
+			writer.write( AutomatonScriptRunner.traceMessage( traceMark ) )
+			error = e
+		}
+		writer.writeExitCode( AutomatonScriptRunner.exitCodeOf( error ) )
+	}
+
+	private boolean validToken( String candidate ) {
+		candidate != null && MessageDigest.isEqual( candidate.getBytes( 'UTF-8' ), token.getBytes( 'UTF-8' ) )
+	}
+
+	/**
+	 * @return the first line sent by the client, or null if the line is too long or the stream ends first
+	 */
+	private static String readLine( InputStream input ) {
+		// read byte by byte so that none of the script is consumed
+		def bytes = new ByteArrayOutputStream()
+		int next
+		while ( ( next = input.read() ) != -1 && next != ( '\n' as char ) ) {
+			if ( bytes.size() >= MAX_TOKEN_LENGTH ) return null
+			bytes.write( next )
+		}
+		next == -1 ? null : bytes.toString( 'UTF-8' ).trim()
+	}
+
+	private static String readScript( InputStream input ) {
+		// the stream must not be closed, as that would close the socket
+		def bytes = new ByteArrayOutputStream()
+		def buffer = new byte[ 8192 ]
+		int count
+		while ( ( count = input.read( buffer ) ) != -1 ) bytes.write( buffer, 0, count )
+		bytes.toString( 'UTF-8' )
+	}
+
+	/**
+	 * @return a new Binding with the variables given to all scripts, so that variables set by a script
+	 * are not seen by the next ones
+	 */
+	private synchronized Binding newBinding() {
+		if ( binding == null ) binding = bindingProvider.call()
+		new Binding( new HashMap( binding.variables ) )
+	}
+
+	/**
+	 * @param daemonFile the daemon wrote its port and token to
+	 * @return the contents of the file, or null if it does not exist
+	 */
+	static Properties readDaemonFile( File daemonFile = DEFAULT_DAEMON_FILE ) {
+		if ( !daemonFile.file ) return null
+		def properties = new Properties()
+		daemonFile.withInputStream { InputStream input -> properties.load( input ) }
+		properties
+	}
+
+	/**
+	 * Sends a script to the daemon which last wrote the daemon file, printing its output.
+	 * @param text of the script
+	 * @param port the daemon listens on. Unless given, the port in the daemon file is used.
+	 * @return the exit code of the script
+	 */
+	static int send( String text, Integer port ) {
+		def daemon = readDaemonFile()
+		if ( daemon == null ) throw new IllegalStateException( "No ScriptDaemon is running: $DEFAULT_DAEMON_FILE " +
+				"does not exist" )
+		send( text, port ?: daemon.getProperty( 'port' ).toInteger(), daemon.getProperty( 'token' ) )
+	}
+
+	/**
+	 * Sends a script to a running daemon, writing its output to the given writer.
+	 * @param text of the script
+	 * @param port the daemon listens on
+	 * @param token of the daemon
+	 * @param output to write the script output to
+	 * @return the exit code of the script
+	 */
+	static int send( String text, int port, String token, Appendable output = System.out ) {
+		def socket = new Socket( InetAddress.getByName( null ), port )
+		try {
+			socket.outputStream.write( ( token + '\n' ).getBytes( 'UTF-8' ) )
+			socket.outputStream.write( text.getBytes( 'UTF-8' ) )
+			socket.shutdownOutput()
+			int exitCode = 5
+			socket.inputStream.newReader( 'UTF-8' ).eachLine { String line ->
+				if ( line.startsWith( EXIT_CODE_PREFIX ) ) {
+					exitCode = line.substring( EXIT_CODE_PREFIX.size() ).toInteger()
+				} else {
+					output.append( line ).append( '\n' )
+				}
+			}
+			exitCode
+		} finally {
+			socket.close()
+		}
+	}
+
+	/**
+	 * Writes the script output to the client, as soon as it is written.
+	 */
+	private static class ClientWriter {
+
+		private final Writer writer
+		private boolean atLineStart = true
+		private boolean disconnected = false
+
+		ClientWriter( OutputStream output ) {
+			this.writer = new OutputStreamWriter( output, 'UTF-8' )
+		}
+
+		synchronized void write( Object text ) {
+			def string = ( text ?: '' ).toString()
+			if ( string ) {
+				send( string )
+				atLineStart = string.endsWith( '\n' )
+			}
+		}
+
+		synchronized void writeExitCode( int exitCode ) {
+			send( ( atLineStart ? '' : '\n' ) + EXIT_CODE_PREFIX + exitCode + '\n' )
+		}
+
+		private void send( String string ) {
+			// errors are not reported as they would be written to the intercepted stderr
+			if ( disconnected ) return
+			try {
+				writer.write( string )
+				writer.flush()
+			} catch ( IOException ignore ) {
+				disconnected = true
+			}
+		}
+
+	}
+
+}
@@ -0,0 +1,132 @@
+package com.athaydes.automaton.cli
+
+import com.athaydes.internal.Deadline
+import com.athaydes.internal.Quiescence
+import groovy.transform.CompileStatic
+import javafx.collections.ListChangeListener
+import javafx.collections.ObservableList
+
+import java.awt.AWTEvent
+import java.awt.Toolkit
+import java.awt.Window
+import java.awt.event.AWTEventListener
+import java.awt.event.WindowEvent
+import java.util.concurrent.CountDownLatch
+import java.util.concurrent.TimeUnit
+
+/**
+ * Waits for the application to show its first Window, being notified by the GUI toolkits when a Window is
+ * shown instead of polling for Windows.
+ */
+@CompileStatic
+class WindowWatcher {
+
+	/**
+	 * Maximum time to wait for the GUI to become idle once a Window has been shown.
+	 */
+	static final long IDLE_WAIT_MILLIS = 2_000
+
+	/**
+	 * Waits until a Swing or JavaFX Window is showing, then waits for the GUI to become idle.
+	 * @param timeoutMillis maximum time to wait for a Window
+	 * @return true if a Window is showing, false if the timeout elapsed first
+	 */
+	static boolean awaitWindow( long timeoutMillis ) {
+		def latch = new CountDownLatch( 1 )
+		def awtListener = new AWTEventListener() {
+			@Override
+			void eventDispatched( AWTEvent event ) {
+				if ( event.getID() == WindowEvent.WINDOW_OPENED ) latch.countDown()
+			}
+		}
+		Toolkit.defaultToolkit.addAWTEventListener( awtListener, AWTEvent.WINDOW_EVENT_MASK )
+		boolean fx = javaFXPresent()
+		Runnable stopFxWatch = fx ? FxWindowWatcher.watch( latch ) : null
+		try {
+			// the listeners are only notified about Windows shown after they were added
+			if ( Window.windows.any { Window w -> w.showing } ) latch.countDown()
+			if ( !latch.await( timeoutMillis, TimeUnit.MILLISECONDS ) ) return false
+		} finally {
+			Toolkit.defaultToolkit.removeAWTEventListener( awtListener )
+			stopFxWatch?.run()
+		}
+		Quiescence.awaitIdle( IDLE_WAIT_MILLIS, true, fx )
+		true
+	}
+
+	/**
+	 * Waits until the given condition is met.
+	 * @param condition to check, which may throw an Exception if not met
+	 * @param deadline until which to wait
+	 * @return true if the condition was met, false if the deadline expired first
+	 */
+	static boolean awaitCondition( Closure<Boolean> condition, Deadline deadline ) {
+		while ( !deadline.expired ) {
+			try {
+				if ( condition.call() ) return true
+			} catch ( Exception ignore ) {
+				// not ready yet
+			}
+			Thread.sleep( 100 )
+		}
+		false
+	}
+
+	static boolean javaFXPresent() {
+		try {
+			Class.forName( 'javafx.stage.Window' )
+			true
+		} catch ( ClassNotFoundException ignore ) {
+			false
+		}
+	}
+
+}
+
+@CompileStatic
+class FxWindowWatcher {
+
+	/**
+	 * Counts down the given latch when a JavaFX Window is showing.
+	 * @param latch to count down
+	 * @return action which stops watching the Windows
+	 */
+	static Runnable watch( final CountDownLatch latch ) {
+		final windows = fxWindows()
+		if ( windows == null ) return new Runnable() {
+			@Override
+			void run() {}
+		}
+		final listener = new ListChangeListener<Object>() {
+			@Override
+			void onChanged( ListChangeListener.Change<? extends Object> change ) {
+				if ( !windows.empty ) latch.countDown()
+			}
+		}
+		windows.addListener( listener )
+		if ( !windows.empty ) latch.countDown()
+		new Runnable() {
+			@Override
+			void run() {
+				windows.removeListener( listener )
+			}
+		}
+	}
+
+	private static ObservableList<Object> fxWindows() {
+		try {
+			// JavaFX 9 and later
+			return javafx.stage.Window.getMethod( 'getWindows' ).invoke( null ) as ObservableList<Object>
+		} catch ( NoSuchMethodException ignore ) {
+			// JavaFX 8 only lists Stages, not other Windows
+			try {
+				return Class.forName( 'com.sun.javafx.stage.StageHelper' )
+						.getMethod( 'getStages' ).invoke( null ) as ObservableList<Object>
+			} catch ( Exception e ) {
+				println "AutomatonJavaAgent: unable to watch JavaFX Windows: $e"
+				return null
+			}
+		}
+	}
+
+}
@@ -0,0 +1,347 @@
+package com.athaydes.automaton.metrics
+
+import com.athaydes.internal.Config
+import com.athaydes.internal.TimeLimiter
+import groovy.transform.CompileStatic
+import groovy.util.logging.Slf4j
+import javafx.scene.Node
+
+import javax.management.ObjectName
+import javax.management.StandardMBean
+import javax.management.openmbean.ArrayType
+import javax.management.openmbean.CompositeDataSupport
+import javax.management.openmbean.CompositeType
+import javax.management.openmbean.OpenType
+import javax.management.openmbean.SimpleType
+import javax.management.openmbean.TabularData
+import javax.management.openmbean.TabularDataSupport
+import javax.management.openmbean.TabularType
+import java.awt.Component
+import java.awt.Point
+import java.lang.management.ManagementFactory
+import java.util.concurrent.ConcurrentHashMap
+import java.util.concurrent.ConcurrentMap
+import java.util.concurrent.CopyOnWriteArrayList
+
+/**
+ * Records how long each driver action takes, and how much of that time is spent waiting rather than working.
+ * <p/>
+ * Actions are the lookups of the drivers (with the selector, the number of GUI items visited and the number
+ * of items found) and the mouse and keyboard actions, pauses and waits of {@link com.athaydes.automaton.Automaton}.
+ * Actions which run within another action (such as a move within a click on a selector) are recorded
+ * separately, and their wait time and visited items also count for the enclosing actions.
+ * <p/>
+ * Statistics of each action are aggregated in memory. Aggregating statistics is off by default, and can be
+ * turned on with the <code>automaton.metrics.enabled</code> property or {@link #setEnabled(boolean)}. Once
+ * turned on, the statistics are also exposed through JMX as <code>com.athaydes.automaton:type=ActionMetrics</code>,
+ * which can turn them off and on again.
+ * <p/>
+ * The latest actions can also be kept in an {@link ActionTrace}, which is dumped when an AScript fails. Its size
+ * is set with the <code>automaton.trace.size</code> property, the default 0 turning it off.
+ * <p/>
+ * When neither statistics nor the trace are on, an action only costs a check of a volatile flag, and nothing is
+ * allocated.
+ * To see each action, add an {@link ActionRecordListener}.
+ */
+@CompileStatic
+@Slf4j
+class ActionMetrics {
+
+	static final String OBJECT_NAME = 'com.athaydes.automaton:type=ActionMetrics'
+
+	private static volatile boolean enabled = Config.instance.metricsEnabled
+	private static volatile ActionTrace trace = createTrace( Config.instance.traceSize )
+	private static volatile boolean recording = enabled || trace != null
+
+	private static final ThreadLocal<Deque<ActionRecord>> activeRecords = new ThreadLocal<Deque<ActionRecord>>() {
+		@Override
+		protected Deque<ActionRecord> initialValue() {
+			new ArrayDeque<ActionRecord>()
+		}
+	}
+
+	private static final ConcurrentMap<String, ActionStats> stats = new ConcurrentHashMap<String, ActionStats>()
+	private static final List<ActionRecordListener> listeners = new CopyOnWriteArrayList<ActionRecordListener>()
+
+	private static boolean mBeanRegistered = false
+
+	static {
+		if ( enabled ) registerMBean()
+	}
+
+	static boolean isEnabled() {
+		enabled
+	}
+
+	static void setEnabled( boolean enable ) {
+		enabled = enable
+		recording = enable || trace != null
+		if ( enable ) registerMBean()
+	}
+
+	/**
+	 * @return the trace of the latest actions, or null if the trace is off
+	 */
+	static ActionTrace getTrace() {
+		trace
+	}
+
+	/**
+	 * @param newTrace trace to keep the latest actions in, or null to turn the trace off
+	 */
+	static void setTrace( ActionTrace newTrace ) {
+		trace = newTrace
+		recording = enabled || newTrace != null
+	}
+
+	private static ActionTrace createTrace( int size ) {
+		size > 0 ? new ActionTrace( size ) : null
+	}
+
+	/**
+	 * Starts recording an action in the current Thread.
+	 * @param action name of the action
+	 * @param selector used by the action, if any
+	 * @return the record of the action, which must be given to {@link #end(ActionRecord)}, or null if recording is off
+	 */
+	static ActionRecord begin( String action, String selector = null ) {
+		if ( !recording ) return null
+		def record = new ActionRecord( action, selector )
+		activeRecords.get().push( record )
+		record
+	}
+
+	/**
+	 * Ends recording the given action.
+	 * @param record returned by {@link #begin(java.lang.String, java.lang.String)}, may be null
+	 */
+	static void end( ActionRecord record ) {
+		if ( record == null ) return
+		record.end()
+		activeRecords.get().remove( record )
+		if ( enabled ) {
+			def actionStats = stats[ record.action ]
+			if ( actionStats == null ) {
+				actionStats = new ActionStats( record.action )
+				def existing = stats.putIfAbsent( record.action, actionStats )
+				if ( existing != null ) actionStats = existing
+			}
+			actionStats.add( record )
+		}
+		trace?.add( record )
+		for ( listener in listeners ) {
+			try {
+				listener.actionEnded( record )
+			} catch ( e ) {
+				log.warn( "ActionRecordListener $listener failed", e )
+			}
+		}
+	}
+
+	/**
+	 * Ends recording the given lookup.
+	 * @param record returned by {@link #begin(java.lang.String, java.lang.String)}, may be null
+	 * @param resultCount number of items found
+	 */
+	static void end( ActionRecord record, int resultCount ) {
+		if ( record == null ) return
+		record.resultCount = resultCount
+		end( record )
+	}
+
+	/**
+	 * Starts recording a lookup of the given driver. The action is named after the driver's class and the method.
+	 * <p/>
+	 * The record must be given to either {@link #found(ActionRecord, java.lang.Object)} or
+	 * {@link #failed(ActionRecord, java.lang.Throwable)}.
+	 * @param driver running the lookup
+	 * @param method name of the lookup method
+	 * @param selector used by the lookup
+	 * @return the record of the lookup, or null if recording is off
+	 */
+	static ActionRecord beginLookup( Object driver, String method, Object selector ) {
+		if ( !recording ) return null
+		begin( driver.getClass().simpleName + '.' + method, String.valueOf( selector ) )
+	}
+
+	/**
+	 * Ends recording a lookup which found the given result.
+	 * @param record returned by {@link #beginLookup(java.lang.Object, java.lang.String, java.lang.Object)},
+	 * may be null
+	 * @param result of the lookup, either a single item or a Collection of items
+	 * @return the result
+	 */
+	static <R> R found( ActionRecord record, R result ) {
+		if ( record == null ) return result
+		int found = 0
+		if ( result instanceof Collection ) {
+			found = ( result as Collection ).size()
+		} else if ( result != null ) {
+			found = 1
+			record.target = describe( result )
+		}
+		end( record, found )
+		result
+	}
+
+	/**
+	 * Ends recording a lookup which failed with the given error.
+	 * @param record returned by {@link #beginLookup(java.lang.Object, java.lang.String, java.lang.Object)},
+	 * may be null
+	 * @param error thrown by the lookup
+	 * @return the error, so that it can be re-thrown
+	 */
+	static Throwable failed( ActionRecord record, Throwable error ) {
+		if ( record == null ) return error
+		record.error = error.toString()
+		end( record, 0 )
+		error
+	}
+
+	/**
+	 * Sets the screen coordinates the current action is run at.
+	 * @param location screen coordinates
+	 */
+	static void located( Point location ) {
+		if ( !recording ) return
+		activeRecords.get().peek()?.setLocation( location )
+	}
+
+	/**
+	 * @return a short description of the given GUI item, made of its type and its name or id, if any
+	 */
+	static String describe( item ) {
+		String name = null
+		if ( item instanceof Component ) name = ( item as Component ).name
+		else if ( item instanceof Node ) name = ( item as Node ).id
+		name ? "${item.getClass().simpleName}[$name]" : item.getClass().simpleName
+	}
+
+	/**
+	 * @return the innermost action being recorded in the current Thread, or null if there is none
+	 */
+	static ActionRecord current() {
+		recording ? activeRecords.get().peek() : null
+	}
+
+	/**
+	 * Adds the given wait time to all actions being recorded in the current Thread.
+	 * @param nanos time spent waiting
+	 */
+	static void waited( long nanos ) {
+		if ( !recording ) return
+		for ( record in activeRecords.get() ) record.addWait( nanos )
+	}
+
+	/**
+	 * Runs the given action in the current Thread as if it were part of the given record, which may have been
+	 * started in another Thread.
+	 * @param record to attribute the work to, may be null
+	 * @param action to run
+	 * @return the result of the action
+	 */
+	static <R> R runAs( ActionRecord record, Closure<R> action ) {
+		if ( record == null ) return action.call()
+		def records = activeRecords.get()
+		records.push( record )
+		try {
+			return action.call()
+		} finally {
+			records.remove( record )
+		}
+	}
+
+	/**
+	 * @return a copy of the statistics of each action, by action name
+	 */
+	static Map<String, ActionStats.Snapshot> getStats() {
+		Map<String, ActionStats.Snapshot> result = new TreeMap<String, ActionStats.Snapshot>()
+		for ( entry in stats.entrySet() ) result[ entry.key ] = entry.value.snapshot()
+		result
+	}
+
+	static void reset() {
+		stats.clear()
+	}
+
+	static void addListener( ActionRecordListener listener ) {
+		listeners.add( listener )
+	}
+
+	static void removeListener( ActionRecordListener listener ) {
+		listeners.remove( listener )
+	}
+
+	private static synchronized void registerMBean() {
+		if ( mBeanRegistered ) return
+		mBeanRegistered = true
+		try {
+			def server = ManagementFactory.platformMBeanServer
+			def name = new ObjectName( OBJECT_NAME )
+			if ( !server.isRegistered( name ) ) {
+				server.registerMBean( new StandardMBean( new JmxView(), ActionMetricsMBean ), name )
+			}
+		} catch ( e ) {
+			log.warn( 'Unable to register the ActionMetrics MBean', e )
+		}
+	}
+
+	private static class JmxView implements ActionMetricsMBean {
+
+		private static final String[] ITEMS = [ 'action', 'count', 'totalMillis', 'waitMillis', 'workMillis',
+				'maxMillis', 'nodesVisited', 'results', 'histogram' ] as String[]
+
+		private static final CompositeType ROW_TYPE = new CompositeType( 'ActionStats',
+				'Statistics of an action', ITEMS, ITEMS, [ SimpleType.STRING, SimpleType.LONG, SimpleType.DOUBLE,
+				SimpleType.DOUBLE, SimpleType.DOUBLE, SimpleType.DOUBLE, SimpleType.LONG, SimpleType.LONG,
+				ArrayType.getPrimitiveArrayType( long[] ) ] as OpenType[] )
+
+		private static final TabularType TABLE_TYPE = new TabularType( 'ActionStatsTable',
+				'Statistics of each action', ROW_TYPE, [ 'action' ] as String[] )
+
+		@Override
+		boolean isEnabled() {
+			ActionMetrics.enabled
+		}
+
+		@Override
+		void setEnabled( boolean enable ) {
+			ActionMetrics.enabled = enable
+		}
+
+		@Override
+		TabularData getActions() {
+			def table = new TabularDataSupport( TABLE_TYPE )
+			for ( snapshot in ActionMetrics.getStats().values() ) {
+				table.put( new CompositeDataSupport( ROW_TYPE, ITEMS, [ snapshot.action, snapshot.count,
+						snapshot.totalMillis, snapshot.waitMillis, snapshot.workMillis, snapshot.maxMillis,
+						snapshot.nodesVisited, snapshot.results, snapshot.histogram ] as Object[] ) )
+			}
+			table
+		}
+
+		@Override
+		long[] getHistogramBounds() {
+			ActionStats.HISTOGRAM_BOUNDS.clone() as long[]
+		}
+
+		@Override
+		long getTimeouts() {
+			TimeLimiter.timeoutCount
+		}
+
+		@Override
+		void reset() {
+			ActionMetrics.reset()
+		}
+
+		@Override
+		String getTrace() {
+			def output = new StringBuilder()
+			ActionMetrics.trace?.dump( output )
+			output.toString()
+		}
+
+	}
+
+}
@@ -0,0 +1,40 @@
+package com.athaydes.automaton.metrics
+
+import javax.management.openmbean.TabularData
+
+/**
+ * Management interface of {@link ActionMetrics}, registered with the platform MBeanServer as
+ * <code>com.athaydes.automaton:type=ActionMetrics</code>.
+ */
+interface ActionMetricsMBean {
+
+	boolean isEnabled()
+
+	void setEnabled( boolean enabled )
+
+	/**
+	 * @return statistics of each action recorded since the last reset, one row per action
+	 */
+	TabularData getActions()
+
+	/**
+	 * @return upper bounds, in milliseconds, of the buckets of the histograms of each action
+	 */
+	long[] getHistogramBounds()
+
+	/**
+	 * @return number of blocking calls which timed out
+	 */
+	long getTimeouts()
+
+	/**
+	 * Discards all statistics.
+	 */
+	void reset()
+
+	/**
+	 * @return the latest actions, oldest first, as JSON lines
+	 */
+	String getTrace()
+
+}
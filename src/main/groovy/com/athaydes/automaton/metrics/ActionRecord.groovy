@@ -0,0 +1,125 @@
+package com.athaydes.automaton.metrics
+
+import groovy.transform.CompileStatic
+
+import java.awt.Point
+import java.util.concurrent.atomic.AtomicLong
+
+/**
+ * Timing and search data of a single driver action, such as a click or a lookup.
+ * <p/>
+ * The wait time is the time the action spent waiting for something other than its own work, such as the
+ * delays between mouse moves and key strokes, waiting for the UI Threads to run a task or become idle,
+ * pauses, or waiting for the user in interactive mode.
+ */
+@CompileStatic
+class ActionRecord {
+
+	final String action
+	final String selector
+	final long startNanos = System.nanoTime()
+	final long startMillis = System.currentTimeMillis()
+	final String thread = Thread.currentThread().name
+
+	private final AtomicLong waitNanos = new AtomicLong()
+	private final AtomicLong nodesVisited = new AtomicLong()
+	private volatile long durationNanos = -1
+	private volatile int resultCount = -1
+	private volatile String target
+	private volatile Point location
+	private volatile String error
+
+	ActionRecord( String action, String selector = null ) {
+		this.action = action
+		this.selector = selector
+	}
+
+	void addWait( long nanos ) {
+		waitNanos.addAndGet( nanos )
+	}
+
+	void visited() {
+		nodesVisited.incrementAndGet()
+	}
+
+	void setResultCount( int resultCount ) {
+		this.resultCount = resultCount
+	}
+
+	/**
+	 * @param target description of the GUI item the action was run on, or found by a lookup
+	 */
+	void setTarget( String target ) {
+		this.target = target
+	}
+
+	String getTarget() {
+		target
+	}
+
+	/**
+	 * @param location screen coordinates the action was run at
+	 */
+	void setLocation( Point location ) {
+		this.location = location == null ? null : new Point( location )
+	}
+
+	Point getLocation() {
+		location == null ? null : new Point( location )
+	}
+
+	/**
+	 * @param error description of the error the action failed with
+	 */
+	void setError( String error ) {
+		this.error = error
+	}
+
+	String getError() {
+		error
+	}
+
+	/**
+	 * @return number of items found by a lookup, or -1 if this action is not a lookup
+	 */
+	int getResultCount() {
+		resultCount
+	}
+
+	/**
+	 * @return number of GUI items visited by the action while searching
+	 */
+	long getNodesVisited() {
+		nodesVisited.get()
+	}
+
+	long getWaitNanos() {
+		waitNanos.get()
+	}
+
+	/**
+	 * @return duration of the action, or -1 if it has not ended yet
+	 */
+	long getDurationNanos() {
+		durationNanos
+	}
+
+	/**
+	 * @return time the action spent doing its own work, ie. its duration minus its wait time
+	 */
+	long getWorkNanos() {
+		Math.max( 0L, durationNanos - waitNanos.get() )
+	}
+
+	void end() {
+		durationNanos = System.nanoTime() - startNanos
+	}
+
+	@Override
+	String toString() {
+		"ActionRecord(action:$action, selector:$selector, target:$target, location:$location, " +
+				"durationNanos:$durationNanos, waitNanos:$waitNanos, nodesVisited:$nodesVisited, " +
+				"resultCount:$resultCount, error:$error, thread:$thread)"
+	}
+
+}
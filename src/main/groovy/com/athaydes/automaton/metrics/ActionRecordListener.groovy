@@ -0,0 +1,14 @@
+package com.athaydes.automaton.metrics
+
+/**
+ * Listener of the driver actions recorded by {@link ActionMetrics}.
+ */
+interface ActionRecordListener {
+
+	/**
+	 * Called, in the Thread which ran the action, when an action ends.
+	 * @param record of the action
+	 */
+	void actionEnded( ActionRecord record )
+
+}
@@ -0,0 +1,94 @@
+package com.athaydes.automaton.metrics
+
+import groovy.transform.CompileStatic
+
+import java.util.concurrent.TimeUnit
+import java.util.concurrent.atomic.AtomicLong
+import java.util.concurrent.atomic.AtomicLongArray
+
+/**
+ * Aggregated timing data of all runs of an action.
+ */
+@CompileStatic
+class ActionStats {
+
+	/**
+	 * Upper bounds, in milliseconds, of the buckets of the duration histogram. The last bucket has no upper bound.
+	 */
+	static final long[] HISTOGRAM_BOUNDS = [ 1, 2, 5, 10, 20, 50, 100, 200, 500, 1000, 2000, 5000 ] as long[]
+
+	final String action
+
+	private final AtomicLong count = new AtomicLong()
+	private final AtomicLong totalNanos = new AtomicLong()
+	private final AtomicLong waitNanos = new AtomicLong()
+	private final AtomicLong maxNanos = new AtomicLong()
+	private final AtomicLong nodesVisited = new AtomicLong()
+	private final AtomicLong results = new AtomicLong()
+	private final AtomicLongArray histogram = new AtomicLongArray( HISTOGRAM_BOUNDS.length + 1 )
+
+	ActionStats( String action ) {
+		this.action = action
+	}
+
+	void add( ActionRecord record ) {
+		long duration = record.durationNanos
+		count.incrementAndGet()
+		totalNanos.addAndGet( duration )
+		waitNanos.addAndGet( Math.min( duration, record.waitNanos ) )
+		nodesVisited.addAndGet( record.nodesVisited )
+		if ( record.resultCount > 0 ) results.addAndGet( record.resultCount )
+		long max = maxNanos.get()
+		while ( duration > max && !maxNanos.compareAndSet( max, duration ) ) max = maxNanos.get()
+		histogram.incrementAndGet( bucketOf( TimeUnit.NANOSECONDS.toMillis( duration ) ) )
+	}
+
+	/**
+	 * @return a copy of the current data. Actions running concurrently may be only partially included.
+	 */
+	Snapshot snapshot() {
+		long[] buckets = new long[ histogram.length() ]
+		for ( int i = 0; i < buckets.length; i++ ) buckets[ i ] = histogram.get( i )
+		long total = totalNanos.get()
+		long wait = waitNanos.get()
+		new Snapshot( action, count.get(), millis( total ), millis( wait ), millis( total - wait ),
+				millis( maxNanos.get() ), nodesVisited.get(), results.get(), buckets )
+	}
+
+	private static int bucketOf( long millis ) {
+		for ( int i = 0; i < HISTOGRAM_BOUNDS.length; i++ ) {
+			if ( millis < HISTOGRAM_BOUNDS[ i ] ) return i
+		}
+		HISTOGRAM_BOUNDS.length
+	}
+
+	private static double millis( long nanos ) {
+		nanos / 1_000_000d
+	}
+
+	static class Snapshot {
+		final String action
+		final long count
+		final double totalMillis
+		final double waitMillis
+		final double workMillis
+		final double maxMillis
+		final long nodesVisited
+		final long results
+		final long[] histogram
+
+		Snapshot( String action, long count, double totalMillis, double waitMillis, double workMillis,
+		          double maxMillis, long nodesVisited, long results, long[] histogram ) {
+			this.action = action
+			this.count = count
+			this.totalMillis = totalMillis
+			this.waitMillis = waitMillis
+			this.workMillis = workMillis
+			this.maxMillis = maxMillis
+			this.nodesVisited = nodesVisited
+			this.results = results
+			this.histogram = histogram
+		}
+	}
+
+}
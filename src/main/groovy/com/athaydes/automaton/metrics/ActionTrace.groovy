@@ -0,0 +1,138 @@
+package com.athaydes.automaton.metrics
+
+import groovy.transform.CompileStatic
+
+import java.util.concurrent.atomic.AtomicLong
+import java.util.concurrent.atomic.AtomicReferenceArray
+
+/**
+ * Bounded, in-memory trace of the latest driver actions, which can be dumped as JSON lines (one JSON object
+ * per action, oldest first) to find out what a script was doing when it failed.
+ * <p/>
+ * Actions are added without locking: each action claims the next sequence number and overwrites the oldest
+ * slot of the buffer. Dumping the trace while actions are being added may skip the actions which are
+ * overwritten in the meantime, but never blocks them.
+ */
+@CompileStatic
+class ActionTrace {
+
+	static final int DEFAULT_CAPACITY = 256
+
+	private final int capacity
+	private final AtomicLong nextSequence = new AtomicLong()
+	private final AtomicReferenceArray<Entry> slots
+
+	/**
+	 * @param capacity maximum number of actions kept, the oldest ones being discarded first
+	 */
+	ActionTrace( int capacity = DEFAULT_CAPACITY ) {
+		if ( capacity < 1 ) throw new IllegalArgumentException( "Invalid trace capacity: $capacity" )
+		this.capacity = capacity
+		this.slots = new AtomicReferenceArray<Entry>( capacity )
+	}
+
+	int getCapacity() {
+		capacity
+	}
+
+	void add( ActionRecord record ) {
+		long sequence = nextSequence.getAndIncrement()
+		slots.set( ( int ) ( sequence % capacity ), new Entry( sequence, record ) )
+	}
+
+	/**
+	 * @return the sequence number of the next action to be added, which can be given to
+	 * {@link #dump(java.lang.Appendable, long)} to dump only the actions added after this call
+	 */
+	long mark() {
+		nextSequence.get()
+	}
+
+	/**
+	 * @param since sequence number of the first action to return, as returned by {@link #mark()}
+	 * @return the actions still in the trace, oldest first
+	 */
+	List<ActionRecord> entries( long since = 0 ) {
+		entriesSince( since )*.record
+	}
+
+	/**
+	 * Writes the actions still in the trace, oldest first, as JSON lines.
+	 * @param output to write to
+	 * @param since sequence number of the first action to write, as returned by {@link #mark()}
+	 * @return the number of actions written
+	 */
+	int dump( Appendable output, long since = 0 ) {
+		def entries = entriesSince( since )
+		for ( entry in entries ) {
+			output.append( toJson( entry.sequence, entry.record ) ).append( '\n' )
+		}
+		entries.size()
+	}
+
+	void clear() {
+		for ( int i = 0; i < capacity; i++ ) slots.set( i, null )
+	}
+
+	private List<Entry> entriesSince( long since ) {
+		long end = nextSequence.get()
+		long start = Math.max( since, end - capacity )
+		List<Entry> result = [ ]
+		for ( long sequence = start; sequence < end; sequence++ ) {
+			Entry entry = slots.get( ( int ) ( sequence % capacity ) )
+			// the slot may have been cleared, or overwritten by a newer action
+			if ( entry != null && entry.sequence == sequence ) result << entry
+		}
+		result
+	}
+
+	/**
+	 * @return the given action as a JSON object on a single line. Fields without a value are omitted.
+	 */
+	static String toJson( long sequence, ActionRecord record ) {
+		def json = new StringBuilder( 160 )
+		json.append( '{"seq":' ).append( sequence )
+		json.append( ',"time":' ).append( record.startMillis )
+		appendString( json, 'thread', record.thread )
+		appendString( json, 'action', record.action )
+		appendString( json, 'selector', record.selector )
+		appendString( json, 'target', record.target )
+		def location = record.location
+		if ( location != null ) {
+			json.append( ',"x":' ).append( location.x as int ).append( ',"y":' ).append( location.y as int )
+		}
+		if ( record.durationNanos >= 0 ) json.append( ',"ms":' ).append( millis( record.durationNanos ) )
+		if ( record.waitNanos > 0 ) json.append( ',"waitMs":' ).append( millis( record.waitNanos ) )
+		if ( record.nodesVisited > 0 ) json.append( ',"visited":' ).append( record.nodesVisited )
+		if ( record.resultCount >= 0 ) json.append( ',"results":' ).append( record.resultCount )
+		appendString( json, 'error', record.error )
+		json.append( '}' ).toString()
+	}
+
+	private static String millis( long nanos ) {
+		String.format( Locale.ROOT, '%.3f', nanos / 1_000_000d )
+	}
+
+	private static void appendString( StringBuilder json, String name, String value ) {
+		if ( value == null ) return
+		json.append( ',"' ).append( name ).append( '":"' )
+		for ( int i = 0; i < value.length(); i++ ) {
+			char c = value.charAt( i )
+			if ( c == ( '"' as char ) || c == ( '\\' as char ) ) json.append( '\\' ).append( c )
+			else if ( c < ( ' ' as char ) ) json.append( String.format( '\\u%04x', ( int ) c ) )
+			else json.append( c )
+		}
+		json.append( '"' )
+	}
+
+	private static class Entry {
+		final long sequence
+		final ActionRecord record
+
+		Entry( long sequence, ActionRecord record ) {
+			this.sequence = sequence
+			this.record = record
+		}
+	}
+
+}
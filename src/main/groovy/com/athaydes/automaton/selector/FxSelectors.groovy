@@ -1,6 +1,6 @@
 package com.athaydes.automaton.selector
 
-import com.athaydes.automaton.ReflectionHelper
+import com.athaydes.internal.MethodAccessor
 import javafx.scene.Node
 
 /**
@@ -23,13 +23,16 @@ class TextFxSelector extends SimpleFxSelector {
 
 	@Override
 	boolean matches( String selector, Node node ) {
-		def text = ReflectionHelper.callMethodIfExists( node, 'getText' )
+		def text = MethodAccessor.GET_TEXT.call( node )
 		text != null && text == selector
 	}
 
 	@Override
 	boolean followPopups() { true }
 
+	@Override
+	int getMatchCost() { SelectorPlan.TEXT_COST }
+
 }
 
 @Singleton
@@ -43,6 +46,9 @@ class IdFxSelector extends SimpleFxSelector {
 	@Override
 	boolean followPopups() { true }
 
+	@Override
+	int getMatchCost() { SelectorPlan.NAME_COST }
+
 }
 
 @Singleton
@@ -56,6 +62,9 @@ class StyleClassFxSelector extends SimpleFxSelector {
 	@Override
 	boolean followPopups() { true }
 
+	@Override
+	int getMatchCost() { SelectorPlan.STYLE_CLASS_COST }
+
 }
 
 
@@ -70,4 +79,7 @@ class TypeFxSelector extends SimpleFxSelector {
 	@Override
 	boolean followPopups() { true }
 
+	@Override
+	int getMatchCost() { SelectorPlan.TYPE_COST }
+
 }
\ No newline at end of file
@@ -0,0 +1,36 @@
+package com.athaydes.automaton.selector
+
+/**
+ * An {@link AutomatonSelector} which can tell whether a single item matches a query.
+ * <p/>
+ * Only selectors implementing this interface can be combined by a {@link SelectorPlan} without
+ * falling back to dynamic method calls.
+ * @author Renato
+ */
+interface MatchingSelector<K> extends AutomatonSelector<K> {
+
+	/**
+	 * @param query to match
+	 * @param item to check
+	 * @return true if the item matches the query, false otherwise
+	 */
+	boolean matches( String query, K item )
+
+	/**
+	 * @return relative cost of calling {@link #matches(java.lang.String, java.lang.Object)}.
+	 * Cheaper selectors are checked first when combined with others.
+	 * @see SelectorPlan
+	 */
+	int getMatchCost()
+
+	/**
+	 * Lazily finds the items satisfying this selector. The GUI tree is only walked as the returned Iterator
+	 * is advanced.
+	 * @param query to match
+	 * @param root of the hierarchical GUI structure
+	 * @param limit maximum number of items to return
+	 * @return Iterator over the items satisfying this selector
+	 */
+	Iterator<K> iterate( String query, K root, int limit )
+
+}
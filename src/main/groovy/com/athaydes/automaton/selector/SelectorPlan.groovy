@@ -0,0 +1,106 @@
+package com.athaydes.automaton.selector
+
+import groovy.transform.CompileStatic
+import org.codehaus.groovy.runtime.InvokerHelper
+
+/**
+ * An immutable, pre-compiled combination of selectors and their queries.
+ * <p/>
+ * The selectors are checked in order of their {@link MatchingSelector#getMatchCost()}, cheapest first, and
+ * checking stops as soon as the result is known: at the first failed check when all selectors must match,
+ * at the first successful check when any selector may match.
+ * @author Renato
+ */
+@CompileStatic
+final class SelectorPlan<K> {
+
+	static final int TYPE_COST = 10
+	static final int NAME_COST = 20
+	static final int STYLE_CLASS_COST = 30
+	static final int TEXT_COST = 40
+	static final int CUSTOM_COST = 100
+
+	final MatchType matchType
+	private final Step<K>[] steps
+
+	/**
+	 * @param matchType how to combine the selectors
+	 * @param selectors_queries entries mapping each selector to its query
+	 */
+	SelectorPlan( MatchType matchType, List<MapEntry> selectors_queries ) {
+		this.matchType = matchType
+		List<Step<K>> stepList = [ ]
+		selectors_queries.eachWithIndex { MapEntry entry, int index ->
+			stepList << new Step<K>( entry.key, entry.value as String, index )
+		}
+		this.steps = stepList.sort() as Step<K>[]
+	}
+
+	boolean matches( K item ) {
+		boolean matchAll = matchType == MatchType.ALL
+		for ( Step<K> step in steps ) {
+			if ( step.matches( item ) != matchAll ) return !matchAll
+		}
+		matchAll
+	}
+
+	/**
+	 * Checks this plan using the given matcher to check each of its selectors, in the same order as
+	 * {@link #matches(java.lang.Object)}. This allows checking items which are not of the plan's type.
+	 */
+	boolean matchesWith( StepMatcher matcher ) {
+		boolean matchAll = matchType == MatchType.ALL
+		for ( Step<K> step in steps ) {
+			if ( matcher.matches( step.selector, step.query ) != matchAll ) return !matchAll
+		}
+		matchAll
+	}
+
+	/**
+	 * @return the queries in the order they are checked
+	 */
+	List<String> getQueries() {
+		steps.collect { Step<K> step -> step.query }
+	}
+
+	@Override
+	String toString() {
+		"SelectorPlan(matchType:$matchType,queries:$queries)"
+	}
+
+	/**
+	 * Checks a single selector of a plan against some item.
+	 */
+	static interface StepMatcher {
+		boolean matches( Object selector, String query )
+	}
+
+	private static final class Step<K> implements Comparable<Step<K>> {
+		final Object selector
+		final String query
+		final int cost
+		final int order
+
+		Step( Object selector, String query, int order ) {
+			this.selector = selector
+			this.query = query
+			this.order = order
+			this.cost = selector instanceof MatchingSelector ?
+					( selector as MatchingSelector ).matchCost :
+					CUSTOM_COST
+		}
+
+		boolean matches( K item ) {
+			if ( selector instanceof MatchingSelector ) {
+				return ( selector as MatchingSelector<K> ).matches( query, item )
+			}
+			InvokerHelper.invokeMethod( selector, 'matches', [ query, item ] as Object[] ) as boolean
+		}
+
+		@Override
+		int compareTo( Step<K> other ) {
+			cost != other.cost ? cost <=> other.cost : order <=> other.order
+		}
+	}
+
+}
@@ -1,6 +1,8 @@
 package com.athaydes.automaton.selector
 
-import com.athaydes.automaton.FXUtil
+import com.athaydes.internal.traversal.FxNodeCursor
+import com.athaydes.internal.traversal.MatchingIterator
+import groovy.transform.CompileStatic
 import javafx.scene.Node
 
 /**
@@ -30,18 +32,29 @@ abstract class FxSelectorBase extends Closure<List<Node>>
 
 }
 
-abstract class SimpleFxSelector extends FxSelectorBase {
+abstract class SimpleFxSelector extends FxSelectorBase implements MatchingSelector<Node> {
 
 	boolean followPopups() { false }
 
 	@Override
+	int getMatchCost() { SelectorPlan.CUSTOM_COST }
+
+	@Override
+	@CompileStatic
 	List<Node> apply( String prefix, String selector, Node root, int limit = Integer.MAX_VALUE ) {
-		def res = [ ]
-		FXUtil.navigateBreadthFirst( root, { Node node ->
-			if ( matches( selector, node ) ) res << node
-			res.size() >= limit
-		}, followPopups() )
-		return res
+		iterate( selector, root, limit ).toList()
+	}
+
+	@Override
+	@CompileStatic
+	Iterator<Node> iterate( String selector, Node root, int limit = Integer.MAX_VALUE ) {
+		final SimpleFxSelector self = this
+		new MatchingIterator<Node>( new FxNodeCursor( root, followPopups() ), limit ) {
+			@Override
+			protected Node accept( candidate ) {
+				self.matches( selector, candidate as Node ) ? candidate as Node : null
+			}
+		}
 	}
 
 	List<Node> apply( String selector, Node root, int limit = Integer.MAX_VALUE ) {
@@ -53,9 +66,16 @@ abstract class SimpleFxSelector extends FxSelectorBase {
 abstract class CompositeFxSelector extends SimpleFxSelector {
 
 	final List<MapEntry> selectors_queries
+	final SelectorPlan<Node> plan
 
-	CompositeFxSelector( List<MapEntry> selectors_queries ) {
+	CompositeFxSelector( MatchType matchType, List<MapEntry> selectors_queries ) {
 		this.selectors_queries = selectors_queries
+		this.plan = new SelectorPlan<Node>( matchType, selectors_queries )
+	}
+
+	@Override
+	boolean matches( String query, Node node ) {
+		plan.matches( node )
 	}
 
 }
@@ -63,12 +83,7 @@ abstract class CompositeFxSelector extends SimpleFxSelector {
 class IntersectFxSelector extends CompositeFxSelector {
 
 	IntersectFxSelector( List<MapEntry> selectors_queries ) {
-		super( selectors_queries )
-	}
-
-	@Override
-	boolean matches( String query, Node node ) {
-		getSelectors_queries().every { it.key.matches( it.value, node ) }
+		super( MatchType.ALL, selectors_queries )
 	}
 
 }
@@ -76,12 +91,7 @@ class IntersectFxSelector extends CompositeFxSelector {
 class UnionFxSelector extends CompositeFxSelector {
 
 	UnionFxSelector( List<MapEntry> selectors_queries ) {
-		super( selectors_queries )
-	}
-
-	@Override
-	boolean matches( String query, Node node ) {
-		getSelectors_queries().any { it.key.matches( it.value, node ) }
+		super( MatchType.ANY, selectors_queries )
 	}
 
 }
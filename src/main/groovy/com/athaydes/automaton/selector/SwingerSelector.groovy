@@ -1,21 +1,12 @@
 package com.athaydes.automaton.selector
 
-import com.athaydes.automaton.SwingUtil
-
-import javax.swing.JComboBox
-import javax.swing.JList
-import javax.swing.JTabbedPane
-import javax.swing.JTable
-import javax.swing.JTree
-import javax.swing.table.TableColumn
-import javax.swing.tree.TreeNode
-import java.awt.Component
+import com.athaydes.automaton.SwingItem
+import com.athaydes.internal.traversal.MatchingIterator
+import com.athaydes.internal.traversal.SwingItemCursor
+import groovy.transform.CompileStatic
+import org.codehaus.groovy.runtime.InvokerHelper
 
-import static com.athaydes.automaton.SwingUtil.comboBoxItem2FakeComponent
-import static com.athaydes.automaton.SwingUtil.listItem2FakeComponent
-import static com.athaydes.automaton.SwingUtil.tabbedPane2FakeComponent
-import static com.athaydes.automaton.SwingUtil.tableCell2FakeComponent
-import static com.athaydes.automaton.SwingUtil.treeNode2FakeComponent
+import java.awt.Component
 
 abstract class SwingerSelectorBase extends Closure<List<Component>>
         implements AutomatonSelector<Component> {
@@ -40,89 +31,44 @@ abstract class SwingerSelectorBase extends Closure<List<Component>>
     abstract List<Component> apply( String prefix, String selector, Component component, int limit )
 
     protected boolean navigateEveryThing( Component component, Closure visitor ) {
-        JTree tree // remember latest tree visited
-        JTable table // and latest table
-        SwingUtil.navigateBreadthFirst( component ) { comp, row = null, col = null ->
-            boolean stop = false
-
-            // if row and col are set, we are navigating through JTable's cells
-            if ( table && row != null && col != null ) {
-                def data
-                if ( row < 0 ) { // header
-                    def header = comp as TableColumn
-                    data = SwingUtil.getRenderedTableHeaderValue( table, header, col )
-                } else { // cell
-                    data = SwingUtil.getRenderedTableCellValue( table, row, col )
-                }
-                def cell = tableCell2FakeComponent( table, data, row, col )
-                return visitor( cell )
-            }
-
-            switch ( comp ) {
-                case JTree:
-                    tree = comp as JTree // capture the tree
-                    stop = visitor( tree )
-                    break
-                case TreeNode:
-                    def nodeComp = treeNode2FakeComponent( tree, comp )
-                    stop = visitor( nodeComp )
-                    break
-                case JTable:
-                    table = comp as JTable // capture the table
-                    stop = visitor( table )
-                    break
-                case JComboBox:
-                    def combo = comp as JComboBox
-                    if ( visitor( combo ) ) stop = true
-                    else for ( index in 0..<combo.itemCount ) {
-                        def itemComp = comboBoxItem2FakeComponent( combo, index )
-                        stop = visitor( itemComp )
-                        if ( stop ) break
-                    }
-                    break
-                case JTabbedPane:
-                    def jtab = comp as JTabbedPane
-                    if ( visitor( jtab ) ) stop = true
-                    else for ( index in 0..<jtab.tabCount ) {
-                        def tabComp = tabbedPane2FakeComponent( jtab, index )
-                        stop = visitor( tabComp )
-                        if ( stop ) break
-                    }
-                    break
-                case JList:
-                    def jlist = comp as JList
-                    if ( visitor( jlist ) ) stop = true
-                    else for ( index in 0..<jlist.model.size ) {
-                        def listComp = listItem2FakeComponent( jlist, index )
-                        stop = visitor( listComp )
-                        if ( stop ) break
-                    }
-                    break
-                default:
-                    try {
-                        stop = visitor( comp )
-                    } catch ( MissingMethodException ignored ) {
-                        println "Visitor could not visit component of type ${comp?.class?.name}." +
-                                " Relax the type parameter of your visitor to avoid this."
-                    }
+        def cursor = new SwingItemCursor( component )
+        while ( cursor.hasNext() ) {
+            def next = cursor.next()
+            def comp = next instanceof SwingItem ? next.toComponent() : next
+            try {
+                if ( visitor( comp ) ) return true
+            } catch ( MissingMethodException ignored ) {
+                println "Visitor could not visit component of type ${comp?.class?.name}." +
+                        " Relax the type parameter of your visitor to avoid this."
             }
-            return stop
         }
+        return false
     }
 
 }
 
-abstract class SimpleSwingerSelector extends SwingerSelectorBase {
+abstract class SimpleSwingerSelector extends SwingerSelectorBase implements MatchingSelector<Component> {
 
     @Override
+    @CompileStatic
     List<Component> apply( String prefix, String selector, Component component, int limit = Integer.MAX_VALUE ) {
-        final List<Component> res = [ ]
-        navigateEveryThing( component ) { Component comp ->
-            if ( matches( selector, comp ) )
-                res << comp
-            res.size() >= limit
+        iterate( selector, component, limit ).toList()
+    }
+
+    @Override
+    @CompileStatic
+    Iterator<Component> iterate( String selector, Component component, int limit = Integer.MAX_VALUE ) {
+        final SimpleSwingerSelector self = this
+        new MatchingIterator<Component>( new SwingItemCursor( component ), limit ) {
+            @Override
+            protected Component accept( candidate ) {
+                if ( candidate instanceof SwingItem ) {
+                    def item = candidate as SwingItem
+                    return self.matchesItem( selector, item ) ? item.toComponent() : null
+                }
+                self.matches( selector, candidate as Component ) ? candidate as Component : null
+            }
         }
-        return res
     }
 
     List<Component> apply( String selector, Component component, int limit = Integer.MAX_VALUE ) {
@@ -131,14 +77,61 @@ abstract class SimpleSwingerSelector extends SwingerSelectorBase {
 
     abstract boolean matches( String selector, Component component )
 
+    /**
+     * Checks whether an item shown by a Component, such as a JTable cell, matches the given selector.
+     * <p/>
+     * By default, this method calls {@link #matches(java.lang.String, java.awt.Component)} with the
+     * FakeComponent backed by the item. Selectors which can match the item directly should override it
+     * to avoid creating a FakeComponent for items which do not match.
+     * @param selector query
+     * @param item to check
+     * @return true if the item matches the selector
+     */
+    boolean matchesItem( String selector, SwingItem item ) {
+        matches( selector, item.toComponent() )
+    }
+
+    @Override
+    int getMatchCost() { SelectorPlan.CUSTOM_COST }
+
 }
 
 abstract class CompositeSwingerSelector extends SimpleSwingerSelector {
 
     final List<MapEntry> selectors_queries
+    final SelectorPlan<Component> plan
 
-    CompositeSwingerSelector( List<MapEntry> selectors_queries ) {
+    CompositeSwingerSelector( MatchType matchType, List<MapEntry> selectors_queries ) {
         this.selectors_queries = selectors_queries
+        this.plan = new SelectorPlan<Component>( matchType, selectors_queries )
+    }
+
+    @Override
+    boolean matches( String query, Component component ) {
+        plan.matches( component )
+    }
+
+    @Override
+    @CompileStatic
+    boolean matchesItem( String query, SwingItem item ) {
+        plan.matchesWith( new ItemStepMatcher( item ) )
+    }
+
+    @CompileStatic
+    private static class ItemStepMatcher implements SelectorPlan.StepMatcher {
+        final SwingItem item
+
+        ItemStepMatcher( SwingItem item ) {
+            this.item = item
+        }
+
+        @Override
+        boolean matches( Object selector, String query ) {
+            if ( selector instanceof SimpleSwingerSelector ) {
+                return ( selector as SimpleSwingerSelector ).matchesItem( query, item )
+            }
+            InvokerHelper.invokeMethod( selector, 'matches', [ query, item.toComponent() ] as Object[] ) as boolean
+        }
     }
 
 }
@@ -146,12 +139,7 @@ abstract class CompositeSwingerSelector extends SimpleSwingerSelector {
 class IntersectSwingerSelector extends CompositeSwingerSelector {
 
     IntersectSwingerSelector( List<MapEntry> selectors_queries ) {
-        super( selectors_queries )
-    }
-
-    @Override
-    boolean matches( String query, Component component ) {
-        getSelectors_queries().every { it.key.matches( it.value, component ) }
+        super( MatchType.ALL, selectors_queries )
     }
 
 }
@@ -159,12 +147,7 @@ class IntersectSwingerSelector extends CompositeSwingerSelector {
 class UnionSwingerSelector extends CompositeSwingerSelector {
 
     UnionSwingerSelector( List<MapEntry> selectors_queries ) {
-        super( selectors_queries )
-    }
-
-    @Override
-    boolean matches( String query, Component component ) {
-        getSelectors_queries().any { it.key.matches( it.value, component ) }
+        super( MatchType.ANY, selectors_queries )
     }
 
 }
@@ -1,6 +1,8 @@
 package com.athaydes.automaton.selector
 
-import com.athaydes.automaton.ReflectionHelper
+import com.athaydes.automaton.FakeComponent
+import com.athaydes.automaton.SwingItem
+import com.athaydes.internal.MethodAccessor
 
 import java.awt.Component
 
@@ -21,9 +23,17 @@ class SwingerSelectors {
 				component.name == selector
 			}
 
+			@Override
+			boolean matchesItem( String selector, SwingItem item ) {
+				selector == null // items have no name
+			}
+
 			@Override
 			String toString( ) { "NameSwingerSelector" }
 
+			@Override
+			int getMatchCost( ) { SelectorPlan.NAME_COST }
+
 		} as SimpleSwingerSelector
 	}
 
@@ -44,12 +54,20 @@ class SwingerSelectors {
 		new SimpleSwingerSelector() {
 			@Override
 			boolean matches( String selector, Component component ) {
-				ReflectionHelper.callMethodIfExists( component, "getText" ) == selector
+				MethodAccessor.GET_TEXT.call( component ) == selector
+			}
+
+			@Override
+			boolean matchesItem( String selector, SwingItem item ) {
+				item.text == selector
 			}
 
 			@Override
 			String toString( ) { "TextSwingerSelector" }
 
+			@Override
+			int getMatchCost( ) { SelectorPlan.TEXT_COST }
+
 		} as SimpleSwingerSelector
 	}
 
@@ -67,9 +85,17 @@ class SwingerSelectors {
 				SelectorHelper.instance.doesClassMatch( component.class, selector )
 			}
 
+			@Override
+			boolean matchesItem( String selector, SwingItem item ) {
+				SelectorHelper.instance.doesClassMatch( FakeComponent, selector )
+			}
+
 			@Override
 			String toString( ) { "TypeSwingerSelector" }
 
+			@Override
+			int getMatchCost( ) { SelectorPlan.TYPE_COST }
+
 		} as SimpleSwingerSelector
 	}
 
@@ -0,0 +1,102 @@
+package com.athaydes.internal
+
+import com.athaydes.automaton.InputBackend
+import groovy.transform.CompileStatic
+
+import java.awt.Component
+import java.awt.EventQueue
+import java.awt.Toolkit
+import java.awt.event.InputMethodEvent
+import java.awt.event.KeyEvent
+import java.text.AttributedString
+
+/**
+ * Types long texts quickly.
+ * <p/>
+ * When typing, the keystrokes for the whole text are computed up-front, with the SHIFT key only pressed and released
+ * once for each run of characters which need it, then sent one after the other without waiting for the UI.
+ * <p/>
+ * Alternatively, the text can be posted directly to a Swing Component's event queue, which does not depend on the
+ * local keyboard layout and so supports any Unicode character.
+ */
+@CompileStatic
+class BulkTyper {
+
+	/**
+	 * Computes the key actions needed to type the given text.
+	 * @param text to type
+	 * @return key codes in the order they should be sent: positive codes are key presses,
+	 * negative codes are key releases
+	 */
+	static int[] keyActions( String text ) {
+		// each character needs at most 3 actions (SHIFT, press, release), plus one final SHIFT release
+		def actions = new int[text.length() * 3 + 1]
+		int count = 0
+		boolean shiftDown = false
+		for ( int i = 0; i < text.length(); i++ ) {
+			def keystroke = RobotTypingUtil.robotCode( text.substring( i, i + 1 ) ) as Map
+			boolean shift = keystroke.shift as boolean
+			int code = keystroke.code as int
+			if ( shift != shiftDown ) {
+				actions[ count++ ] = shift ? KeyEvent.VK_SHIFT : -KeyEvent.VK_SHIFT
+				shiftDown = shift
+			}
+			actions[ count++ ] = code
+			actions[ count++ ] = -code
+		}
+		if ( shiftDown ) actions[ count++ ] = -KeyEvent.VK_SHIFT
+		Arrays.copyOf( actions, count )
+	}
+
+	/**
+	 * Types the given text using the given input backend.
+	 * @param input backend to use
+	 * @param text to type
+	 * @param delay in ms between each key press and the following release, or 0 to not wait at all
+	 */
+	static void type( InputBackend input, String text, int delay ) {
+		int[] actions = keyActions( text )
+		Set<Integer> pressed = [ ] as Set<Integer>
+		try {
+			for ( int action in actions ) {
+				if ( action > 0 ) {
+					input.keyPress( action )
+					pressed << action
+					if ( delay > 0 ) input.delay( delay )
+				} else {
+					input.keyRelease( -action )
+					pressed.remove( -action )
+				}
+			}
+		} finally {
+			// never leave keys (especially SHIFT) pressed if something goes wrong
+			for ( int code in pressed ) input.keyRelease( code )
+		}
+	}
+
+	/**
+	 * Posts the given text to the event queue of the given Component.
+	 * <p/>
+	 * Components which accept input methods, such as all Swing text components, receive the whole text at once
+	 * as committed input method text. Other Components receive one KEY_TYPED event per character.
+	 * <p/>
+	 * This method does not wait for the events to be dispatched.
+	 * @param target Component to receive the text
+	 * @param text to post
+	 */
+	static void post( Component target, String text ) {
+		if ( !text ) return
+		EventQueue queue = Toolkit.defaultToolkit.systemEventQueue
+		if ( target.inputMethodRequests != null ) {
+			queue.postEvent( new InputMethodEvent( target, InputMethodEvent.INPUT_METHOD_TEXT_CHANGED,
+					new AttributedString( text ).iterator, text.length(), null, null ) )
+		} else {
+			long now = System.currentTimeMillis()
+			for ( int i = 0; i < text.length(); i++ ) {
+				queue.postEvent( new KeyEvent( target, KeyEvent.KEY_TYPED, now, 0,
+						KeyEvent.VK_UNDEFINED, text.charAt( i ) ) )
+			}
+		}
+	}
+
+}
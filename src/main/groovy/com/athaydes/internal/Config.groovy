@@ -1,5 +1,7 @@
 package com.athaydes.internal
 
+import com.athaydes.automaton.InputMode
+import com.athaydes.automaton.MouseMotion
 import com.athaydes.automaton.Speed
 import groovy.util.logging.Slf4j
 
@@ -17,6 +19,8 @@ class Config {
 	final props = new Properties();
 
 	static final DEFAULT_SPEED = FAST
+	static final DEFAULT_MOUSE_MOTION = MouseMotion.HUMAN
+	static final DEFAULT_INPUT_MODE = InputMode.ROBOT
 
     static final booleanValidator = { String configValue ->
         if ( configValue && isBoolean( configValue ) ) toBoolean( configValue )
@@ -55,6 +59,18 @@ class Config {
 		} as Speed
 	}
 
+	MouseMotion getMouseMotion() {
+		getPropertyValue( 'automaton.mouse.motion', DEFAULT_MOUSE_MOTION ) { configValue ->
+			if ( configValue ) configValue.toString().trim().toUpperCase() as MouseMotion
+		} as MouseMotion
+	}
+
+	InputMode getInputMode() {
+		getPropertyValue( 'automaton.input.mode', DEFAULT_INPUT_MODE ) { configValue ->
+			if ( configValue ) configValue.toString().trim().toUpperCase() as InputMode
+		} as InputMode
+	}
+
 	boolean isInteractiveMode() {
 		getPropertyValue( 'automaton.interactive', false, booleanValidator ) as boolean
 	}
@@ -63,6 +79,52 @@ class Config {
         getPropertyValue( 'automaton.javafx.disableBringStageToFront', false, booleanValidator ) as boolean
     }
 
+    boolean isUseSwingComponentIndex() {
+        getPropertyValue( 'automaton.swing.componentIndex', false, booleanValidator ) as boolean
+    }
+
+    boolean isUseSwingModelSearch() {
+        getPropertyValue( 'automaton.swing.modelSearch', false, booleanValidator ) as boolean
+    }
+
+    boolean isUseSwingColumnValueIndex() {
+        getPropertyValue( 'automaton.swing.modelSearch.columnIndex', false, booleanValidator ) as boolean
+    }
+
+    boolean isUseSwingTreeIndex() {
+        getPropertyValue( 'automaton.swing.treeIndex', false, booleanValidator ) as boolean
+    }
+
+    boolean isUseJavaFxNodeIndex() {
+        getPropertyValue( 'automaton.javafx.nodeIndex', false, booleanValidator ) as boolean
+    }
+
+    boolean isUseConcurrentSearch() {
+        getPropertyValue( 'automaton.swingerFxer.concurrentSearch', false, booleanValidator ) as boolean
+    }
+
+	boolean isMetricsEnabled() {
+		getPropertyValue( 'automaton.metrics.enabled', false, booleanValidator ) as boolean
+	}
+
+	/**
+	 * @return number of latest driver actions to keep in the action trace, 0 (the default) if no trace should be kept
+	 */
+	int getTraceSize() {
+		getPropertyValue( 'automaton.trace.size', 0 ) { configValue ->
+			if ( configValue?.trim()?.isInteger() && configValue.trim().toInteger() >= 0 ) configValue.trim().toInteger()
+		} as int
+	}
+
+	/**
+	 * @return directory where compiled AScripts should be stored, or null if they should only be kept in memory
+	 */
+	File getScriptCacheDir() {
+		getPropertyValue( 'automaton.script.cacheDir', null ) { configValue ->
+			if ( configValue?.trim() ) new File( configValue.toString().trim() )
+		} as File
+	}
+
 	private getPropertyValue( String key, defaultValue, Closure getValidated ) {
 		try {
 			def propValue = getValidated( props.getProperty( key ) )
@@ -0,0 +1,60 @@
+package com.athaydes.internal
+
+import groovy.transform.CompileStatic
+
+import java.util.concurrent.TimeUnit
+import java.util.concurrent.TimeoutException
+
+/**
+ * A point in time by which an operation running on the caller's Thread must complete.
+ * <p/>
+ * Long-running loops should call {@link #check()} on every iteration, which is much cheaper than running
+ * the whole operation on another Thread with a {@link TimeLimiter}.
+ */
+@CompileStatic
+final class Deadline {
+
+	final String operation
+	private final long timeoutNanos
+	private final long deadlineNanos
+
+	private Deadline( String operation, long timeoutNanos ) {
+		this.operation = operation
+		this.timeoutNanos = timeoutNanos
+		this.deadlineNanos = System.nanoTime() + timeoutNanos
+	}
+
+	/**
+	 * @param time allowed for the operation
+	 * @param unit of time
+	 * @param operation description of the operation, used in the error message if it times out
+	 * @return a Deadline starting now
+	 */
+	static Deadline after( long time, TimeUnit unit, String operation ) {
+		new Deadline( operation, unit.toNanos( time ) )
+	}
+
+	boolean isExpired() {
+		System.nanoTime() - deadlineNanos > 0
+	}
+
+	/**
+	 * @param unit of time
+	 * @return the time remaining until this Deadline expires, or 0 if it has expired
+	 */
+	long getRemaining( TimeUnit unit ) {
+		unit.convert( Math.max( 0L, deadlineNanos - System.nanoTime() ), TimeUnit.NANOSECONDS )
+	}
+
+	/**
+	 * @throws TimeoutException if this Deadline has expired
+	 */
+	void check() throws TimeoutException {
+		if ( expired ) {
+			TimeLimiter.recordTimeout()
+			throw new TimeoutException( "$operation did not complete within " +
+					"${TimeUnit.NANOSECONDS.toMillis( timeoutNanos )} ms" )
+		}
+	}
+
+}
@@ -0,0 +1,23 @@
+package com.athaydes.internal;
+
+import java.lang.invoke.MethodHandle;
+
+/**
+ * Calls MethodHandles with <code>invokeExact</code>, which must be done from Java as Groovy does not compile
+ * calls to signature-polymorphic methods.
+ */
+final class ExactInvoker {
+
+    private ExactInvoker() {
+    }
+
+    /**
+     * @param handle of type <code>(Object)Object</code>
+     * @param item to pass to the handle
+     * @return the value returned by the handle
+     */
+    static Object invoke( MethodHandle handle, Object item ) throws Throwable {
+        return handle.invokeExact( item );
+    }
+
+}
@@ -0,0 +1,232 @@
+package com.athaydes.internal
+
+import groovy.transform.CompileStatic
+
+import javax.swing.JComponent
+import javax.swing.JList
+import javax.swing.JTabbedPane
+import javax.swing.JTable
+import javax.swing.JTree
+import javax.swing.ListModel
+import javax.swing.event.ChangeEvent
+import javax.swing.event.ChangeListener
+import javax.swing.event.ListDataEvent
+import javax.swing.event.ListDataListener
+import javax.swing.event.ListSelectionEvent
+import javax.swing.event.TableColumnModelEvent
+import javax.swing.event.TableColumnModelListener
+import javax.swing.event.TableModelEvent
+import javax.swing.event.TableModelListener
+import javax.swing.event.TreeExpansionEvent
+import javax.swing.event.TreeExpansionListener
+import javax.swing.event.TreeModelEvent
+import javax.swing.event.TreeModelListener
+import javax.swing.table.TableColumnModel
+import javax.swing.table.TableModel
+import javax.swing.tree.TreeModel
+import java.awt.event.ComponentEvent
+import java.awt.event.ComponentListener
+import java.awt.event.HierarchyBoundsListener
+import java.awt.event.HierarchyEvent
+import java.awt.event.HierarchyListener
+import java.beans.PropertyChangeEvent
+import java.beans.PropertyChangeListener
+import java.util.concurrent.atomic.AtomicInteger
+
+/**
+ * Keeps a version number of the geometry of the items shown by a JTable, JTree, JList or JTabbedPane, which
+ * is stored in the Component as a client property.
+ * <p/>
+ * The version changes whenever the layout of the items within the Component may have changed: when the
+ * Component or any of its ancestors is moved, resized, shown or hidden, when any of its properties change, and
+ * when its model changes (including columns being moved or resized, and tree nodes being expanded or collapsed).
+ * So, the bounds of an item within the Component computed for a version can be reused for as long as the version
+ * does not change.
+ * <p/>
+ * The location on screen of the Component is not tracked: a Window moved by the user or the window manager
+ * does not notify its descendants.
+ * <p/>
+ * Events are delivered on the Event Dispatch Thread, so a change only becomes visible once the events
+ * it causes have been dispatched.
+ */
+@CompileStatic
+class GeometryTracker implements ComponentListener, HierarchyListener, HierarchyBoundsListener,
+		PropertyChangeListener, TableModelListener, TableColumnModelListener, TreeModelListener,
+		TreeExpansionListener, ListDataListener, ChangeListener {
+
+	static final String CLIENT_PROPERTY_KEY = 'automaton.geometryTracker'
+
+	final JComponent component
+	private final AtomicInteger version = new AtomicInteger()
+
+	// models currently listened to, which are replaced when the component starts using other models
+	private Object model
+	private Object columnModel
+
+	private GeometryTracker( JComponent component ) {
+		this.component = component
+	}
+
+	/**
+	 * @return the tracker of the given Component, creating it if necessary, or null if the geometry of the items
+	 * of the Component cannot be tracked
+	 */
+	static GeometryTracker of( JComponent component ) {
+		if ( !( component instanceof JTable || component instanceof JTree ||
+				component instanceof JList || component instanceof JTabbedPane ) ) return null
+		synchronized ( GeometryTracker ) {
+			def tracker = component.getClientProperty( CLIENT_PROPERTY_KEY )
+			if ( tracker instanceof GeometryTracker ) return tracker as GeometryTracker
+			def newTracker = new GeometryTracker( component )
+			newTracker.attach()
+			component.putClientProperty( CLIENT_PROPERTY_KEY, newTracker )
+			newTracker
+		}
+	}
+
+	/**
+	 * @return the current version of the geometry
+	 */
+	int getVersion() {
+		version.get()
+	}
+
+	void invalidate() {
+		version.incrementAndGet()
+	}
+
+	/**
+	 * Stops listening to the component and its models.
+	 */
+	synchronized void detach() {
+		component.removeComponentListener( this )
+		component.removeHierarchyListener( this )
+		component.removeHierarchyBoundsListener( this )
+		component.removePropertyChangeListener( this )
+		if ( component instanceof JTree ) ( component as JTree ).removeTreeExpansionListener( this )
+		if ( component instanceof JTabbedPane ) ( component as JTabbedPane ).removeChangeListener( this )
+		detachModels()
+	}
+
+	private synchronized void attach() {
+		component.addComponentListener( this )
+		component.addHierarchyListener( this )
+		component.addHierarchyBoundsListener( this )
+		component.addPropertyChangeListener( this )
+		if ( component instanceof JTree ) ( component as JTree ).addTreeExpansionListener( this )
+		if ( component instanceof JTabbedPane ) ( component as JTabbedPane ).addChangeListener( this )
+		attachModels()
+	}
+
+	private void attachModels() {
+		if ( component instanceof JTable ) {
+			def table = component as JTable
+			model = table.model
+			columnModel = table.columnModel
+			table.model?.addTableModelListener( this )
+			table.columnModel?.addColumnModelListener( this )
+		} else if ( component instanceof JTree ) {
+			model = ( component as JTree ).model
+			( component as JTree ).model?.addTreeModelListener( this )
+		} else if ( component instanceof JList ) {
+			model = ( component as JList ).model
+			( component as JList ).model?.addListDataListener( this )
+		}
+	}
+
+	private void detachModels() {
+		if ( component instanceof JTable ) {
+			( model as TableModel )?.removeTableModelListener( this )
+			( columnModel as TableColumnModel )?.removeColumnModelListener( this )
+		} else if ( component instanceof JTree ) {
+			( model as TreeModel )?.removeTreeModelListener( this )
+		} else if ( component instanceof JList ) {
+			( model as ListModel )?.removeListDataListener( this )
+		}
+		model = null
+		columnModel = null
+	}
+
+	@Override
+	void propertyChange( PropertyChangeEvent event ) {
+		invalidate()
+		if ( event.propertyName in [ 'model', 'columnModel' ] ) {
+			synchronized ( this ) {
+				detachModels()
+				attachModels()
+			}
+		}
+	}
+
+	@Override
+	void componentResized( ComponentEvent e ) { invalidate() }
+
+	@Override
+	void componentMoved( ComponentEvent e ) { invalidate() }
+
+	@Override
+	void componentShown( ComponentEvent e ) { invalidate() }
+
+	@Override
+	void componentHidden( ComponentEvent e ) { invalidate() }
+
+	@Override
+	void hierarchyChanged( HierarchyEvent e ) { invalidate() }
+
+	@Override
+	void ancestorMoved( HierarchyEvent e ) { invalidate() }
+
+	@Override
+	void ancestorResized( HierarchyEvent e ) { invalidate() }
+
+	@Override
+	void tableChanged( TableModelEvent e ) { invalidate() }
+
+	@Override
+	void columnAdded( TableColumnModelEvent e ) { invalidate() }
+
+	@Override
+	void columnRemoved( TableColumnModelEvent e ) { invalidate() }
+
+	@Override
+	void columnMoved( TableColumnModelEvent e ) { invalidate() }
+
+	@Override
+	void columnMarginChanged( ChangeEvent e ) { invalidate() }
+
+	@Override
+	void columnSelectionChanged( ListSelectionEvent e ) {
+		// selection does not change the geometry
+	}
+
+	@Override
+	void treeNodesChanged( TreeModelEvent e ) { invalidate() }
+
+	@Override
+	void treeNodesInserted( TreeModelEvent e ) { invalidate() }
+
+	@Override
+	void treeNodesRemoved( TreeModelEvent e ) { invalidate() }
+
+	@Override
+	void treeStructureChanged( TreeModelEvent e ) { invalidate() }
+
+	@Override
+	void treeExpanded( TreeExpansionEvent event ) { invalidate() }
+
+	@Override
+	void treeCollapsed( TreeExpansionEvent event ) { invalidate() }
+
+	@Override
+	void intervalAdded( ListDataEvent e ) { invalidate() }
+
+	@Override
+	void intervalRemoved( ListDataEvent e ) { invalidate() }
+
+	@Override
+	void contentsChanged( ListDataEvent e ) { invalidate() }
+
+	@Override
+	void stateChanged( ChangeEvent e ) { invalidate() }
+
+}
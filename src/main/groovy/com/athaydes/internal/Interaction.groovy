@@ -1,5 +1,6 @@
 package com.athaydes.internal
 
+import com.athaydes.automaton.metrics.ActionMetrics
 import com.athaydes.internal.Config
 
 import java.awt.*
@@ -14,9 +15,18 @@ import java.util.concurrent.TimeUnit
 public class Interaction {
 
 	final impl
+	final boolean interactive
 
 	private Interaction() {
-		impl = Config.instance.interactiveMode ?
+		this( Config.instance.interactiveMode )
+	}
+
+	/**
+	 * @param interactive true to require the user to press a key before each action, false otherwise
+	 */
+	Interaction( boolean interactive ) {
+		this.interactive = interactive
+		impl = interactive ?
 				new UserInteraction() :
 				new NoInteraction()
 	}
@@ -47,7 +57,9 @@ public class Interaction {
 		void await( String action ) {
 			println "Press any key to continue. Next action: $action"
 			onWait = true
+			long start = System.nanoTime()
 			keyWait.poll( 15, TimeUnit.MINUTES )
+			ActionMetrics.waited( System.nanoTime() - start )
 		}
 	}
 
@@ -0,0 +1,112 @@
+package com.athaydes.internal
+
+import groovy.transform.CompileStatic
+
+import java.lang.invoke.MethodHandle
+import java.lang.invoke.MethodHandles
+import java.lang.invoke.MethodType
+import java.lang.reflect.Method
+import java.lang.reflect.Modifier
+import java.util.concurrent.ConcurrentHashMap
+
+/**
+ * Calls a public no-arguments method, by name, on objects of any type.
+ * <p/>
+ * The method is looked up only once per class, and the result (including the fact that a class does not have
+ * such method) is cached, so this is much cheaper than looking up the method reflectively on every call.
+ * <p/>
+ * Instances are shared and can be obtained with {@link #forMethod(java.lang.String)}.
+ */
+@CompileStatic
+class MethodAccessor {
+
+	private static final Map<String, MethodAccessor> accessors = new ConcurrentHashMap<String, MethodAccessor>()
+	private static final MethodType OBJECT_TO_OBJECT = MethodType.methodType( Object, Object )
+	private static final MethodHandle ABSENT = MethodHandles.identity( Object )
+
+	static final MethodAccessor GET_TEXT = forMethod( 'getText' )
+	static final MethodAccessor GET_VALUE = forMethod( 'getValue' )
+	static final MethodAccessor IS_FOCUS_OWNER = forMethod( 'isFocusOwner' )
+
+	final String methodName
+
+	private final ClassValue<MethodHandle> handles = new ClassValue<MethodHandle>() {
+		@Override
+		protected MethodHandle computeValue( Class<?> type ) {
+			findHandle( type )
+		}
+	}
+
+	private MethodAccessor( String methodName ) {
+		this.methodName = methodName
+	}
+
+	/**
+	 * @param methodName name of a public method which takes no arguments
+	 * @return the shared accessor for the given method
+	 */
+	static MethodAccessor forMethod( String methodName ) {
+		def accessor = accessors[ methodName ]
+		if ( accessor == null ) {
+			accessor = new MethodAccessor( methodName )
+			def existing = ( accessors as ConcurrentHashMap<String, MethodAccessor> ).putIfAbsent( methodName, accessor )
+			if ( existing != null ) accessor = existing
+		}
+		accessor
+	}
+
+	/**
+	 * @param item any object
+	 * @return true if the item has the method this accessor calls, false otherwise
+	 */
+	boolean existsFor( item ) {
+		item != null && !handles.get( item.getClass() ).is( ABSENT )
+	}
+
+	/**
+	 * Calls the method on the given item. Anything thrown by the method is thrown by this method.
+	 * @param item any object
+	 * @return the value returned by the method, or null if the item is null or does not have the method
+	 */
+	def call( item ) {
+		if ( item == null ) return null
+		def handle = handles.get( item.getClass() )
+		if ( handle.is( ABSENT ) ) return null
+		ExactInvoker.invoke( handle, item )
+	}
+
+	private MethodHandle findHandle( Class<?> type ) {
+		try {
+			def method = accessibleMethod( type.getMethod( methodName ) )
+			if ( method != null ) {
+				return MethodHandles.publicLookup().unreflect( method ).asType( OBJECT_TO_OBJECT )
+			}
+		} catch ( NoSuchMethodException ignored ) {
+		} catch ( IllegalAccessException ignored ) {
+		} catch ( SecurityException ignored ) {
+		}
+		ABSENT
+	}
+
+	/**
+	 * @return the given method if it is declared in a public type, or the same method as declared by a public
+	 * super-type, or null if it is not declared in any public type
+	 */
+	private static Method accessibleMethod( Method method ) {
+		def declaringType = method.declaringClass
+		if ( Modifier.isPublic( declaringType.modifiers ) ) return method
+		List<Class<?>> superTypes = [ ]
+		if ( declaringType.superclass ) superTypes << declaringType.superclass
+		superTypes.addAll( declaringType.interfaces )
+		for ( superType in superTypes ) {
+			try {
+				def superMethod = accessibleMethod(
+						superType.getMethod( method.name, method.parameterTypes ) )
+				if ( superMethod != null ) return superMethod
+			} catch ( NoSuchMethodException ignored ) {
+			}
+		}
+		null
+	}
+
+}
@@ -0,0 +1,75 @@
+package com.athaydes.internal
+
+import com.athaydes.internal.traversal.MatchingIterator
+import groovy.transform.CompileStatic
+
+import java.util.concurrent.Callable
+import java.util.concurrent.ExecutionException
+import java.util.concurrent.Executor
+import java.util.concurrent.FutureTask
+import java.util.concurrent.atomic.AtomicBoolean
+
+/**
+ * Runs several searches at the same time, each on its own Executor (eg. the JavaFX Thread and the
+ * Swing Event Dispatch Thread), and returns the result of the first search, in order of priority, which finds
+ * something.
+ * <p/>
+ * The result of a search is only returned once all searches of higher priority have found nothing, so the result
+ * is the same as running the searches one after the other. As soon as the result is known, the searches of lower
+ * priority are cancelled: the {@link MatchingIterator}s they are using stop walking the GUI tree.
+ */
+@CompileStatic
+class PrioritySearch {
+
+	private final List<Executor> executors
+
+	/**
+	 * @param executors to run each search on, in order of priority
+	 */
+	PrioritySearch( List<Executor> executors ) {
+		this.executors = executors
+	}
+
+	/**
+	 * @param searches one for each Executor, in order of priority. Each search returns the item found,
+	 * or null if nothing is found.
+	 * @return the result of the first search, in order of priority, which finds something, or null if
+	 * no search finds anything
+	 */
+	def firstMatch( List<Closure> searches ) {
+		assert searches.size() == executors.size()
+		List<AtomicBoolean> cancelled = [ ]
+		List<FutureTask<Object>> tasks = [ ]
+		for ( int i = 0; i < searches.size(); i++ ) {
+			final AtomicBoolean flag = new AtomicBoolean()
+			final Closure search = searches[ i ]
+			def task = new FutureTask<Object>( new Callable<Object>() {
+				@Override
+				Object call() throws Exception {
+					flag.get() ? null : MatchingIterator.cancellable( flag, search )
+				}
+			} )
+			cancelled << flag
+			tasks << task
+			executors[ i ].execute( task )
+		}
+		try {
+			for ( task in tasks ) {
+				def result = resultOf( task )
+				if ( result != null ) return result
+			}
+			return null
+		} finally {
+			for ( flag in cancelled ) flag.set( true )
+		}
+	}
+
+	private static resultOf( FutureTask<Object> task ) {
+		try {
+			return task.get()
+		} catch ( ExecutionException e ) {
+			throw e.cause ?: e
+		}
+	}
+
+}
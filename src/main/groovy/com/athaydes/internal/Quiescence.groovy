@@ -0,0 +1,216 @@
+package com.athaydes.internal
+
+import com.athaydes.automaton.metrics.ActionMetrics
+import groovy.transform.CompileStatic
+import javafx.application.Platform
+import javafx.scene.Node
+
+import javax.swing.SwingUtilities
+import java.awt.Component
+import java.awt.EventQueue
+import java.awt.KeyboardFocusManager
+import java.awt.Toolkit
+import java.util.concurrent.CountDownLatch
+import java.util.concurrent.TimeUnit
+
+/**
+ * Waits until the GUI toolkits are idle, ie. the AWT EventQueue and the JavaFX <code>Platform.runLater</code>
+ * queue have been drained, and the focus owner has settled.
+ * <p/>
+ * This should be used instead of sleeping for a fixed amount of time to let the UI catch up, with the time
+ * previously slept used only as an upper bound: most of the time the UI is idle long before that.
+ * <p/>
+ * Toolkits which are not running, or whose Thread is the caller's Thread, are considered to be idle.
+ */
+@CompileStatic
+class Quiescence {
+
+	/**
+	 * Number of consecutive checks which must find the toolkits idle before they are considered to be idle.
+	 */
+	static final int IDLE_CHECKS = 2
+
+	private static final long POLL_MILLIS = 2
+
+	/**
+	 * Waits until the AWT EventQueue is empty and the focus owner has settled.
+	 * @param maxMillis maximum time to wait
+	 * @return true if the toolkit became idle, false if the maximum time elapsed first
+	 */
+	static boolean awaitSwingIdle( long maxMillis ) {
+		awaitIdle( maxMillis, true, false )
+	}
+
+	/**
+	 * Waits until the JavaFX Thread has run all tasks submitted to it.
+	 * @param maxMillis maximum time to wait
+	 * @return true if the toolkit became idle, false if the maximum time elapsed first
+	 */
+	static boolean awaitFxIdle( long maxMillis ) {
+		awaitIdle( maxMillis, false, true )
+	}
+
+	/**
+	 * Waits until the given Component, or one of its descendants, owns the keyboard focus, then until the
+	 * AWT EventQueue is empty and the focus owner has settled.
+	 * <p/>
+	 * A click only moves the focus once the Operating System has delivered the mouse events, so the EventQueue
+	 * may be found empty before the focus has changed.
+	 * @param target the Component expected to get the focus, or null to only wait for the EventQueue
+	 * @param maxMillis maximum time to wait
+	 * @return true if the Component got the focus and the toolkit became idle, false if the maximum time
+	 * elapsed first
+	 */
+	static boolean awaitSwingFocus( Component target, long maxMillis ) {
+		if ( target == null || !target.showing ) return awaitSwingIdle( maxMillis )
+		awaitFocus( maxMillis, true, false ) { Deadline deadline -> swingFocusWithin( target ) }
+	}
+
+	/**
+	 * Waits until the given Node, or one of its descendants, owns the focus of its Scene, then until the
+	 * JavaFX Thread has run all tasks submitted to it.
+	 * @param target the Node expected to get the focus, or null to only wait for the JavaFX Thread
+	 * @param maxMillis maximum time to wait
+	 * @return true if the Node got the focus and the toolkit became idle, false if the maximum time
+	 * elapsed first
+	 */
+	static boolean awaitFxFocus( Node target, long maxMillis ) {
+		if ( target == null ) return awaitFxIdle( maxMillis )
+		awaitFocus( maxMillis, false, true ) { Deadline deadline -> fxFocusWithin( target, deadline ) }
+	}
+
+	/**
+	 * Waits until the selected toolkits are idle.
+	 * @param maxMillis maximum time to wait
+	 * @param swing whether to wait for the AWT EventQueue and the focus owner
+	 * @param fx whether to wait for the JavaFX Thread
+	 * @return true if the toolkits became idle, false if the maximum time elapsed first
+	 */
+	static boolean awaitIdle( long maxMillis, boolean swing = true, boolean fx = true ) {
+		long start = System.nanoTime()
+		try {
+			return doAwaitIdle( maxMillis, swing, fx )
+		} finally {
+			ActionMetrics.waited( System.nanoTime() - start )
+		}
+	}
+
+	private static boolean doAwaitIdle( long maxMillis, boolean swing, boolean fx ) {
+		def deadline = Deadline.after( maxMillis, TimeUnit.MILLISECONDS, 'Wait until idle' )
+		def focusOwner = swing ? currentFocusOwner() : null
+		int idleChecks = 0
+		while ( !deadline.expired ) {
+			boolean idle = ( !swing || swingIdle( deadline ) ) && ( !fx || fxIdle( deadline ) )
+			if ( swing ) {
+				def newFocusOwner = currentFocusOwner()
+				if ( !newFocusOwner.is( focusOwner ) ) {
+					idle = false
+					focusOwner = newFocusOwner
+				}
+			}
+			idleChecks = idle ? idleChecks + 1 : 0
+			if ( idleChecks >= IDLE_CHECKS ) return true
+			if ( !idle && !pause() ) return false
+		}
+		false
+	}
+
+	private static boolean awaitFocus( long maxMillis, boolean swing, boolean fx,
+	                                   Closure<Boolean> focusReached ) {
+		long start = System.nanoTime()
+		try {
+			def deadline = Deadline.after( maxMillis, TimeUnit.MILLISECONDS, 'Wait for the focus' )
+			while ( !deadline.expired ) {
+				if ( focusReached.call( deadline ) ) {
+					return doAwaitIdle( deadline.getRemaining( TimeUnit.MILLISECONDS ), swing, fx )
+				}
+				if ( !pause() ) return false
+			}
+			false
+		} finally {
+			ActionMetrics.waited( System.nanoTime() - start )
+		}
+	}
+
+	private static boolean swingFocusWithin( Component target ) {
+		def owner = currentFocusOwner()
+		owner instanceof Component && SwingUtilities.isDescendingFrom( owner as Component, target )
+	}
+
+	private static boolean fxFocusWithin( Node target, Deadline deadline ) {
+		if ( Platform.isFxApplicationThread() ) return fxFocusWithin( target )
+		def latch = new CountDownLatch( 1 )
+		final boolean[] focused = [ false ] as boolean[]
+		try {
+			Platform.runLater( new Runnable() {
+				@Override
+				void run() {
+					focused[ 0 ] = fxFocusWithin( target )
+					latch.countDown()
+				}
+			} )
+		} catch ( IllegalStateException ignored ) {
+			return true // JavaFX is not running
+		}
+		await( latch, deadline ) && focused[ 0 ]
+	}
+
+	private static boolean fxFocusWithin( Node target ) {
+		Node owner = target.scene?.focusOwner
+		while ( owner != null && !owner.is( target ) ) owner = owner.parent
+		owner != null
+	}
+
+	private static boolean pause() {
+		try {
+			Thread.sleep( POLL_MILLIS )
+			return true
+		} catch ( InterruptedException ignored ) {
+			Thread.currentThread().interrupt()
+			return false
+		}
+	}
+
+	private static boolean swingIdle( Deadline deadline ) {
+		if ( EventQueue.isDispatchThread() ) return true
+		def latch = new CountDownLatch( 1 )
+		final boolean[] queueEmpty = [ false ] as boolean[]
+		EventQueue.invokeLater( new Runnable() {
+			@Override
+			void run() {
+				// must check on the EDT, otherwise the next event may be taken from the queue before the check
+				queueEmpty[ 0 ] = Toolkit.defaultToolkit.systemEventQueue.peekEvent() == null
+				latch.countDown()
+			}
+		} )
+		await( latch, deadline ) && queueEmpty[ 0 ]
+	}
+
+	private static boolean fxIdle( Deadline deadline ) {
+		if ( Platform.isFxApplicationThread() ) return true
+		def latch = new CountDownLatch( 1 )
+		try {
+			Platform.runLater( new Runnable() {
+				@Override
+				void run() { latch.countDown() }
+			} )
+		} catch ( IllegalStateException ignored ) {
+			return true // JavaFX is not running
+		}
+		await( latch, deadline )
+	}
+
+	private static boolean await( CountDownLatch latch, Deadline deadline ) {
+		try {
+			return latch.await( deadline.getRemaining( TimeUnit.NANOSECONDS ), TimeUnit.NANOSECONDS )
+		} catch ( InterruptedException ignored ) {
+			Thread.currentThread().interrupt()
+			return false
+		}
+	}
+
+	private static Object currentFocusOwner() {
+		KeyboardFocusManager.currentKeyboardFocusManager.focusOwner
+	}
+
+}
@@ -46,15 +46,56 @@ class RobotTypingUtil {
 			'%' : result( VK_5, true )
 	]
 
+	/**
+	 * Keystrokes for all characters which can be typed, computed only once.
+	 */
+	private static final Map<Character, Map> keystrokes = keystrokeTable()
+
+	/**
+	 * Characters typed by each keystroke in the keystroke table, the reverse of {@link #robotCode(java.lang.String)}.
+	 */
+	private static final Map<List, Character> characters = characterTable()
+
+	/**
+	 * @param code key code
+	 * @param shift whether SHIFT is down
+	 * @return the character typed by the given keystroke, or null if the keystroke does not type a character
+	 */
+	static Character charFor( int code, boolean shift ) {
+		characters[ [ code, shift ] ]
+	}
+
 	static robotCode( String c ) {
 		def ch = c as char
+		def keystroke = keystrokes[ ch ]
+		if ( keystroke ) return keystroke
 		if ( ch.isLetterOrDigit() ) {
 			return result( KeyEvent."VK_${ch.toUpperCase()}", ch.isUpperCase() )
 		} else {
-			def fromMap = keyMap[ c ]
-			if ( fromMap ) return fromMap
-			else result VK_SPACE, false
+			result VK_SPACE, false
+		}
+	}
+
+	private static Map<Character, Map> keystrokeTable() {
+		Map<Character, Map> table = [ : ]
+		for ( int i = 0; i < 26; i++ ) {
+			table[ ( ( 'a' as char ) + i ) as char ] = result( VK_A + i, false )
+			table[ ( ( 'A' as char ) + i ) as char ] = result( VK_A + i, true )
+		}
+		for ( int i = 0; i < 10; i++ ) {
+			table[ ( ( '0' as char ) + i ) as char ] = result( VK_0 + i, false )
+		}
+		keyMap.each { String c, Map keystroke -> table[ c as char ] = keystroke }
+		table.asImmutable()
+	}
+
+	private static Map<List, Character> characterTable() {
+		Map<List, Character> table = [ : ]
+		keystrokes.each { Character c, Map keystroke ->
+			def key = [ keystroke.code, keystroke.shift ]
+			if ( !table.containsKey( key ) ) table[ key ] = c
 		}
+		table.asImmutable()
 	}
 
 	private static result( int c, boolean shift ) {
@@ -0,0 +1,88 @@
+package com.athaydes.internal
+
+import com.athaydes.automaton.selector.AutomatonSelector
+import com.athaydes.automaton.selector.ComplexSelector
+import groovy.transform.CompileStatic
+
+/**
+ * Cache of parsed String selectors and compiled ComplexSelectors for a driver.
+ * <p/>
+ * Entries are only valid for the selectors Map they were created with, so the cache must be discarded
+ * when {@link #isValidFor(java.util.Map)} returns false.
+ */
+@CompileStatic
+class SelectorCache<K> {
+
+	static final int MAX_ENTRIES = 256
+
+	private final Map<String, AutomatonSelector<K>> selectors
+	private final Map<String, AutomatonSelector<K>> selectorsCopy
+	private final List<String> prefixes
+	private final Map<String, List<String>> prefixed = new LruMap<String, List<String>>()
+	private final Map<List<Object>, AutomatonSelector<K>> compiled = new LruMap<List<Object>, AutomatonSelector<K>>()
+
+	SelectorCache( Map<String, AutomatonSelector<K>> selectors ) {
+		this.selectors = selectors
+		this.selectorsCopy = new LinkedHashMap<String, AutomatonSelector<K>>( selectors )
+		this.prefixes = new ArrayList<String>( selectors.keySet() )
+	}
+
+	/**
+	 * @param currentSelectors selectors Map currently in use
+	 * @return true if this cache was created for the given selectors
+	 */
+	boolean isValidFor( Map<String, AutomatonSelector<K>> currentSelectors ) {
+		currentSelectors.is( selectors ) && currentSelectors == selectorsCopy
+	}
+
+	/**
+	 * @param selector String selector, possibly starting with one of the known prefixes
+	 * @return immutable list containing the prefix and the query for the given selector. If the selector does
+	 * not start with any known prefix, the first prefix is used.
+	 */
+	synchronized List<String> prefixed( String selector ) {
+		def result = prefixed[ selector ]
+		if ( result == null ) {
+			def prefix = prefixes.find { String p -> selector.startsWith( p ) }
+			result = Collections.unmodifiableList( prefix ?
+					[ prefix, selector.substring( prefix.size() ) ] :
+					[ prefixes[ 0 ], selector ] )
+			prefixed[ selector ] = result
+		}
+		result
+	}
+
+	/**
+	 * @return the compiled selector previously stored for an equivalent ComplexSelector, or null if none
+	 */
+	synchronized AutomatonSelector<K> getCompiled( ComplexSelector selector ) {
+		compiled[ keyOf( selector ) ]
+	}
+
+	/**
+	 * Stores the compiled form of the given ComplexSelector.
+	 * @return the compiled selector
+	 */
+	synchronized AutomatonSelector<K> putCompiled( ComplexSelector selector, AutomatonSelector<K> compiledSelector ) {
+		compiled[ keyOf( selector ) ] = compiledSelector
+		compiledSelector
+	}
+
+	private static List<Object> keyOf( ComplexSelector selector ) {
+		List<Object> key = [ selector.matchType as Object ]
+		key.addAll( selector.queries )
+		key
+	}
+
+	private static class LruMap<A, B> extends LinkedHashMap<A, B> {
+		LruMap() {
+			super( 16, 0.75f, true )
+		}
+
+		@Override
+		protected boolean removeEldestEntry( Map.Entry<A, B> eldest ) {
+			size() > MAX_ENTRIES
+		}
+	}
+
+}
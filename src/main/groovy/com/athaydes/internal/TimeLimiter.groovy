@@ -1,20 +1,36 @@
 package com.athaydes.internal
 
+import groovy.transform.PackageScope
+
+import java.util.concurrent.Callable
+import java.util.concurrent.ExecutionException
+import java.util.concurrent.ExecutorService
 import java.util.concurrent.Executors
 import java.util.concurrent.ThreadFactory
 import java.util.concurrent.TimeUnit
 import java.util.concurrent.TimeoutException
+import java.util.concurrent.atomic.AtomicInteger
+import java.util.concurrent.atomic.AtomicLong
 
 /**
+ * Runs operations which may block for too long, giving up on them after a timeout.
+ * <p/>
+ * Operations are run on a pool of daemon Threads shared by all TimeLimiters, so different drivers do not have to
+ * wait for each other. Operations which cannot block, such as loops, should check a {@link Deadline}
+ * on the caller's Thread instead.
  *
  * User: Renato
  */
 class TimeLimiter {
 
-	private final executor = Executors.newSingleThreadExecutor( new ThreadFactory() {
+	private static final AtomicLong timeouts = new AtomicLong()
+
+	private static final AtomicInteger threadCount = new AtomicInteger()
+
+	private static final ExecutorService executor = Executors.newCachedThreadPool( new ThreadFactory() {
 		@Override
 		Thread newThread( Runnable runnable ) {
-			def thread = new Thread( runnable, 'automaton-timelimiter', )
+			def thread = new Thread( runnable, "automaton-timelimiter-${threadCount.incrementAndGet()}" )
 			thread.daemon = true
 			return thread
 		}
@@ -22,29 +38,29 @@ class TimeLimiter {
 
 	def abortAfter( Closure toRun, long timeToAbort, TimeUnit unit )
 			throws TimeoutException {
-		def result = null
-		def exception = null
-		Thread thread = null
-
-		def future = executor.submit {
-			thread = Thread.currentThread()
-			try {
-				result = toRun()
-			} catch ( e ) {
-				exception = e
-				Thread.interrupted() // clear the interrupt flag
-			}
-		}
-
+		def future = executor.submit( toRun as Callable )
 		try {
-			future.get( timeToAbort, unit )
+			return future.get( timeToAbort, unit )
 		} catch ( TimeoutException e ) {
-			thread?.interrupt()
+			future.cancel( true )
+			recordTimeout()
 			throw e
+		} catch ( ExecutionException e ) {
+			throw e.cause ?: e
 		}
+	}
+
+	/**
+	 * @return how many operations timed out, either run by a TimeLimiter or checking a {@link Deadline},
+	 * since the JVM started
+	 */
+	static long getTimeoutCount() {
+		timeouts.get()
+	}
 
-		if ( exception ) throw exception
-		else result
+	@PackageScope
+	static void recordTimeout() {
+		timeouts.incrementAndGet()
 	}
 
-}
\ No newline at end of file
+}
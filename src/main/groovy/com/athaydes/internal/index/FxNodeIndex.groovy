@@ -0,0 +1,508 @@
+package com.athaydes.internal.index
+
+import com.athaydes.automaton.FXUtil
+import com.athaydes.automaton.metrics.ActionMetrics
+import groovy.transform.CompileStatic
+import javafx.application.Platform
+import javafx.beans.InvalidationListener
+import javafx.beans.Observable
+import javafx.collections.ObservableList
+import javafx.scene.Node
+import javafx.scene.Parent
+import javafx.scene.Scene
+import javafx.stage.Window
+
+import java.util.concurrent.Callable
+import java.util.concurrent.ConcurrentHashMap
+import java.util.concurrent.ExecutionException
+import java.util.concurrent.FutureTask
+import java.util.concurrent.TimeUnit
+import java.util.concurrent.TimeoutException
+
+/**
+ * A live index of the id, style classes and type of every Node under a root Node and under the root of every
+ * other JavaFX Window (popups, dialogs, other Stages), mirroring what is visited by
+ * {@link FXUtil#navigateBreadthFirst(javafx.scene.Node, groovy.lang.Closure, java.lang.Object)}.
+ * <p/>
+ * The index is built on the first lookup and kept current by listening to changes to the children of every
+ * Parent, to the id and style classes of every Node, and to the Scene shown by every Window. Windows are indexed
+ * when they first appear, instead of their scenes being walked on every lookup.
+ * <p/>
+ * Listeners run in the JavaFX Thread, so they only record what changed and the index catches up at the start of
+ * the next lookup. Lookups, and adding or removing listeners, run in the JavaFX Thread, blocking the caller until
+ * they are done. Lookups return null when the index cannot answer a query, in which case the caller must fall
+ * back to walking the scene graph.
+ * <p/>
+ * From JavaFX 9, the index is notified when any Window is shown or hidden. JavaFX 8 only notifies when Stages
+ * are, so popups are found by comparing the Windows showing with the indexed ones on each lookup.
+ */
+@CompileStatic
+class FxNodeIndex {
+
+	final Node root
+
+	private final Map<Node, NodeEntry> entries = new IdentityHashMap<Node, NodeEntry>()
+	private final Map<Window, WindowEntry> windows = new IdentityHashMap<Window, WindowEntry>()
+	private final Map<String, Set<Node>> byId = [ : ]
+	private final Map<String, Set<Node>> byStyleClass = [ : ]
+	private final Map<String, Set<Node>> bySimpleType = [ : ]
+	private final Map<String, Set<Node>> byQualifiedType = [ : ]
+	private Window excludedWindow
+	private List<Window> knownWindows = [ ]
+	private boolean built = false
+
+	private final Changes changes = new Changes()
+	private ObservableList<? extends Window> observableWindows
+	private boolean observesAllWindows
+
+	FxNodeIndex( Node root ) {
+		this.root = root
+	}
+
+	/**
+	 * @return all Nodes with the given id, or null if the index cannot answer this query.
+	 */
+	List<Node> findById( String id, int limit = Integer.MAX_VALUE, boolean followPopups = true ) {
+		find( byId, id, limit, followPopups )
+	}
+
+	/**
+	 * @return all Nodes with the given style class, or null if the index cannot answer this query.
+	 */
+	List<Node> findByStyleClass( String styleClass, int limit = Integer.MAX_VALUE, boolean followPopups = true ) {
+		find( byStyleClass, styleClass, limit, followPopups )
+	}
+
+	/**
+	 * @param type simple or fully-qualified class name
+	 * @return all Nodes of exactly the given type, or null if the index cannot answer this query.
+	 */
+	List<Node> findByType( String type, int limit = Integer.MAX_VALUE, boolean followPopups = true ) {
+		find( type.contains( '.' ) ? byQualifiedType : bySimpleType, type, limit, followPopups )
+	}
+
+	/**
+	 * Removes all listeners added by this index and discards all indexed data.
+	 * The index is rebuilt if used again.
+	 */
+	void clear() {
+		inFXThread {
+			synchronized ( this ) {
+				doClear()
+			}
+			null
+		}
+	}
+
+	private List<Node> find( Map<String, Set<Node>> keys, String key, int limit, boolean followPopups ) {
+		inFXThread {
+			synchronized ( this ) {
+				refresh() ? inTreeOrder( keys[ key ], limit, followPopups ) : null
+			}
+		}
+	}
+
+	/**
+	 * Runs the given action in the JavaFX Thread, waiting for its result. If the JavaFX toolkit is not running,
+	 * the action is run in the current Thread.
+	 * @return the result of the action, or null if it did not run within 5 seconds
+	 */
+	private static <T> T inFXThread( Closure<T> action ) {
+		if ( Platform.isFxApplicationThread() ) return action.call()
+		def task = new FutureTask<T>( action as Callable<T> )
+		try {
+			Platform.runLater task
+		} catch ( IllegalStateException ignore ) {
+			// toolkit not initialized
+			task.run()
+		}
+		long start = System.nanoTime()
+		try {
+			return task.get( 5, TimeUnit.SECONDS )
+		} catch ( TimeoutException ignore ) {
+			return null
+		} catch ( ExecutionException e ) {
+			throw e.cause ?: e
+		} finally {
+			ActionMetrics.waited( System.nanoTime() - start )
+		}
+	}
+
+	private void doClear() {
+		for ( entry in entries.values() ) entry.detach()
+		for ( window in windows.values() ) window.detach()
+		observableWindows?.removeListener( changes )
+		entries.clear()
+		windows.clear()
+		byId.clear()
+		byStyleClass.clear()
+		bySimpleType.clear()
+		byQualifiedType.clear()
+		changes.clear()
+		excludedWindow = null
+		knownWindows = [ ]
+		observableWindows = null
+		built = false
+	}
+
+	private boolean refresh() {
+		try {
+			if ( !built ) {
+				build()
+			} else {
+				applyChanges()
+			}
+			return true
+		} catch ( RuntimeException ignore ) {
+			// the scene graph changed under our feet, do not trust anything we have
+			doClear()
+			return false
+		}
+	}
+
+	private void build() {
+		observeWindows()
+		observableWindows?.addListener( changes )
+		index( root )
+		syncWindows()
+		built = true
+	}
+
+	private void applyChanges() {
+		if ( changes.windows ) {
+			List<Window> changedWindows = changes.drain( changes.windows )
+			for ( Window window in changedWindows ) {
+				WindowEntry entry = windows[ window ]
+				if ( entry && !entry.root.is( entry.currentRoot() ) ) {
+					unindex( entry.root )
+					entry.root = entry.currentRoot()
+					if ( entry.root ) index( entry.root )
+				}
+			}
+		}
+		if ( changes.parents ) {
+			Set<Node> maybeRemoved = Collections.newSetFromMap( new IdentityHashMap<Node, Boolean>() )
+			List<Node> changedParents = changes.drain( changes.parents )
+			for ( Node parent in changedParents ) {
+				NodeEntry entry = entries[ parent ]
+				if ( !entry ) continue
+				List<Node> current = childrenOf( parent )
+				for ( Node child in entry.children ) {
+					if ( !current.any { it.is( child ) } ) maybeRemoved << child
+				}
+				entry.children = current
+				for ( child in current ) index( child )
+			}
+			for ( node in maybeRemoved ) {
+				if ( !isAttached( node ) ) unindex( node )
+			}
+		}
+		if ( changes.nodes ) {
+			List<Node> changedNodes = changes.drain( changes.nodes )
+			for ( Node node in changedNodes ) {
+				NodeEntry entry = entries[ node ]
+				if ( entry ) {
+					removeKeys( entry )
+					entry.readKeys()
+					addKeys( entry )
+				}
+			}
+		}
+		if ( changes.windowList || !excludedWindow.is( root.scene?.window ) ||
+				( !observesAllWindows && !sameWindows( FXUtil.allWindows ) ) ) {
+			syncWindows()
+		}
+	}
+
+	private boolean sameWindows( List<Window> current ) {
+		if ( current.size() != knownWindows.size() ) return false
+		for ( int i = 0; i < current.size(); i++ ) {
+			if ( !current[ i ].is( knownWindows[ i ] ) ) return false
+		}
+		true
+	}
+
+	private void syncWindows() {
+		changes.windowList = false
+		excludedWindow = root.scene?.window
+		knownWindows = FXUtil.allWindows
+		def current = knownWindows.findAll { Window w -> !w.is( excludedWindow ) }
+		for ( window in new ArrayList<Window>( windows.keySet() ) ) {
+			if ( !current.any { it.is( window ) } ) {
+				WindowEntry entry = windows.remove( window )
+				entry.detach()
+				if ( entry.root ) unindex( entry.root )
+			}
+		}
+		for ( window in current ) {
+			if ( !windows.containsKey( window ) ) {
+				WindowEntry entry = new WindowEntry( window, changes )
+				windows[ window ] = entry
+				if ( entry.root ) index( entry.root )
+			}
+		}
+	}
+
+	private void index( Node start ) {
+		def queue = new ArrayDeque<Node>()
+		queue << start
+		while ( queue ) {
+			def node = queue.poll()
+			if ( entries.containsKey( node ) ) continue
+			NodeEntry entry = new NodeEntry( node, changes )
+			entry.readKeys()
+			addKeys( entry )
+			entry.children = childrenOf( node )
+			entries[ node ] = entry
+			queue.addAll( entry.children )
+		}
+	}
+
+	private void unindex( Node start ) {
+		def queue = new ArrayDeque<Node>()
+		queue << start
+		while ( queue ) {
+			NodeEntry entry = entries.remove( queue.poll() )
+			if ( entry ) {
+				removeKeys( entry )
+				entry.detach()
+				queue.addAll( entry.children )
+			}
+		}
+	}
+
+	private boolean isAttached( Node node ) {
+		sectionOf( topOf( node ) ) != null
+	}
+
+	private void addKeys( NodeEntry entry ) {
+		add( byId, entry.id, entry.node )
+		for ( styleClass in entry.styleClasses ) add( byStyleClass, styleClass, entry.node )
+		add( bySimpleType, entry.node.class.simpleName, entry.node )
+		add( byQualifiedType, entry.node.class.name, entry.node )
+	}
+
+	private void removeKeys( NodeEntry entry ) {
+		remove( byId, entry.id, entry.node )
+		for ( styleClass in entry.styleClasses ) remove( byStyleClass, styleClass, entry.node )
+		remove( bySimpleType, entry.node.class.simpleName, entry.node )
+		remove( byQualifiedType, entry.node.class.name, entry.node )
+	}
+
+	private List<Node> inTreeOrder( Set<Node> nodes, int limit, boolean followPopups ) {
+		if ( !nodes || limit < 1 ) return [ ]
+		def windowOrder = followPopups ? FXUtil.allWindows : Collections.<Window> emptyList()
+		List<TreeOrderKey> keyed = [ ]
+		for ( node in nodes ) {
+			def section = sectionOf( topOf( node ) )
+			if ( section == null ) continue
+			int windowIndex = -1
+			if ( section instanceof Window ) {
+				windowIndex = windowOrder.findIndexOf { it.is( section ) }
+				if ( windowIndex < 0 ) continue
+			}
+			keyed << new TreeOrderKey( node, windowIndex, treePathOf( node ) )
+		}
+		if ( limit == 1 && keyed ) return [ keyed.min().node ]
+		keyed.sort()
+		if ( limit < keyed.size() ) keyed = keyed.subList( 0, limit )
+		keyed.collect { TreeOrderKey key -> key.node }
+	}
+
+	/**
+	 * @return the root Node if the given top Node is the root, the Window whose Scene is rooted on it if
+	 * it is an indexed Window, or null if the top Node is not part of what this index covers.
+	 */
+	private sectionOf( Node top ) {
+		if ( top.is( root ) ) return root
+		windows.values().find { WindowEntry w -> w.root.is( top ) }?.window
+	}
+
+	private Node topOf( Node node ) {
+		def current = node
+		while ( !current.is( root ) && current.parent != null ) current = current.parent
+		current
+	}
+
+	private List<Integer> treePathOf( Node node ) {
+		def path = new LinkedList<Integer>()
+		def current = node
+		while ( !current.is( root ) && current.parent != null ) {
+			path.addFirst( current.parent.childrenUnmodifiable.findIndexOf { it.is( current ) } )
+			current = current.parent
+		}
+		path
+	}
+
+	static List<Node> childrenOf( Node node ) {
+		node instanceof Parent ?
+				new ArrayList<Node>( ( node as Parent ).childrenUnmodifiable ) :
+				Collections.<Node> emptyList()
+	}
+
+	private void observeWindows() {
+		try {
+			// JavaFX 9 and later
+			observableWindows = Window.getMethod( 'getWindows' ).invoke( null ) as ObservableList<? extends Window>
+			observesAllWindows = true
+		} catch ( NoSuchMethodException ignore ) {
+			// JavaFX 8 only lists Stages, not other Windows
+			observesAllWindows = false
+			try {
+				observableWindows = Class.forName( 'com.sun.javafx.stage.StageHelper' )
+						.getMethod( 'getStages' ).invoke( null ) as ObservableList<? extends Window>
+			} catch ( Exception e ) {
+				observableWindows = null
+			}
+		}
+	}
+
+	private static void add( Map<String, Set<Node>> map, String key, Node node ) {
+		if ( key == null ) return
+		def nodes = map[ key ]
+		if ( nodes == null ) {
+			nodes = new LinkedHashSet<Node>()
+			map[ key ] = nodes
+		}
+		nodes << node
+	}
+
+	private static void remove( Map<String, Set<Node>> map, String key, Node node ) {
+		if ( key == null ) return
+		def nodes = map[ key ]
+		if ( nodes != null ) {
+			nodes.remove( node )
+			if ( nodes.empty ) map.remove( key )
+		}
+	}
+
+	/**
+	 * Changes recorded by listeners, waiting to be applied to the index.
+	 */
+	private static class Changes implements InvalidationListener {
+		final Set<Node> parents = concurrentSet()
+		final Set<Node> nodes = concurrentSet()
+		final Set<Window> windows = concurrentSet()
+		volatile boolean windowList = false
+
+		/**
+		 * Called when the list of all Windows changes.
+		 */
+		@Override
+		void invalidated( Observable observable ) {
+			windowList = true
+		}
+
+		public <T> List<T> drain( Set<T> changed ) {
+			def result = new ArrayList<T>( changed )
+			changed.removeAll( result )
+			result
+		}
+
+		void clear() {
+			parents.clear()
+			nodes.clear()
+			windows.clear()
+			windowList = false
+		}
+
+		private static <T> Set<T> concurrentSet() {
+			Collections.newSetFromMap( new ConcurrentHashMap<T, Boolean>() )
+		}
+	}
+
+	private static class NodeEntry implements InvalidationListener {
+		final Node node
+		final Changes changes
+		String id
+		List<String> styleClasses
+		List<Node> children
+
+		NodeEntry( Node node, Changes changes ) {
+			this.node = node
+			this.changes = changes
+			node.idProperty().addListener( this )
+			node.styleClass.addListener( this )
+			if ( node instanceof Parent ) ( node as Parent ).childrenUnmodifiable.addListener( this )
+		}
+
+		void readKeys() {
+			id = node.id
+			styleClasses = new ArrayList<String>( node.styleClass )
+		}
+
+		@Override
+		void invalidated( Observable observable ) {
+			if ( node instanceof Parent && observable.is( ( node as Parent ).childrenUnmodifiable ) ) {
+				changes.parents << node
+			} else {
+				changes.nodes << node
+			}
+		}
+
+		void detach() {
+			node.idProperty().removeListener( this )
+			node.styleClass.removeListener( this )
+			if ( node instanceof Parent ) ( node as Parent ).childrenUnmodifiable.removeListener( this )
+		}
+	}
+
+	private static class WindowEntry implements InvalidationListener {
+		final Window window
+		final Changes changes
+		Scene scene
+		Node root
+
+		WindowEntry( Window window, Changes changes ) {
+			this.window = window
+			this.changes = changes
+			window.sceneProperty().addListener( this )
+			scene = window.scene
+			scene?.rootProperty()?.addListener( this )
+			root = scene?.root
+		}
+
+		Node currentRoot() {
+			if ( !scene.is( window.scene ) ) {
+				scene?.rootProperty()?.removeListener( this )
+				scene = window.scene
+				scene?.rootProperty()?.addListener( this )
+			}
+			scene?.root
+		}
+
+		@Override
+		void invalidated( Observable observable ) {
+			changes.windows << window
+		}
+
+		void detach() {
+			window.sceneProperty().removeListener( this )
+			scene?.rootProperty()?.removeListener( this )
+		}
+	}
+
+	private static class TreeOrderKey implements Comparable<TreeOrderKey> {
+		final Node node
+		final int windowIndex
+		final List<Integer> path
+
+		TreeOrderKey( Node node, int windowIndex, List<Integer> path ) {
+			this.node = node
+			this.windowIndex = windowIndex
+			this.path = path
+		}
+
+		@Override
+		int compareTo( TreeOrderKey other ) {
+			// the root's tree comes first, then each Window in order, each one breadth-first
+			if ( windowIndex != other.windowIndex ) return windowIndex <=> other.windowIndex
+			if ( path.size() != other.path.size() ) return path.size() <=> other.path.size()
+			for ( int i = 0; i < path.size(); i++ ) {
+				if ( path[ i ] != other.path[ i ] ) return path[ i ] <=> other.path[ i ]
+			}
+			0
+		}
+	}
+
+}
@@ -0,0 +1,425 @@
+package com.athaydes.internal.index
+
+import com.athaydes.internal.traversal.SwingItemCursor
+import groovy.transform.CompileStatic
+
+import javax.swing.AbstractButton
+import javax.swing.JComboBox
+import javax.swing.JEditorPane
+import javax.swing.JLabel
+import javax.swing.JList
+import javax.swing.JMenu
+import javax.swing.JPasswordField
+import javax.swing.JPopupMenu
+import javax.swing.JTabbedPane
+import javax.swing.JTable
+import javax.swing.JTree
+import javax.swing.SwingUtilities
+import javax.swing.event.DocumentEvent
+import javax.swing.event.DocumentListener
+import javax.swing.text.Document
+import javax.swing.text.JTextComponent
+import java.awt.Component
+import java.awt.Container
+import java.awt.Window
+import java.awt.event.ContainerEvent
+import java.awt.event.ContainerListener
+import java.awt.event.HierarchyEvent
+import java.awt.event.HierarchyListener
+import java.beans.PropertyChangeEvent
+import java.beans.PropertyChangeListener
+import java.util.concurrent.ConcurrentHashMap
+import java.util.concurrent.ConcurrentLinkedQueue
+import java.util.concurrent.atomic.AtomicInteger
+
+/**
+ * An incrementally maintained index of the name, type and text of every Component under a root Component.
+ * <p/>
+ * The index is built on the first lookup and kept current from ContainerListener, PropertyChangeListener and
+ * HierarchyListener events. AWT fires these events while holding the tree lock, so listeners only record what
+ * changed and the index catches up at the start of the next lookup.
+ * <p/>
+ * Lookups return the same Components, in the same breadth-first order, as walking the tree would.
+ * They return null when the index cannot be trusted to answer a query, in which case the caller must
+ * fall back to walking the tree.
+ */
+@CompileStatic
+class SwingComponentIndex implements ContainerListener, PropertyChangeListener, HierarchyListener {
+
+	/**
+	 * Maximum number of structural changes to buffer between lookups before giving up and rebuilding the index.
+	 */
+	static final int MAX_PENDING_CHANGES = 10_000
+
+	private static final List<Class> TRACKED_TEXT_DECLARERS = [
+			JLabel, AbstractButton, JTextComponent, JEditorPane, JPasswordField ].asImmutable()
+
+	private static final List<Class> ITEM_CONTAINERS = [
+			JTable, JTree, JList, JComboBox, JTabbedPane ].asImmutable()
+
+	private static final ClassValue<Boolean> UNTRACKED_TEXT = new ClassValue<Boolean>() {
+		@Override
+		protected Boolean computeValue( Class<?> type ) {
+			if ( ITEM_CONTAINERS.any { Class c -> c.isAssignableFrom( type ) } ) return true
+			try {
+				def getText = type.getMethod( 'getText' )
+				!( getText.declaringClass in TRACKED_TEXT_DECLARERS )
+			} catch ( NoSuchMethodException ignore ) {
+				false
+			}
+		}
+	}
+
+	final Component root
+
+	private final Map<Component, IndexEntry> entries = new IdentityHashMap<Component, IndexEntry>()
+	private final Set<IndexEntry> windowEntries = new LinkedHashSet<IndexEntry>()
+	private final Map<String, Set<Component>> byName = [ : ]
+	private final Map<String, Set<Component>> bySimpleType = [ : ]
+	private final Map<String, Set<Component>> byQualifiedType = [ : ]
+	private final Map<String, Set<Component>> byText = [ : ]
+	private int untrackedTextSources = 0
+	private boolean built = false
+
+	private final Queue<ContainerEvent> structuralChanges = new ConcurrentLinkedQueue<ContainerEvent>()
+	private final AtomicInteger pendingChanges = new AtomicInteger()
+	private final Set<Component> propertyChanges =
+			Collections.newSetFromMap( new ConcurrentHashMap<Component, Boolean>() )
+	private volatile boolean invalidated = false
+
+	SwingComponentIndex( Component root ) {
+		this.root = root
+	}
+
+	/**
+	 * @return all Components with the given name, or null if the index cannot answer this query.
+	 */
+	synchronized List<Component> findByName( String name, int limit = Integer.MAX_VALUE ) {
+		refresh() ? inTreeOrder( byName[ name ], limit ) : null
+	}
+
+	/**
+	 * @param type simple or fully-qualified class name
+	 * @return all Components of exactly the given type, or null if the index cannot answer this query.
+	 */
+	synchronized List<Component> findByType( String type, int limit = Integer.MAX_VALUE ) {
+		if ( type.endsWith( 'FakeComponent' ) ) return null // items are only visited by walking the tree
+		if ( !refresh() ) return null
+		inTreeOrder( ( type.contains( '.' ) ? byQualifiedType : bySimpleType )[ type ], limit )
+	}
+
+	/**
+	 * @return all Components with the given text, or null if the index cannot answer this query,
+	 * which is the case if any Component under the root has text the index cannot keep track of,
+	 * such as table cells, tree nodes or custom getText() implementations.
+	 */
+	synchronized List<Component> findByText( String text, int limit = Integer.MAX_VALUE ) {
+		if ( !refresh() || untrackedTextSources > 0 ) return null
+		inTreeOrder( byText[ text ], limit )
+	}
+
+	/**
+	 * Removes all listeners added by this index and discards all indexed data.
+	 * The index is rebuilt if used again.
+	 */
+	synchronized void clear() {
+		for ( entry in entries.values() ) detach( entry )
+		entries.clear()
+		windowEntries.clear()
+		byName.clear()
+		bySimpleType.clear()
+		byQualifiedType.clear()
+		byText.clear()
+		untrackedTextSources = 0
+		structuralChanges.clear()
+		pendingChanges.set( 0 )
+		propertyChanges.clear()
+		root.removeHierarchyListener( this )
+		built = false
+	}
+
+	@Override
+	void componentAdded( ContainerEvent event ) {
+		recordStructuralChange( event )
+	}
+
+	@Override
+	void componentRemoved( ContainerEvent event ) {
+		recordStructuralChange( event )
+	}
+
+	@Override
+	void propertyChange( PropertyChangeEvent event ) {
+		propertyChanges << ( event.source as Component )
+	}
+
+	@Override
+	void hierarchyChanged( HierarchyEvent event ) {
+		if ( ( event.changeFlags & HierarchyEvent.DISPLAYABILITY_CHANGED ) && !root.displayable ) {
+			// the root has been disposed, let go of everything as soon as we are out of the tree lock
+			invalidated = true
+			SwingUtilities.invokeLater {
+				if ( !root.displayable ) clear()
+			}
+		}
+	}
+
+	private void recordStructuralChange( ContainerEvent event ) {
+		if ( pendingChanges.incrementAndGet() > MAX_PENDING_CHANGES ) {
+			invalidated = true
+		} else {
+			structuralChanges << event
+		}
+	}
+
+	private boolean refresh() {
+		try {
+			if ( invalidated ) {
+				invalidated = false
+				clear()
+			}
+			if ( !built ) {
+				build()
+			} else {
+				applyPendingChanges()
+			}
+			return true
+		} catch ( RuntimeException ignore ) {
+			// the tree changed under our feet, do not trust anything we have
+			clear()
+			return false
+		}
+	}
+
+	private void build() {
+		root.addHierarchyListener( this )
+		index( root )
+		built = true
+	}
+
+	private void applyPendingChanges() {
+		ContainerEvent change
+		while ( ( change = structuralChanges.poll() ) != null ) {
+			pendingChanges.decrementAndGet()
+			if ( change.ID == ContainerEvent.COMPONENT_ADDED ) {
+				if ( entries.containsKey( logicalParentOf( change.child ) ) ) index( change.child )
+			} else {
+				unindex( change.child )
+			}
+		}
+		if ( propertyChanges ) {
+			def changed = new ArrayList<Component>( propertyChanges )
+			propertyChanges.removeAll( changed )
+			for ( component in changed ) {
+				IndexEntry entry = entries[ component ]
+				if ( entry ) {
+					removeKeys( entry )
+					readKeys( entry )
+					addKeys( entry )
+				}
+			}
+		}
+		for ( entry in new ArrayList<IndexEntry>( windowEntries ) ) {
+			refreshOwnedWindows( entry )
+		}
+	}
+
+	private void index( Component start ) {
+		def queue = new ArrayDeque<Component>()
+		queue << start
+		while ( queue ) {
+			def component = queue.poll()
+			if ( entries.containsKey( component ) ) continue
+			IndexEntry entry = new IndexEntry( component, propertyChanges )
+			readKeys( entry )
+			addKeys( entry )
+			attach( entry )
+			entries[ component ] = entry
+			if ( component instanceof Window ) windowEntries << entry
+			queue.addAll( SwingItemCursor.childrenOf( component ) )
+		}
+	}
+
+	private void unindex( Component start ) {
+		def queue = new ArrayDeque<Component>()
+		queue << start
+		while ( queue ) {
+			IndexEntry entry = entries.remove( queue.poll() )
+			if ( entry ) {
+				windowEntries.remove( entry )
+				removeKeys( entry )
+				detach( entry )
+				queue.addAll( SwingItemCursor.childrenOf( entry.component ) )
+				if ( entry.ownedWindows ) queue.addAll( entry.ownedWindows )
+			}
+		}
+	}
+
+	private void refreshOwnedWindows( IndexEntry entry ) {
+		def current = ( entry.component as Window ).ownedWindows.toList()
+		if ( current != entry.ownedWindows ) {
+			for ( window in entry.ownedWindows ) {
+				if ( !current.any { it.is( window ) } ) unindex( window )
+			}
+			entry.ownedWindows = current
+			for ( window in current ) index( window )
+		}
+	}
+
+	private void readKeys( IndexEntry entry ) {
+		def component = entry.component
+		entry.name = component.name
+		entry.untrackedText = UNTRACKED_TEXT.get( component.class )
+		entry.text = entry.untrackedText ? null : textOf( component )
+		if ( component instanceof Window ) entry.ownedWindows = ( component as Window ).ownedWindows.toList()
+	}
+
+	private void addKeys( IndexEntry entry ) {
+		def component = entry.component
+		add( byName, entry.name, component )
+		add( bySimpleType, component.class.simpleName, component )
+		add( byQualifiedType, component.class.name, component )
+		add( byText, entry.text, component )
+		if ( entry.untrackedText ) untrackedTextSources++
+	}
+
+	private void removeKeys( IndexEntry entry ) {
+		def component = entry.component
+		remove( byName, entry.name, component )
+		remove( bySimpleType, component.class.simpleName, component )
+		remove( byQualifiedType, component.class.name, component )
+		remove( byText, entry.text, component )
+		if ( entry.untrackedText ) untrackedTextSources--
+	}
+
+	private void attach( IndexEntry entry ) {
+		def component = entry.component
+		component.addPropertyChangeListener( 'name', this )
+		if ( component instanceof Container ) ( component as Container ).addContainerListener( this )
+		if ( component instanceof JMenu ) ( component as JMenu ).popupMenu.addContainerListener( this )
+		if ( component instanceof JLabel || component instanceof AbstractButton ) {
+			component.addPropertyChangeListener( 'text', this )
+		} else if ( component instanceof JTextComponent ) {
+			component.addPropertyChangeListener( 'document', this )
+			entry.document = ( component as JTextComponent ).document
+			entry.document?.addDocumentListener( entry )
+		}
+	}
+
+	private void detach( IndexEntry entry ) {
+		def component = entry.component
+		component.removePropertyChangeListener( 'name', this )
+		component.removePropertyChangeListener( 'text', this )
+		component.removePropertyChangeListener( 'document', this )
+		if ( component instanceof Container ) ( component as Container ).removeContainerListener( this )
+		if ( component instanceof JMenu ) ( component as JMenu ).popupMenu.removeContainerListener( this )
+		entry.document?.removeDocumentListener( entry )
+		entry.document = null
+	}
+
+	private List<Component> inTreeOrder( Set<Component> components, int limit ) {
+		if ( !components || limit < 1 ) return [ ]
+		if ( components.size() == 1 ) return [ components.first() ]
+		def keyed = components.collect { Component c -> new TreeOrderKey( c, treePathOf( c ) ) }
+		if ( limit == 1 ) return [ keyed.min().component ]
+		keyed.sort()
+		if ( limit < keyed.size() ) keyed = keyed.subList( 0, limit )
+		keyed.collect { TreeOrderKey key -> key.component }
+	}
+
+	private List<Integer> treePathOf( Component component ) {
+		def path = new LinkedList<Integer>()
+		def current = component
+		while ( current != null && !current.is( root ) ) {
+			def parent = logicalParentOf( current )
+			if ( parent == null ) break
+			path.addFirst( SwingItemCursor.childrenOf( parent ).findIndexOf { it.is( current ) } )
+			current = parent
+		}
+		path
+	}
+
+	private static Component logicalParentOf( Component component ) {
+		def parent = component.parent
+		if ( parent instanceof JPopupMenu && ( parent as JPopupMenu ).invoker instanceof JMenu ) {
+			return ( parent as JPopupMenu ).invoker
+		}
+		if ( parent == null && component instanceof Window ) {
+			return ( component as Window ).owner
+		}
+		parent
+	}
+
+	private static textOf( Component component ) {
+		switch ( component ) {
+			case JLabel: return ( component as JLabel ).text
+			case AbstractButton: return ( component as AbstractButton ).text
+			case JTextComponent: return ( component as JTextComponent ).text
+			default: return null
+		}
+	}
+
+	private static void add( Map<String, Set<Component>> map, String key, Component component ) {
+		if ( key == null ) return
+		def components = map[ key ]
+		if ( components == null ) {
+			components = new LinkedHashSet<Component>()
+			map[ key ] = components
+		}
+		components << component
+	}
+
+	private static void remove( Map<String, Set<Component>> map, String key, Component component ) {
+		if ( key == null ) return
+		def components = map[ key ]
+		if ( components != null ) {
+			components.remove( component )
+			if ( components.empty ) map.remove( key )
+		}
+	}
+
+	private static class IndexEntry implements DocumentListener {
+		final Component component
+		final Set<Component> propertyChanges
+		String name
+		String text
+		boolean untrackedText
+		Document document
+		List<Window> ownedWindows
+
+		IndexEntry( Component component, Set<Component> propertyChanges ) {
+			this.component = component
+			this.propertyChanges = propertyChanges
+		}
+
+		@Override
+		void insertUpdate( DocumentEvent e ) { propertyChanges << component }
+
+		@Override
+		void removeUpdate( DocumentEvent e ) { propertyChanges << component }
+
+		@Override
+		void changedUpdate( DocumentEvent e ) { propertyChanges << component }
+	}
+
+	private static class TreeOrderKey implements Comparable<TreeOrderKey> {
+		final Component component
+		final List<Integer> path
+
+		TreeOrderKey( Component component, List<Integer> path ) {
+			this.component = component
+			this.path = path
+		}
+
+		@Override
+		int compareTo( TreeOrderKey other ) {
+			// breadth-first order: shallower Components first, then in the order their ancestors were visited
+			if ( path.size() != other.path.size() ) return path.size() <=> other.path.size()
+			for ( int i = 0; i < path.size(); i++ ) {
+				if ( path[ i ] != other.path[ i ] ) return path[ i ] <=> other.path[ i ]
+			}
+			0
+		}
+	}
+
+}
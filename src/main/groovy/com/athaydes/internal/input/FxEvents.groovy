@@ -0,0 +1,232 @@
+package com.athaydes.internal.input
+
+import com.athaydes.automaton.FXUtil
+import com.athaydes.internal.MethodAccessor
+import groovy.transform.CompileStatic
+import javafx.application.Platform
+import javafx.event.Event
+import javafx.event.EventType
+import javafx.geometry.Point2D
+import javafx.scene.Node
+import javafx.scene.Parent
+import javafx.scene.input.KeyCode
+import javafx.scene.input.KeyEvent
+import javafx.scene.input.MouseButton
+import javafx.scene.input.MouseEvent
+import javafx.scene.input.PickResult
+import javafx.stage.Window
+
+import java.awt.Point
+import java.awt.event.InputEvent
+
+/**
+ * Delivers synthetic mouse and keyboard events to the JavaFX Nodes of this JVM.
+ * <p/>
+ * Mouse events are fired on the top-most Node under the given location on screen, as found on the JavaFX Thread.
+ * Key events are fired on the focus owner of the focused Window. All events are delivered asynchronously,
+ * in the order they are given.
+ */
+@CompileStatic
+class FxEvents {
+
+	private static Map<Integer, KeyCode> keyCodes
+
+	// only accessed in the JavaFX Thread
+	private Node hovered
+	private Node pressed
+	private Point pressedAt
+	private int clickCount
+	private long lastPressTime
+
+	/**
+	 * @param location on screen
+	 * @return 2 if a focused Window of this JVM is showing at the given location, 1 if any other Window is,
+	 * 0 otherwise
+	 */
+	int priorityAt( Point location ) {
+		def window = windowAt( location )
+		window == null ? 0 : window.focused ? 2 : 1
+	}
+
+	/**
+	 * @return true if a JavaFX Window of this JVM has the keyboard focus
+	 */
+	boolean hasFocus() {
+		focusedWindow() != null
+	}
+
+	void mouseMoved( Point location, int buttons, int modifiers ) {
+		onFxThread {
+			def over = nodeAt( location )
+			if ( !over.is( hovered ) ) {
+				if ( hovered != null ) fire( hovered, MouseEvent.MOUSE_EXITED, location, 0, buttons, modifiers, 0 )
+				if ( over != null ) fire( over, MouseEvent.MOUSE_ENTERED, location, 0, buttons, modifiers, 0 )
+				hovered = over
+			}
+			if ( buttons != 0 && pressed != null ) {
+				fire( pressed, MouseEvent.MOUSE_DRAGGED, location, 0, buttons, modifiers, clickCount )
+			} else if ( over != null ) {
+				fire( over, MouseEvent.MOUSE_MOVED, location, 0, buttons, modifiers, 0 )
+			}
+		}
+	}
+
+	/**
+	 * Notifies that the mouse left the JavaFX Windows.
+	 */
+	void mouseExited( Point location, int modifiers ) {
+		onFxThread {
+			if ( hovered != null ) fire( hovered, MouseEvent.MOUSE_EXITED, location, 0, 0, modifiers, 0 )
+			hovered = null
+		}
+	}
+
+	void mousePressed( Point location, int button, int buttons, int modifiers ) {
+		onFxThread {
+			def target = nodeAt( location )
+			if ( target == null ) return
+			long now = System.currentTimeMillis()
+			boolean sameClick = target.is( pressed ) && location == pressedAt && now - lastPressTime <= SyntheticBackend.multiClickInterval()
+			clickCount = sameClick ? clickCount + 1 : 1
+			lastPressTime = now
+			pressed = target
+			pressedAt = location
+			// events fired on a Node do not go through the Scene, which is what gives the focus to a pressed Node
+			if ( target.focusTraversable ) target.requestFocus()
+			fire( target, MouseEvent.MOUSE_PRESSED, location, button, buttons, modifiers, clickCount )
+		}
+	}
+
+	void mouseReleased( Point location, int button, int buttons, int modifiers ) {
+		onFxThread {
+			def target = pressed ?: nodeAt( location )
+			if ( target == null ) return
+			fire( target, MouseEvent.MOUSE_RELEASED, location, button, buttons, modifiers, clickCount )
+			if ( target.is( nodeAt( location ) ) ) {
+				fire( target, MouseEvent.MOUSE_CLICKED, location, button, buttons, modifiers, clickCount )
+			}
+		}
+	}
+
+	void keyPressed( int keyCode, Character typed, int modifiers ) {
+		def code = keyCodeFor( keyCode )
+		String text = typed == null ? '' : typed.toString()
+		onFxThread {
+			def target = focusOwner()
+			if ( target == null ) return
+			fireKey( target, KeyEvent.KEY_PRESSED, KeyEvent.CHAR_UNDEFINED, text, code, modifiers )
+			if ( typed != null ) fireKey( target, KeyEvent.KEY_TYPED, text, '', KeyCode.UNDEFINED, modifiers )
+		}
+	}
+
+	void keyReleased( int keyCode, Character typed, int modifiers ) {
+		def code = keyCodeFor( keyCode )
+		String text = typed == null ? '' : typed.toString()
+		onFxThread {
+			def target = focusOwner()
+			if ( target != null ) fireKey( target, KeyEvent.KEY_RELEASED, KeyEvent.CHAR_UNDEFINED, text, code, modifiers )
+		}
+	}
+
+	private static void onFxThread( Closure action ) {
+		Platform.runLater( action as Runnable )
+	}
+
+	private static Window windowAt( Point location ) {
+		Window result = null
+		// Windows created later, such as popups, are normally shown above the others
+		for ( window in FXUtil.allWindows ) {
+			if ( window.showing &&
+					location.x >= window.x && location.x < window.x + window.width &&
+					location.y >= window.y && location.y < window.y + window.height ) result = window
+		}
+		result
+	}
+
+	private static Window focusedWindow() {
+		for ( window in FXUtil.allWindows ) {
+			if ( window.showing && window.focused ) return window
+		}
+		null
+	}
+
+	private static Node focusOwner() {
+		focusedWindow()?.scene?.focusOwner
+	}
+
+	private static Node nodeAt( Point location ) {
+		def root = windowAt( location )?.scene?.root
+		root == null ? null : pick( root, new Point2D( location.x, location.y ) )
+	}
+
+	private static Node pick( Node node, Point2D location ) {
+		if ( !node.visible || node.mouseTransparent ) return null
+		def local = node.screenToLocal( location )
+		if ( local == null ) return null
+		if ( node instanceof Parent ) {
+			def children = ( node as Parent ).childrenUnmodifiable
+			for ( int i = children.size() - 1; i >= 0; i-- ) {
+				def picked = pick( children[ i ], location )
+				if ( picked != null ) return picked
+			}
+		}
+		boolean hit = node.pickOnBounds ? node.boundsInLocal.contains( local ) : node.contains( local )
+		hit ? node : null
+	}
+
+	private void fire( Node target, EventType<MouseEvent> type, Point location, int button, int buttons,
+	                   int modifiers, int clicks ) {
+		if ( target.scene == null ) return
+		def local = target.screenToLocal( location.x as double, location.y as double )
+		if ( local == null ) return
+		boolean still = location == pressedAt
+		Event.fireEvent( target, new MouseEvent( target, target, type, local.x, local.y,
+				location.x as double, location.y as double, mouseButton( button ), clicks,
+				has( modifiers, InputEvent.SHIFT_DOWN_MASK ), has( modifiers, InputEvent.CTRL_DOWN_MASK ),
+				has( modifiers, InputEvent.ALT_DOWN_MASK ), has( modifiers, InputEvent.META_DOWN_MASK ),
+				has( buttons, InputEvent.BUTTON1_DOWN_MASK ), has( buttons, InputEvent.BUTTON2_DOWN_MASK ),
+				has( buttons, InputEvent.BUTTON3_DOWN_MASK ), false,
+				type == MouseEvent.MOUSE_PRESSED && button == InputEvent.BUTTON3_DOWN_MASK, still,
+				new PickResult( target, local.x, local.y ) ) )
+	}
+
+	private static void fireKey( Node target, EventType<KeyEvent> type, String character, String text,
+	                             KeyCode code, int modifiers ) {
+		Event.fireEvent( target, new KeyEvent( target, target, type, character, text, code,
+				has( modifiers, InputEvent.SHIFT_DOWN_MASK ), has( modifiers, InputEvent.CTRL_DOWN_MASK ),
+				has( modifiers, InputEvent.ALT_DOWN_MASK ), has( modifiers, InputEvent.META_DOWN_MASK ) ) )
+	}
+
+	private static boolean has( int mask, int flag ) {
+		( mask & flag ) != 0
+	}
+
+	private static MouseButton mouseButton( int button ) {
+		switch ( button ) {
+			case InputEvent.BUTTON1_DOWN_MASK: return MouseButton.PRIMARY
+			case InputEvent.BUTTON2_DOWN_MASK: return MouseButton.MIDDLE
+			case InputEvent.BUTTON3_DOWN_MASK: return MouseButton.SECONDARY
+			default: return MouseButton.NONE
+		}
+	}
+
+	/**
+	 * @param awtKeyCode AWT key code
+	 * @return the JavaFX KeyCode with the same code, which is the case for all keys both toolkits know about
+	 */
+	static synchronized KeyCode keyCodeFor( int awtKeyCode ) {
+		if ( keyCodes == null ) {
+			// the method that returns the code is called impl_getCode in JavaFX 8, getCode in later versions
+			def getCode = MethodAccessor.forMethod( 'getCode' )
+			def implGetCode = MethodAccessor.forMethod( 'impl_getCode' )
+			Map<Integer, KeyCode> codes = [ : ]
+			for ( keyCode in KeyCode.values() ) {
+				def code = getCode.call( keyCode ) ?: implGetCode.call( keyCode )
+				if ( code != null && !codes.containsKey( code as Integer ) ) codes[ code as Integer ] = keyCode
+			}
+			keyCodes = codes
+		}
+		keyCodes[ awtKeyCode ] ?: KeyCode.UNDEFINED
+	}
+
+}
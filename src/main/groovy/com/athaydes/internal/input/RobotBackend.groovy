@@ -0,0 +1,60 @@
+package com.athaydes.internal.input
+
+import com.athaydes.automaton.InputBackend
+import com.athaydes.automaton.metrics.ActionMetrics
+import groovy.transform.CompileStatic
+
+import java.awt.MouseInfo
+import java.awt.Point
+import java.awt.Robot
+
+/**
+ * InputBackend which uses a <code>java.awt.Robot</code> to send native input through the Operating System.
+ */
+@CompileStatic
+class RobotBackend implements InputBackend {
+
+	final Robot robot
+
+	RobotBackend( Robot robot = new Robot() ) {
+		this.robot = robot
+	}
+
+	@Override
+	Point getMouseLocation() {
+		MouseInfo.pointerInfo.location
+	}
+
+	@Override
+	void mouseMove( int x, int y ) {
+		robot.mouseMove( x, y )
+	}
+
+	@Override
+	void mousePress( int buttons ) {
+		robot.mousePress( buttons )
+	}
+
+	@Override
+	void mouseRelease( int buttons ) {
+		robot.mouseRelease( buttons )
+	}
+
+	@Override
+	void keyPress( int keyCode ) {
+		robot.keyPress( keyCode )
+	}
+
+	@Override
+	void keyRelease( int keyCode ) {
+		robot.keyRelease( keyCode )
+	}
+
+	@Override
+	void delay( int millis ) {
+		long start = System.nanoTime()
+		robot.delay( millis )
+		ActionMetrics.waited( System.nanoTime() - start )
+	}
+
+}
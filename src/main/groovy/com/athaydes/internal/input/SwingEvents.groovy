@@ -0,0 +1,164 @@
+package com.athaydes.internal.input
+
+import groovy.transform.CompileStatic
+
+import javax.swing.SwingUtilities
+import java.awt.Component
+import java.awt.EventQueue
+import java.awt.KeyboardFocusManager
+import java.awt.Point
+import java.awt.Toolkit
+import java.awt.Window
+import java.awt.event.InputEvent
+import java.awt.event.KeyEvent
+import java.awt.event.MouseEvent
+
+/**
+ * Delivers synthetic mouse and keyboard events to the Swing Components of this JVM.
+ * <p/>
+ * Mouse events are sent to the deepest Component under the given location on screen, as found on the
+ * Event Dispatch Thread. Key events are posted to the <code>EventQueue</code> for the focus owner.
+ * All events are delivered asynchronously, in the order they are given.
+ */
+@CompileStatic
+class SwingEvents {
+
+	// only accessed in the Event Dispatch Thread
+	private Component hovered
+	private Component pressed
+	private Point pressedAt
+	private int clickCount
+	private long lastPressTime
+
+	/**
+	 * @param location on screen
+	 * @return 2 if a focused Window of this JVM is showing at the given location, 1 if any other Window is,
+	 * 0 otherwise
+	 */
+	int priorityAt( Point location ) {
+		def window = windowAt( location )
+		window == null ? 0 : window.focused ? 2 : 1
+	}
+
+	/**
+	 * @return true if a Component of this JVM has the keyboard focus
+	 */
+	boolean hasFocus() {
+		KeyboardFocusManager.currentKeyboardFocusManager.focusOwner != null
+	}
+
+	void mouseMoved( Point location, int buttons, int modifiers ) {
+		onEdt {
+			def over = componentAt( location )
+			if ( !over.is( hovered ) ) {
+				if ( hovered != null ) dispatch( hovered, MouseEvent.MOUSE_EXITED, location, modifiers | buttons, 0, MouseEvent.NOBUTTON )
+				if ( over != null ) dispatch( over, MouseEvent.MOUSE_ENTERED, location, modifiers | buttons, 0, MouseEvent.NOBUTTON )
+				hovered = over
+			}
+			if ( buttons != 0 && pressed != null ) {
+				// like the real mouse, drags are delivered to the Component where the mouse was pressed
+				dispatch( pressed, MouseEvent.MOUSE_DRAGGED, location, modifiers | buttons, 0, MouseEvent.NOBUTTON )
+			} else if ( over != null ) {
+				dispatch( over, MouseEvent.MOUSE_MOVED, location, modifiers | buttons, 0, MouseEvent.NOBUTTON )
+			}
+		}
+	}
+
+	/**
+	 * Notifies that the mouse left the Swing Windows.
+	 */
+	void mouseExited( Point location, int modifiers ) {
+		onEdt {
+			if ( hovered != null ) dispatch( hovered, MouseEvent.MOUSE_EXITED, location, modifiers, 0, MouseEvent.NOBUTTON )
+			hovered = null
+		}
+	}
+
+	void mousePressed( Point location, int button, int buttons, int modifiers ) {
+		onEdt {
+			def target = componentAt( location )
+			if ( target == null ) return
+			long now = System.currentTimeMillis()
+			boolean sameClick = target.is( pressed ) && location == pressedAt && now - lastPressTime <= SyntheticBackend.multiClickInterval()
+			clickCount = sameClick ? clickCount + 1 : 1
+			lastPressTime = now
+			pressed = target
+			pressedAt = location
+			dispatch( target, MouseEvent.MOUSE_PRESSED, location, modifiers | buttons, clickCount, buttonNumber( button ) )
+		}
+	}
+
+	void mouseReleased( Point location, int button, int buttons, int modifiers ) {
+		onEdt {
+			def target = pressed ?: componentAt( location )
+			if ( target == null ) return
+			dispatch( target, MouseEvent.MOUSE_RELEASED, location, modifiers | buttons, clickCount, buttonNumber( button ) )
+			if ( target.is( componentAt( location ) ) ) {
+				dispatch( target, MouseEvent.MOUSE_CLICKED, location, modifiers | buttons, clickCount, buttonNumber( button ) )
+			}
+		}
+	}
+
+	void keyPressed( int keyCode, Character typed, int modifiers ) {
+		def target = KeyboardFocusManager.currentKeyboardFocusManager.focusOwner
+		if ( target == null ) return
+		long now = System.currentTimeMillis()
+		def queue = Toolkit.defaultToolkit.systemEventQueue
+		queue.postEvent( new KeyEvent( target, KeyEvent.KEY_PRESSED, now, modifiers, keyCode,
+				typed == null ? KeyEvent.CHAR_UNDEFINED : typed.charValue() ) )
+		if ( typed != null ) {
+			queue.postEvent( new KeyEvent( target, KeyEvent.KEY_TYPED, now, modifiers, KeyEvent.VK_UNDEFINED,
+					typed.charValue() ) )
+		}
+	}
+
+	void keyReleased( int keyCode, Character typed, int modifiers ) {
+		def target = KeyboardFocusManager.currentKeyboardFocusManager.focusOwner
+		if ( target == null ) return
+		Toolkit.defaultToolkit.systemEventQueue.postEvent( new KeyEvent( target, KeyEvent.KEY_RELEASED,
+				System.currentTimeMillis(), modifiers, keyCode,
+				typed == null ? KeyEvent.CHAR_UNDEFINED : typed.charValue() ) )
+	}
+
+	private static void onEdt( Closure action ) {
+		EventQueue.invokeLater( action as Runnable )
+	}
+
+	private static Window windowAt( Point location ) {
+		Window result = null
+		// Windows created later, such as popups and dialogs, are normally shown above the others
+		for ( window in Window.windows ) {
+			if ( window.showing && window.bounds.contains( location ) ) result = window
+		}
+		result
+	}
+
+	private static Component componentAt( Point location ) {
+		def window = windowAt( location )
+		if ( window == null ) return null
+		def point = new Point( location )
+		SwingUtilities.convertPointFromScreen( point, window )
+		SwingUtilities.getDeepestComponentAt( window, point.x as int, point.y as int ) ?: window
+	}
+
+	private static int buttonNumber( int buttonMask ) {
+		switch ( buttonMask ) {
+			case InputEvent.BUTTON1_DOWN_MASK: return MouseEvent.BUTTON1
+			case InputEvent.BUTTON2_DOWN_MASK: return MouseEvent.BUTTON2
+			case InputEvent.BUTTON3_DOWN_MASK: return MouseEvent.BUTTON3
+			default: return MouseEvent.NOBUTTON
+		}
+	}
+
+	private static void dispatch( Component target, int id, Point location, int modifiers,
+	                              int clickCount, int button ) {
+		if ( !target.showing ) return
+		def point = new Point( location )
+		SwingUtilities.convertPointFromScreen( point, target )
+		boolean popupTrigger = id == MouseEvent.MOUSE_PRESSED && button == MouseEvent.BUTTON3
+		target.dispatchEvent( new MouseEvent( target, id, System.currentTimeMillis(), modifiers,
+				point.x as int, point.y as int, location.x as int, location.y as int,
+				clickCount, popupTrigger, button ) )
+	}
+
+}
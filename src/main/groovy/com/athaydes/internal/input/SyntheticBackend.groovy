@@ -0,0 +1,126 @@
+package com.athaydes.internal.input
+
+import com.athaydes.automaton.InputBackend
+import com.athaydes.internal.RobotTypingUtil
+import groovy.transform.CompileStatic
+import groovy.transform.PackageScope
+
+import java.awt.Point
+import java.awt.Toolkit
+import java.awt.event.InputEvent
+import java.awt.event.KeyEvent
+
+/**
+ * InputBackend which does not use the real mouse and keyboard.
+ * <p/>
+ * It keeps a virtual mouse cursor and delivers mouse events to the Swing Component or JavaFX Node under it,
+ * and key events to the Component or Node which has the keyboard focus. Events are delivered through the
+ * toolkits' own event queues, so they are processed in order, but this backend never waits for them to be
+ * processed: {@link #delay(int)} does nothing.
+ */
+@CompileStatic
+class SyntheticBackend implements InputBackend {
+
+	private static final int[] BUTTONS = [ InputEvent.BUTTON1_DOWN_MASK,
+	                                       InputEvent.BUTTON2_DOWN_MASK,
+	                                       InputEvent.BUTTON3_DOWN_MASK ] as int[]
+
+	private final SwingEvents swing = new SwingEvents()
+	private final FxEvents fx = new FxEvents()
+
+	private Point location = new Point( 0, 0 )
+	private int buttonsDown
+	private int modifiersDown
+	private boolean overFx
+
+	// the toolkit which receives the events while a mouse button is down
+	private boolean pressedOnFx
+
+	@Override
+	synchronized Point getMouseLocation() {
+		new Point( location )
+	}
+
+	@Override
+	synchronized void mouseMove( int x, int y ) {
+		location = new Point( x, y )
+		boolean fxTarget = buttonsDown != 0 ? pressedOnFx : isFxAt( location )
+		if ( fxTarget != overFx ) {
+			if ( overFx ) fx.mouseExited( location, modifiersDown )
+			else swing.mouseExited( location, modifiersDown )
+			overFx = fxTarget
+		}
+		if ( fxTarget ) fx.mouseMoved( location, buttonsDown, modifiersDown )
+		else swing.mouseMoved( location, buttonsDown, modifiersDown )
+	}
+
+	@Override
+	synchronized void mousePress( int buttons ) {
+		if ( buttonsDown == 0 ) pressedOnFx = isFxAt( location )
+		for ( int button in BUTTONS ) {
+			if ( ( buttons & button ) == 0 ) continue
+			buttonsDown |= button
+			if ( pressedOnFx ) fx.mousePressed( location, button, buttonsDown, modifiersDown )
+			else swing.mousePressed( location, button, buttonsDown, modifiersDown )
+		}
+	}
+
+	@Override
+	synchronized void mouseRelease( int buttons ) {
+		for ( int button in BUTTONS ) {
+			if ( ( buttons & button ) == 0 ) continue
+			buttonsDown &= ~button
+			if ( pressedOnFx ) fx.mouseReleased( location, button, buttonsDown, modifiersDown )
+			else swing.mouseReleased( location, button, buttonsDown, modifiersDown )
+		}
+	}
+
+	@Override
+	synchronized void keyPress( int keyCode ) {
+		modifiersDown |= modifierFor( keyCode )
+		def typed = typedChar( keyCode )
+		if ( swing.hasFocus() || !fx.hasFocus() ) swing.keyPressed( keyCode, typed, modifiersDown )
+		else fx.keyPressed( keyCode, typed, modifiersDown )
+	}
+
+	@Override
+	synchronized void keyRelease( int keyCode ) {
+		modifiersDown &= ~modifierFor( keyCode )
+		def typed = typedChar( keyCode )
+		if ( swing.hasFocus() || !fx.hasFocus() ) swing.keyReleased( keyCode, typed, modifiersDown )
+		else fx.keyReleased( keyCode, typed, modifiersDown )
+	}
+
+	@Override
+	void delay( int millis ) {
+		// events are queued in order, so there is no need to wait between them
+	}
+
+	private Character typedChar( int keyCode ) {
+		int shortcuts = InputEvent.CTRL_DOWN_MASK | InputEvent.ALT_DOWN_MASK | InputEvent.META_DOWN_MASK
+		if ( ( modifiersDown & shortcuts ) != 0 ) return null
+		RobotTypingUtil.charFor( keyCode, ( modifiersDown & InputEvent.SHIFT_DOWN_MASK ) != 0 )
+	}
+
+	private boolean isFxAt( Point location ) {
+		fx.priorityAt( location ) > swing.priorityAt( location )
+	}
+
+	private static int modifierFor( int keyCode ) {
+		switch ( keyCode ) {
+			case KeyEvent.VK_SHIFT: return InputEvent.SHIFT_DOWN_MASK
+			case KeyEvent.VK_CONTROL: return InputEvent.CTRL_DOWN_MASK
+			case KeyEvent.VK_ALT: return InputEvent.ALT_DOWN_MASK
+			case KeyEvent.VK_META: return InputEvent.META_DOWN_MASK
+			case KeyEvent.VK_ALT_GRAPH: return InputEvent.ALT_GRAPH_DOWN_MASK
+			default: return 0
+		}
+	}
+
+	@PackageScope
+	static long multiClickInterval() {
+		def interval = Toolkit.defaultToolkit.getDesktopProperty( 'awt.multiClickInterval' )
+		interval instanceof Integer ? ( interval as Integer ).longValue() : 500L
+	}
+
+}
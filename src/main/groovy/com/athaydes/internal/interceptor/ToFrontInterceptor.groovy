@@ -1,6 +1,7 @@
 package com.athaydes.internal.interceptor
 
 import com.athaydes.automaton.FXApp
+import com.athaydes.internal.Quiescence
 import javafx.scene.Node
 import javafx.stage.Stage
 
@@ -17,7 +18,7 @@ class ToFrontInterceptor extends DelegatingMetaClass {
 		latestStage = updateLatestStageIfPossible( args )
 		if ( latestStage && !latestStage.focused ) {
 			FXApp.doInFXThreadBlocking { latestStage.toFront() }
-			sleep 50
+			Quiescence.awaitFxIdle( 50 )
 		}
 		super.invokeMethod( object, name, args )
 	}
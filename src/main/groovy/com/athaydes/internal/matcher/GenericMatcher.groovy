@@ -1,5 +1,6 @@
 package com.athaydes.internal.matcher
 
+import com.athaydes.internal.MethodAccessor
 import org.hamcrest.Description
 import org.hamcrest.TypeSafeMatcher
 
@@ -12,21 +13,29 @@ class GenericMatcher extends TypeSafeMatcher {
 	def result
 	final String[] methodNames
 	final expected
+	private final List<MethodAccessor> accessors
 
 	GenericMatcher( expected, String... methodNames ) {
 		this.expected = expected
 		this.methodNames = methodNames
+		this.accessors = methodNames.collect { MethodAccessor.forMethod( it ) }
 	}
 
 	@Override
 	protected boolean matchesSafely( Object item ) {
-		def methodName = methodNames.find { method ->
-			item?.metaClass?.respondsTo( item, method )
+		def accessor = accessors.find { it.existsFor( item ) }
+		if ( accessor ) {
+			result = accessor.call( item )
+		} else {
+			// methods added dynamically cannot be found by the accessors
+			def methodName = methodNames.find { method ->
+				item?.metaClass?.respondsTo( item, method )
+			}
+			if ( methodName )
+				result = item."$methodName"()
+			else
+				result = METHOD_DOES_NOT_EXIST
 		}
-		if ( methodName )
-			result = item."$methodName"()
-		else
-			result = METHOD_DOES_NOT_EXIST
 		result == expected
 	}
 
@@ -0,0 +1,96 @@
+package com.athaydes.internal.model
+
+import groovy.transform.CompileStatic
+
+import javax.swing.JTable
+import javax.swing.event.TableModelEvent
+import javax.swing.event.TableModelListener
+import javax.swing.table.TableModel
+
+/**
+ * Index of the <code>toString()</code> values of the columns of a TableModel, which is stored in the JTable
+ * as a client property.
+ * <p/>
+ * Each column is only indexed when it is first searched. The whole index is discarded whenever the model
+ * changes, or when the table starts using another model.
+ */
+@CompileStatic
+class ColumnValueIndex implements TableModelListener {
+
+	static final String CLIENT_PROPERTY_KEY = 'automaton.columnValueIndex'
+
+	private static final int[] NO_ROWS = new int[0]
+
+	final TableModel model
+	private final Map<Integer, Map<String, int[]>> columns = [ : ]
+
+	private ColumnValueIndex( TableModel model ) {
+		this.model = model
+	}
+
+	/**
+	 * @return the index of the table's current model, creating it if necessary
+	 */
+	static ColumnValueIndex of( JTable table ) {
+		def index = table.getClientProperty( CLIENT_PROPERTY_KEY )
+		if ( index instanceof ColumnValueIndex && ( index as ColumnValueIndex ).model.is( table.model ) ) {
+			return index as ColumnValueIndex
+		}
+		if ( index instanceof ColumnValueIndex ) ( index as ColumnValueIndex ).detach()
+		def newIndex = new ColumnValueIndex( table.model )
+		table.model.addTableModelListener( newIndex )
+		table.putClientProperty( CLIENT_PROPERTY_KEY, newIndex )
+		newIndex
+	}
+
+	/**
+	 * Rows are model indices, so this must not be used to find view rows of a sorted table.
+	 * @param col model index of the column
+	 * @return the first row, from the given row (inclusive) and before rowCount, whose value in the given column
+	 * has the given text as its String representation, or -1 if there is none
+	 */
+	synchronized int nextRowWith( int col, String text, int fromRow, int rowCount ) {
+		def column = columns[ col ]
+		if ( column == null ) {
+			column = indexColumn( col )
+			columns[ col ] = column
+		}
+		def rows = column[ text ] ?: NO_ROWS
+		int position = Arrays.binarySearch( rows, fromRow )
+		if ( position < 0 ) position = -position - 1
+		position < rows.length && rows[ position ] < rowCount ? rows[ position ] : -1
+	}
+
+	@Override
+	synchronized void tableChanged( TableModelEvent e ) {
+		columns.clear()
+	}
+
+	/**
+	 * Stops listening to the model.
+	 */
+	void detach() {
+		model.removeTableModelListener( this )
+	}
+
+	private Map<String, int[]> indexColumn( int col ) {
+		Map<String, List<Integer>> rowsByText = [ : ]
+		int rowCount = model.rowCount
+		for ( int row = 0; row < rowCount; row++ ) {
+			def text = model.getValueAt( row, col )?.toString()
+			if ( text == null ) continue
+			def rows = rowsByText[ text ]
+			if ( rows == null ) {
+				rows = [ ]
+				rowsByText[ text ] = rows
+			}
+			rows << row
+		}
+		Map<String, int[]> result = new HashMap<String, int[]>( rowsByText.size() * 2 )
+		for ( entry in rowsByText.entrySet() ) {
+			result[ entry.key ] = entry.value as int[]
+		}
+		result
+	}
+
+}
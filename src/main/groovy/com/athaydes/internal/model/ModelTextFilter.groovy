@@ -0,0 +1,107 @@
+package com.athaydes.internal.model
+
+import groovy.transform.CompileStatic
+import org.codehaus.groovy.runtime.typehandling.DefaultTypeTransformation
+
+import javax.swing.DefaultListCellRenderer
+import javax.swing.Icon
+import javax.swing.JList
+import javax.swing.JTable
+import javax.swing.table.DefaultTableCellRenderer
+
+/**
+ * Tells which items of a JTable, JList or JComboBox may show some given text by looking at their model values,
+ * so that only those items need to be rendered.
+ * <p/>
+ * Items are only ruled out when they are rendered by one of the default renderers, which show the
+ * <code>toString()</code> value of each item. Items rendered by any other renderer must always be rendered
+ * to find out which text they show.
+ */
+@CompileStatic
+class ModelTextFilter {
+
+	private static final Set<Class> PLAIN_TABLE_RENDERERS = [
+			DefaultTableCellRenderer, DefaultTableCellRenderer.UIResource ] as Set<Class>
+	private static final Set<Class> PLAIN_LIST_RENDERERS = [
+			DefaultListCellRenderer, DefaultListCellRenderer.UIResource ] as Set<Class>
+
+	private static final ClassValue<Boolean> OVERRIDES_GET_CELL_RENDERER = new ClassValue<Boolean>() {
+		@Override
+		protected Boolean computeValue( Class<?> type ) {
+			type.getMethod( 'getCellRenderer', int, int ).declaringClass != JTable
+		}
+	}
+
+	final String text
+	final boolean useColumnIndex
+
+	/**
+	 * @param text to look for
+	 * @param useColumnIndex whether to keep an index of the values of each JTable column searched.
+	 * See {@link ColumnValueIndex}.
+	 */
+	ModelTextFilter( String text, boolean useColumnIndex = false ) {
+		this.text = text
+		this.useColumnIndex = useColumnIndex
+	}
+
+	/**
+	 * @return true if the cells of the given column may be ruled out by looking only at their model values
+	 */
+	boolean canFilter( JTable table, int col ) {
+		text && !OVERRIDES_GET_CELL_RENDERER.get( table.getClass() ) &&
+				PLAIN_TABLE_RENDERERS.contains( rendererClassOf( table, col ) )
+	}
+
+	/**
+	 * Must only be called if {@link #canFilter(javax.swing.JTable, int)} returns true for the same column.
+	 * <p/>
+	 * Rows and columns are view indices, which are converted to model indices when the table is sorted or
+	 * its columns have been moved. The column value index can only be used when the table is not sorted.
+	 * @return the first row, from the given row (inclusive), which may show the text in the given column,
+	 * or -1 if there is none
+	 */
+	int nextCandidateRow( JTable table, int col, int fromRow, int rowCount ) {
+		int modelCol = table.convertColumnIndexToModel( col )
+		def sorter = table.rowSorter
+		if ( sorter == null && useColumnIndex ) {
+			return ColumnValueIndex.of( table ).nextRowWith( modelCol, text, fromRow, rowCount )
+		}
+		def model = table.model
+		for ( int row = fromRow; row < rowCount; row++ ) {
+			int modelRow = sorter == null ? row : sorter.convertRowIndexToModel( row )
+			if ( text == model.getValueAt( modelRow, modelCol )?.toString() ) return row
+		}
+		-1
+	}
+
+	/**
+	 * @return true if the items of the given list may be ruled out by looking only at their model values
+	 */
+	boolean canFilter( JList list ) {
+		text && PLAIN_LIST_RENDERERS.contains( list.cellRenderer?.getClass() )
+	}
+
+	/**
+	 * Must only be called if {@link #canFilter(javax.swing.JList)} returns true for the same list.
+	 * @return true if the list item at the given index may show the text
+	 */
+	boolean mayMatchListItem( JList list, int index ) {
+		def item = list.model.getElementAt( index )
+		item instanceof Icon || text == item?.toString()
+	}
+
+	/**
+	 * @return true if the JComboBox item may show the text
+	 */
+	boolean mayMatchComboBoxItem( item ) {
+		!text || !DefaultTypeTransformation.castToBoolean( item ) || text == item.toString()
+	}
+
+	private static Class rendererClassOf( JTable table, int col ) {
+		def renderer = table.columnModel.getColumn( col ).cellRenderer ?:
+				table.getDefaultRenderer( table.getColumnClass( col ) )
+		renderer?.getClass()
+	}
+
+}
@@ -0,0 +1,157 @@
+package com.athaydes.internal.model
+
+import groovy.transform.CompileStatic
+
+import javax.swing.JTree
+import javax.swing.event.TreeExpansionEvent
+import javax.swing.event.TreeExpansionListener
+import javax.swing.event.TreeModelEvent
+import javax.swing.event.TreeModelListener
+import javax.swing.tree.TreeModel
+import javax.swing.tree.TreePath
+
+/**
+ * Index of the children of the expanded nodes of a JTree by their <code>toString()</code> value, which is
+ * stored in the JTree as a client property.
+ * <p/>
+ * The children of a node are only indexed when the node is first searched while expanded. The children of
+ * collapsed nodes are looked up in the TreeModel every time, as lazy-loading models may only load them when the
+ * node is expanded. The entry of a node is discarded whenever the model reports a change to its children, or
+ * when the node is collapsed, and the entries of removed nodes and their descendants are discarded with them.
+ * The whole index is discarded when the structure of the tree changes, or when the
+ * tree starts using another model.
+ */
+@CompileStatic
+class TreeChildIndex implements TreeModelListener, TreeExpansionListener {
+
+	static final String CLIENT_PROPERTY_KEY = 'automaton.treeChildIndex'
+
+	final JTree tree
+	final TreeModel model
+	private final Map<Object, IndexedChildren> childrenByLabel = new IdentityHashMap<Object, IndexedChildren>()
+
+	private TreeChildIndex( JTree tree, TreeModel model ) {
+		this.tree = tree
+		this.model = model
+	}
+
+	/**
+	 * @return the index of the tree's current model, creating it if necessary
+	 */
+	static TreeChildIndex of( JTree tree ) {
+		def index = tree.getClientProperty( CLIENT_PROPERTY_KEY )
+		if ( index instanceof TreeChildIndex && ( index as TreeChildIndex ).model.is( tree.model ) ) {
+			return index as TreeChildIndex
+		}
+		if ( index instanceof TreeChildIndex ) ( index as TreeChildIndex ).detach()
+		def newIndex = new TreeChildIndex( tree, tree.model )
+		tree.model.addTreeModelListener( newIndex )
+		tree.addTreeExpansionListener( newIndex )
+		tree.putClientProperty( CLIENT_PROPERTY_KEY, newIndex )
+		newIndex
+	}
+
+	/**
+	 * Finds a child of the given parent by asking the model for each child in turn, without expanding the parent.
+	 * @return the first child of the parent whose String representation is the given label, or null if there is none
+	 */
+	static Object findChild( TreeModel model, Object parent, String label ) {
+		if ( model.isLeaf( parent ) ) return null
+		int childCount = model.getChildCount( parent )
+		for ( int i = 0; i < childCount; i++ ) {
+			def child = model.getChild( parent, i )
+			if ( String.valueOf( child ) == label ) return child
+		}
+		null
+	}
+
+	/**
+	 * @param parentPath path of the parent node
+	 * @param label String representation of the child
+	 * @return the first child of the parent whose String representation is the given label, or null if there is none
+	 */
+	synchronized Object childWithLabel( TreePath parentPath, String label ) {
+		def parent = parentPath.lastPathComponent
+		if ( !tree.isExpanded( parentPath ) ) return findChild( model, parent, label )
+		IndexedChildren children = childrenByLabel[ parent ]
+		if ( children == null ) {
+			children = new IndexedChildren( parentPath, indexChildren( parent ) )
+			childrenByLabel[ parent ] = children
+		}
+		children.byLabel[ label ]
+	}
+
+	/**
+	 * Stops listening to the model and the tree.
+	 */
+	void detach() {
+		model.removeTreeModelListener( this )
+		tree.removeTreeExpansionListener( this )
+	}
+
+	private Map<String, Object> indexChildren( Object parent ) {
+		if ( model.isLeaf( parent ) ) return Collections.<String, Object> emptyMap()
+		int childCount = model.getChildCount( parent )
+		Map<String, Object> result = new HashMap<String, Object>( childCount * 2 )
+		for ( int i = 0; i < childCount; i++ ) {
+			def child = model.getChild( parent, i )
+			def label = String.valueOf( child )
+			if ( !result.containsKey( label ) ) result[ label ] = child
+		}
+		result
+	}
+
+	private synchronized void discard( TreePath path ) {
+		if ( path == null ) childrenByLabel.clear()
+		else childrenByLabel.remove( path.lastPathComponent )
+	}
+
+	@Override
+	void treeNodesChanged( TreeModelEvent e ) { discard( e.treePath ) }
+
+	@Override
+	void treeNodesInserted( TreeModelEvent e ) { discard( e.treePath ) }
+
+	@Override
+	synchronized void treeNodesRemoved( TreeModelEvent e ) {
+		def parentPath = e.treePath
+		def removed = e.children
+		if ( parentPath == null || removed == null ) {
+			childrenByLabel.clear()
+			return
+		}
+		childrenByLabel.remove( parentPath.lastPathComponent )
+		// entries of the removed nodes and their descendants can no longer be reached
+		for ( child in removed ) {
+			def removedPath = parentPath.pathByAddingChild( child )
+			def entries = childrenByLabel.values().iterator()
+			while ( entries.hasNext() ) {
+				if ( removedPath.isDescendant( entries.next().path ) ) entries.remove()
+			}
+		}
+	}
+
+	@Override
+	synchronized void treeStructureChanged( TreeModelEvent e ) {
+		childrenByLabel.clear()
+	}
+
+	@Override
+	void treeExpanded( TreeExpansionEvent event ) {
+		// children are indexed on the next lookup
+	}
+
+	@Override
+	void treeCollapsed( TreeExpansionEvent event ) { discard( event.path ) }
+
+	private static class IndexedChildren {
+		final TreePath path
+		final Map<String, Object> byLabel
+
+		IndexedChildren( TreePath path, Map<String, Object> byLabel ) {
+			this.path = path
+			this.byLabel = byLabel
+		}
+	}
+
+}
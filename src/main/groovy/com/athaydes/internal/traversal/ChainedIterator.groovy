@@ -0,0 +1,48 @@
+package com.athaydes.internal.traversal
+
+import groovy.transform.CompileStatic
+
+/**
+ * Iterates over the elements of several Iterators, one after the other, stopping after the given limit.
+ * <p/>
+ * Each Iterator is only obtained from its supplier once all the previous ones are exhausted, so no work
+ * is done for the later Iterators if the caller stops iterating early or the limit is reached.
+ */
+@CompileStatic
+class ChainedIterator<T> implements Iterator<T> {
+
+	private final Iterator<Closure<Iterator<T>>> suppliers
+	private Iterator<T> current = Collections.<T> emptyIterator()
+	private int remaining
+
+	/**
+	 * @param suppliers of the Iterators to chain, in order
+	 * @param limit maximum number of elements to return
+	 */
+	ChainedIterator( List<Closure<Iterator<T>>> suppliers, int limit = Integer.MAX_VALUE ) {
+		this.suppliers = suppliers.iterator()
+		this.remaining = limit
+	}
+
+	@Override
+	boolean hasNext() {
+		if ( remaining <= 0 ) return false
+		while ( !current.hasNext() && suppliers.hasNext() ) {
+			current = suppliers.next().call() as Iterator<T>
+		}
+		current.hasNext()
+	}
+
+	@Override
+	T next() {
+		if ( !hasNext() ) throw new NoSuchElementException()
+		remaining--
+		current.next()
+	}
+
+	@Override
+	void remove() {
+		throw new UnsupportedOperationException()
+	}
+
+}
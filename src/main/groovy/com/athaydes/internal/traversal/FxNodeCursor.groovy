@@ -0,0 +1,64 @@
+package com.athaydes.internal.traversal
+
+import com.athaydes.automaton.FXUtil
+import com.athaydes.automaton.metrics.ActionMetrics
+import com.athaydes.automaton.metrics.ActionRecord
+import groovy.transform.CompileStatic
+import javafx.scene.Node
+import javafx.scene.Parent
+import javafx.stage.Window
+
+/**
+ * Iterates breadth-first over a JavaFX Node tree and, optionally, over the tree of every other JavaFX Window
+ * (except the root's own Window), one Window at a time.
+ * <p/>
+ * The order is the same as {@link FXUtil#navigateBreadthFirst(javafx.scene.Node, groovy.lang.Closure, java.lang.Object)}.
+ * Nodes are only visited as they are requested, so stopping the iteration early avoids visiting the rest of the
+ * tree and, if the root tree contains the Node being looked for, looking at other Windows at all.
+ */
+@CompileStatic
+class FxNodeCursor implements Iterator<Node> {
+
+	private final Node root
+	private final boolean followPopups
+	private final ArrayDeque<Node> queue = new ArrayDeque<Node>()
+	private Iterator<Window> popups
+	private Window rootWindow
+	private final ActionRecord record = ActionMetrics.current()
+
+	FxNodeCursor( Node root, boolean followPopups = true ) {
+		this.root = root
+		this.followPopups = followPopups
+		queue.add( root )
+	}
+
+	@Override
+	boolean hasNext() {
+		while ( queue.empty && followPopups ) {
+			if ( popups == null ) {
+				rootWindow = root.scene?.window
+				popups = FXUtil.allWindows.iterator()
+			}
+			if ( !popups.hasNext() ) return false
+			def popup = popups.next()
+			Node popupRoot = popup.is( rootWindow ) ? null : popup.scene?.root
+			if ( popupRoot != null ) queue.add( popupRoot )
+		}
+		!queue.empty
+	}
+
+	@Override
+	Node next() {
+		if ( !hasNext() ) throw new NoSuchElementException()
+		def node = queue.poll()
+		record?.visited()
+		if ( node instanceof Parent ) queue.addAll( ( node as Parent ).childrenUnmodifiable )
+		node
+	}
+
+	@Override
+	void remove() {
+		throw new UnsupportedOperationException()
+	}
+
+}
@@ -0,0 +1,86 @@
+package com.athaydes.internal.traversal
+
+import groovy.transform.CompileStatic
+
+import java.util.concurrent.atomic.AtomicBoolean
+
+/**
+ * Iterates over the elements of a source Iterator which are accepted by {@link #accept(java.lang.Object)},
+ * stopping after the given limit.
+ * <p/>
+ * The source is only advanced as elements are requested, so when the source walks a GUI tree, the walk stops
+ * as soon as the caller stops iterating or the limit is reached.
+ * <p/>
+ * Iterators created within {@link #cancellable(java.util.concurrent.atomic.AtomicBoolean, groovy.lang.Closure)}
+ * stop advancing the source, and report no more elements, once the given flag is set, which allows a search
+ * running on another Thread to be cancelled.
+ */
+@CompileStatic
+abstract class MatchingIterator<T> implements Iterator<T> {
+
+	private static final ThreadLocal<AtomicBoolean> cancellation = new ThreadLocal<AtomicBoolean>()
+
+	private final Iterator<?> source
+	private final AtomicBoolean cancelled = cancellation.get()
+	private int remaining
+	private T lookahead
+
+	/**
+	 * @param source of candidates
+	 * @param limit maximum number of elements to return
+	 */
+	protected MatchingIterator( Iterator<?> source, int limit ) {
+		this.source = source
+		this.remaining = limit
+	}
+
+	/**
+	 * @param candidate element of the source
+	 * @return the element to return for the given candidate, or null if the candidate is not accepted
+	 */
+	protected abstract T accept( candidate )
+
+	/**
+	 * Runs the given action so that all MatchingIterators it creates are cancelled when the given flag is set.
+	 * @param cancelled flag which may be set by any Thread to cancel the iteration
+	 * @param action to run
+	 * @return the result of the action
+	 */
+	static <R> R cancellable( AtomicBoolean cancelled, Closure<R> action ) {
+		def previous = cancellation.get()
+		cancellation.set( cancelled )
+		try {
+			return action.call()
+		} finally {
+			if ( previous == null ) cancellation.remove()
+			else cancellation.set( previous )
+		}
+	}
+
+	@Override
+	boolean hasNext() {
+		while ( lookahead == null && remaining > 0 && !isCancelled() && source.hasNext() ) {
+			lookahead = accept( source.next() )
+		}
+		lookahead != null
+	}
+
+	@Override
+	T next() {
+		if ( !hasNext() ) throw new NoSuchElementException()
+		def result = lookahead
+		lookahead = null
+		remaining--
+		result
+	}
+
+	private boolean isCancelled() {
+		cancelled != null && cancelled.get()
+	}
+
+	@Override
+	void remove() {
+		throw new UnsupportedOperationException()
+	}
+
+}
@@ -0,0 +1,210 @@
+package com.athaydes.internal.traversal
+
+import com.athaydes.automaton.SwingItem
+import com.athaydes.automaton.metrics.ActionMetrics
+import com.athaydes.automaton.metrics.ActionRecord
+import com.athaydes.internal.model.ModelTextFilter
+import groovy.transform.CompileStatic
+
+import javax.swing.JComboBox
+import javax.swing.JList
+import javax.swing.JMenu
+import javax.swing.JTabbedPane
+import javax.swing.JTable
+import javax.swing.JTree
+import javax.swing.tree.TreeModel
+import javax.swing.tree.TreeNode
+import java.awt.Component
+import java.awt.Container
+import java.awt.Window
+
+/**
+ * Iterates breadth-first over a Swing Component tree, including the items shown by JTables (headers, then cells
+ * column by column), JTrees, JComboBoxes, JTabbedPanes and JLists, which are returned as {@link SwingItem}s
+ * right after the Component showing them. So, every element returned is either a Component or a SwingItem.
+ * <p/>
+ * Items are only created as they are requested, and are not rendered until their text is requested, so
+ * stopping the iteration early avoids creating the rest of the table cells or tree nodes.
+ * <p/>
+ * If a {@link ModelTextFilter} is given, table cells, list items and combo-box items which cannot show the
+ * filter's text are skipped without being rendered, and the returned table cells and list items scroll
+ * themselves into view when their location on screen is requested.
+ */
+@CompileStatic
+class SwingItemCursor implements Iterator<Object> {
+
+	private static final int NONE = 0, TREE = 1, TABLE = 2, COMBO = 3, TABS = 4, LIST = 5
+
+	private final ArrayDeque<Component> queue = new ArrayDeque<Component>()
+	private final ModelTextFilter filter
+	private Object lookahead
+	private final ActionRecord record = ActionMetrics.current()
+
+	// state of the items of the latest Component visited
+	private int itemsKind = NONE
+	private Component itemsOwner
+	private int itemIndex
+	private int itemCount
+	private int tableHeaderCount
+	private int tableColumnCount
+	private int tableRowCount
+	private int tableCol
+	private int tableRow
+	private boolean filterColumn
+	private boolean filterItems
+	private final ArrayDeque<Object> treeNodes = new ArrayDeque<Object>()
+
+	SwingItemCursor( Component root, ModelTextFilter filter = null ) {
+		this.filter = filter
+		queue.add( root )
+	}
+
+	@Override
+	boolean hasNext() {
+		if ( lookahead == null ) lookahead = advance()
+		lookahead != null
+	}
+
+	@Override
+	Object next() {
+		if ( !hasNext() ) throw new NoSuchElementException()
+		def result = lookahead
+		lookahead = null
+		record?.visited()
+		result
+	}
+
+	@Override
+	void remove() {
+		throw new UnsupportedOperationException()
+	}
+
+	/**
+	 * @return the children of the given Component, in the order they are visited when walking the tree.
+	 */
+	static List<Component> childrenOf( Component component ) {
+		List<Component> children = [ ]
+		addChildren( component, children )
+		children
+	}
+
+	private static void addChildren( Component component, Collection<Component> target ) {
+		if ( component instanceof Container ) target.addAll( ( component as Container ).components )
+		if ( component instanceof JMenu ) target.addAll( ( component as JMenu ).menuComponents )
+		if ( component instanceof Window ) target.addAll( ( component as Window ).ownedWindows )
+	}
+
+	private Object advance() {
+		def item = nextItem()
+		if ( item != null ) return item
+		def component = queue.poll()
+		if ( component != null ) {
+			addChildren( component, queue )
+			startItems( component )
+		}
+		component
+	}
+
+	private void startItems( Component component ) {
+		itemsOwner = component
+		itemIndex = 0
+		filterItems = false
+		switch ( component ) {
+			case JTree:
+				def root = ( component as JTree ).model.root
+				if ( root != null ) treeNodes.add( root )
+				itemsKind = TREE
+				break
+			case JTable:
+				def table = component as JTable
+				tableHeaderCount = table.columnModel.columnCount
+				tableColumnCount = table.columnCount
+				tableRowCount = table.rowCount
+				startColumn( table, 0 )
+				itemsKind = TABLE
+				break
+			case JComboBox:
+				itemCount = ( component as JComboBox ).itemCount
+				filterItems = filter != null
+				itemsKind = COMBO
+				break
+			case JTabbedPane:
+				itemCount = ( component as JTabbedPane ).tabCount
+				itemsKind = TABS
+				break
+			case JList:
+				itemCount = ( component as JList ).model.size
+				filterItems = filter != null && filter.canFilter( component as JList )
+				itemsKind = LIST
+				break
+			default:
+				itemsKind = NONE
+		}
+	}
+
+	private SwingItem nextItem() {
+		switch ( itemsKind ) {
+			case TREE: return nextTreeNode()
+			case TABLE: return nextTableItem( itemsOwner as JTable )
+			case NONE: return null
+		}
+		if ( filterItems ) skipFilteredItems()
+		if ( itemIndex >= itemCount ) {
+			itemsKind = NONE
+			return null
+		}
+		int index = itemIndex++
+		switch ( itemsKind ) {
+			case COMBO: return SwingItem.comboBoxItem( itemsOwner as JComboBox, index )
+			case TABS: return SwingItem.tab( itemsOwner as JTabbedPane, index )
+			case LIST: return SwingItem.listItem( itemsOwner as JList, index, filter != null )
+			default: return null
+		}
+	}
+
+	private void skipFilteredItems() {
+		while ( itemIndex < itemCount ) {
+			if ( itemsKind == LIST && filter.mayMatchListItem( itemsOwner as JList, itemIndex ) ) return
+			if ( itemsKind == COMBO &&
+					filter.mayMatchComboBoxItem( ( itemsOwner as JComboBox ).getItemAt( itemIndex ) ) ) return
+			itemIndex++
+		}
+	}
+
+	private SwingItem nextTreeNode() {
+		def tree = itemsOwner as JTree
+		TreeModel model = tree.model
+		while ( !treeNodes.empty ) {
+			def node = treeNodes.poll()
+			int childCount = model.getChildCount( node )
+			for ( int i = 0; i < childCount; i++ ) treeNodes.add( model.getChild( node, i ) )
+			if ( node instanceof TreeNode ) return SwingItem.treeNode( tree, node as TreeNode )
+		}
+		itemsKind = NONE
+		null
+	}
+
+	private SwingItem nextTableItem( JTable table ) {
+		if ( itemIndex < tableHeaderCount ) {
+			return SwingItem.tableHeader( table, itemIndex++ )
+		}
+		while ( tableCol < tableColumnCount ) {
+			if ( filterColumn && tableRow < tableRowCount ) {
+				tableRow = filter.nextCandidateRow( table, tableCol, tableRow, tableRowCount )
+			}
+			if ( tableRow >= 0 && tableRow < tableRowCount ) {
+				return SwingItem.tableCell( table, tableRow++, tableCol, filter != null )
+			}
+			startColumn( table, tableCol + 1 )
+		}
+		itemsKind = NONE
+		null
+	}
+
+	private void startColumn( JTable table, int col ) {
+		tableCol = col
+		tableRow = 0
+		filterColumn = filter != null && col < tableColumnCount && filter.canFilter( table, col )
+	}
+
+}
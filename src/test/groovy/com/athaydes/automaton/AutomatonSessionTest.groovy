@@ -0,0 +1,60 @@
+package com.athaydes.automaton
+
+import com.athaydes.automaton.InputBackendTest.RecordingBackend
+import com.athaydes.internal.input.SyntheticBackend
+import spock.lang.Specification
+
+import javax.swing.JPanel
+import java.awt.Point
+import java.util.concurrent.Callable
+import java.util.concurrent.Executors
+
+class AutomatonSessionTest extends Specification {
+
+	def "The static entry points use the default session"() {
+		expect:
+		Automaton.user.is( AutomatonSession.default.automaton )
+		SwingAutomaton.user.is( AutomatonSession.default.swingAutomaton )
+		FXAutomaton.user.is( AutomatonSession.default.fxAutomaton )
+		Swinger.getUserWith( new JPanel() ).session.is( AutomatonSession.default )
+		Automaton.user.defaultSpeed == Automaton.DEFAULT
+	}
+
+	def "A new session has its own drivers, input backend and settings"() {
+		when:
+		def session = AutomatonSession.newSession( InputMode.SYNTHETIC ).withSpeed( Speed.SLOW )
+		def swinger = session.swinger( new JPanel() )
+
+		then:
+		session.input instanceof SyntheticBackend
+		!session.swingAutomaton.is( SwingAutomaton.user )
+		session.swingAutomaton.is( session.swingAutomaton )
+		swinger.session.is( session )
+		swinger.automaton.is( session.swingAutomaton )
+		swinger.input.is( session.input )
+		swinger.defaultSpeed == Speed.SLOW
+		SwingAutomaton.user.defaultSpeed == Automaton.DEFAULT
+	}
+
+	def "Drivers of different sessions can be used in parallel"() {
+		given:
+		def backends = [ new RecordingBackend(), new RecordingBackend() ]
+		def sessions = backends.collect { AutomatonSession.newSession( InputMode.SYNTHETIC ).withInput( it ) }
+		def targets = [ new Point( 40, 10 ), new Point( 10, 40 ) ]
+		def pool = Executors.newFixedThreadPool( 2 )
+
+		when:
+		def futures = [ 0, 1 ].collect { int i ->
+			pool.submit( { sessions[ i ].automaton.moveTo( targets[ i ] ).click() } as Callable )
+		}
+		futures*.get()
+
+		then:
+		backends*.mouseLocation == targets
+		backends.every { it.actions.count { it.startsWith( 'press' ) } == 1 }
+
+		cleanup:
+		pool.shutdown()
+	}
+
+}
@@ -282,6 +282,35 @@ abstract class SimpleFxDriverTest extends FXBaseForTests {
 		}
 	}
 
+	@Test
+	void testClickOnNodesWhichMoveAfterEachClick() {
+		def clicked = new LinkedBlockingDeque()
+		def first = new Button( text: 'First', prefWidth: 50, prefHeight: 30 )
+		def second = new Button( text: 'Second', prefWidth: 50, prefHeight: 30 )
+		def box = new VBox( padding: [ 40 ] as Insets )
+		first.onAction = [ handle: {
+			clicked << 'first'
+			// moves the second button down
+			box.children.add( 1, new Pane( prefHeight: 80 ) )
+		} ] as EventHandler
+		second.onAction = [ handle: { clicked << 'second' } ] as EventHandler
+
+		def latch = new CountDownLatch( 1 )
+		Platform.runLater {
+			box.children.addAll( first, second )
+			FXApp.scene.root = box
+			latch.countDown()
+		}
+
+		assert latch.await( 4, TimeUnit.SECONDS )
+		sleep 500
+
+		withDriver().clickOnNodes( [ first, second ] )
+
+		waitOrTimeout condition { clicked.size() == 2 }, timeout( seconds( 2 ) )
+		assert clicked.toList() == [ 'first', 'second' ]
+	}
+
 	@Test
 	void testDoubleClickOn_Node() {
 		testDoubleClickOn { Node n ->
@@ -698,6 +727,34 @@ class FXAutomatonTest extends SimpleFxDriverTest {
 		withDriver = { FXAutomaton.user }
 	}
 
+	@Test
+	void testCentersOf() {
+		def blockUntilTestSceneSetup = new LinkedBlockingDeque( 1 )
+		def rects = ( 1..3 ).collect { new Rectangle( width: 20, height: 20 ) }
+
+		Platform.runLater {
+			def hbox = new HBox( padding: [ 40 ] as Insets, spacing: 10 )
+			hbox.children.setAll rects
+			FXApp.scene.root = hbox
+			blockUntilTestSceneSetup << true
+		}
+
+		assert blockUntilTestSceneSetup.poll( 5, TimeUnit.SECONDS )
+		sleep 250
+
+		def centers = FXAutomaton.centersOf( rects )
+
+		assert centers == rects.collect { FXAutomaton.centerOf( it ) }
+		assert centers*.y.unique().size() == 1
+		assert centers[ 1 ].x - centers[ 0 ].x == 30
+		assert centers[ 2 ].x - centers[ 1 ].x == 30
+	}
+
+	@Test( expected = GuiItemNotFound )
+	void nodeNotInAWindowHasNoCenter() {
+		FXAutomaton.centerOf( new Rectangle( width: 20, height: 20 ) )
+	}
+
 }
 
 class FXerTest extends FxDriverWithSelectorsTest {
@@ -0,0 +1,73 @@
+package com.athaydes.automaton
+
+import spock.lang.Specification
+
+import java.awt.Point
+import java.awt.event.InputEvent
+import java.awt.event.KeyEvent
+
+class InputBackendTest extends Specification {
+
+	def "All input is sent through the driver's backend"() {
+		given:
+		def backend = new RecordingBackend()
+		def automaton = new Automaton<Automaton>().withInput( backend )
+
+		when:
+		automaton.moveTo( 3, 2, Speed.VERY_FAST ).click()
+
+		then:
+		backend.mouseLocation == new Point( 3, 2 )
+		backend.actions.findAll { !it.startsWith( 'move' ) } ==
+				[ "press ${InputEvent.BUTTON1_DOWN_MASK}", "release ${InputEvent.BUTTON1_DOWN_MASK}" ]
+	}
+
+	def "Bulk typing is sent through the driver's backend"() {
+		given:
+		def backend = new RecordingBackend()
+		def automaton = new Automaton<Automaton>().withInput( backend )
+
+		when:
+		automaton.typeBulk( 'Hi' )
+
+		then:
+		backend.actions == [ "keyPress ${KeyEvent.VK_SHIFT}", "keyPress ${KeyEvent.VK_H}",
+		                     "keyRelease ${KeyEvent.VK_H}", "keyRelease ${KeyEvent.VK_SHIFT}",
+		                     "keyPress ${KeyEvent.VK_I}", "keyRelease ${KeyEvent.VK_I}" ]*.toString()
+	}
+
+	def "Setting the backend of a Swinger does not affect other drivers"() {
+		given:
+		def backend = new RecordingBackend()
+		def swinger = new Swinger()
+
+		when:
+		swinger.withInput( backend )
+
+		then:
+		swinger.input.is( backend )
+		!swinger.automaton.is( SwingAutomaton.user )
+		new Swinger().automaton.is( SwingAutomaton.user )
+	}
+
+	static class RecordingBackend implements InputBackend {
+		final List<String> actions = [ ]
+		Point mouseLocation = new Point( 0, 0 )
+
+		void mouseMove( int x, int y ) {
+			mouseLocation = new Point( x, y )
+			actions << "move $x,$y".toString()
+		}
+
+		void mousePress( int buttons ) { actions << "press $buttons".toString() }
+
+		void mouseRelease( int buttons ) { actions << "release $buttons".toString() }
+
+		void keyPress( int keyCode ) { actions << "keyPress $keyCode".toString() }
+
+		void keyRelease( int keyCode ) { actions << "keyRelease $keyCode".toString() }
+
+		void delay( int millis ) {}
+	}
+
+}
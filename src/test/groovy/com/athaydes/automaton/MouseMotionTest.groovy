@@ -0,0 +1,65 @@
+package com.athaydes.automaton
+
+import spock.lang.Specification
+
+import java.awt.Point
+
+/**
+ * @author Renato
+ */
+class MouseMotionTest extends Specification {
+
+	def "A curve path has a fixed number of steps regardless of the distance, ending at the target"() {
+		when:
+		def path = MouseMotion.curvePath( from, to )
+
+		then:
+		path.size() == MouseMotion.CURVE_STEPS
+		path.last() == to
+
+		where:
+		from                 | to
+		new Point( 0, 0 )    | new Point( 10, 10 )
+		new Point( 0, 0 )    | new Point( 1920, 1080 )
+		new Point( 500, 20 ) | new Point( 20, 500 )
+		new Point( 30, 30 )  | new Point( 30, 30 )
+	}
+
+	def "A curve path starts and ends slowly"() {
+		when:
+		def path = [ new Point( 0, 0 ) ] + MouseMotion.curvePath( new Point( 0, 0 ), new Point( 1000, 0 ) )
+		def stepSizes = ( 1..<path.size() ).collect { path[ it ].distance( path[ it - 1 ] ) }
+
+		then:
+		stepSizes.first() < stepSizes[ stepSizes.size().intdiv( 2 ) ]
+		stepSizes.last() < stepSizes[ stepSizes.size().intdiv( 2 ) ]
+	}
+
+	def "The motion can be chosen for each move and drag"() {
+		given:
+		def backend = new InputBackendTest.RecordingBackend()
+		def automaton = new Automaton<Automaton>().withInput( backend )
+
+		when:
+		automaton.moveTo( 100, 50, Speed.VERY_FAST, MouseMotion.INSTANT )
+
+		then:
+		backend.actions == [ 'move 100,50' ]
+
+		when:
+		backend.actions.clear()
+		automaton.dragFrom( 100, 50 ).onto( 400, 300, Speed.VERY_FAST, MouseMotion.CURVE )
+
+		then:
+		backend.mouseLocation == new Point( 400, 300 )
+		backend.actions.count { it.startsWith( 'move' ) } == 2 * MouseMotion.CURVE_STEPS
+
+		when:
+		backend.actions.clear()
+		automaton.moveBy( 10, 0, Speed.VERY_FAST, MouseMotion.HUMAN )
+
+		then:
+		backend.actions.size() == 10
+	}
+
+}
@@ -18,7 +18,9 @@ import javax.swing.JSplitPane
 import javax.swing.JTable
 import javax.swing.JTextField
 import javax.swing.JTree
+import javax.swing.SwingUtilities
 import javax.swing.table.DefaultTableCellRenderer
+import javax.swing.table.DefaultTableModel
 import java.awt.Component
 import java.awt.Dimension
 import java.awt.MouseInfo
@@ -619,6 +621,51 @@ class SwingerTest extends SwingDriverWithSelectorsTest {
 		assert efghCalls == [ ]
 	}
 
+	@Test
+	void canFindComponentsUsingComponentIndex() {
+		JButton btn = null
+		new SwingBuilder().edt {
+			jFrame = frame( title: 'Frame', size: [ 200, 200 ] as Dimension,
+					location: defaultLocation, show: false ) {
+				btn = button( text: 'Click Me', name: 'the-button' )
+			}
+		}
+		sleep 100
+
+		def driver = ( withDriver() as Swinger ).withComponentIndex()
+
+		assert driver[ 'the-button' ] == btn
+		assert driver[ 'text:Click Me' ] == btn
+		assert driver[ JButton ] == btn
+
+		SwingUtilities.invokeAndWait { btn.text = 'Changed' }
+
+		assert driver[ 'text:Changed' ] == btn
+		assert driver.getAll( 'text:Click Me' ).empty
+	}
+
+	@Test
+	void canClickOnTableCellsOutOfViewUsingModelSearch() {
+		JTable jTable = null
+		def tableModel = new DefaultTableModel(
+				( 0..<500 ).collect { [ "row $it".toString() ] } as Object[][], [ 'Rows' ] as Object[] )
+		new SwingBuilder().edt {
+			jFrame = frame( title: 'Frame', size: [ 300, 200 ] as Dimension,
+					location: defaultLocation, show: true ) {
+				scrollPane {
+					jTable = table( model: tableModel )
+				}
+			}
+		}
+		sleep 250
+
+		def driver = ( withDriver() as Swinger ).withModelSearch()
+
+		driver.clickOn( 'text:row 400' ).pause( 250 )
+
+		assert jTable.selectedRow == 400
+	}
+
 	@Test
 	void canClickOnDialogButtons() {
 		def confirmed = new CountDownLatch( 1 )
@@ -10,6 +10,7 @@ import javax.swing.JTabbedPane
 import javax.swing.JTable
 import javax.swing.JTree
 import javax.swing.table.DefaultTableCellRenderer
+import javax.swing.table.DefaultTableModel
 import javax.swing.table.TableCellRenderer
 import javax.swing.table.TableColumn
 import java.awt.Component
@@ -185,4 +186,48 @@ class SwingUtilTest extends Specification implements HasSwingCode {
         component.height == 4
     }
 
+    def testSwingItemForTableCellIsOnlyRenderedWhenNeeded() {
+        given:
+        def readValues = [ ]
+        def model = new DefaultTableModel( [ [ 'a', 'b' ], [ 'c', 'd' ] ] as Object[][], [ 'A', 'B' ] as Object[] ) {
+            @Override
+            Object getValueAt( int row, int column ) {
+                def value = super.getValueAt( row, column )
+                readValues << value
+                value
+            }
+        }
+
+        when:
+        def item = SwingItem.tableCell( new JTable( model ), 1, 0 )
+
+        then:
+        readValues.empty
+
+        when:
+        def text = item.text
+
+        then:
+        text == 'c'
+        readValues == [ 'c' ]
+        item.toComponent().text == 'c'
+        item.toComponent().is( item.toComponent() )
+        item.toComponent().item.is( item )
+        readValues == [ 'c' ]
+    }
+
+    def testCenterOfSwingItem() {
+        given:
+        def tabbedPane = new JTabbedPane() {
+            @Override
+            Point getLocationOnScreen() { new Point( 20, 30 ) }
+
+            @Override
+            Rectangle getBoundsAt( int index ) { new Rectangle( 1, 2, 4, 6 ) }
+        }
+
+        expect:
+        SwingAutomaton.centerOf( SwingItem.tab( tabbedPane, 3 ) ) == new Point( 23, 35 )
+    }
+
 }
@@ -0,0 +1,51 @@
+package com.athaydes.automaton.cli
+
+import com.athaydes.internal.Deadline
+import spock.lang.Specification
+
+import java.util.concurrent.TimeUnit
+
+class AutomatonJavaAgentTest extends Specification {
+
+	def "The agent arguments may contain options after the script"() {
+		when:
+		def options = AutomatonJavaAgent.parseOptions( agentArgs )
+
+		then:
+		options.script == script
+		options.timeoutSeconds == timeout
+		options.readySelector == readySelector
+
+		where:
+		agentArgs                               | script             | timeout | readySelector
+		'my,script.groovy'                      | 'my,script.groovy' | 30      | null
+		'dir,timeout=120'                       | 'dir'              | 120     | null
+		'dir,ready=text:Hello, World'           | 'dir'              | 30      | 'text:Hello, World'
+		'a.groovy,timeout=5,ready=#main-button' | 'a.groovy'         | 5       | '#main-button'
+	}
+
+	def "The agent stops waiting for a Window once the timeout elapses"() {
+		when:
+		def startTime = System.currentTimeMillis()
+		def found = WindowWatcher.awaitWindow( 200 )
+
+		then:
+		!found
+		System.currentTimeMillis() - startTime < 2_000
+	}
+
+	def "The agent waits until the readiness condition is met"() {
+		given:
+		def checks = 0
+		def condition = {
+			if ( ++checks < 3 ) throw new RuntimeException( 'not ready' )
+			true
+		}
+
+		expect:
+		WindowWatcher.awaitCondition( condition, Deadline.after( 5, TimeUnit.SECONDS, 'test' ) )
+		checks == 3
+		!WindowWatcher.awaitCondition( { false }, Deadline.after( 200, TimeUnit.MILLISECONDS, 'test' ) )
+	}
+
+}
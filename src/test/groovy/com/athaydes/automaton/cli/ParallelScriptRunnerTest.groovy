@@ -0,0 +1,70 @@
+package com.athaydes.automaton.cli
+
+import spock.lang.Specification
+
+class ParallelScriptRunnerTest extends Specification {
+
+	def "Scripts are scheduled longest first, with scripts never run before first"() {
+		given:
+		def scripts = [ 'a', 'b', 'c', 'd', 'e' ].collect { new File( "${it}.groovy" ) }
+		def durations = [ 'a.groovy': 100L, 'b.groovy': 3000L, 'd.groovy': 2000L ]
+
+		expect:
+		ParallelScriptRunner.schedule( scripts, durations )*.name ==
+				[ 'c.groovy', 'e.groovy', 'b.groovy', 'd.groovy', 'a.groovy' ]
+	}
+
+	def "Each script is run with the Automaton agent in a new application JVM"() {
+		given:
+		def jar = new File( 'automaton.jar' )
+		def script = new File( 'test.groovy' )
+
+		expect:
+		ParallelScriptRunner.forkCommand( [ 'java', '-jar', 'app.jar' ], jar, script ) ==
+				[ 'java', "-javaagent:${jar.absolutePath}=${script.absolutePath}".toString(), '-jar', 'app.jar' ]
+	}
+
+	def "Exit codes are combined as the Automaton agent would report them"() {
+		expect:
+		ParallelScriptRunner.combinedExitCode( exitCodes ) == expected
+
+		where:
+		exitCodes       | expected
+		[ ]             | 0
+		[ 0, 0 ]        | 0
+		[ 0, 10, 0 ]    | 10
+		[ 10, 5, 0 ]    | 5
+		[ 0, 143 ]      | 5
+	}
+
+	def "Script durations are recorded in the scripts directory"() {
+		given:
+		def dir = File.createTempFile( 'scripts', '' )
+		dir.delete()
+		dir.mkdirs()
+		[ 'ok', 'fail' ].each { new File( dir, "${it}.groovy" ).text = '' }
+		def exitCodes = [ 'ok.groovy': '0', 'fail.groovy': '10' ]
+
+		and: 'an application JVM which exits with the code of each script'
+		def java = new File( dir, 'java' )
+		java.text = '#!/bin/sh\nsleep 0.1\ncase "$1" in *ok.groovy) exit 0;; *) exit 10;; esac\n'
+		java.executable = true
+		def runner = new ParallelScriptRunner( dir, [ java.absolutePath ] )
+		runner.xvfb = null
+		runner.agentJar = new File( 'automaton.jar' )
+
+		when:
+		def exitCode = runner.run()
+		def durations = new Properties()
+		new File( dir, ParallelScriptRunner.DURATIONS_FILE ).withInputStream { durations.load( it ) }
+
+		then:
+		exitCode == 10
+		durations.stringPropertyNames() == exitCodes.keySet()
+		durations.values().every { it.toLong() >= 100 }
+
+		cleanup:
+		dir?.deleteDir()
+	}
+
+}
@@ -0,0 +1,90 @@
+package com.athaydes.automaton.cli
+
+import org.codehaus.groovy.control.CompilationFailedException
+import org.codehaus.groovy.runtime.InvokerHelper
+import spock.lang.Specification
+
+import java.nio.file.Files
+
+class ScriptCacheTest extends Specification {
+
+	def "Scripts are compiled only once"() {
+		given:
+		def cache = new ScriptCache()
+
+		when:
+		def first = cache.scriptClass( 'x * 21' )
+		def second = cache.scriptClass( 'x * 21' )
+		def other = cache.scriptClass( 'x * 2' )
+
+		then:
+		first.is( second )
+		!first.is( other )
+		cache.size() == 2
+		InvokerHelper.createScript( first, new Binding( x: 2 ) ).run() == 42
+	}
+
+	def "Scripts compiled in the background are reused"() {
+		given:
+		def cache = new ScriptCache()
+
+		when:
+		cache.prefetch( 'x + 1' )
+		def scriptClass = cache.scriptClass( 'x + 1' )
+
+		then:
+		cache.size() == 1
+		InvokerHelper.createScript( scriptClass, new Binding( x: 1 ) ).run() == 2
+	}
+
+	def "Scripts which do not compile are not cached"() {
+		given:
+		def cache = new ScriptCache()
+
+		when:
+		cache.scriptClass( 'def x = ' )
+
+		then:
+		thrown CompilationFailedException
+		cache.size() == 0
+	}
+
+	def "Only the most recently used scripts are kept in memory"() {
+		given:
+		def cache = new ScriptCache( null, ScriptCache.classLoader, 2 )
+
+		when:
+		def first = cache.scriptClass( 'x + 1' )
+		cache.scriptClass( 'x + 2' )
+		cache.scriptClass( 'x + 1' )
+		cache.scriptClass( 'x + 3' )
+
+		then:
+		cache.size() == 2
+		cache.scriptClass( 'x + 1' ).is( first )
+	}
+
+	def "Compiled scripts can be stored on disk and loaded by another cache"() {
+		given:
+		def dir = Files.createTempDirectory( 'script-cache' ).toFile()
+		def script = 'def twice = { it * 2 }; twice( x )'
+
+		when:
+		new ScriptCache( dir ).scriptClass( script )
+		def key = ScriptCache.keyOf( script )
+
+		then:
+		new File( dir, key ).list().any { it.endsWith( '.class' ) }
+
+		when:
+		def loaded = new ScriptCache( dir ).scriptClass( script )
+
+		then:
+		loaded.name == ScriptCache.scriptClassName( key )
+		InvokerHelper.createScript( loaded, new Binding( x: 4 ) ).run() == 8
+
+		cleanup:
+		dir?.deleteDir()
+	}
+
+}
@@ -0,0 +1,94 @@
+package com.athaydes.automaton.cli
+
+import spock.lang.Specification
+
+import java.nio.file.Files
+import java.nio.file.attribute.PosixFilePermission
+import java.util.concurrent.Callable
+
+class ScriptDaemonTest extends Specification {
+
+	def providedBindings = 0
+	def daemonFile = new File( Files.createTempDirectory( 'script-daemon' ).toFile(), 'daemon.properties' )
+	def daemon = new ScriptDaemon( 0, {
+		providedBindings++
+		new Binding( driver: 'the driver' )
+	} as Callable<Binding>, daemonFile ).start()
+
+	def cleanup() {
+		daemon.stop()
+		daemonFile.parentFile.deleteDir()
+	}
+
+	def "Scripts run in the daemon and their output is sent back to the client"() {
+		given:
+		def output = new StringBuilder()
+
+		when:
+		def exitCode = ScriptDaemon.send( 'println "Using $driver"', daemon.localPort, daemon.token, output )
+
+		then:
+		exitCode == 0
+		output.toString() == 'Using the driver\n'
+	}
+
+	def "The exit code of failed scripts is sent back to the client"() {
+		given:
+		def output = new StringBuilder()
+
+		expect:
+		ScriptDaemon.send( script, daemon.localPort, daemon.token, output ) == expectedExitCode
+		output.toString().count( 'AScript failed due to' ) == 1
+
+		where:
+		script                             | expectedExitCode
+		'assert 1 == 2'                    | 10
+		'throw new RuntimeException("x")'  | 5
+		'def x = '                         | 5
+	}
+
+	def "All scripts reuse the same drivers without sharing other variables"() {
+		when:
+		def firstExitCode = ScriptDaemon.send( 'x = 1; assert driver == "the driver"', daemon.localPort, daemon.token, new StringBuilder() )
+		def output = new StringBuilder()
+		def secondExitCode = ScriptDaemon.send( 'println binding.hasVariable( "x" ); assert driver', daemon.localPort, daemon.token, output )
+
+		then:
+		firstExitCode == 0
+		secondExitCode == 0
+		output.toString() == 'false\n'
+		providedBindings == 1
+	}
+
+	def "Scripts are only run if the client sends the token of the daemon"() {
+		given:
+		def output = new StringBuilder()
+
+		when:
+		def exitCode = ScriptDaemon.send( 'println "Using $driver"', daemon.localPort, 'wrong-token', output )
+
+		then:
+		exitCode == 5
+		output.toString().contains( 'invalid token' )
+		providedBindings == 0
+	}
+
+	def "The port and token are written to a file only the user can read"() {
+		when:
+		def properties = ScriptDaemon.readDaemonFile( daemonFile )
+
+		then:
+		properties.getProperty( 'port' ) == daemon.localPort as String
+		properties.getProperty( 'token' ) == daemon.token
+		!Files.getFileStore( daemonFile.toPath() ).supportsFileAttributeView( 'posix' ) ||
+				Files.getPosixFilePermissions( daemonFile.toPath() ) ==
+				[ PosixFilePermission.OWNER_READ, PosixFilePermission.OWNER_WRITE ] as Set
+
+		when:
+		daemon.stop()
+
+		then:
+		!daemonFile.exists()
+	}
+
+}
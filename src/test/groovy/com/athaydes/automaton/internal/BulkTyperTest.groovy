@@ -0,0 +1,53 @@
+package com.athaydes.automaton.internal
+
+import com.athaydes.internal.BulkTyper
+import com.athaydes.internal.Quiescence
+import com.athaydes.internal.RobotTypingUtil
+import spock.lang.Specification
+
+import javax.swing.JTextField
+import javax.swing.SwingUtilities
+import java.awt.event.KeyEvent
+
+import static java.awt.event.KeyEvent.*
+
+class BulkTyperTest extends Specification {
+
+	def "The keystroke table covers all ASCII letters and digits"() {
+		expect:
+		( ( 'a'..'z' ) + ( 'A'..'Z' ) + ( '0'..'9' ) ).every { String c ->
+			def keystroke = RobotTypingUtil.robotCode( c )
+			keystroke.code == KeyEvent."VK_${c.toUpperCase()}" &&
+					keystroke.shift == Character.isUpperCase( c as char )
+		}
+	}
+
+	def "Key actions press and release each key, with SHIFT held across runs of characters which need it"() {
+		expect:
+		BulkTyper.keyActions( text ) as List == actions
+
+		where:
+		text   | actions
+		''     | [ ]
+		'ab'   | [ VK_A, -VK_A, VK_B, -VK_B ]
+		'aBC1' | [ VK_A, -VK_A, VK_SHIFT, VK_B, -VK_B, VK_C, -VK_C, -VK_SHIFT, VK_1, -VK_1 ]
+		'A:'   | [ VK_SHIFT, VK_A, -VK_A, VK_COLON, -VK_COLON, -VK_SHIFT ]
+		'aAaA' | [ VK_A, -VK_A, VK_SHIFT, VK_A, -VK_A, -VK_SHIFT, VK_A, -VK_A, VK_SHIFT, VK_A, -VK_A, -VK_SHIFT ]
+	}
+
+	def "Any Unicode text can be posted to a Swing text component"() {
+		given:
+		def field = new JTextField()
+		def text = 'Olá 日本 😀 A+B'
+
+		when:
+		BulkTyper.post( field, text )
+		Quiescence.awaitSwingIdle( 2000 )
+		String result = null
+		SwingUtilities.invokeAndWait { result = field.text }
+
+		then:
+		result == text
+	}
+
+}
@@ -1,5 +1,7 @@
 package com.athaydes.automaton.internal
 
+import com.athaydes.automaton.InputMode
+import com.athaydes.automaton.MouseMotion
 import com.athaydes.internal.Config
 import com.athaydes.internal.RealResourceLoader
 import org.junit.Test
@@ -105,6 +107,42 @@ class ConfigTest {
         assert config.disableBringStageToFront
     }
 
+	@Test
+	void "Provides default mouse motion if config file does not specify a valid motion"() {
+		def tempFile = configFileWith( 'automaton.mouse.motion = TELEPORT' )
+
+		config.resourceLoader = [ getConfig: { tempFile.newInputStream() } ] as RealResourceLoader
+
+		assert config.mouseMotion == Config.DEFAULT_MOUSE_MOTION
+	}
+
+	@Test
+	void "Provides mouse motion set by config file if valid"() {
+		def tempFile = configFileWith( 'automaton.mouse.motion = curve' )
+
+		config.resourceLoader = [ getConfig: { tempFile.newInputStream() } ] as RealResourceLoader
+
+		assert config.mouseMotion == MouseMotion.CURVE
+	}
+
+	@Test
+	void "Provides default input mode if config file does not specify a valid mode"() {
+		def tempFile = configFileWith( 'automaton.input.mode = TELEPATHY' )
+
+		config.resourceLoader = [ getConfig: { tempFile.newInputStream() } ] as RealResourceLoader
+
+		assert config.inputMode == Config.DEFAULT_INPUT_MODE
+	}
+
+	@Test
+	void "Provides input mode set by config file if valid"() {
+		def tempFile = configFileWith( 'automaton.input.mode = synthetic' )
+
+		config.resourceLoader = [ getConfig: { tempFile.newInputStream() } ] as RealResourceLoader
+
+		assert config.inputMode == InputMode.SYNTHETIC
+	}
+
 	private File configFileWith( String text ) {
 		def tempFile = File.createTempFile( 'temp-config', '.properties' )
 		tempFile.write( text )
@@ -0,0 +1,148 @@
+package com.athaydes.automaton.internal
+
+import com.athaydes.automaton.SwingItem
+import com.athaydes.internal.GeometryTracker
+import spock.lang.Specification
+
+import javax.swing.DefaultListModel
+import javax.swing.JButton
+import javax.swing.JList
+import javax.swing.JTable
+import javax.swing.JTree
+import javax.swing.table.DefaultTableModel
+import javax.swing.tree.DefaultMutableTreeNode
+import javax.swing.tree.TreePath
+import java.awt.Point
+import java.awt.event.ComponentEvent
+
+class GeometryTrackerTest extends Specification {
+
+	def "Only Components showing items are tracked, each by a single tracker"() {
+		given:
+		def table = new JTable()
+
+		expect:
+		GeometryTracker.of( new JButton() ) == null
+		GeometryTracker.of( table ) != null
+		GeometryTracker.of( table ).is( GeometryTracker.of( table ) )
+	}
+
+	def "The version of a table changes when its model, its columns or its size change"() {
+		given:
+		def model = new DefaultTableModel( 3, 2 )
+		def table = new JTable( model )
+		def tracker = GeometryTracker.of( table )
+
+		when:
+		def version = tracker.version
+		model.setValueAt( 'a', 0, 0 )
+
+		then:
+		tracker.version != version
+
+		when:
+		version = tracker.version
+		table.columnModel.moveColumn( 0, 1 )
+
+		then:
+		tracker.version != version
+
+		when:
+		version = tracker.version
+		table.columnModel.selectionModel.setSelectionInterval( 0, 0 )
+
+		then:
+		tracker.version == version
+
+		when:
+		version = tracker.version
+		table.setSize( 300, 200 )
+		table.dispatchEvent( new ComponentEvent( table, ComponentEvent.COMPONENT_RESIZED ) )
+
+		then:
+		tracker.version != version
+	}
+
+	def "A new model replaces the old one being listened to"() {
+		given:
+		def oldModel = new DefaultTableModel( 3, 2 )
+		def newModel = new DefaultTableModel( 3, 2 )
+		def table = new JTable( oldModel )
+		def tracker = GeometryTracker.of( table )
+
+		when:
+		table.model = newModel
+		def version = tracker.version
+		oldModel.setValueAt( 'a', 0, 0 )
+
+		then:
+		tracker.version == version
+
+		when:
+		newModel.setValueAt( 'a', 0, 0 )
+
+		then:
+		tracker.version != version
+	}
+
+	def "The version of a tree changes when nodes are expanded or changed"() {
+		given:
+		def root = new DefaultMutableTreeNode( 'root' )
+		def child = new DefaultMutableTreeNode( 'child' )
+		root.add( child )
+		child.add( new DefaultMutableTreeNode( 'grandchild' ) )
+		def tree = new JTree( root )
+		def tracker = GeometryTracker.of( tree )
+
+		when:
+		def version = tracker.version
+		tree.expandPath( new TreePath( [ root, child ] as Object[] ) )
+
+		then:
+		tracker.version != version
+
+		when:
+		version = tracker.version
+		tree.model.valueForPathChanged( new TreePath( [ root, child ] as Object[] ), 'new child' )
+
+		then:
+		tracker.version != version
+	}
+
+	def "The version of a list changes when its items change"() {
+		given:
+		def model = new DefaultListModel()
+		def tracker = GeometryTracker.of( new JList( model ) )
+
+		when:
+		def version = tracker.version
+		model.addElement( 'a' )
+
+		then:
+		tracker.version != version
+	}
+
+	def "Items follow their Window when it is moved without notifying its descendants"() {
+		given: 'a table whose Window is moved by the window manager, which only changes its location on screen'
+		def windowLocation = new Point( 100, 50 )
+		def table = new JTable( new DefaultTableModel( 3, 2 ) ) {
+			@Override
+			Point getLocationOnScreen() { new Point( windowLocation ) }
+		}
+		def cell = SwingItem.tableCell( table, 1, 1 )
+		def cellRect = table.getCellRect( 1, 1, true )
+
+		when:
+		def before = cell.boundsOnScreen
+		def version = GeometryTracker.of( table ).version
+		windowLocation.move( 400, 300 )
+		def after = cell.boundsOnScreen
+
+		then:
+		GeometryTracker.of( table ).version == version
+		before.location == new Point( 100 + cellRect.x as int, 50 + cellRect.y as int )
+		after.location == new Point( 400 + cellRect.x as int, 300 + cellRect.y as int )
+		after.size == before.size
+	}
+
+}
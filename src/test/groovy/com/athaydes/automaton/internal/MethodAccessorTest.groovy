@@ -0,0 +1,68 @@
+package com.athaydes.automaton.internal
+
+import com.athaydes.internal.MethodAccessor
+import spock.lang.Specification
+
+import javax.swing.JLabel
+import javax.swing.JPanel
+import javax.swing.table.DefaultTableCellRenderer
+
+/**
+ * @author Renato
+ */
+class MethodAccessorTest extends Specification {
+
+	def "Accessors call public methods without arguments, if they exist"() {
+		expect:
+		MethodAccessor.GET_TEXT.existsFor( item ) == exists
+		MethodAccessor.GET_TEXT.call( item ) == result
+
+		where:
+		item                                       | exists | result
+		new JLabel( 'hello' )                      | true   | 'hello'
+		new DefaultTableCellRenderer( text: 'hi' ) | true   | 'hi'
+		new JPanel()                               | false  | null
+		null                                       | false  | null
+		new HasText( 'hey' )                       | true   | 'hey'
+		new HiddenText()                           | true   | 'hidden'
+		new PrivateText()                          | false  | null
+	}
+
+	def "Accessors are shared"() {
+		expect:
+		MethodAccessor.forMethod( 'getText' ).is( MethodAccessor.GET_TEXT )
+		MethodAccessor.forMethod( 'getSomething' ).is( MethodAccessor.forMethod( 'getSomething' ) )
+	}
+
+	def "Exceptions thrown by the method are not hidden"() {
+		when:
+		MethodAccessor.forMethod( 'fail' ).call( new Failing() )
+
+		then:
+		def e = thrown RuntimeException
+		e.message == 'failed'
+	}
+
+	static class HasText {
+		final String text
+
+		HasText( String text ) { this.text = text }
+	}
+
+	interface Texted {
+		String getText()
+	}
+
+	private static class HiddenText implements Texted {
+		String getText() { 'hidden' }
+	}
+
+	static class PrivateText {
+		private String getText() { 'private' }
+	}
+
+	static class Failing {
+		def fail() { throw new RuntimeException( 'failed' ) }
+	}
+
+}
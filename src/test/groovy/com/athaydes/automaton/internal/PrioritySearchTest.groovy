@@ -0,0 +1,61 @@
+package com.athaydes.automaton.internal
+
+import com.athaydes.internal.PrioritySearch
+import com.athaydes.internal.traversal.MatchingIterator
+import spock.lang.Specification
+
+import java.util.concurrent.CountDownLatch
+import java.util.concurrent.Executor
+import java.util.concurrent.TimeUnit
+
+/**
+ * @author Renato
+ */
+class PrioritySearchTest extends Specification {
+
+	def newThreadExecutor = { Runnable task -> new Thread( task ).start() } as Executor
+	def search = new PrioritySearch( [ newThreadExecutor, newThreadExecutor ] )
+
+	def "The result of the search with highest priority which finds something is returned"() {
+		expect:
+		search.firstMatch( [ { sleep 50; high }, { low } ] ) == expected
+
+		where:
+		high   | low   | expected
+		'high' | 'low' | 'high'
+		null   | 'low' | 'low'
+		'high' | null  | 'high'
+		null   | null  | null
+	}
+
+	def "Searches which are no longer needed are cancelled"() {
+		given:
+		def lowSearchStopped = new CountDownLatch( 1 )
+		def endless = [ hasNext: { true }, next: { 'miss' } ] as Iterator
+
+		when:
+		def result = search.firstMatch( [ { sleep 50; 'high' }, {
+			def iterator = new MatchingIterator<String>( endless, Integer.MAX_VALUE ) {
+				@Override
+				protected String accept( candidate ) { null }
+			}
+			def found = iterator.hasNext()
+			lowSearchStopped.countDown()
+			found
+		} ] )
+
+		then:
+		result == 'high'
+		lowSearchStopped.await( 5, TimeUnit.SECONDS )
+	}
+
+	def "Errors in a search of higher priority are thrown"() {
+		when:
+		search.firstMatch( [ { throw new IllegalStateException( 'bad search' ) }, { 'low' } ] )
+
+		then:
+		def error = thrown( IllegalStateException )
+		error.message == 'bad search'
+	}
+
+}
@@ -0,0 +1,51 @@
+package com.athaydes.automaton.internal
+
+import com.athaydes.internal.Quiescence
+import org.junit.Test
+
+import javax.swing.JTextField
+import java.awt.EventQueue
+
+/**
+ * @author Renato
+ */
+class QuiescenceTest {
+
+	@Test( timeout = 2000L )
+	void returnsAsSoonAsTheEventQueueIsIdle() {
+		EventQueue.invokeLater { sleep 100 }
+		def startT = System.currentTimeMillis()
+		assert Quiescence.awaitSwingIdle( 1000 )
+		def elapsed = System.currentTimeMillis() - startT
+		assert elapsed >= 90
+		assert elapsed < 800
+	}
+
+	@Test( timeout = 2000L )
+	void givesUpAfterTheMaximumTimeIfTheEventQueueIsNeverIdle() {
+		def busy = true
+		def keepBusy
+		keepBusy = { if ( busy ) EventQueue.invokeLater { keepBusy(); sleep 5 } }
+		EventQueue.invokeLater keepBusy
+		try {
+			def startT = System.currentTimeMillis()
+			assert !Quiescence.awaitSwingIdle( 200 )
+			assert System.currentTimeMillis() - startT < 800
+		} finally {
+			busy = false
+		}
+	}
+
+	@Test( timeout = 2000L )
+	void componentsWhichAreNotShowingAreNotWaitedForToGetTheFocus() {
+		def startT = System.currentTimeMillis()
+		assert Quiescence.awaitSwingFocus( new JTextField(), 1000 )
+		assert System.currentTimeMillis() - startT < 800
+	}
+
+	@Test( timeout = 2000L )
+	void toolkitsWhichAreNotRunningAreIdle() {
+		assert Quiescence.awaitFxIdle( 1000 )
+	}
+
+}
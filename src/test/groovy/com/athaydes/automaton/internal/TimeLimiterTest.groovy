@@ -1,5 +1,6 @@
 package com.athaydes.automaton.internal
 
+import com.athaydes.internal.Deadline
 import com.athaydes.internal.TimeLimiter
 import org.junit.Test
 
@@ -77,4 +78,29 @@ class TimeLimiterTest {
 		assert result == 'Hi'
 	}
 
-}
\ No newline at end of file
+	@Test( timeout = 2000L )
+	void timeoutsAreCounted() {
+		def timeoutsBefore = TimeLimiter.timeoutCount
+		shouldFail( TimeoutException, {
+			timeLimiter.abortAfter( { sleep 500 }, 50, TimeUnit.MILLISECONDS )
+		} )
+		timeLimiter.abortAfter( { 'Hi' }, 500, TimeUnit.MILLISECONDS )
+		assert TimeLimiter.timeoutCount == timeoutsBefore + 1
+	}
+
+	@Test( timeout = 2000L )
+	void deadlineExpiresAfterTimeout() {
+		def timeoutsBefore = TimeLimiter.timeoutCount
+		def deadline = Deadline.after( 100, TimeUnit.MILLISECONDS, 'Test' )
+		deadline.check()
+		assert !deadline.expired
+
+		sleep 150
+
+		assert deadline.expired
+		def error = shouldFail( TimeoutException, { deadline.check() } )
+		assert error.message == 'Test did not complete within 100 ms'
+		assert TimeLimiter.timeoutCount == timeoutsBefore + 1
+	}
+
+}
@@ -0,0 +1,112 @@
+package com.athaydes.automaton.internal.index
+
+import com.athaydes.automaton.selector.FxSelectors
+import com.athaydes.internal.index.FxNodeIndex
+import javafx.scene.Group
+import javafx.scene.layout.HBox
+import javafx.scene.layout.VBox
+import javafx.scene.shape.Circle
+import javafx.scene.shape.Rectangle
+import spock.lang.Specification
+
+/**
+ * @author Renato
+ */
+class FxNodeIndexTest extends Specification {
+
+	VBox root = new VBox( id: 'root' )
+	def index = new FxNodeIndex( root )
+
+	def setup() {
+		def top = new HBox( id: 'top' )
+		def bottom = new Group( id: 'bottom' )
+		top.children.addAll new Rectangle( id: 'rect' ), new Circle( id: 'circle' )
+		bottom.children.addAll new Circle( id: 'circle' ), new Rectangle( id: 'other-rect' )
+		top.styleClass << 'shapes'
+		bottom.styleClass << 'shapes'
+		root.children.addAll top, bottom
+	}
+
+	def "Index finds the same Nodes, in the same order, as walking the scene graph"() {
+		expect:
+		index.findById( id ) == FxSelectors.byId().apply( id, root )
+
+		and:
+		index.findByType( type ) == FxSelectors.byType().apply( type, root )
+
+		and:
+		index.findByStyleClass( styleClass ) == FxSelectors.byStyleClass().apply( styleClass, root )
+
+		where:
+		id           | type                            | styleClass
+		'circle'     | 'Circle'                        | 'shapes'
+		'other-rect' | 'javafx.scene.shape.Rectangle'  | 'none'
+		'root'       | 'VBox'                          | 'shapes'
+		'none'       | 'Label'                         | 'none'
+	}
+
+	def "Index respects the limit"() {
+		expect:
+		index.findById( 'circle', 1 ) == [ root.children[ 0 ].childrenUnmodifiable[ 1 ] ]
+		index.findByStyleClass( 'shapes', 1 )*.id == [ 'top' ]
+	}
+
+	def "Index is kept current as Nodes are added, removed and modified"() {
+		given: 'the index has been built'
+		assert index.findById( 'circle' ).size() == 2
+
+		when:
+		def top = root.children[ 0 ] as HBox
+		def bottom = root.children[ 1 ] as Group
+		def rect = top.children[ 0 ]
+		rect.id = 'renamed'
+		rect.styleClass << 'moved'
+		bottom.children.remove( 0 )
+		root.children.add 0, new Circle( id: 'new-circle' )
+		top.styleClass.clear()
+		bottom.children << rect
+
+		then:
+		index.findById( 'rect' ) == [ ]
+		index.findById( 'renamed' ) == [ rect ]
+		index.findByStyleClass( 'moved' ) == [ rect ]
+		index.findById( 'circle' ) == [ top.children[ 0 ] ]
+		index.findByType( 'Circle' )*.id == [ 'new-circle', 'circle' ]
+		index.findByStyleClass( 'shapes' ) == [ bottom ]
+		index.findByType( 'Rectangle' )*.id == [ 'other-rect', 'renamed' ]
+	}
+
+	def "Index forgets Nodes removed from the tree"() {
+		given:
+		def bottom = root.children[ 1 ] as Group
+		assert index.findById( 'other-rect' ).size() == 1
+
+		when:
+		root.children.remove( bottom )
+
+		then:
+		index.findById( 'other-rect' ) == [ ]
+		index.findById( 'circle' ).size() == 1
+
+		when: 'the removed Node is modified'
+		bottom.children[ 0 ].id = 'detached'
+
+		then:
+		index.findById( 'detached' ) == [ ]
+	}
+
+	def "Index removes all its listeners when cleared"() {
+		given:
+		def rect = new Rectangle( id: 'watched' )
+		root.children << rect
+		assert index.findById( 'watched' ) == [ rect ]
+
+		when:
+		index.clear()
+		rect.id = 'changed'
+
+		then: 'the index is rebuilt from scratch'
+		index.findById( 'changed' ) == [ rect ]
+	}
+
+}
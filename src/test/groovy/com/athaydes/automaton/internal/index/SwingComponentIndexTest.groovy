@@ -0,0 +1,112 @@
+package com.athaydes.automaton.internal.index
+
+import com.athaydes.automaton.selector.SwingerSelectors
+import com.athaydes.internal.index.SwingComponentIndex
+import spock.lang.Specification
+
+import javax.swing.JButton
+import javax.swing.JLabel
+import javax.swing.JMenu
+import javax.swing.JMenuItem
+import javax.swing.JPanel
+import javax.swing.JTable
+import javax.swing.JTextField
+
+/**
+ * @author Renato
+ */
+class SwingComponentIndexTest extends Specification {
+
+	JPanel root = new JPanel( name: 'root' )
+	def index = new SwingComponentIndex( root )
+
+	def setup() {
+		def left = new JPanel( name: 'left' )
+		def right = new JPanel( name: 'right' )
+		left.add new JLabel( name: 'label', text: 'Hello' )
+		left.add new JButton( name: 'button', text: 'Click' )
+		right.add new JLabel( name: 'label', text: 'Bye' )
+		right.add new JTextField( name: 'field', text: 'typed' )
+		def menu = new JMenu( text: 'File' )
+		menu.add new JMenuItem( name: 'exit', text: 'Exit' )
+		right.add menu
+		root.add left
+		root.add right
+	}
+
+	def "Index finds the same Components, in the same order, as walking the tree"() {
+		expect:
+		index.findByName( name ) == SwingerSelectors.byName().apply( name, root )
+
+		and:
+		index.findByType( type ) == SwingerSelectors.byType().apply( type, root )
+
+		and:
+		index.findByText( text ) == SwingerSelectors.byText().apply( text, root )
+
+		where:
+		name     | type                  | text
+		'label'  | 'JLabel'              | 'Hello'
+		'button' | 'javax.swing.JButton' | 'Click'
+		'exit'   | 'JMenuItem'           | 'Exit'
+		'field'  | 'JPanel'              | 'typed'
+		'none'   | 'JTable'              | 'none'
+	}
+
+	def "Index respects the limit"() {
+		expect:
+		index.findByName( 'label', 1 )*.text == [ 'Hello' ]
+		index.findByType( 'JPanel', 2 )*.name == [ 'root', 'left' ]
+	}
+
+	def "Index is kept current as Components are added, removed and modified"() {
+		given: 'the index has been built'
+		assert index.findByName( 'label' ).size() == 2
+
+		when:
+		def label = root.getComponent( 0 ).getComponent( 0 ) as JLabel
+		label.name = 'renamed'
+		label.text = 'Changed'
+		( root.getComponent( 1 ) as JPanel ).remove( 0 )
+		root.add new JButton( name: 'new-button', text: 'New' )
+		( root.getComponent( 1 ).getComponent( 0 ) as JTextField ).text = 'retyped'
+
+		then:
+		index.findByName( 'label' ) == [ ]
+		index.findByName( 'renamed' ) == [ label ]
+		index.findByText( 'Hello' ) == [ ]
+		index.findByText( 'Changed' ) == [ label ]
+		index.findByText( 'Bye' ) == [ ]
+		index.findByText( 'retyped' )*.name == [ 'field' ]
+		index.findByName( 'new-button' )*.text == [ 'New' ]
+		index.findByType( 'JButton' )*.name == [ 'new-button', 'button' ]
+	}
+
+	def "Index cannot answer text queries when it cannot keep track of all texts"() {
+		given:
+		root.add new JTable( [ [ 'a', 'b' ] ] as Object[][], [ 'A', 'B' ] as Object[] )
+
+		expect:
+		index.findByText( 'a' ) == null
+		index.findByName( 'button' )*.text == [ 'Click' ]
+	}
+
+	def "Index cannot answer type queries for items which are not real Components"() {
+		expect:
+		index.findByType( 'FakeComponent' ) == null
+		index.findByType( 'com.athaydes.automaton.FakeComponent' ) == null
+	}
+
+	def "Index removes all its listeners when cleared"() {
+		given:
+		index.findByName( 'label' )
+
+		when:
+		index.clear()
+
+		then:
+		!root.containerListeners.any { it.is( index ) }
+		!root.propertyChangeListeners.any { it.is( index ) }
+	}
+
+}
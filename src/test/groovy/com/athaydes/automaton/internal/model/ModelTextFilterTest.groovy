@@ -0,0 +1,131 @@
+package com.athaydes.automaton.internal.model
+
+import com.athaydes.automaton.SwingItem
+import com.athaydes.automaton.selector.SwingerSelectors
+import com.athaydes.internal.model.ColumnValueIndex
+import com.athaydes.internal.model.ModelTextFilter
+import com.athaydes.internal.traversal.SwingItemCursor
+import spock.lang.Specification
+
+import javax.swing.JComboBox
+import javax.swing.JLabel
+import javax.swing.JList
+import javax.swing.JPanel
+import javax.swing.JTable
+import javax.swing.RowSorter
+import javax.swing.SortOrder
+import javax.swing.table.DefaultTableCellRenderer
+import javax.swing.table.DefaultTableModel
+
+/**
+ * @author Renato
+ */
+class ModelTextFilterTest extends Specification {
+
+	def root = new JPanel()
+	def model = new DefaultTableModel( ( 0..<1000 ).collect { [ "a$it", "b${it % 10}" ] } as Object[][],
+			[ 'A', 'B' ] as Object[] )
+	def table = new JTable( model )
+
+	def setup() {
+		root.add table
+		root.add new JList( [ 'x', 'y', 'b3' ] as Object[] )
+		root.add new JComboBox( [ 'b3', 'z' ] as Object[] )
+	}
+
+	List<SwingItem> itemsFor( String text, boolean useIndex = false ) {
+		new SwingItemCursor( root, new ModelTextFilter( text, useIndex ) )
+				.findAll { it instanceof SwingItem }
+	}
+
+	def "Only items which may show the text are rendered"() {
+		when:
+		def items = itemsFor( 'b3', useIndex )
+
+		then: 'the headers, the 100 matching cells and the matching list and combo-box items are visited'
+		items*.text == [ 'A', 'B' ] + ( [ 'b3' ] * 102 )
+
+		and: 'the same items are found as when rendering everything'
+		items*.text.findAll { it == 'b3' }.size() ==
+				SwingerSelectors.byText().apply( 'b3', root ).size()
+
+		where:
+		useIndex << [ false, true ]
+	}
+
+	def "Cells shown by custom renderers are always rendered"() {
+		given:
+		table.columnModel.getColumn( 1 ).cellRenderer = new BracketRenderer()
+
+		when:
+		def items = itemsFor( '[b3]' )
+
+		then:
+		items.size() == 2 + 1000
+		items*.text.count { it == '[b3]' } == 100
+	}
+
+	def "Column value index is discarded when the model changes"() {
+		given:
+		assert itemsFor( 'new value', true )*.text == [ 'A', 'B' ]
+
+		when:
+		model.setValueAt( 'new value', 500, 0 )
+
+		then:
+		itemsFor( 'new value', true )*.text == [ 'A', 'B', 'new value' ]
+
+		when: 'the table starts using another model'
+		table.model = new DefaultTableModel( [ [ 'other' ] ] as Object[][], [ 'C' ] as Object[] )
+
+		then:
+		itemsFor( 'other', true )*.text == [ 'C', 'other' ]
+		!model.tableModelListeners.any { it instanceof ColumnValueIndex }
+	}
+
+	def "Sorted tables and moved columns are filtered by the values shown in each cell"() {
+		given:
+		root.removeAll()
+		def sortedModel = new DefaultTableModel( [ [ 'x1', 'y1' ], [ 'x2', 'y2' ], [ 'x3', 'y3' ] ] as Object[][],
+				[ 'X', 'Y' ] as Object[] )
+		def sortedTable = new JTable( sortedModel )
+		sortedTable.autoCreateRowSorter = true
+		sortedTable.rowSorter.sortKeys = [ new RowSorter.SortKey( 0, SortOrder.DESCENDING ) ]
+		sortedTable.moveColumn( 1, 0 )
+		root.add sortedTable
+
+		when:
+		def cells = itemsFor( text, useIndex ).findAll { it.row >= 0 }
+
+		then: 'the cell showing the text is found at its view position'
+		cells*.text == [ text ]
+		cells*.row == [ row ]
+		cells*.column == [ col ]
+
+		where:
+		text | useIndex | row | col
+		'x3' | false    | 0   | 1
+		'x1' | true     | 2   | 1
+		'y2' | false    | 1   | 0
+		'y1' | true     | 2   | 0
+	}
+
+	def "Lists shown by custom renderers are always rendered"() {
+		given:
+		root.removeAll()
+		def list = new JList( [ 'x', 'y' ] as Object[] )
+		list.cellRenderer = { l, value, index, selected, focus -> new JLabel( "<$value>" ) }
+		root.add list
+
+		expect:
+		itemsFor( '<y>' )*.text == [ '<x>', '<y>' ]
+	}
+
+	static class BracketRenderer extends DefaultTableCellRenderer {
+		@Override
+		protected void setValue( Object value ) {
+			text = "[$value]"
+		}
+	}
+
+}
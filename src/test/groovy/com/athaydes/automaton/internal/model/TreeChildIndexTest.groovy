@@ -0,0 +1,197 @@
+package com.athaydes.automaton.internal.model
+
+import com.athaydes.automaton.FakeComponent
+import com.athaydes.automaton.SwingUtil
+import com.athaydes.internal.model.TreeChildIndex
+import spock.lang.Specification
+
+import javax.swing.JTree
+import javax.swing.event.TreeModelListener
+import javax.swing.tree.DefaultMutableTreeNode
+import javax.swing.tree.DefaultTreeModel
+import javax.swing.tree.TreeModel
+import javax.swing.tree.TreeNode
+import javax.swing.tree.TreePath
+
+class TreeChildIndexTest extends Specification {
+
+	def root = new DefaultMutableTreeNode( 'root' )
+	def model = new CountingTreeModel( root )
+	def tree = new JTree( model )
+
+	def setup() {
+		( 0..<3 ).each { int i ->
+			def child = new DefaultMutableTreeNode( "n$i" )
+			( 0..<100 ).each { int j -> child.add( new DefaultMutableTreeNode( "n$i-$j" ) ) }
+			root.add( child )
+		}
+	}
+
+	def "Nodes are found by visiting only the children of the nodes in the path"() {
+		when:
+		model.childrenRequested = 0
+		def nodes = SwingUtil.collectNodes( tree, 'n2', 'n2-99' )
+
+		then:
+		nodes*.realObject*.toString() == [ 'n2', 'n2-99' ]
+		model.childrenRequested == 3 + 100
+
+		and:
+		SwingUtil.collectNodes( tree, 'n2', 'n1-99' ).empty
+		SwingUtil.collectNodes( tree, 'n2', 'n2-99', 'n2-99-0' ).empty
+	}
+
+	def "Nodes of models which do not use TreeNodes are found and located"() {
+		given: 'a model whose nodes are Strings, the children of each node being loaded when requested'
+		def lazyModel = new LazyStringTreeModel()
+		def lazyTree = new JTree( lazyModel )
+
+		when:
+		def nodes = SwingUtil.collectNodes( lazyTree, 'root/1', 'root/1/2' )
+
+		then:
+		nodes*.realObject == [ 'root/1', 'root/1/2' ]
+		lazyModel.loaded == [ 'root', 'root/1' ]
+
+		when: 'the nodes are shown'
+		lazyTree.expandPath( new TreePath( [ 'root', 'root/1' ] as Object[] ) )
+
+		then:
+		nodes.every { ( it as FakeComponent ).item.boundsInParent != null }
+	}
+
+	def "The children of expanded nodes are indexed until the model changes them"() {
+		given:
+		def index = TreeChildIndex.of( tree )
+		def rootPath = new TreePath( root )
+		def n0Path = rootPath.pathByAddingChild( root.getChildAt( 0 ) )
+		tree.expandPath( n0Path )
+
+		when:
+		index.childWithLabel( n0Path, 'n0-50' )
+		model.childrenRequested = 0
+		def found = index.childWithLabel( n0Path, 'n0-99' )
+
+		then:
+		found as String == 'n0-99'
+		model.childrenRequested == 0
+
+		when:
+		def n0 = root.getChildAt( 0 ) as DefaultMutableTreeNode
+		model.insertNodeInto( new DefaultMutableTreeNode( 'new' ), n0, 0 )
+		model.removeNodeFromParent( n0.getChildAt( 100 ) as DefaultMutableTreeNode )
+
+		then:
+		index.childWithLabel( n0Path, 'new' ) as String == 'new'
+		index.childWithLabel( n0Path, 'n0-99' ) == null
+
+		when:
+		( n0.getChildAt( 0 ) as DefaultMutableTreeNode ).userObject = 'renamed'
+		model.nodeChanged( n0.getChildAt( 0 ) )
+
+		then:
+		index.childWithLabel( n0Path, 'renamed' ) != null
+		index.childWithLabel( n0Path, 'new' ) == null
+		TreeChildIndex.of( tree ).is( index )
+	}
+
+	def "The entries of removed nodes and their descendants are discarded"() {
+		given:
+		def index = TreeChildIndex.of( tree )
+		def rootPath = new TreePath( root )
+		def n0 = root.getChildAt( 0 ) as DefaultMutableTreeNode
+		def n00 = n0.getChildAt( 0 ) as DefaultMutableTreeNode
+		n00.add( new DefaultMutableTreeNode( 'leaf' ) )
+		def n0Path = rootPath.pathByAddingChild( n0 )
+		def n00Path = n0Path.pathByAddingChild( n00 )
+		tree.expandPath( n00Path )
+		def n1Path = rootPath.pathByAddingChild( root.getChildAt( 1 ) )
+		tree.expandPath( n1Path )
+
+		and: 'the root, n0, n0-0 and n1 are indexed'
+		[ rootPath, n0Path, n00Path, n1Path ].each { index.childWithLabel( it, 'any' ) }
+		assert index.childrenByLabel.size() == 4
+
+		when:
+		model.removeNodeFromParent( n0 )
+
+		then: 'only the entry of n1 is kept'
+		index.childrenByLabel.keySet().toList() == [ root.getChildAt( 0 ) ]
+	}
+
+	def "The children of collapsed nodes are looked up in the model every time"() {
+		given:
+		def index = TreeChildIndex.of( tree )
+		def n1Path = new TreePath( root ).pathByAddingChild( root.getChildAt( 1 ) )
+
+		when:
+		index.childWithLabel( n1Path, 'n1-1' )
+		model.childrenRequested = 0
+		def found = index.childWithLabel( n1Path, 'n1-1' )
+
+		then:
+		found as String == 'n1-1'
+		model.childrenRequested == 2
+		!tree.isExpanded( n1Path )
+	}
+
+	def "A new index is used when the tree starts using another model"() {
+		given:
+		def index = TreeChildIndex.of( tree )
+
+		when:
+		tree.model = new DefaultTreeModel( new DefaultMutableTreeNode( 'other' ) )
+
+		then:
+		!TreeChildIndex.of( tree ).is( index )
+		TreeChildIndex.of( tree ).model.is( tree.model )
+	}
+
+	static class LazyStringTreeModel implements TreeModel {
+		final List<String> loaded = [ ]
+
+		@Override
+		Object getRoot() { 'root' }
+
+		@Override
+		Object getChild( Object parent, int index ) {
+			if ( !( parent in loaded ) ) loaded << ( parent as String )
+			"$parent/$index".toString()
+		}
+
+		@Override
+		int getChildCount( Object parent ) { 3 }
+
+		@Override
+		boolean isLeaf( Object node ) { false }
+
+		@Override
+		void valueForPathChanged( TreePath path, Object newValue ) {}
+
+		@Override
+		int getIndexOfChild( Object parent, Object child ) {
+			( child as String ).substring( ( child as String ).lastIndexOf( '/' ) + 1 ).toInteger()
+		}
+
+		@Override
+		void addTreeModelListener( TreeModelListener l ) {}
+
+		@Override
+		void removeTreeModelListener( TreeModelListener l ) {}
+	}
+
+	static class CountingTreeModel extends DefaultTreeModel {
+		int childrenRequested = 0
+
+		CountingTreeModel( TreeNode root ) {
+			super( root )
+		}
+
+		@Override
+		Object getChild( Object parent, int index ) {
+			childrenRequested++
+			super.getChild( parent, index )
+		}
+	}
+
+}
@@ -0,0 +1,151 @@
+package com.athaydes.automaton.internal.traversal
+
+import com.athaydes.automaton.SwingItem
+import com.athaydes.automaton.selector.SimpleSwingerSelector
+import com.athaydes.internal.traversal.ChainedIterator
+import com.athaydes.internal.traversal.FxNodeCursor
+import com.athaydes.internal.traversal.SwingItemCursor
+import javafx.scene.Group
+import javafx.scene.layout.HBox
+import javafx.scene.layout.VBox
+import javafx.scene.shape.Rectangle
+import spock.lang.Specification
+
+import javax.swing.JButton
+import javax.swing.JComboBox
+import javax.swing.JLabel
+import javax.swing.JPanel
+import javax.swing.JTable
+import javax.swing.JTree
+import javax.swing.table.DefaultTableModel
+import javax.swing.tree.DefaultMutableTreeNode
+import java.awt.Component
+
+/**
+ * @author Renato
+ */
+class CursorTest extends Specification {
+
+	def "SwingItemCursor visits Components breadth-first, with their items right after them"() {
+		given:
+		def root = new JPanel( name: 'root' )
+		def left = new JPanel( name: 'left' )
+		def treeRoot = new DefaultMutableTreeNode( 'tree-root' )
+		treeRoot.add new DefaultMutableTreeNode( 'node' )
+		left.add new JTree( treeRoot )
+		left.add new JLabel( name: 'label' )
+		root.add left
+		root.add new JComboBox( [ 'a', 'b' ] as Object[] )
+		root.add new JTable( [ [ 'r0c0', 'r0c1' ], [ 'r1c0', 'r1c1' ] ] as Object[][], [ 'A', 'B' ] as Object[] )
+
+		when:
+		def visited = new SwingItemCursor( root ).collect { it instanceof SwingItem ? it.text : it.class.simpleName }
+
+		then: 'the first items are the ones we added, the UI delegates of Swing Components come after them'
+		visited.subList( 0, 16 ) == [
+				'JPanel', 'JPanel', 'JComboBox', 'a', 'b', 'JTable', 'A', 'B', 'r0c0', 'r1c0', 'r0c1', 'r1c1',
+				'JTree', 'tree-root', 'node', 'JLabel' ]
+	}
+
+	def "SwingItemCursor only renders table cells as they are requested"() {
+		given:
+		def renderedValues = [ ]
+		def model = new DefaultTableModel( [ [ 'a', 'b' ], [ 'c', 'd' ] ] as Object[][], [ 'A', 'B' ] as Object[] ) {
+			@Override
+			Object getValueAt( int row, int column ) {
+				def value = super.getValueAt( row, column )
+				renderedValues << value
+				value
+			}
+		}
+		def root = new JPanel()
+		root.add new JTable( model )
+		root.add new JButton( 'after table' )
+
+		when:
+		def cursor = new SwingItemCursor( root )
+		def firstCell = cursor.find { it instanceof SwingItem && it.text == 'c' }
+
+		then:
+		firstCell != null
+		renderedValues == [ 'a', 'c' ]
+
+		when: 'the remaining items are visited without requesting their text'
+		def remaining = cursor.collect()
+
+		then: 'no more cells are rendered'
+		remaining.findAll { it instanceof SwingItem }.size() == 2
+		renderedValues == [ 'a', 'c' ]
+	}
+
+	def "FxNodeCursor visits Nodes breadth-first"() {
+		given:
+		def root = new VBox( id: 'root' )
+		def box = new HBox( id: 'box' )
+		box.children.addAll new Rectangle( id: 'r1' ), new Rectangle( id: 'r2' )
+		def group = new Group( id: 'group' )
+		group.children.add new Rectangle( id: 'r3' )
+		root.children.addAll box, group
+
+		expect:
+		new FxNodeCursor( root, false )*.id == [ 'root', 'box', 'group', 'r1', 'r2', 'r3' ]
+		new FxNodeCursor( group )*.id == [ 'group', 'r3' ]
+	}
+
+	def "Selectors only walk the tree as their results are consumed"() {
+		given:
+		def root = new JPanel()
+		10.times { root.add new JLabel( "label $it" ) }
+		def visited = [ ]
+		def selector = new SimpleSwingerSelector() {
+			@Override
+			boolean matches( String query, Component component ) {
+				visited << component
+				component instanceof JLabel
+			}
+		}
+
+		when:
+		def iterator = selector.iterate( 'query', root, 3 )
+
+		then:
+		visited.empty
+
+		when:
+		def first = iterator.next()
+
+		then:
+		first.text == 'label 0'
+		visited.size() == 2
+
+		when:
+		def rest = iterator.toList()
+
+		then: 'the walk stops at the limit'
+		rest*.text == [ 'label 1', 'label 2' ]
+		visited.size() == 4
+	}
+
+	def "ChainedIterator only obtains each Iterator when the previous ones are exhausted"() {
+		given:
+		def obtained = [ ]
+		def chained = new ChainedIterator( [
+				{ obtained << 'first'; [ 1, 2 ].iterator() },
+				{ obtained << 'second'; [ 3, 4 ].iterator() } ], 3 )
+
+		when:
+		def firstTwo = [ chained.next(), chained.next() ]
+
+		then:
+		firstTwo == [ 1, 2 ]
+		obtained == [ 'first' ]
+
+		when:
+		def rest = chained.toList()
+
+		then:
+		rest == [ 3 ]
+		obtained == [ 'first', 'second' ]
+	}
+
+}
@@ -0,0 +1,139 @@
+package com.athaydes.automaton.metrics
+
+import com.athaydes.automaton.Automaton
+import com.athaydes.automaton.GuiItemNotFound
+import com.athaydes.automaton.InputBackendTest
+import com.athaydes.automaton.Speed
+import com.athaydes.automaton.Swinger
+import spock.lang.Specification
+
+import javax.management.ObjectName
+import javax.swing.JButton
+import javax.swing.JLabel
+import javax.swing.JPanel
+import java.awt.Point
+import java.lang.management.ManagementFactory
+
+class ActionMetricsTest extends Specification {
+
+	ActionTrace originalTrace = ActionMetrics.trace
+
+	def setup() {
+		ActionMetrics.reset()
+	}
+
+	def cleanup() {
+		ActionMetrics.enabled = false
+		ActionMetrics.trace = originalTrace
+		ActionMetrics.reset()
+	}
+
+	def "Nothing is recorded while metrics and the trace are disabled"() {
+		given:
+		ActionMetrics.enabled = false
+		ActionMetrics.trace = null
+		def automaton = new Automaton<Automaton>().withInput( new InputBackendTest.RecordingBackend() )
+
+		when:
+		def record = ActionMetrics.begin( 'test' )
+		automaton.moveTo( 2, 2, Speed.VERY_FAST ).click()
+
+		then:
+		record == null
+		ActionMetrics.stats.isEmpty()
+	}
+
+	def "Driver actions are recorded, including the time they spent waiting"() {
+		given:
+		ActionMetrics.enabled = true
+		def automaton = new Automaton<Automaton>().withInput( new InputBackendTest.RecordingBackend() )
+
+		when:
+		automaton.moveTo( 2, 2, Speed.VERY_FAST ).click().click().pause( 20 )
+		def stats = ActionMetrics.stats
+
+		then:
+		stats.keySet() == [ 'Automaton.click', 'Automaton.move', 'Automaton.pause' ] as Set
+		stats[ 'Automaton.click' ].count == 2
+		stats[ 'Automaton.move' ].count == 1
+		stats[ 'Automaton.pause' ].count == 1
+		stats[ 'Automaton.pause' ].waitMillis >= 20
+		stats[ 'Automaton.pause' ].histogram.sum() == 1
+	}
+
+	def "Lookups record the selector, the number of GUI items visited and the number of items found"() {
+		given:
+		ActionMetrics.enabled = true
+		def panel = new JPanel()
+		panel.add( new JLabel( 'a' ) )
+		panel.add( new JButton( 'b' ) )
+		panel.add( new JButton( 'c' ) )
+		def swinger = Swinger.getUserWith( panel )
+
+		and:
+		def records = [ ]
+		def listener = { ActionRecord record -> records << record } as ActionRecordListener
+		ActionMetrics.addListener( listener )
+
+		when:
+		def buttons = swinger.getAll( 'type:JButton' )
+
+		then:
+		buttons.size() == 2
+		records.size() == 1
+		records[ 0 ].action == 'Swinger.getAll'
+		records[ 0 ].selector == 'type:JButton'
+		records[ 0 ].resultCount == 2
+		records[ 0 ].nodesVisited == 4
+		ActionMetrics.stats[ 'Swinger.getAll' ].results == 2
+
+		cleanup:
+		ActionMetrics.removeListener( listener )
+	}
+
+	def "The trace keeps the latest actions, with their targets, coordinates and errors"() {
+		given:
+		def trace = new ActionTrace( 3 )
+		ActionMetrics.trace = trace
+		def panel = new JPanel()
+		def button = new JButton( 'b' )
+		button.name = 'ok'
+		panel.add( button )
+		def swinger = Swinger.getUserWith( panel ).withInput( new InputBackendTest.RecordingBackend() )
+
+		when:
+		swinger.moveTo( 1, 1, Speed.VERY_FAST ).moveTo( 5, 7, Speed.VERY_FAST )
+		swinger[ 'text:b' ]
+		swinger[ 'text:none' ]
+
+		then:
+		thrown GuiItemNotFound
+		!ActionMetrics.stats
+
+		when:
+		def lines = new StringBuilder()
+		trace.dump( lines )
+		def entries = trace.entries()
+
+		then:
+		entries*.action == [ 'Automaton.move', 'Swinger.getAt', 'Swinger.getAt' ]
+		entries[ 0 ].location == new Point( 5, 7 )
+		entries[ 1 ].target == 'JButton[ok]'
+		entries[ 1 ].resultCount == 1
+		entries[ 2 ].error.contains( 'GuiItemNotFound' )
+		entries.every { it.thread == Thread.currentThread().name }
+		lines.readLines().size() == 3
+		lines.readLines()[ 0 ].startsWith( '{"seq":1,' )
+		lines.readLines()[ 0 ].contains( ',"x":5,"y":7,' )
+		lines.readLines()[ 1 ].contains( ',"action":"Swinger.getAt","selector":"text:b","target":"JButton[ok]",' )
+	}
+
+	def "The statistics are exposed through JMX once metrics are enabled"() {
+		when:
+		ActionMetrics.enabled = true
+
+		then:
+		ManagementFactory.platformMBeanServer.isRegistered( new ObjectName( ActionMetrics.OBJECT_NAME ) )
+	}
+
+}
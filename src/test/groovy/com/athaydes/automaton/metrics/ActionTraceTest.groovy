@@ -0,0 +1,48 @@
+package com.athaydes.automaton.metrics
+
+import spock.lang.Specification
+
+class ActionTraceTest extends Specification {
+
+	def "The trace only keeps the latest actions, oldest first"() {
+		given:
+		def trace = new ActionTrace( 3 )
+
+		when:
+		( 1..5 ).each { trace.add( ended( "action$it" ) ) }
+
+		then:
+		trace.entries()*.action == [ 'action3', 'action4', 'action5' ]
+	}
+
+	def "Only the actions added after a mark are dumped"() {
+		given:
+		def trace = new ActionTrace( 10 )
+		trace.add( ended( 'before' ) )
+		def mark = trace.mark()
+		trace.add( ended( 'after' ) )
+		def output = new StringBuilder()
+
+		when:
+		def count = trace.dump( output, mark )
+
+		then:
+		count == 1
+		output.toString() ==~ /\{"seq":1,"time":\d+,"thread":"[^"]+","action":"after","ms":\d+\.\d{3}}\n/
+	}
+
+	def "Strings are escaped in the JSON lines"() {
+		given:
+		def record = ended( 'click', 'text:say "hi"\\\n' )
+
+		expect:
+		ActionTrace.toJson( 0, record ).contains( '"selector":"text:say \\"hi\\"\\\\\\u000a"' )
+	}
+
+	private static ActionRecord ended( String action, String selector = null ) {
+		def record = new ActionRecord( action, selector )
+		record.end()
+		record
+	}
+
+}
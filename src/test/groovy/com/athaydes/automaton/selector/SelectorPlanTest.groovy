@@ -0,0 +1,90 @@
+package com.athaydes.automaton.selector
+
+import com.athaydes.automaton.Swinger
+import spock.lang.Specification
+
+import javax.swing.JButton
+import javax.swing.JLabel
+import javax.swing.JPanel
+import java.awt.Component
+
+import static com.athaydes.automaton.selector.StringSelectors.matchingAll
+import static com.athaydes.automaton.selector.StringSelectors.matchingAny
+
+/**
+ * @author Renato
+ */
+class SelectorPlanTest extends Specification {
+
+	def checked = [ ]
+
+	SimpleSwingerSelector recording( String name, int cost, boolean result ) {
+		def checked = this.checked
+		new SimpleSwingerSelector() {
+			@Override
+			boolean matches( String query, Component component ) {
+				checked << name
+				result
+			}
+
+			@Override
+			int getMatchCost() { cost }
+		}
+	}
+
+	def "Cheapest selectors are checked first, and checking stops as soon as the result is known"() {
+		given:
+		def text = recording( 'text', SelectorPlan.TEXT_COST, textMatches )
+		def type = recording( 'type', SelectorPlan.TYPE_COST, typeMatches )
+		def custom = recording( 'custom', SelectorPlan.CUSTOM_COST, true )
+		def plan = new SelectorPlan<Component>( matchType,
+				[ new MapEntry( custom, 'c' ), new MapEntry( text, 't' ), new MapEntry( type, 'T' ) ] )
+
+		when:
+		def result = plan.matches( new JLabel() )
+
+		then:
+		result == expectedResult
+		checked == expectedChecks
+		plan.queries == [ 'T', 't', 'c' ]
+
+		where:
+		matchType     | typeMatches | textMatches | expectedResult | expectedChecks
+		MatchType.ALL | false       | true        | false          | [ 'type' ]
+		MatchType.ALL | true        | false       | false          | [ 'type', 'text' ]
+		MatchType.ALL | true        | true        | true           | [ 'type', 'text', 'custom' ]
+		MatchType.ANY | true        | false       | true           | [ 'type' ]
+		MatchType.ANY | false       | true        | true           | [ 'type', 'text' ]
+		MatchType.ANY | false       | false       | true           | [ 'type', 'text', 'custom' ]
+	}
+
+	def "Drivers compile each ComplexSelector only once"() {
+		given:
+		def root = new JPanel()
+		def button = new JButton( name: 'btn', text: 'Click' )
+		root.add new JLabel( name: 'lbl', text: 'Click' )
+		root.add button
+		def swinger = Swinger.getUserWith( root )
+
+		when:
+		def first = swinger.getAll( matchingAll( 'type:JButton', 'text:Click' ) )
+		def compiled = swinger.selectorCache.getCompiled( matchingAll( 'type:JButton', 'text:Click' ) )
+		def second = swinger.getAll( matchingAll( 'type:JButton', 'text:Click' ) )
+
+		then:
+		first == [ button ]
+		second == [ button ]
+		compiled instanceof IntersectSwingerSelector
+		swinger.selectorCache.getCompiled( matchingAll( 'type:JButton', 'text:Click' ) ).is( compiled )
+		swinger.selectorCache.getCompiled( matchingAny( 'type:JButton', 'text:Click' ) ) == null
+
+		when: 'the selectors are changed'
+		def cache = swinger.selectorCache
+		swinger.selectors = [ 'type:': SwingerSelectors.byType() ]
+
+		then: 'the compiled selectors are discarded'
+		!swinger.selectorCache.is( cache )
+		swinger.ensurePrefixed( 'JButton' ) == [ 'type:', 'JButton' ]
+	}
+
+}